@@ -0,0 +1,306 @@
+package com.boxpro.cache;
+
+import com.boxpro.multiempresa.BancosEmpresa;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.lang.management.ManagementFactory;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Barramento de invalidação entre nós sobre a tabela cache_invalidacao.
+ *
+ * Quem altera um dado com cache local chama registrar(); as invalidações da
+ * transação são gravadas juntas no beforeCommit, então só ficam visíveis se
+ * a escrita for confirmada. Cada nó lê periodicamente os ids acima do último
+ * processado (consulta pela chave primária) e repassa aos OuvinteInvalidacao.
+ *
+ * Ids de transações ainda abertas podem aparecer depois de ids maiores; essas
+ * lacunas são consultadas de novo até app.cache.invalidacao.margem-lacuna-ms.
+ * Se o nó passar de app.cache.invalidacao.defasagem-maxima-ms sem conseguir
+ * ler, todos os caches locais são descartados, o que limita a defasagem
+ * mesmo com o banco instável.
+ *
+ * Com roteamento de datasource cada banco tem a sua tabela, lida com
+ * posição e lacunas próprias.
+ */
+@Service
+public class InvalidacaoCacheService {
+
+    private static final Logger logger = LoggerFactory.getLogger(InvalidacaoCacheService.class);
+
+    private static final String INSERT =
+            "INSERT INTO cache_invalidacao (entidade, empresa_id, chave, no_origem, criado_em) VALUES (?, ?, ?, ?, ?)";
+
+    private static final String COLUNAS = "SELECT id, entidade, empresa_id, chave, no_origem, criado_em FROM cache_invalidacao ";
+
+    // Saltos maiores que isso (auto_increment após restart, rollback em massa) não viram lacunas
+    private static final int MAX_LACUNAS = 1000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    @Autowired
+    private ObjectProvider<OuvinteInvalidacao> ouvintes;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private BancosEmpresa bancos;
+
+    @Value("${app.cache.invalidacao.habilitado:true}")
+    private boolean habilitado;
+
+    @Value("${app.cache.invalidacao.tamanho-lote:500}")
+    private int tamanhoLote;
+
+    @Value("${app.cache.invalidacao.margem-lacuna-ms:10000}")
+    private long margemLacunaMs;
+
+    @Value("${app.cache.invalidacao.defasagem-maxima-ms:30000}")
+    private long defasagemMaximaMs;
+
+    @Value("${app.cache.invalidacao.retencao-minutos:60}")
+    private int retencaoMinutos;
+
+    // Identifica este nó; as próprias invalidações já foram aplicadas localmente
+    private final String no = ManagementFactory.getRuntimeMXBean().getName() + "-" +
+            UUID.randomUUID().toString().substring(0, 8);
+
+    // Por banco; preenchido em iniciar()
+    private final Map<Long, Leitura> leituras = new LinkedHashMap<>();
+    private volatile long ultimaLeituraMs = System.currentTimeMillis();
+
+    private Timer atraso;
+
+    @PostConstruct
+    public void registrarMetricas() {
+        atraso = Timer.builder("boxpro.cache.invalidacao.atraso")
+                .description("Tempo entre o commit no nó de origem e a invalidação local")
+                .register(meterRegistry);
+        Gauge.builder("boxpro.cache.invalidacao.defasagem", this, s -> System.currentTimeMillis() - s.ultimaLeituraMs)
+                .description("Milissegundos desde a última leitura bem-sucedida")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Começa a ler a partir do fim da tabela: na inicialização os caches
+     * locais estão vazios.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void iniciar() {
+        if (!habilitado) {
+            return;
+        }
+        bancos.paraCadaBanco(banco -> {
+            Long maximo = jdbcTemplate.queryForObject("SELECT MAX(id) FROM cache_invalidacao", Long.class);
+            leituras.put(banco, new Leitura(maximo != null ? maximo : 0));
+            logger.info("🔄 Invalidação de cache entre nós ativa (nó {}, banco {}, a partir do id {})",
+                    no, BancosEmpresa.nome(banco), maximo != null ? maximo : 0);
+        });
+        ultimaLeituraMs = System.currentTimeMillis();
+    }
+
+    /**
+     * Registra a alteração para os outros nós. Dentro de uma transação a
+     * gravação acontece no beforeCommit, uma vez por (entidade, empresa, chave).
+     */
+    public void registrar(String entidade, Long empresaId, Object chave) {
+        if (!habilitado) {
+            return;
+        }
+        Invalidacao invalidacao = new Invalidacao(entidade, empresaId, chave != null ? String.valueOf(chave) : null);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            lotePendente().invalidacoes.add(invalidacao);
+        } else {
+            gravar(List.of(invalidacao));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.cache.invalidacao.intervalo-ms:1000}")
+    public synchronized void ler() {
+        if (!habilitado || leituras.isEmpty()) {
+            return;
+        }
+        long agora = System.currentTimeMillis();
+        boolean falhou = false;
+        for (Map.Entry<Long, Leitura> entrada : leituras.entrySet()) {
+            try {
+                bancos.noBanco(entrada.getKey(), () -> {
+                    lerBanco(entrada.getValue(), agora);
+                    return null;
+                });
+            } catch (DataAccessException e) {
+                logger.warn("Falha ao ler invalidações de cache do banco {}: {}",
+                        BancosEmpresa.nome(entrada.getKey()), e.getMessage());
+                falhou = true;
+            }
+        }
+        if (!falhou) {
+            ultimaLeituraMs = agora;
+        } else if (agora - ultimaLeituraMs > defasagemMaximaMs) {
+            logger.warn("⚠️ Sem ler invalidações há {} ms; descartando caches locais", agora - ultimaLeituraMs);
+            ouvintes.orderedStream().forEach(o -> {
+                try {
+                    o.invalidarTudo();
+                } catch (RuntimeException erro) {
+                    logger.warn("Falha ao descartar cache de {}: {}", o.getClass().getSimpleName(), erro.getMessage());
+                }
+            });
+        }
+    }
+
+    @Scheduled(cron = "${app.cache.invalidacao.limpeza-cron:0 */10 * * * *}")
+    public void limpar() {
+        if (!habilitado) {
+            return;
+        }
+        Timestamp limite = Timestamp.valueOf(LocalDateTime.now().minusMinutes(retencaoMinutos));
+        bancos.paraCadaBanco(banco -> {
+            int removidas;
+            do {
+                removidas = jdbcTemplate.update("DELETE FROM cache_invalidacao WHERE criado_em < ? LIMIT ?", limite, tamanhoLote);
+            } while (removidas == tamanhoLote);
+        });
+    }
+
+    // Chamado com o contexto apontando para o banco da leitura
+    private void lerBanco(Leitura leitura, long agora) {
+        List<Linha> novas = jdbcTemplate.query(COLUNAS + "WHERE id > ? ORDER BY id LIMIT ?",
+                LINHA_MAPPER, leitura.ultimoLido, tamanhoLote);
+        for (Linha linha : novas) {
+            if (linha.id() > leitura.ultimoLido + 1 && linha.id() - leitura.ultimoLido - 1 <= MAX_LACUNAS) {
+                for (long id = leitura.ultimoLido + 1; id < linha.id(); id++) {
+                    leitura.lacunas.put(id, agora);
+                }
+            }
+            leitura.ultimoLido = linha.id();
+            aplicar(linha, agora);
+        }
+        relerLacunas(leitura.lacunas, agora);
+    }
+
+    private void relerLacunas(Map<Long, Long> lacunas, long agora) {
+        if (lacunas.isEmpty()) {
+            return;
+        }
+        lacunas.values().removeIf(desde -> agora - desde > margemLacunaMs);
+        if (lacunas.isEmpty()) {
+            return;
+        }
+        List<Linha> encontradas = namedJdbcTemplate.query(COLUNAS + "WHERE id IN (:ids)",
+                new MapSqlParameterSource("ids", lacunas.keySet()), LINHA_MAPPER);
+        for (Linha linha : encontradas) {
+            lacunas.remove(linha.id());
+            aplicar(linha, agora);
+        }
+    }
+
+    private void aplicar(Linha linha, long agora) {
+        if (no.equals(linha.noOrigem())) {
+            return;
+        }
+        ouvintes.orderedStream().forEach(o -> {
+            try {
+                o.invalidar(linha.entidade(), linha.empresaId(), linha.chave());
+            } catch (RuntimeException e) {
+                logger.warn("Falha ao invalidar {} em {}: {}", linha.entidade(), o.getClass().getSimpleName(), e.getMessage());
+            }
+        });
+        atraso.record(Math.max(0, agora - linha.criadoEmMs()), TimeUnit.MILLISECONDS);
+    }
+
+    private void gravar(List<Invalidacao> invalidacoes) {
+        Timestamp agora = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(INSERT, invalidacoes, invalidacoes.size(), (ps, i) -> {
+            ps.setString(1, i.entidade());
+            ps.setObject(2, i.empresaId(), Types.BIGINT);
+            ps.setString(3, i.chave());
+            ps.setString(4, no);
+            ps.setTimestamp(5, agora);
+        });
+    }
+
+    // A sincronização da transação corrente guarda o lote; transações suspensas têm o seu
+    private LotePendente lotePendente() {
+        for (TransactionSynchronization sincronizacao : TransactionSynchronizationManager.getSynchronizations()) {
+            if (sincronizacao instanceof LotePendente lote && lote.dono() == this) {
+                return lote;
+            }
+        }
+        LotePendente lote = new LotePendente();
+        TransactionSynchronizationManager.registerSynchronization(lote);
+        return lote;
+    }
+
+    private final class LotePendente implements TransactionSynchronization {
+        final Set<Invalidacao> invalidacoes = new LinkedHashSet<>();
+
+        InvalidacaoCacheService dono() {
+            return InvalidacaoCacheService.this;
+        }
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            if (!invalidacoes.isEmpty()) {
+                gravar(new ArrayList<>(invalidacoes));
+            }
+        }
+    }
+
+    private static final class Leitura {
+        long ultimoLido;
+        final Map<Long, Long> lacunas = new HashMap<>();
+
+        Leitura(long ultimoLido) {
+            this.ultimoLido = ultimoLido;
+        }
+    }
+
+    private record Invalidacao(String entidade, Long empresaId, String chave) {}
+
+    private record Linha(long id, String entidade, Long empresaId, String chave, String noOrigem, long criadoEmMs) {}
+
+    private static final RowMapper<Linha> LINHA_MAPPER = (rs, rowNum) -> new Linha(
+            rs.getLong("id"),
+            rs.getString("entidade"),
+            rs.getObject("empresa_id", Long.class),
+            rs.getString("chave"),
+            rs.getString("no_origem"),
+            rs.getTimestamp("criado_em").toLocalDateTime().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+}
@@ -0,0 +1,19 @@
+package com.boxpro.cache;
+
+/**
+ * Dono de um cache local que precisa saber de alterações feitas em outros
+ * nós. Chamado pela thread de leitura de InvalidacaoCacheService.
+ */
+public interface OuvinteInvalidacao {
+
+    /**
+     * empresaId e chave podem ser null (coleção inteira / fora do modo multiempresa).
+     */
+    void invalidar(String entidade, Long empresaId, String chave);
+
+    /**
+     * Descarta tudo; usado quando o nó ficou sem ler as invalidações por
+     * mais tempo que a defasagem máxima.
+     */
+    void invalidarTudo();
+}
@@ -0,0 +1,20 @@
+package com.boxpro.cache;
+
+import org.springframework.http.CacheControl;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Monta o cabeçalho Cache-Control a partir do max-age configurado em cada controller.
+ */
+public final class PoliticaCache {
+
+    private PoliticaCache() {}
+
+    public static CacheControl maxAge(long segundos) {
+        if (segundos <= 0) {
+            return CacheControl.noCache();
+        }
+        return CacheControl.maxAge(segundos, TimeUnit.SECONDS).cachePublic().mustRevalidate();
+    }
+}
@@ -0,0 +1,160 @@
+package com.boxpro.cache;
+
+import com.boxpro.multiempresa.BancosEmpresa;
+import com.boxpro.multiempresa.EmpresaContexto;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Versões por coleção, usadas para gerar ETags fortes. A versão fica na
+ * tabela versao_colecao e é incrementada na transação da escrita, então é a
+ * mesma em todos os nós e sobrevive a reinícios: um If-None-Match emitido por
+ * uma réplica vale em qualquer outra.
+ *
+ * Cada nó guarda as versões lidas em memória, e a leitura compara o ETag
+ * recebido com elas antes de qualquer query. A escrita local descarta a
+ * versão guardada após o commit; as dos outros nós chegam pelo
+ * InvalidacaoCacheService, com a mesma defasagem dos demais caches locais.
+ *
+ * No modo multiempresa as versões são separadas por empresa (exceto
+ * categorias, que são compartilhadas) e a empresa entra no ETag, de modo que
+ * a escrita de uma loja não invalida o cache das outras.
+ */
+@Component
+public class VersaoColecoes implements OuvinteInvalidacao {
+
+    public static final String SERVICOS = "servicos";
+    public static final String CATEGORIAS = "categorias";
+    public static final String EMPRESA = "empresa";
+    public static final String EMPRESA_HORARIOS = "empresa-horarios";
+    public static final String EMPRESA_CONTATOS = "empresa-contatos";
+
+    private static final Set<String> COLECOES = Set.of(SERVICOS, CATEGORIAS, EMPRESA, EMPRESA_HORARIOS, EMPRESA_CONTATOS);
+
+    private static final String INCREMENTAR =
+            "INSERT INTO versao_colecao (chave, versao) VALUES (?, 1) ON DUPLICATE KEY UPDATE versao = versao + 1";
+
+    @Autowired
+    private InvalidacaoCacheService invalidacaoCache;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private BancosEmpresa bancos;
+
+    // Versões lidas do banco, por banco do roteamento e chave da coleção
+    private final ConcurrentHashMap<ChaveVersao, Long> versoes = new ConcurrentHashMap<>();
+
+    // Muda a cada descarte; leituras iniciadas antes não guardam o valor lido
+    private final AtomicLong geracao = new AtomicLong();
+
+    public long versao(String colecao) {
+        ChaveVersao chave = new ChaveVersao(bancos.bancoAtual(), chave(colecao, EmpresaContexto.atual()));
+        Long versao = versoes.get(chave);
+        if (versao != null) {
+            return versao;
+        }
+        long antes = geracao.get();
+        List<Long> lida = jdbcTemplate.queryForList(
+                "SELECT versao FROM versao_colecao WHERE chave = ?", Long.class, chave.colecao());
+        versao = lida.isEmpty() ? 0L : lida.get(0);
+        if (geracao.get() == antes) {
+            versoes.put(chave, versao);
+        }
+        return versao;
+    }
+
+    @Override
+    public void invalidar(String entidade, Long empresaId, String chave) {
+        if (COLECOES.contains(entidade)) {
+            descartar(chave(entidade, empresaId));
+        }
+    }
+
+    @Override
+    public void invalidarTudo() {
+        geracao.incrementAndGet();
+        versoes.clear();
+    }
+
+    /**
+     * Registra uma alteração na coleção. O incremento participa da transação
+     * corrente; a versão guardada em memória só é descartada após o commit,
+     * para que nenhum leitor associe dados antigos à nova versão.
+     */
+    public void incrementar(String colecao) {
+        Long empresaId = EmpresaContexto.atual();
+        String chave = chave(colecao, empresaId);
+        jdbcTemplate.update(INCREMENTAR, chave);
+        invalidacaoCache.registrar(colecao, empresaId, null);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    descartar(chave);
+                }
+            });
+        } else {
+            descartar(chave);
+        }
+    }
+
+    /**
+     * Monta o ETag da coleção. As chaves extras (id da empresa, página, ordenação)
+     * diferenciam representações distintas da mesma coleção.
+     */
+    public String etag(String colecao, Object... chaves) {
+        StringBuilder etag = new StringBuilder("\"")
+                .append(colecao).append('-')
+                .append(empresa(colecao, EmpresaContexto.atual()))
+                .append(versao(colecao));
+        for (Object chave : chaves) {
+            // Chaves vêm de parâmetros da requisição; só caracteres seguros entram no ETag
+            etag.append('-').append(String.valueOf(chave).replaceAll("[^A-Za-z0-9_.]", "_"));
+        }
+        return etag.append('"').toString();
+    }
+
+    /**
+     * ETag de uma representação que combina várias coleções: muda quando
+     * qualquer uma delas muda.
+     */
+    public String etagComposto(String nome, String... colecoes) {
+        StringBuilder etag = new StringBuilder("\"")
+                .append(nome);
+        Long empresaId = EmpresaContexto.atual();
+        if (empresaId != null) {
+            etag.append("-e").append(empresaId);
+        }
+        for (String colecao : colecoes) {
+            etag.append('-').append(versao(colecao));
+        }
+        return etag.append('"').toString();
+    }
+
+    private static String chave(String colecao, Long empresaId) {
+        return colecao + empresa(colecao, empresaId);
+    }
+
+    // Sufixo da empresa para coleções separadas por empresa; vazio fora do modo multiempresa
+    private static String empresa(String colecao, Long empresaId) {
+        return empresaId == null || CATEGORIAS.equals(colecao) ? "" : "e" + empresaId + "-";
+    }
+
+    // O aviso de invalidação não diz o banco; a chave da coleção basta
+    private void descartar(String chave) {
+        geracao.incrementAndGet();
+        versoes.keySet().removeIf(v -> v.colecao().equals(chave));
+    }
+
+    private record ChaveVersao(long banco, String colecao) {}
+}
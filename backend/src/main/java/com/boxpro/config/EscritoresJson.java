@@ -0,0 +1,34 @@
+package com.boxpro.config;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cache de ObjectWriter por tipo, para trechos que serializam JSON fora dos
+ * conversores do Spring MVC (snapshots pré-serializados, eventos, exportações).
+ */
+@Component
+public class EscritoresJson {
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final ConcurrentHashMap<Class<?>, ObjectWriter> escritores = new ConcurrentHashMap<>();
+
+    public ObjectWriter para(Class<?> tipo) {
+        return escritores.computeIfAbsent(tipo, t -> objectMapper.writerFor(t));
+    }
+
+    public byte[] serializar(Object valor) {
+        try {
+            return para(valor.getClass()).writeValueAsBytes(valor);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Falha ao serializar " + valor.getClass().getSimpleName(), e);
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.boxpro.config;
+
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class JacksonConfig {
+
+    /**
+     * Substitui a reflexão do Jackson por acessores gerados via LambdaMetafactory.
+     * O Spring Boot registra automaticamente todo bean Module no ObjectMapper.
+     */
+    @Bean
+    public Module blackbirdModule() {
+        return new BlackbirdModule();
+    }
+}
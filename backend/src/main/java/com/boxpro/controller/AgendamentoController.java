@@ -1,20 +1,43 @@
 package com.boxpro.controller;
 
+import com.boxpro.dto.request.AgendamentoLoteRequest;
+import com.boxpro.dto.request.CotacaoRequest;
+import com.boxpro.dto.request.StatusLoteRequest;
+import com.boxpro.dto.response.AgendamentoLoteResponse;
+import com.boxpro.dto.response.AgendamentoMensagemResponse;
+import com.boxpro.dto.response.AgendamentoStatsResponse;
+import com.boxpro.dto.response.ControllerStatusResponse;
+import com.boxpro.dto.response.CotacaoResponse;
+import com.boxpro.dto.response.ErroResponse;
+import com.boxpro.dto.response.MensagemResponse;
+import com.boxpro.dto.response.StatusLoteResponse;
 import com.boxpro.entity.Agendamento;
+import com.boxpro.entity.enums.StatusAgendamento;
+import com.boxpro.exception.AgendaOcupadaException;
+import com.boxpro.exception.ResourceNotFoundException;
+import com.boxpro.projecao.Projecao;
+import com.boxpro.projecao.ProjecaoService;
+import com.boxpro.service.AgendamentoLoteService;
 import com.boxpro.service.AgendamentoService;
+import com.boxpro.service.AgendamentoStatusLoteService;
+import com.boxpro.service.AgendamentoStreamService;
+import com.boxpro.service.CotacaoService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import jakarta.validation.Valid;
 import java.time.LocalDate;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -27,40 +50,63 @@ public class AgendamentoController {
     @Autowired
     private AgendamentoService agendamentoService;
 
+    @Autowired
+    private AgendamentoStreamService streamService;
+
+    @Autowired
+    private AgendamentoLoteService loteService;
+
+    @Autowired
+    private AgendamentoStatusLoteService statusLoteService;
+
+    @Autowired
+    private ProjecaoService projecaoService;
+
+    @Autowired
+    private CotacaoService cotacaoService;
+
     // ===== ENDPOINTS PÚBLICOS =====
 
     @GetMapping("/status")
-    public ResponseEntity<Map<String, Object>> status() {
-        Map<String, Object> response = new HashMap<>();
-        response.put("message", "✅ AgendamentoController funcionando!");
-        response.put("timestamp", System.currentTimeMillis());
-        response.put("endpoints", List.of(
+    public ResponseEntity<ControllerStatusResponse> status() {
+        return ResponseEntity.ok(new ControllerStatusResponse(
+            "✅ AgendamentoController funcionando!",
+            System.currentTimeMillis(),
+            List.of(
             "GET /api/agendamentos - Listar com paginação",
             "GET /api/agendamentos/todos - Listar todos",
             "GET /api/agendamentos/{id} - Buscar por ID",
             "POST /api/agendamentos - Criar agendamento",
+            "POST /api/agendamentos/lote - Criar vários agendamentos (frota)",
             "PUT /api/agendamentos/{id} - Atualizar agendamento",
-            "DELETE /api/agendamentos/{id} - Deletar agendamento"
-        ));
-        return ResponseEntity.ok(response);
+            "DELETE /api/agendamentos/{id} - Deletar agendamento",
+            "PUT /api/agendamentos/status/lote - Mudar status de vários agendamentos",
+            "GET /api/agendamentos/stream?data= - Eventos em tempo real (SSE)"
+        )));
     }
 
     // ===== CRUD BÁSICO =====
 
-    // Endpoint paginado para a lista principal
+    // Endpoint paginado para a lista principal (?fields=id,dataAgendamento,status para só essas colunas)
     @GetMapping
-    public ResponseEntity<Page<Agendamento>> listarAgendamentos(
+    public ResponseEntity<?> listarAgendamentos(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(defaultValue = "dataAgendamento") String sortBy,
-            @RequestParam(defaultValue = "desc") String sortDir) {
+            @RequestParam(defaultValue = "desc") String sortDir,
+            @RequestParam(required = false) String fields) {
         try {
             Sort.Direction direction = sortDir.equalsIgnoreCase("desc") ? 
                 Sort.Direction.DESC : Sort.Direction.ASC;
             
             Pageable pageable = PageRequest.of(page, size, Sort.by(direction, sortBy));
+            if (fields != null) {
+                return ResponseEntity.ok(projecaoService.listar(Projecao.AGENDAMENTOS, fields, pageable));
+            }
             Page<Agendamento> agendamentos = agendamentoService.listarAgendamentosPaginados(pageable);
             return ResponseEntity.ok(agendamentos);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new ErroResponse(e.getMessage()));
         } catch (Exception e) {
             e.printStackTrace();
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
@@ -83,7 +129,11 @@ public class AgendamentoController {
         try {
             Optional<Agendamento> agendamento = agendamentoService.buscarPorId(id);
             if (agendamento.isPresent()) {
-                return ResponseEntity.ok(agendamento.get());
+                // Arquivados de antes da coluna versao não têm versão: sem ETag
+                Long versao = agendamento.get().getVersao();
+                return versao != null
+                    ? ResponseEntity.ok().eTag(String.valueOf(versao)).body(agendamento.get())
+                    : ResponseEntity.ok(agendamento.get());
             } else {
                 return ResponseEntity.notFound().build();
             }
@@ -93,132 +143,176 @@ public class AgendamentoController {
     }
 
     @PostMapping
-    public ResponseEntity<Map<String, Object>> criarAgendamento(@Valid @RequestBody Agendamento agendamento) {
-        Map<String, Object> response = new HashMap<>();
-        
+    public ResponseEntity<?> criarAgendamento(@Valid @RequestBody Agendamento agendamento) {
         try {
             // Validações básicas
             if (agendamento.getClienteId() == null) {
-                response.put("error", "Cliente é obrigatório");
-                return ResponseEntity.badRequest().body(response);
+                return ResponseEntity.badRequest().body(new ErroResponse("Cliente é obrigatório"));
             }
             
             if (agendamento.getVeiculoId() == null) {
-                response.put("error", "Veículo é obrigatório");
-                return ResponseEntity.badRequest().body(response);
+                return ResponseEntity.badRequest().body(new ErroResponse("Veículo é obrigatório"));
             }
             
             if (agendamento.getServicoId() == null) {
-                response.put("error", "Serviço é obrigatório");
-                return ResponseEntity.badRequest().body(response);
+                return ResponseEntity.badRequest().body(new ErroResponse("Serviço é obrigatório"));
             }
             
             if (agendamento.getDataAgendamento() == null) {
-                response.put("error", "Data do agendamento é obrigatória");
-                return ResponseEntity.badRequest().body(response);
+                return ResponseEntity.badRequest().body(new ErroResponse("Data do agendamento é obrigatória"));
             }
             
             if (agendamento.getHoraInicio() == null) {
-                response.put("error", "Hora de início é obrigatória");
-                return ResponseEntity.badRequest().body(response);
+                return ResponseEntity.badRequest().body(new ErroResponse("Hora de início é obrigatória"));
             }
 
             Agendamento novoAgendamento = agendamentoService.criarAgendamento(agendamento);
             
-            response.put("message", "Agendamento criado com sucesso");
-            response.put("agendamento", novoAgendamento);
-            return ResponseEntity.status(HttpStatus.CREATED).body(response);
+            return ResponseEntity.status(HttpStatus.CREATED)
+                .body(new AgendamentoMensagemResponse("Agendamento criado com sucesso", novoAgendamento));
             
+        } catch (AgendaOcupadaException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(new ErroResponse(e.getMessage()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new ErroResponse(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(new ErroResponse("Erro interno do servidor: " + e.getMessage()));
+        }
+    }
+
+    // Frotas: cria até app.agendamento.lote.max-itens agendamentos em uma transação.
+    // TUDO_OU_NADA (padrão) não grava nada se algum item falhar; MELHOR_ESFORCO grava os válidos.
+    @PostMapping("/lote")
+    public ResponseEntity<?> criarLote(@RequestBody AgendamentoLoteRequest request) {
+        try {
+            AgendamentoLoteResponse resposta = loteService.criarLote(request);
+
+            if (resposta.rejeitados() == 0) {
+                return ResponseEntity.status(HttpStatus.CREATED).body(resposta);
+            }
+            if (resposta.criados() == 0) {
+                return ResponseEntity.unprocessableEntity().body(resposta);
+            }
+            return ResponseEntity.ok(resposta);
+
+        } catch (AgendaOcupadaException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(new ErroResponse(e.getMessage()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new ErroResponse(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(new ErroResponse("Erro interno do servidor: " + e.getMessage()));
+        }
+    }
+
+    // Preço e duração de uma cesta de serviços pelo catálogo em memória (não grava nada)
+    @PostMapping("/cotacao")
+    public ResponseEntity<?> cotar(@RequestBody CotacaoRequest request) {
+        try {
+            CotacaoResponse cotacao = cotacaoService.cotar(request.servicos(), request.horaInicio());
+            return ResponseEntity.ok(cotacao);
         } catch (IllegalArgumentException e) {
-            response.put("error", e.getMessage());
-            return ResponseEntity.badRequest().body(response);
+            return ResponseEntity.badRequest().body(new ErroResponse(e.getMessage()));
         } catch (Exception e) {
-            response.put("error", "Erro interno do servidor: " + e.getMessage());
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(new ErroResponse("Erro interno do servidor: " + e.getMessage()));
         }
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<Map<String, Object>> atualizarAgendamento(
+    public ResponseEntity<?> atualizarAgendamento(
             @PathVariable Integer id, 
             @Valid @RequestBody Agendamento agendamento) {
         
-        Map<String, Object> response = new HashMap<>();
-        
         try {
-            Optional<Agendamento> agendamentoExistente = agendamentoService.buscarPorId(id);
-            
-            if (!agendamentoExistente.isPresent()) {
-                response.put("error", "Agendamento não encontrado");
-                return ResponseEntity.notFound().build();
-            }
-
             // Validações básicas
             if (agendamento.getClienteId() == null) {
-                response.put("error", "Cliente é obrigatório");
-                return ResponseEntity.badRequest().body(response);
+                return ResponseEntity.badRequest().body(new ErroResponse("Cliente é obrigatório"));
             }
             
             if (agendamento.getVeiculoId() == null) {
-                response.put("error", "Veículo é obrigatório");
-                return ResponseEntity.badRequest().body(response);
+                return ResponseEntity.badRequest().body(new ErroResponse("Veículo é obrigatório"));
             }
             
             if (agendamento.getServicoId() == null) {
-                response.put("error", "Serviço é obrigatório");
-                return ResponseEntity.badRequest().body(response);
+                return ResponseEntity.badRequest().body(new ErroResponse("Serviço é obrigatório"));
             }
             
             if (agendamento.getDataAgendamento() == null) {
-                response.put("error", "Data do agendamento é obrigatória");
-                return ResponseEntity.badRequest().body(response);
+                return ResponseEntity.badRequest().body(new ErroResponse("Data do agendamento é obrigatória"));
             }
             
             if (agendamento.getHoraInicio() == null) {
-                response.put("error", "Hora de início é obrigatória");
-                return ResponseEntity.badRequest().body(response);
+                return ResponseEntity.badRequest().body(new ErroResponse("Hora de início é obrigatória"));
             }
 
             // Definir ID e atualizar
             agendamento.setId(id);
             Agendamento agendamentoAtualizado = agendamentoService.atualizarAgendamento(agendamento);
             
-            response.put("message", "Agendamento atualizado com sucesso");
-            response.put("agendamento", agendamentoAtualizado);
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok(
+                new AgendamentoMensagemResponse("Agendamento atualizado com sucesso", agendamentoAtualizado));
             
+        } catch (ResourceNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        } catch (AgendaOcupadaException | OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(new ErroResponse(e.getMessage()));
         } catch (IllegalArgumentException e) {
-            response.put("error", e.getMessage());
-            return ResponseEntity.badRequest().body(response);
+            return ResponseEntity.badRequest().body(new ErroResponse(e.getMessage()));
         } catch (Exception e) {
-            response.put("error", "Erro interno do servidor: " + e.getMessage());
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(new ErroResponse("Erro interno do servidor: " + e.getMessage()));
         }
     }
 
-    @DeleteMapping("/{id}")
-    public ResponseEntity<Map<String, Object>> deletarAgendamento(@PathVariable Integer id) {
-        Map<String, Object> response = new HashMap<>();
-        
+    // JSON Merge Patch: só os campos enviados mudam (null apaga). A versão esperada vem no
+    // If-Match (ETag do GET, 412 se o agendamento mudou desde então) ou no campo versao (409)
+    @PatchMapping(value = "/{id}", consumes = {"application/merge-patch+json", MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<?> aplicarPatch(
+            @PathVariable Integer id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @RequestBody Map<String, Object> patch) {
+        // If-Match usa comparação forte: um validador fraco nunca casa
+        if (ifMatch != null && ifMatch.trim().startsWith("W/")) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED)
+                .body(new ErroResponse("If-Match não aceita ETag fraco: " + ifMatch));
+        }
+        Long versaoIfMatch = null;
         try {
-            Optional<Agendamento> agendamento = agendamentoService.buscarPorId(id);
-            
-            if (!agendamento.isPresent()) {
-                response.put("error", "Agendamento não encontrado");
-                return ResponseEntity.notFound().build();
-            }
+            versaoIfMatch = versaoDoIfMatch(ifMatch);
+            Agendamento agendamentoAtualizado = agendamentoService.aplicarPatch(id, versaoIfMatch, patch);
+            return ResponseEntity.ok().eTag(String.valueOf(agendamentoAtualizado.getVersao())).body(
+                new AgendamentoMensagemResponse("Agendamento atualizado com sucesso", agendamentoAtualizado));
+        } catch (ResourceNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        } catch (OptimisticLockingFailureException e) {
+            HttpStatus status = versaoIfMatch != null ? HttpStatus.PRECONDITION_FAILED : HttpStatus.CONFLICT;
+            return ResponseEntity.status(status).body(new ErroResponse(e.getMessage()));
+        } catch (AgendaOcupadaException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(new ErroResponse(e.getMessage()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new ErroResponse(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(new ErroResponse("Erro interno do servidor: " + e.getMessage()));
+        }
+    }
 
+    @DeleteMapping("/{id}")
+    public ResponseEntity<?> deletarAgendamento(@PathVariable Integer id) {
+        try {
             agendamentoService.deletarAgendamento(id);
             
-            response.put("message", "Agendamento deletado com sucesso");
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok(new MensagemResponse("Agendamento deletado com sucesso"));
             
+        } catch (ResourceNotFoundException e) {
+            return ResponseEntity.notFound().build();
         } catch (IllegalArgumentException e) {
-            response.put("error", e.getMessage());
-            return ResponseEntity.badRequest().body(response);
+            return ResponseEntity.badRequest().body(new ErroResponse(e.getMessage()));
         } catch (Exception e) {
-            response.put("error", "Erro interno do servidor: " + e.getMessage());
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(new ErroResponse("Erro interno do servidor: " + e.getMessage()));
         }
     }
 
@@ -299,65 +393,94 @@ public class AgendamentoController {
         }
     }
 
+    // Substitui o polling dos painéis: envia criações, alterações e remoções
+    // do dia (ou de todos os dias, sem o parâmetro) assim que são confirmadas
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate data,
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        return streamService.assinar(data, lastEventId);
+    }
+
     // ===== ENDPOINTS DE GERENCIAMENTO =====
 
     @PutMapping("/{id}/status")
-    public ResponseEntity<Map<String, Object>> atualizarStatus(
+    public ResponseEntity<?> atualizarStatus(
             @PathVariable Integer id,
             @RequestParam String status,
             @RequestParam Integer funcionarioId,
             @RequestParam(required = false) String motivo) {
         
-        Map<String, Object> response = new HashMap<>();
-        
         try {
-            Optional<Agendamento> agendamento = agendamentoService.buscarPorId(id);
-            
-            if (!agendamento.isPresent()) {
-                response.put("error", "Agendamento não encontrado");
-                return ResponseEntity.notFound().build();
-            }
-
             Agendamento agendamentoAtualizado = agendamentoService.atualizarStatus(id, status, funcionarioId, motivo);
             
-            response.put("message", "Status do agendamento atualizado com sucesso");
-            response.put("agendamento", agendamentoAtualizado);
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok(
+                new AgendamentoMensagemResponse("Status do agendamento atualizado com sucesso", agendamentoAtualizado));
             
+        } catch (ResourceNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(new ErroResponse(e.getMessage()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new ErroResponse(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(new ErroResponse("Erro interno do servidor: " + e.getMessage()));
+        }
+    }
+
+    // Fechamento do dia: cada transição só é aplicada se o agendamento ainda
+    // estiver no statusEsperado; o resultado vem por id.
+    @PutMapping("/status/lote")
+    public ResponseEntity<?> atualizarStatusLote(@RequestBody StatusLoteRequest request) {
+        try {
+            StatusLoteResponse resposta = statusLoteService.aplicar(request);
+
+            if (resposta.atualizados() == 0) {
+                return ResponseEntity.unprocessableEntity().body(resposta);
+            }
+            return ResponseEntity.ok(resposta);
+
         } catch (IllegalArgumentException e) {
-            response.put("error", e.getMessage());
-            return ResponseEntity.badRequest().body(response);
+            return ResponseEntity.badRequest().body(new ErroResponse(e.getMessage()));
         } catch (Exception e) {
-            response.put("error", "Erro interno do servidor: " + e.getMessage());
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(new ErroResponse("Erro interno do servidor: " + e.getMessage()));
         }
     }
 
     // ===== ENDPOINTS DE ESTATÍSTICAS =====
 
     @GetMapping("/stats")
-    public ResponseEntity<Map<String, Object>> estatisticas() {
+    public ResponseEntity<AgendamentoStatsResponse> estatisticas() {
         try {
-            Map<String, Object> stats = new HashMap<>();
-            
-            List<Agendamento> todos = agendamentoService.listarAgendamentos();
-            List<Agendamento> agendados = agendamentoService.buscarPorStatus("agendado");
-            List<Agendamento> concluidos = agendamentoService.buscarPorStatus("concluido");
-            List<Agendamento> cancelados = agendamentoService.buscarPorStatus("cancelado");
-            List<Agendamento> emAndamento = agendamentoService.buscarPorStatus("em_andamento");
-            List<Agendamento> futuros = agendamentoService.buscarAgendamentosFuturos();
+            // Conta no banco (ativos + arquivo) em vez de carregar cada lista
+            Map<StatusAgendamento, Long> porStatus = agendamentoService.contarPorStatus();
+            long total = porStatus.values().stream().mapToLong(Long::longValue).sum();
             
-            stats.put("total", todos.size());
-            stats.put("agendados", agendados.size());
-            stats.put("concluidos", concluidos.size());
-            stats.put("cancelados", cancelados.size());
-            stats.put("emAndamento", emAndamento.size());
-            stats.put("futuros", futuros.size());
-            
-            return ResponseEntity.ok(stats);
+            return ResponseEntity.ok(new AgendamentoStatsResponse(
+                total,
+                porStatus.getOrDefault(StatusAgendamento.AGENDADO, 0L),
+                porStatus.getOrDefault(StatusAgendamento.CONCLUIDO, 0L),
+                porStatus.getOrDefault(StatusAgendamento.CANCELADO, 0L),
+                porStatus.getOrDefault(StatusAgendamento.EM_ANDAMENTO, 0L),
+                agendamentoService.contarAgendamentosFuturos()));
             
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
-}
\ No newline at end of file
+
+    // Aceita "3" ou 3; "*" não fixa versão (fica a do corpo)
+    private static Long versaoDoIfMatch(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String valor = ifMatch.trim();
+        try {
+            return Long.valueOf(valor.replace("\"", ""));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("If-Match inválido: " + ifMatch);
+        }
+    }
+}
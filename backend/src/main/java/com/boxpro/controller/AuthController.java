@@ -2,7 +2,13 @@ package com.boxpro.controller;
 
 import com.boxpro.dto.request.LoginRequest;
 import com.boxpro.dto.request.RegisterRequest;
+import com.boxpro.dto.response.AuthErroResponse;
 import com.boxpro.dto.response.AuthResponse;
+import com.boxpro.dto.response.AuthStatusResponse;
+import com.boxpro.dto.response.FuncionarioLogadoResponse;
+import com.boxpro.dto.response.LogoutResponse;
+import com.boxpro.dto.response.TokenInvalidoResponse;
+import com.boxpro.dto.response.TokenValidoResponse;
 import com.boxpro.entity.Funcionario;
 import com.boxpro.service.AuthService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -74,16 +80,12 @@ public class AuthController {
             return ResponseEntity.ok(response);
         } catch (BadCredentialsException e) {
             log.warning("Credenciais inválidas para email: " + loginRequest.getEmail());
-            Map<String, String> error = new HashMap<>();
-            error.put("message", "Email ou senha inválidos");
-            error.put("status", "error");
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(error);
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                .body(new AuthErroResponse("Email ou senha inválidos", "error"));
         } catch (Exception e) {
             log.severe("Erro durante login: " + e.getMessage());
-            Map<String, String> error = new HashMap<>();
-            error.put("message", "Erro interno do servidor");
-            error.put("status", "error");
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(new AuthErroResponse("Erro interno do servidor", "error"));
         }
     }
 
@@ -122,16 +124,11 @@ public class AuthController {
             return ResponseEntity.status(HttpStatus.CREATED).body(response);
         } catch (RuntimeException e) {
             log.warning("Erro durante registro: " + e.getMessage());
-            Map<String, String> error = new HashMap<>();
-            error.put("message", e.getMessage());
-            error.put("status", "error");
-            return ResponseEntity.badRequest().body(error);
+            return ResponseEntity.badRequest().body(new AuthErroResponse(e.getMessage(), "error"));
         } catch (Exception e) {
             log.severe("Erro interno durante registro: " + e.getMessage());
-            Map<String, String> error = new HashMap<>();
-            error.put("message", "Erro interno do servidor");
-            error.put("status", "error");
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(new AuthErroResponse("Erro interno do servidor", "error"));
         }
     }
 
@@ -168,31 +165,15 @@ public class AuthController {
             Funcionario funcionario = authService.getCurrentUser();
             log.info("Dados do funcionário solicitados: " + funcionario.getEmail());
             
-            Map<String, Object> response = new HashMap<>();
-            response.put("id", funcionario.getId());
-            response.put("nome", funcionario.getNome());
-            response.put("email", funcionario.getEmail());
-            response.put("telefone", funcionario.getTelefone());
-            response.put("cpf", funcionario.getCpf());
-            response.put("tipoFuncionario", funcionario.getTipoFuncionario());
-            response.put("ativo", funcionario.getAtivo());
-            response.put("dataCriacao", funcionario.getDataCriacao());
-            response.put("ultimoLogin", funcionario.getUltimoLogin());
-            response.put("status", "success");
-            
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok(FuncionarioLogadoResponse.de(funcionario));
         } catch (RuntimeException e) {
             log.warning("Funcionário não autenticado tentou acessar /me");
-            Map<String, String> error = new HashMap<>();
-            error.put("message", "Funcionário não autenticado");
-            error.put("status", "error");
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(error);
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                .body(new AuthErroResponse("Funcionário não autenticado", "error"));
         } catch (Exception e) {
             log.severe("Erro ao obter dados do funcionário: " + e.getMessage());
-            Map<String, String> error = new HashMap<>();
-            error.put("message", "Erro interno do servidor");
-            error.put("status", "error");
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(new AuthErroResponse("Erro interno do servidor", "error"));
         }
     }
 
@@ -202,22 +183,14 @@ public class AuthController {
     )
     @SecurityRequirement(name = "Bearer Authentication")
     @GetMapping("/validate-token")
-    public ResponseEntity<Map<String, Object>> validateToken() {
+    public ResponseEntity<?> validateToken() {
         try {
             Funcionario funcionario = authService.getCurrentUser();
-            Map<String, Object> response = new HashMap<>();
-            response.put("valid", true);
-            response.put("funcionario", funcionario.getNome());
-            response.put("email", funcionario.getEmail());
-            response.put("tipoFuncionario", funcionario.getTipoFuncionario());
-            response.put("status", "success");
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok(new TokenValidoResponse(
+                true, funcionario.getNome(), funcionario.getEmail(), funcionario.getTipoFuncionario(), "success"));
         } catch (Exception e) {
-            Map<String, Object> response = new HashMap<>();
-            response.put("valid", false);
-            response.put("message", "Token inválido ou expirado");
-            response.put("status", "error");
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(response);
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                .body(new TokenInvalidoResponse(false, "Token inválido ou expirado", "error"));
         }
     }
 
@@ -235,10 +208,8 @@ public class AuthController {
             return ResponseEntity.ok(response);
         } catch (Exception e) {
             log.severe("Erro ao renovar token: " + e.getMessage());
-            Map<String, String> error = new HashMap<>();
-            error.put("message", "Não foi possível renovar o token");
-            error.put("status", "error");
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(error);
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                .body(new AuthErroResponse("Não foi possível renovar o token", "error"));
         }
     }
 
@@ -247,13 +218,12 @@ public class AuthController {
         description = "Endpoint para logout (com JWT stateless, remove o token no frontend)"
     )
     @PostMapping("/logout")
-    public ResponseEntity<Map<String, String>> logout() {
+    public ResponseEntity<LogoutResponse> logout() {
         log.info("Logout solicitado");
-        Map<String, String> response = new HashMap<>();
-        response.put("message", "Logout realizado com sucesso");
-        response.put("status", "success");
-        response.put("instruction", "Remova o token do localStorage/sessionStorage no frontend");
-        return ResponseEntity.ok(response);
+        return ResponseEntity.ok(new LogoutResponse(
+            "Logout realizado com sucesso",
+            "success",
+            "Remova o token do localStorage/sessionStorage no frontend"));
     }
 
     @Operation(
@@ -261,12 +231,7 @@ public class AuthController {
         description = "Retorna informações sobre o status e endpoints disponíveis da API"
     )
     @GetMapping("/status")
-    public ResponseEntity<Map<String, Object>> getAuthStatus() {
-        Map<String, Object> response = new HashMap<>();
-        response.put("service", "BoxPro Authentication API");
-        response.put("status", "running");
-        response.put("version", "1.0.0");
-        
+    public ResponseEntity<AuthStatusResponse> getAuthStatus() {
         Map<String, String> endpoints = new HashMap<>();
         endpoints.put("login", "/auth/login");
         endpoints.put("register", "/auth/register");
@@ -275,7 +240,6 @@ public class AuthController {
         endpoints.put("validate", "/auth/validate-token");
         endpoints.put("refresh", "/auth/refresh-token");
         
-        response.put("endpoints", endpoints);
-        return ResponseEntity.ok(response);
+        return ResponseEntity.ok(new AuthStatusResponse("BoxPro Authentication API", "running", "1.0.0", endpoints));
     }
 }
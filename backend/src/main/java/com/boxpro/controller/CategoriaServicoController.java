@@ -1,8 +1,11 @@
 package com.boxpro.controller;
 
+import com.boxpro.cache.PoliticaCache;
+import com.boxpro.cache.VersaoColecoes;
 import com.boxpro.entity.CategoriaServico;
 import com.boxpro.service.CategoriaServicoService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -10,6 +13,7 @@ import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -21,6 +25,12 @@ public class CategoriaServicoController {
     @Autowired
     private CategoriaServicoService categoriaService;
     
+    @Autowired
+    private VersaoColecoes versaoColecoes;
+    
+    @Value("${app.cache.categorias.max-age:300}")
+    private long cacheMaxAge;
+    
     @GetMapping("/teste")
     public ResponseEntity<String> teste() {
         return ResponseEntity.ok("OK - Categorias funcionando!");
@@ -32,14 +42,25 @@ public class CategoriaServicoController {
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "5") int size,
             @RequestParam(defaultValue = "createdAt") String sortBy,
-            @RequestParam(defaultValue = "desc") String sortDir) {
+            @RequestParam(defaultValue = "desc") String sortDir,
+            WebRequest request) {
+        String etag = versaoColecoes.etag(VersaoColecoes.CATEGORIAS, page, size, sortBy, sortDir);
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .eTag(etag)
+                .cacheControl(PoliticaCache.maxAge(cacheMaxAge))
+                .build();
+        }
         try {
             Sort.Direction direction = sortDir.equalsIgnoreCase("desc") ? 
                 Sort.Direction.DESC : Sort.Direction.ASC;
             
             Pageable pageable = PageRequest.of(page, size, Sort.by(direction, sortBy));
             Page<CategoriaServico> categorias = categoriaService.listarCategoriasPaginadas(pageable);
-            return ResponseEntity.ok(categorias);
+            return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(PoliticaCache.maxAge(cacheMaxAge))
+                .body(categorias);
         } catch (Exception e) {
             e.printStackTrace();
             return ResponseEntity.internalServerError().build();
@@ -48,10 +69,20 @@ public class CategoriaServicoController {
     
     // Endpoint para buscar todas as categorias (para estatísticas)
     @GetMapping("/todas")
-    public ResponseEntity<List<CategoriaServico>> listarTodasCategorias() {
+    public ResponseEntity<List<CategoriaServico>> listarTodasCategorias(WebRequest request) {
+        String etag = versaoColecoes.etag(VersaoColecoes.CATEGORIAS, "todas");
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .eTag(etag)
+                .cacheControl(PoliticaCache.maxAge(cacheMaxAge))
+                .build();
+        }
         try {
             List<CategoriaServico> categorias = categoriaService.listarCategorias();
-            return ResponseEntity.ok(categorias);
+            return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(PoliticaCache.maxAge(cacheMaxAge))
+                .body(categorias);
         } catch (Exception e) {
             e.printStackTrace();
             return ResponseEntity.internalServerError().build();
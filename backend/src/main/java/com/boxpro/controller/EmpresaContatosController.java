@@ -1,7 +1,18 @@
 package com.boxpro.controller;
 
+import com.boxpro.cache.PoliticaCache;
+import com.boxpro.cache.VersaoColecoes;
 import com.boxpro.dto.request.EmpresaContatosRequestDTO;
+import com.boxpro.dto.response.ContatoMensagemResponse;
+import com.boxpro.dto.response.ContatoRemovidoResponse;
 import com.boxpro.dto.response.EmpresaContatosResponseDTO;
+import com.boxpro.dto.response.ErroContatoResponse;
+import com.boxpro.dto.response.ErroEmpresaResponse;
+import com.boxpro.dto.response.ErroInternoResponse;
+import com.boxpro.dto.response.ErroResponse;
+import com.boxpro.dto.response.ErroTipoContatoResponse;
+import com.boxpro.dto.response.StatusOnlineResponse;
+import com.boxpro.dto.response.TiposContatoResponse;
 import com.boxpro.entity.EmpresaContatos.TipoContato;
 import com.boxpro.exception.BusinessException;
 import com.boxpro.exception.ResourceNotFoundException;
@@ -10,10 +21,13 @@ import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -28,17 +42,21 @@ public class EmpresaContatosController {
     @Autowired
     private EmpresaContatosService contatosService;
     
+    @Autowired
+    private VersaoColecoes versaoColecoes;
+    
+    @Value("${app.cache.empresa-contatos.max-age:300}")
+    private long cacheMaxAge;
+    
     /**
      * Endpoint para teste de conexão
      */
     @GetMapping("/status")
-    public ResponseEntity<Map<String, String>> status() {
+    public ResponseEntity<StatusOnlineResponse> status() {
         logger.info("🔍 Verificando status do serviço empresa-contatos");
         
-        Map<String, String> response = new HashMap<>();
-        response.put("status", "online");
-        response.put("service", "empresa-contatos");
-        response.put("timestamp", java.time.LocalDateTime.now().toString());
+        StatusOnlineResponse response =
+            new StatusOnlineResponse("online", "empresa-contatos", LocalDateTime.now().toString());
         
         logger.info("✅ Serviço empresa-contatos está online");
         return ResponseEntity.ok(response);
@@ -48,27 +66,35 @@ public class EmpresaContatosController {
      * Buscar todos os contatos de uma empresa
      */
     @GetMapping("/empresa/{empresaId}")
-    public ResponseEntity<?> getContatosByEmpresa(@PathVariable Long empresaId) {
+    public ResponseEntity<?> getContatosByEmpresa(@PathVariable Long empresaId, WebRequest request) {
         logger.info("📞 GET /empresa/{} - Buscando contatos da empresa", empresaId);
         
+        String etag = versaoColecoes.etag(VersaoColecoes.EMPRESA_CONTATOS, empresaId);
+        if (request.checkNotModified(etag)) {
+            logger.debug("♻️ Contatos da empresa {} não modificados", empresaId);
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag)
+                    .cacheControl(PoliticaCache.maxAge(cacheMaxAge))
+                    .build();
+        }
+        
         try {
             List<EmpresaContatosResponseDTO> contatos = contatosService.getContatosByEmpresa(empresaId);
             logger.info("✅ Retornando {} contatos para empresa {}", contatos.size(), empresaId);
-            return ResponseEntity.ok(contatos);
+            return ResponseEntity.ok()
+                    .eTag(etag)
+                    .cacheControl(PoliticaCache.maxAge(cacheMaxAge))
+                    .body(contatos);
             
         } catch (ResourceNotFoundException e) {
             logger.warn("⚠️ Empresa {} não encontrada: {}", empresaId, e.getMessage());
-            Map<String, String> error = new HashMap<>();
-            error.put("error", e.getMessage());
-            error.put("empresaId", empresaId.toString());
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                .body(new ErroEmpresaResponse(e.getMessage(), empresaId.toString()));
             
         } catch (Exception e) {
             logger.error("❌ Erro inesperado ao buscar contatos da empresa {}: {}", empresaId, e.getMessage(), e);
-            Map<String, String> error = new HashMap<>();
-            error.put("error", "Erro interno do servidor");
-            error.put("message", e.getMessage());
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(new ErroInternoResponse("Erro interno do servidor", e.getMessage()));
         }
     }
     
@@ -86,17 +112,13 @@ public class EmpresaContatosController {
             
         } catch (ResourceNotFoundException e) {
             logger.warn("⚠️ Contato {} não encontrado: {}", id, e.getMessage());
-            Map<String, String> error = new HashMap<>();
-            error.put("error", e.getMessage());
-            error.put("contatoId", id.toString());
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                .body(new ErroContatoResponse(e.getMessage(), id.toString()));
             
         } catch (Exception e) {
             logger.error("❌ Erro inesperado ao buscar contato {}: {}", id, e.getMessage(), e);
-            Map<String, String> error = new HashMap<>();
-            error.put("error", "Erro interno do servidor");
-            error.put("message", e.getMessage());
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(new ErroInternoResponse("Erro interno do servidor", e.getMessage()));
         }
     }
     
@@ -118,22 +140,18 @@ public class EmpresaContatosController {
             
         } catch (IllegalArgumentException e) {
             logger.warn("⚠️ Tipo de contato inválido: {}", tipoContato);
-            Map<String, String> error = new HashMap<>();
-            error.put("error", "Tipo de contato inválido: " + tipoContato);
-            error.put("tiposValidos", "telefone, celular, whatsapp, email, fax");
-            return ResponseEntity.badRequest().body(error);
+            return ResponseEntity.badRequest()
+                .body(new ErroTipoContatoResponse("Tipo de contato inválido: " + tipoContato,
+                    "telefone, celular, whatsapp, email, fax"));
             
         } catch (ResourceNotFoundException e) {
             logger.warn("⚠️ Empresa {} não encontrada: {}", empresaId, e.getMessage());
-            Map<String, String> error = new HashMap<>();
-            error.put("error", e.getMessage());
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(new ErroResponse(e.getMessage()));
             
         } catch (Exception e) {
             logger.error("❌ Erro inesperado ao buscar contatos por tipo: {}", e.getMessage(), e);
-            Map<String, String> error = new HashMap<>();
-            error.put("error", "Erro interno do servidor");
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(new ErroResponse("Erro interno do servidor"));
         }
     }
     
@@ -151,15 +169,12 @@ public class EmpresaContatosController {
             
         } catch (ResourceNotFoundException e) {
             logger.warn("⚠️ Empresa {} não encontrada: {}", empresaId, e.getMessage());
-            Map<String, String> error = new HashMap<>();
-            error.put("error", e.getMessage());
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(new ErroResponse(e.getMessage()));
             
         } catch (Exception e) {
             logger.error("❌ Erro inesperado ao buscar contatos principais: {}", e.getMessage(), e);
-            Map<String, String> error = new HashMap<>();
-            error.put("error", "Erro interno do servidor");
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(new ErroResponse("Erro interno do servidor"));
         }
     }
     
@@ -173,31 +188,23 @@ public class EmpresaContatosController {
         try {
             EmpresaContatosResponseDTO contato = contatosService.createContato(requestDTO);
             
-            Map<String, Object> response = new HashMap<>();
-            response.put("message", "Contato criado com sucesso");
-            response.put("contato", contato);
+            ContatoMensagemResponse response = new ContatoMensagemResponse("Contato criado com sucesso", contato);
             
             logger.info("✅ Contato criado com sucesso - ID: {}", contato.getId());
             return ResponseEntity.status(HttpStatus.CREATED).body(response);
             
         } catch (ResourceNotFoundException e) {
             logger.warn("⚠️ Recurso não encontrado ao criar contato: {}", e.getMessage());
-            Map<String, String> error = new HashMap<>();
-            error.put("error", e.getMessage());
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(new ErroResponse(e.getMessage()));
             
         } catch (BusinessException e) {
             logger.warn("⚠️ Erro de negócio ao criar contato: {}", e.getMessage());
-            Map<String, String> error = new HashMap<>();
-            error.put("error", e.getMessage());
-            return ResponseEntity.badRequest().body(error);
+            return ResponseEntity.badRequest().body(new ErroResponse(e.getMessage()));
             
         } catch (Exception e) {
             logger.error("❌ Erro inesperado ao criar contato: {}", e.getMessage(), e);
-            Map<String, String> error = new HashMap<>();
-            error.put("error", "Erro interno do servidor");
-            error.put("message", e.getMessage());
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(new ErroInternoResponse("Erro interno do servidor", e.getMessage()));
         }
     }
     
@@ -212,31 +219,23 @@ public class EmpresaContatosController {
         try {
             EmpresaContatosResponseDTO contato = contatosService.updateContato(id, requestDTO);
             
-            Map<String, Object> response = new HashMap<>();
-            response.put("message", "Contato atualizado com sucesso");
-            response.put("contato", contato);
+            ContatoMensagemResponse response = new ContatoMensagemResponse("Contato atualizado com sucesso", contato);
             
             logger.info("✅ Contato {} atualizado com sucesso", id);
             return ResponseEntity.ok(response);
             
         } catch (ResourceNotFoundException e) {
             logger.warn("⚠️ Recurso não encontrado ao atualizar contato {}: {}", id, e.getMessage());
-            Map<String, String> error = new HashMap<>();
-            error.put("error", e.getMessage());
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(new ErroResponse(e.getMessage()));
             
         } catch (BusinessException e) {
             logger.warn("⚠️ Erro de negócio ao atualizar contato {}: {}", id, e.getMessage());
-            Map<String, String> error = new HashMap<>();
-            error.put("error", e.getMessage());
-            return ResponseEntity.badRequest().body(error);
+            return ResponseEntity.badRequest().body(new ErroResponse(e.getMessage()));
             
         } catch (Exception e) {
             logger.error("❌ Erro inesperado ao atualizar contato {}: {}", id, e.getMessage(), e);
-            Map<String, String> error = new HashMap<>();
-            error.put("error", "Erro interno do servidor");
-            error.put("message", e.getMessage());
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(new ErroInternoResponse("Erro interno do servidor", e.getMessage()));
         }
     }
     
@@ -250,31 +249,23 @@ public class EmpresaContatosController {
         try {
             contatosService.deleteContato(id);
             
-            Map<String, String> response = new HashMap<>();
-            response.put("message", "Contato deletado com sucesso");
-            response.put("contatoId", id.toString());
+            ContatoRemovidoResponse response = new ContatoRemovidoResponse("Contato deletado com sucesso", id.toString());
             
             logger.info("✅ Contato {} deletado com sucesso", id);
             return ResponseEntity.ok(response);
             
         } catch (ResourceNotFoundException e) {
             logger.warn("⚠️ Contato {} não encontrado para deleção: {}", id, e.getMessage());
-            Map<String, String> error = new HashMap<>();
-            error.put("error", e.getMessage());
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(new ErroResponse(e.getMessage()));
             
         } catch (BusinessException e) {
             logger.warn("⚠️ Erro de negócio ao deletar contato {}: {}", id, e.getMessage());
-            Map<String, String> error = new HashMap<>();
-            error.put("error", e.getMessage());
-            return ResponseEntity.badRequest().body(error);
+            return ResponseEntity.badRequest().body(new ErroResponse(e.getMessage()));
             
         } catch (Exception e) {
             logger.error("❌ Erro inesperado ao deletar contato {}: {}", id, e.getMessage(), e);
-            Map<String, String> error = new HashMap<>();
-            error.put("error", "Erro interno do servidor");
-            error.put("message", e.getMessage());
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(new ErroInternoResponse("Erro interno do servidor", e.getMessage()));
         }
     }
     
@@ -288,31 +279,24 @@ public class EmpresaContatosController {
         try {
             EmpresaContatosResponseDTO contato = contatosService.definirComoPrincipal(id);
             
-            Map<String, Object> response = new HashMap<>();
-            response.put("message", "Contato definido como principal com sucesso");
-            response.put("contato", contato);
+            ContatoMensagemResponse response =
+                new ContatoMensagemResponse("Contato definido como principal com sucesso", contato);
             
             logger.info("✅ Contato {} definido como principal", id);
             return ResponseEntity.ok(response);
             
         } catch (ResourceNotFoundException e) {
             logger.warn("⚠️ Contato {} não encontrado: {}", id, e.getMessage());
-            Map<String, String> error = new HashMap<>();
-            error.put("error", e.getMessage());
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(new ErroResponse(e.getMessage()));
             
         } catch (BusinessException e) {
             logger.warn("⚠️ Erro de negócio ao definir contato {} como principal: {}", id, e.getMessage());
-            Map<String, String> error = new HashMap<>();
-            error.put("error", e.getMessage());
-            return ResponseEntity.badRequest().body(error);
+            return ResponseEntity.badRequest().body(new ErroResponse(e.getMessage()));
             
         } catch (Exception e) {
             logger.error("❌ Erro inesperado ao definir contato {} como principal: {}", id, e.getMessage(), e);
-            Map<String, String> error = new HashMap<>();
-            error.put("error", "Erro interno do servidor");
-            error.put("message", e.getMessage());
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(new ErroInternoResponse("Erro interno do servidor", e.getMessage()));
         }
     }
     
@@ -330,16 +314,12 @@ public class EmpresaContatosController {
             
         } catch (BusinessException e) {
             logger.warn("⚠️ Erro de negócio ao listar contatos: {}", e.getMessage());
-            Map<String, String> error = new HashMap<>();
-            error.put("error", e.getMessage());
-            return ResponseEntity.badRequest().body(error);
+            return ResponseEntity.badRequest().body(new ErroResponse(e.getMessage()));
             
         } catch (Exception e) {
             logger.error("❌ Erro inesperado ao listar contatos: {}", e.getMessage(), e);
-            Map<String, String> error = new HashMap<>();
-            error.put("error", "Erro interno do servidor");
-            error.put("message", e.getMessage());
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(new ErroInternoResponse("Erro interno do servidor", e.getMessage()));
         }
     }
     
@@ -351,7 +331,6 @@ public class EmpresaContatosController {
         logger.info("📋 GET /tipos - Listando tipos de contato disponíveis");
         
         try {
-            Map<String, Object> response = new HashMap<>();
             Map<String, String> tipos = new HashMap<>();
             
             // Retornar tipos em minúsculo para compatibilidade com frontend
@@ -359,18 +338,13 @@ public class EmpresaContatosController {
                 tipos.put(tipo.name().toLowerCase(), tipo.getNome());
             }
             
-            response.put("tipos", tipos);
-            response.put("total", tipos.size());
-            
             logger.info("✅ Retornando {} tipos de contato", tipos.size());
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok(new TiposContatoResponse(tipos, tipos.size()));
             
         } catch (Exception e) {
             logger.error("❌ Erro inesperado ao listar tipos de contato: {}", e.getMessage(), e);
-            Map<String, String> error = new HashMap<>();
-            error.put("error", "Erro interno do servidor");
-            error.put("message", e.getMessage());
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(new ErroInternoResponse("Erro interno do servidor", e.getMessage()));
         }
     }
 }
\ No newline at end of file
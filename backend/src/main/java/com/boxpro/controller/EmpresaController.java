@@ -1,16 +1,25 @@
 package com.boxpro.controller;
 
+import com.boxpro.cache.PoliticaCache;
+import com.boxpro.cache.VersaoColecoes;
 import com.boxpro.dto.request.EmpresaRequestDTO;
+import com.boxpro.dto.response.EmpresaMensagemResponse;
 import com.boxpro.dto.response.EmpresaResponseDTO;
+import com.boxpro.dto.response.ErroResponse;
+import com.boxpro.dto.response.ExisteResponse;
+import com.boxpro.dto.response.StatusOnlineResponse;
 import com.boxpro.service.EmpresaService;
+import com.boxpro.service.PerfilPublicoService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.time.LocalDateTime;
 
 @RestController
 @RequestMapping("/api/empresa")
@@ -20,30 +29,71 @@ public class EmpresaController {
     @Autowired
     private EmpresaService empresaService;
     
+    @Autowired
+    private VersaoColecoes versaoColecoes;
+    
+    @Autowired
+    private PerfilPublicoService perfilPublicoService;
+    
+    @Value("${app.cache.empresa.max-age:300}")
+    private long cacheMaxAge;
+    
     /**
      * Endpoint para teste de conexão
      */
     @GetMapping("/status")
-    public ResponseEntity<Map<String, String>> status() {
-        Map<String, String> response = new HashMap<>();
-        response.put("status", "online");
-        response.put("service", "empresa");
-        return ResponseEntity.ok(response);
+    public ResponseEntity<StatusOnlineResponse> status() {
+        return ResponseEntity.ok(
+            new StatusOnlineResponse("online", "empresa", LocalDateTime.now().toString()));
     }
     
     /**
      * Buscar dados da empresa
      */
     @GetMapping
-    public ResponseEntity<EmpresaResponseDTO> getEmpresa() {
+    public ResponseEntity<EmpresaResponseDTO> getEmpresa(WebRequest request) {
+        String etag = versaoColecoes.etag(VersaoColecoes.EMPRESA);
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag)
+                    .cacheControl(PoliticaCache.maxAge(cacheMaxAge))
+                    .build();
+        }
         try {
             EmpresaResponseDTO empresa = empresaService.getEmpresa();
-            return ResponseEntity.ok(empresa);
+            return ResponseEntity.ok()
+                    .eTag(etag)
+                    .cacheControl(PoliticaCache.maxAge(cacheMaxAge))
+                    .body(empresa);
         } catch (Exception e) {
             return ResponseEntity.notFound().build();
         }
     }
     
+    /**
+     * Empresa, horários e contatos ativos em uma única resposta, servida
+     * de memória (sem consulta ao banco enquanto nada mudar)
+     */
+    @GetMapping("/perfil-publico")
+    public ResponseEntity<byte[]> getPerfilPublico(WebRequest request) {
+        String etag = perfilPublicoService.etagAtual();
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag)
+                    .cacheControl(PoliticaCache.maxAge(cacheMaxAge))
+                    .build();
+        }
+        PerfilPublicoService.Snapshot perfil = perfilPublicoService.obter();
+        if (perfil.json() == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok()
+                .eTag(perfil.etag())
+                .cacheControl(PoliticaCache.maxAge(cacheMaxAge))
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(perfil.json());
+    }
+    
     /**
      * Criar nova empresa
      */
@@ -51,16 +101,10 @@ public class EmpresaController {
     public ResponseEntity<?> createEmpresa(@Valid @RequestBody EmpresaRequestDTO requestDTO) {
         try {
             EmpresaResponseDTO empresa = empresaService.createEmpresa(requestDTO);
-            
-            Map<String, Object> response = new HashMap<>();
-            response.put("message", "Empresa criada com sucesso");
-            response.put("empresa", empresa);
-            
-            return ResponseEntity.status(HttpStatus.CREATED).body(response);
+            return ResponseEntity.status(HttpStatus.CREATED)
+                .body(new EmpresaMensagemResponse("Empresa criada com sucesso", empresa));
         } catch (Exception e) {
-            Map<String, String> error = new HashMap<>();
-            error.put("error", e.getMessage());
-            return ResponseEntity.badRequest().body(error);
+            return ResponseEntity.badRequest().body(new ErroResponse(e.getMessage()));
         }
     }
     
@@ -72,16 +116,9 @@ public class EmpresaController {
                                          @Valid @RequestBody EmpresaRequestDTO requestDTO) {
         try {
             EmpresaResponseDTO empresa = empresaService.updateEmpresa(id, requestDTO);
-            
-            Map<String, Object> response = new HashMap<>();
-            response.put("message", "Empresa atualizada com sucesso");
-            response.put("empresa", empresa);
-            
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok(new EmpresaMensagemResponse("Empresa atualizada com sucesso", empresa));
         } catch (Exception e) {
-            Map<String, String> error = new HashMap<>();
-            error.put("error", e.getMessage());
-            return ResponseEntity.badRequest().body(error);
+            return ResponseEntity.badRequest().body(new ErroResponse(e.getMessage()));
         }
     }
     
@@ -89,9 +126,7 @@ public class EmpresaController {
      * Verificar se existe empresa cadastrada
      */
     @GetMapping("/exists")
-    public ResponseEntity<Map<String, Boolean>> existeEmpresa() {
-        Map<String, Boolean> response = new HashMap<>();
-        response.put("exists", empresaService.existeEmpresa());
-        return ResponseEntity.ok(response);
+    public ResponseEntity<ExisteResponse> existeEmpresa() {
+        return ResponseEntity.ok(new ExisteResponse(empresaService.existeEmpresa()));
     }
 }
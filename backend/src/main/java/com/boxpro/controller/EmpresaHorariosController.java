@@ -1,17 +1,25 @@
 package com.boxpro.controller;
 
+import com.boxpro.cache.PoliticaCache;
+import com.boxpro.cache.VersaoColecoes;
 import com.boxpro.dto.request.EmpresaHorariosRequestDTO;
+import com.boxpro.dto.response.EmpresaHorarioMensagemResponse;
+import com.boxpro.dto.response.EmpresaHorariosMensagemResponse;
 import com.boxpro.dto.response.EmpresaHorariosResponseDTO;
+import com.boxpro.dto.response.ErroResponse;
+import com.boxpro.dto.response.MensagemResponse;
+import com.boxpro.dto.response.StatusOnlineResponse;
 import com.boxpro.service.EmpresaHorariosService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
-import java.util.HashMap;
+import java.time.LocalDateTime;
 import java.util.List;
-import java.util.Map;
 
 @RestController
 @RequestMapping("/api/empresa-horarios")
@@ -21,25 +29,40 @@ public class EmpresaHorariosController {
     @Autowired
     private EmpresaHorariosService horariosService;
     
+    @Autowired
+    private VersaoColecoes versaoColecoes;
+    
+    @Value("${app.cache.empresa-horarios.max-age:300}")
+    private long cacheMaxAge;
+    
     /**
      * Endpoint para teste de conexão
      */
     @GetMapping("/status")
-    public ResponseEntity<Map<String, String>> status() {
-        Map<String, String> response = new HashMap<>();
-        response.put("status", "online");
-        response.put("service", "empresa-horarios");
-        return ResponseEntity.ok(response);
+    public ResponseEntity<StatusOnlineResponse> status() {
+        return ResponseEntity.ok(
+            new StatusOnlineResponse("online", "empresa-horarios", LocalDateTime.now().toString()));
     }
     
     /**
      * Buscar todos os horários de uma empresa
      */
     @GetMapping("/empresa/{empresaId}")
-    public ResponseEntity<List<EmpresaHorariosResponseDTO>> getHorariosByEmpresa(@PathVariable Long empresaId) {
+    public ResponseEntity<List<EmpresaHorariosResponseDTO>> getHorariosByEmpresa(@PathVariable Long empresaId,
+                                                                                  WebRequest request) {
+        String etag = versaoColecoes.etag(VersaoColecoes.EMPRESA_HORARIOS, empresaId);
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag)
+                    .cacheControl(PoliticaCache.maxAge(cacheMaxAge))
+                    .build();
+        }
         try {
             List<EmpresaHorariosResponseDTO> horarios = horariosService.getHorariosByEmpresa(empresaId);
-            return ResponseEntity.ok(horarios);
+            return ResponseEntity.ok()
+                    .eTag(etag)
+                    .cacheControl(PoliticaCache.maxAge(cacheMaxAge))
+                    .body(horarios);
         } catch (Exception e) {
             return ResponseEntity.notFound().build();
         }
@@ -80,16 +103,10 @@ public class EmpresaHorariosController {
     public ResponseEntity<?> createHorario(@Valid @RequestBody EmpresaHorariosRequestDTO requestDTO) {
         try {
             EmpresaHorariosResponseDTO horario = horariosService.createHorario(requestDTO);
-            
-            Map<String, Object> response = new HashMap<>();
-            response.put("message", "Horário criado com sucesso");
-            response.put("horario", horario);
-            
-            return ResponseEntity.status(HttpStatus.CREATED).body(response);
+            return ResponseEntity.status(HttpStatus.CREATED)
+                .body(new EmpresaHorarioMensagemResponse("Horário criado com sucesso", horario));
         } catch (Exception e) {
-            Map<String, String> error = new HashMap<>();
-            error.put("error", e.getMessage());
-            return ResponseEntity.badRequest().body(error);
+            return ResponseEntity.badRequest().body(new ErroResponse(e.getMessage()));
         }
     }
     
@@ -101,16 +118,9 @@ public class EmpresaHorariosController {
                                          @Valid @RequestBody EmpresaHorariosRequestDTO requestDTO) {
         try {
             EmpresaHorariosResponseDTO horario = horariosService.updateHorario(id, requestDTO);
-            
-            Map<String, Object> response = new HashMap<>();
-            response.put("message", "Horário atualizado com sucesso");
-            response.put("horario", horario);
-            
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok(new EmpresaHorarioMensagemResponse("Horário atualizado com sucesso", horario));
         } catch (Exception e) {
-            Map<String, String> error = new HashMap<>();
-            error.put("error", e.getMessage());
-            return ResponseEntity.badRequest().body(error);
+            return ResponseEntity.badRequest().body(new ErroResponse(e.getMessage()));
         }
     }
     
@@ -121,15 +131,9 @@ public class EmpresaHorariosController {
     public ResponseEntity<?> deleteHorario(@PathVariable Long id) {
         try {
             horariosService.deleteHorario(id);
-            
-            Map<String, String> response = new HashMap<>();
-            response.put("message", "Horário deletado com sucesso");
-            
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok(new MensagemResponse("Horário deletado com sucesso"));
         } catch (Exception e) {
-            Map<String, String> error = new HashMap<>();
-            error.put("error", e.getMessage());
-            return ResponseEntity.badRequest().body(error);
+            return ResponseEntity.badRequest().body(new ErroResponse(e.getMessage()));
         }
     }
     
@@ -152,14 +156,12 @@ public class EmpresaHorariosController {
     @PostMapping("/empresa/{empresaId}/inicializar")
     public ResponseEntity<?> inicializarHorarios(@PathVariable Long empresaId) {
         try {
-            Map<String, Object> response = new HashMap<>();
             List<EmpresaHorariosResponseDTO> horariosExistentes = horariosService.getHorariosByEmpresa(empresaId);
             
             // Se já tem horários, retorna os existentes
             if (!horariosExistentes.isEmpty()) {
-                response.put("message", "Horários já existem para esta empresa");
-                response.put("horarios", horariosExistentes);
-                return ResponseEntity.ok(response);
+                return ResponseEntity.ok(
+                    new EmpresaHorariosMensagemResponse("Horários já existem para esta empresa", horariosExistentes));
             }
             
             // Criar horários padrão para todos os dias da semana
@@ -193,14 +195,10 @@ public class EmpresaHorariosController {
                 novosHorarios.add(novoHorario);
             }
             
-            response.put("message", "Horários padrão criados com sucesso");
-            response.put("horarios", novosHorarios);
-            
-            return ResponseEntity.status(HttpStatus.CREATED).body(response);
+            return ResponseEntity.status(HttpStatus.CREATED)
+                .body(new EmpresaHorariosMensagemResponse("Horários padrão criados com sucesso", novosHorarios));
         } catch (Exception e) {
-            Map<String, String> error = new HashMap<>();
-            error.put("error", e.getMessage());
-            return ResponseEntity.badRequest().body(error);
+            return ResponseEntity.badRequest().body(new ErroResponse(e.getMessage()));
         }
     }
 }
\ No newline at end of file
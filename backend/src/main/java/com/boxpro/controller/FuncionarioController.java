@@ -1,7 +1,14 @@
 package com.boxpro.controller;
 
+import com.boxpro.dto.response.ControllerStatusResponse;
+import com.boxpro.dto.response.ErroResponse;
+import com.boxpro.dto.response.FuncionarioMensagemResponse;
+import com.boxpro.dto.response.FuncionarioStatsResponse;
+import com.boxpro.dto.response.MensagemResponse;
 import com.boxpro.entity.Funcionario;
 import com.boxpro.entity.enums.TipoFuncionario;
+import com.boxpro.projecao.Projecao;
+import com.boxpro.projecao.ProjecaoService;
 import com.boxpro.service.FuncionarioService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
@@ -14,9 +21,7 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import jakarta.validation.Valid;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
 
 @RestController
@@ -27,41 +32,49 @@ public class FuncionarioController {
     @Autowired
     private FuncionarioService funcionarioService;
 
+    @Autowired
+    private ProjecaoService projecaoService;
+
     // ===== ENDPOINTS PÚBLICOS =====
 
     @GetMapping("/status")
-    public ResponseEntity<Map<String, Object>> status() {
-        Map<String, Object> response = new HashMap<>();
-        response.put("message", "✅ FuncionarioController funcionando!");
-        response.put("timestamp", System.currentTimeMillis());
-        response.put("endpoints", List.of(
-            "GET /api/funcionarios - Listar com paginação",
-            "GET /api/funcionarios/todos - Listar todos",
-            "GET /api/funcionarios/{id} - Buscar por ID",
-            "POST /api/funcionarios - Criar funcionário",
-            "PUT /api/funcionarios/{id} - Atualizar funcionário",
-            "DELETE /api/funcionarios/{id} - Desativar funcionário"
-        ));
-        return ResponseEntity.ok(response);
+    public ResponseEntity<ControllerStatusResponse> status() {
+        return ResponseEntity.ok(new ControllerStatusResponse(
+            "✅ FuncionarioController funcionando!",
+            System.currentTimeMillis(),
+            List.of(
+                "GET /api/funcionarios - Listar com paginação",
+                "GET /api/funcionarios/todos - Listar todos",
+                "GET /api/funcionarios/{id} - Buscar por ID",
+                "POST /api/funcionarios - Criar funcionário",
+                "PUT /api/funcionarios/{id} - Atualizar funcionário",
+                "DELETE /api/funcionarios/{id} - Desativar funcionário"
+            )));
     }
 
     // ===== CRUD BÁSICO (ADMIN ONLY) =====
 
-    // Endpoint paginado para a lista principal
+    // Endpoint paginado para a lista principal (?fields= limita as colunas; senha nunca é projetada)
     @GetMapping
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<Page<Funcionario>> listarFuncionarios(
+    public ResponseEntity<?> listarFuncionarios(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "5") int size,
             @RequestParam(defaultValue = "dataCriacao") String sortBy,
-            @RequestParam(defaultValue = "desc") String sortDir) {
+            @RequestParam(defaultValue = "desc") String sortDir,
+            @RequestParam(required = false) String fields) {
         try {
             Sort.Direction direction = sortDir.equalsIgnoreCase("desc") ? 
                 Sort.Direction.DESC : Sort.Direction.ASC;
             
             Pageable pageable = PageRequest.of(page, size, Sort.by(direction, sortBy));
+            if (fields != null) {
+                return ResponseEntity.ok(projecaoService.listar(Projecao.FUNCIONARIOS, fields, pageable));
+            }
             Page<Funcionario> funcionarios = funcionarioService.listarFuncionariosPaginados(pageable);
             return ResponseEntity.ok(funcionarios);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new ErroResponse(e.getMessage()));
         } catch (Exception e) {
             e.printStackTrace();
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
@@ -119,37 +132,31 @@ public class FuncionarioController {
 
     @PostMapping
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<Map<String, Object>> criarFuncionario(@Valid @RequestBody Funcionario funcionario) {
-        Map<String, Object> response = new HashMap<>();
-        
+    public ResponseEntity<?> criarFuncionario(@Valid @RequestBody Funcionario funcionario) {
         try {
             // Validações básicas
             if (funcionario.getNome() == null || funcionario.getNome().trim().isEmpty()) {
-                response.put("error", "Nome é obrigatório");
-                return ResponseEntity.badRequest().body(response);
+                return ResponseEntity.badRequest().body(new ErroResponse("Nome é obrigatório"));
             }
             
             if (funcionario.getEmail() == null || funcionario.getEmail().trim().isEmpty()) {
-                response.put("error", "Email é obrigatório");
-                return ResponseEntity.badRequest().body(response);
+                return ResponseEntity.badRequest().body(new ErroResponse("Email é obrigatório"));
             }
             
             if (funcionario.getSenha() == null || funcionario.getSenha().length() < 6) {
-                response.put("error", "Senha deve ter pelo menos 6 caracteres");
-                return ResponseEntity.badRequest().body(response);
+                return ResponseEntity.badRequest()
+                    .body(new ErroResponse("Senha deve ter pelo menos 6 caracteres"));
             }
 
             // Verificar se email já existe
             if (funcionarioService.emailExiste(funcionario.getEmail())) {
-                response.put("error", "Email já está em uso");
-                return ResponseEntity.badRequest().body(response);
+                return ResponseEntity.badRequest().body(new ErroResponse("Email já está em uso"));
             }
 
             // Verificar se CPF já existe (se fornecido)
             if (funcionario.getCpf() != null && !funcionario.getCpf().trim().isEmpty()) {
                 if (funcionarioService.cpfExiste(funcionario.getCpf())) {
-                    response.put("error", "CPF já está em uso");
-                    return ResponseEntity.badRequest().body(response);
+                    return ResponseEntity.badRequest().body(new ErroResponse("CPF já está em uso"));
                 }
             }
 
@@ -160,56 +167,50 @@ public class FuncionarioController {
 
             Funcionario novoFuncionario = funcionarioService.criarFuncionario(funcionario);
             
-            response.put("message", "Funcionário criado com sucesso");
-            response.put("funcionario", novoFuncionario);
-            return ResponseEntity.status(HttpStatus.CREATED).body(response);
+            return ResponseEntity.status(HttpStatus.CREATED)
+                .body(new FuncionarioMensagemResponse("Funcionário criado com sucesso", novoFuncionario));
             
         } catch (Exception e) {
-            response.put("error", "Erro interno do servidor: " + e.getMessage());
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(new ErroResponse("Erro interno do servidor: " + e.getMessage()));
         }
     }
 
     @PutMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<Map<String, Object>> atualizarFuncionario(
+    public ResponseEntity<?> atualizarFuncionario(
             @PathVariable Integer id, 
             @Valid @RequestBody Funcionario funcionario) {
         
-        Map<String, Object> response = new HashMap<>();
-        
         try {
             Optional<Funcionario> funcionarioExistente = funcionarioService.buscarPorId(id);
             
             if (!funcionarioExistente.isPresent()) {
-                response.put("error", "Funcionário não encontrado");
                 return ResponseEntity.notFound().build();
             }
 
             // Validações básicas
             if (funcionario.getNome() == null || funcionario.getNome().trim().isEmpty()) {
-                response.put("error", "Nome é obrigatório");
-                return ResponseEntity.badRequest().body(response);
+                return ResponseEntity.badRequest().body(new ErroResponse("Nome é obrigatório"));
             }
             
             if (funcionario.getEmail() == null || funcionario.getEmail().trim().isEmpty()) {
-                response.put("error", "Email é obrigatório");
-                return ResponseEntity.badRequest().body(response);
+                return ResponseEntity.badRequest().body(new ErroResponse("Email é obrigatório"));
             }
 
             // Verificar se email já existe em outro funcionário
             Optional<Funcionario> funcionarioComEmail = funcionarioService.buscarPorEmail(funcionario.getEmail());
             if (funcionarioComEmail.isPresent() && !funcionarioComEmail.get().getId().equals(id)) {
-                response.put("error", "Email já está em uso por outro funcionário");
-                return ResponseEntity.badRequest().body(response);
+                return ResponseEntity.badRequest()
+                    .body(new ErroResponse("Email já está em uso por outro funcionário"));
             }
 
             // Verificar se CPF já existe em outro funcionário (se fornecido)
             if (funcionario.getCpf() != null && !funcionario.getCpf().trim().isEmpty()) {
                 Optional<Funcionario> funcionarioComCpf = funcionarioService.buscarPorCpf(funcionario.getCpf());
                 if (funcionarioComCpf.isPresent() && !funcionarioComCpf.get().getId().equals(id)) {
-                    response.put("error", "CPF já está em uso por outro funcionário");
-                    return ResponseEntity.badRequest().body(response);
+                    return ResponseEntity.badRequest()
+                        .body(new ErroResponse("CPF já está em uso por outro funcionário"));
                 }
             }
 
@@ -217,37 +218,32 @@ public class FuncionarioController {
             funcionario.setId(id);
             Funcionario funcionarioAtualizado = funcionarioService.atualizarFuncionario(funcionario);
             
-            response.put("message", "Funcionário atualizado com sucesso");
-            response.put("funcionario", funcionarioAtualizado);
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok(
+                new FuncionarioMensagemResponse("Funcionário atualizado com sucesso", funcionarioAtualizado));
             
         } catch (Exception e) {
-            response.put("error", "Erro interno do servidor: " + e.getMessage());
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(new ErroResponse("Erro interno do servidor: " + e.getMessage()));
         }
     }
 
     @DeleteMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<Map<String, Object>> desativarFuncionario(@PathVariable Integer id) {
-        Map<String, Object> response = new HashMap<>();
-        
+    public ResponseEntity<?> desativarFuncionario(@PathVariable Integer id) {
         try {
             Optional<Funcionario> funcionario = funcionarioService.buscarPorId(id);
             
             if (!funcionario.isPresent()) {
-                response.put("error", "Funcionário não encontrado");
                 return ResponseEntity.notFound().build();
             }
 
             funcionarioService.desativarFuncionario(id);
             
-            response.put("message", "Funcionário desativado com sucesso");
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok(new MensagemResponse("Funcionário desativado com sucesso"));
             
         } catch (Exception e) {
-            response.put("error", "Erro interno do servidor: " + e.getMessage());
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(new ErroResponse("Erro interno do servidor: " + e.getMessage()));
         }
     }
 
@@ -297,49 +293,41 @@ public class FuncionarioController {
 
     @PutMapping("/{id}/bloquear")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<Map<String, Object>> bloquearFuncionario(@PathVariable Integer id) {
-        Map<String, Object> response = new HashMap<>();
-        
+    public ResponseEntity<?> bloquearFuncionario(@PathVariable Integer id) {
         try {
             Optional<Funcionario> funcionario = funcionarioService.buscarPorId(id);
             
             if (!funcionario.isPresent()) {
-                response.put("error", "Funcionário não encontrado");
                 return ResponseEntity.notFound().build();
             }
 
             funcionarioService.bloquearFuncionario(id);
             
-            response.put("message", "Funcionário bloqueado com sucesso");
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok(new MensagemResponse("Funcionário bloqueado com sucesso"));
             
         } catch (Exception e) {
-            response.put("error", "Erro interno do servidor: " + e.getMessage());
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(new ErroResponse("Erro interno do servidor: " + e.getMessage()));
         }
     }
 
     @PutMapping("/{id}/desbloquear")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<Map<String, Object>> desbloquearFuncionario(@PathVariable Integer id) {
-        Map<String, Object> response = new HashMap<>();
-        
+    public ResponseEntity<?> desbloquearFuncionario(@PathVariable Integer id) {
         try {
             Optional<Funcionario> funcionario = funcionarioService.buscarPorId(id);
             
             if (!funcionario.isPresent()) {
-                response.put("error", "Funcionário não encontrado");
                 return ResponseEntity.notFound().build();
             }
 
             funcionarioService.desbloquearFuncionario(id);
             
-            response.put("message", "Funcionário desbloqueado com sucesso");
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok(new MensagemResponse("Funcionário desbloqueado com sucesso"));
             
         } catch (Exception e) {
-            response.put("error", "Erro interno do servidor: " + e.getMessage());
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(new ErroResponse("Erro interno do servidor: " + e.getMessage()));
         }
     }
 
@@ -347,24 +335,21 @@ public class FuncionarioController {
 
     @GetMapping("/stats")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<Map<String, Object>> estatisticas() {
+    public ResponseEntity<FuncionarioStatsResponse> estatisticas() {
         try {
-            Map<String, Object> stats = new HashMap<>();
-            
             List<Funcionario> todos = funcionarioService.listarFuncionarios();
             List<Funcionario> ativos = funcionarioService.listarFuncionariosAtivos();
             List<Funcionario> disponiveis = funcionarioService.listarFuncionariosDisponiveis();
             List<Funcionario> admins = funcionarioService.listarPorTipo(TipoFuncionario.ADMIN);
             List<Funcionario> funcionarios = funcionarioService.listarPorTipo(TipoFuncionario.FUNCIONARIO);
             
-            stats.put("total", todos.size());
-            stats.put("ativos", ativos.size());
-            stats.put("disponiveis", disponiveis.size());
-            stats.put("admins", admins.size());
-            stats.put("funcionarios", funcionarios.size());
-            stats.put("inativos", todos.size() - ativos.size());
-            
-            return ResponseEntity.ok(stats);
+            return ResponseEntity.ok(new FuncionarioStatsResponse(
+                todos.size(),
+                ativos.size(),
+                disponiveis.size(),
+                admins.size(),
+                funcionarios.size(),
+                todos.size() - ativos.size()));
             
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
@@ -1,7 +1,13 @@
 package com.boxpro.controller;
 
+import com.boxpro.dto.response.ControllerStatusResponse;
+import com.boxpro.dto.response.ErroResponse;
+import com.boxpro.dto.response.HistoricoMensagemResponse;
+import com.boxpro.dto.response.HistoricoStatsResponse;
+import com.boxpro.dto.response.MensagemResponse;
 import com.boxpro.entity.HistoricoAgendamento;
 import com.boxpro.service.HistoricoAgendamentoService;
+import com.boxpro.service.HistoricoCompactacaoService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
@@ -12,7 +18,6 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import jakarta.validation.Valid;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -25,21 +30,24 @@ public class HistoricoAgendamentoController {
     @Autowired
     private HistoricoAgendamentoService historicoService;
 
+    @Autowired
+    private HistoricoCompactacaoService compactacaoService;
+
     // ===== ENDPOINTS PÚBLICOS =====
 
     @GetMapping("/status")
-    public ResponseEntity<Map<String, Object>> status() {
-        Map<String, Object> response = new HashMap<>();
-        response.put("message", "✅ HistoricoAgendamentoController funcionando!");
-        response.put("timestamp", System.currentTimeMillis());
-        response.put("endpoints", List.of(
-            "GET /api/historico-agendamentos - Listar com paginação",
-            "GET /api/historico-agendamentos/todos - Listar todos",
-            "GET /api/historico-agendamentos/{id} - Buscar por ID",
-            "POST /api/historico-agendamentos - Criar histórico",
-            "DELETE /api/historico-agendamentos/{id} - Deletar histórico"
-        ));
-        return ResponseEntity.ok(response);
+    public ResponseEntity<ControllerStatusResponse> status() {
+        return ResponseEntity.ok(new ControllerStatusResponse(
+            "✅ HistoricoAgendamentoController funcionando!",
+            System.currentTimeMillis(),
+            List.of(
+                "GET /api/historico-agendamentos - Listar com paginação",
+                "GET /api/historico-agendamentos/todos - Listar todos",
+                "GET /api/historico-agendamentos/{id} - Buscar por ID",
+                "POST /api/historico-agendamentos - Criar histórico",
+                "DELETE /api/historico-agendamentos/{id} - Deletar histórico",
+                "POST /api/historico-agendamentos/compactar - Compactar e aplicar retenção"
+            )));
     }
 
     // ===== CRUD BÁSICO =====
@@ -90,64 +98,62 @@ public class HistoricoAgendamentoController {
     }
 
     @PostMapping
-    public ResponseEntity<Map<String, Object>> criarHistorico(@Valid @RequestBody HistoricoAgendamento historico) {
-        Map<String, Object> response = new HashMap<>();
-        
+    public ResponseEntity<?> criarHistorico(@Valid @RequestBody HistoricoAgendamento historico) {
         try {
             // Validações básicas
             if (historico.getAgendamento() == null) {
-                response.put("error", "Agendamento é obrigatório");
-                return ResponseEntity.badRequest().body(response);
+                return ResponseEntity.badRequest().body(new ErroResponse("Agendamento é obrigatório"));
             }
             
             if (historico.getFuncionarioId() == null) {
-                response.put("error", "Funcionário é obrigatório");
-                return ResponseEntity.badRequest().body(response);
+                return ResponseEntity.badRequest().body(new ErroResponse("Funcionário é obrigatório"));
             }
             
             if (historico.getAcao() == null || historico.getAcao().trim().isEmpty()) {
-                response.put("error", "Ação é obrigatória");
-                return ResponseEntity.badRequest().body(response);
+                return ResponseEntity.badRequest().body(new ErroResponse("Ação é obrigatória"));
             }
 
             HistoricoAgendamento novoHistorico = historicoService.criarHistorico(historico);
             
-            response.put("message", "Histórico criado com sucesso");
-            response.put("historico", novoHistorico);
-            return ResponseEntity.status(HttpStatus.CREATED).body(response);
+            return ResponseEntity.status(HttpStatus.CREATED)
+                .body(new HistoricoMensagemResponse("Histórico criado com sucesso", novoHistorico));
             
         } catch (IllegalArgumentException e) {
-            response.put("error", e.getMessage());
-            return ResponseEntity.badRequest().body(response);
+            return ResponseEntity.badRequest().body(new ErroResponse(e.getMessage()));
         } catch (Exception e) {
-            response.put("error", "Erro interno do servidor: " + e.getMessage());
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(new ErroResponse("Erro interno do servidor: " + e.getMessage()));
         }
     }
 
     @DeleteMapping("/{id}")
-    public ResponseEntity<Map<String, Object>> deletarHistorico(@PathVariable Integer id) {
-        Map<String, Object> response = new HashMap<>();
-        
+    public ResponseEntity<?> deletarHistorico(@PathVariable Integer id) {
         try {
             Optional<HistoricoAgendamento> historico = historicoService.buscarPorId(id);
             
             if (!historico.isPresent()) {
-                response.put("error", "Histórico não encontrado");
                 return ResponseEntity.notFound().build();
             }
 
             historicoService.deletarHistorico(id);
             
-            response.put("message", "Histórico deletado com sucesso");
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok(new MensagemResponse("Histórico deletado com sucesso"));
             
         } catch (IllegalArgumentException e) {
-            response.put("error", e.getMessage());
-            return ResponseEntity.badRequest().body(response);
+            return ResponseEntity.badRequest().body(new ErroResponse(e.getMessage()));
         } catch (Exception e) {
-            response.put("error", "Erro interno do servidor: " + e.getMessage());
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(new ErroResponse("Erro interno do servidor: " + e.getMessage()));
+        }
+    }
+
+    // Executa a compactação sob demanda e devolve o tamanho da tabela antes/depois
+    @PostMapping("/compactar")
+    public ResponseEntity<?> compactar() {
+        try {
+            return ResponseEntity.ok(compactacaoService.compactar());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(new ErroResponse(e.getMessage()));
         }
     }
 
@@ -186,21 +192,16 @@ public class HistoricoAgendamentoController {
     // ===== ENDPOINTS DE ESTATÍSTICAS =====
 
     @GetMapping("/stats")
-    public ResponseEntity<Map<String, Object>> estatisticas() {
+    public ResponseEntity<HistoricoStatsResponse> estatisticas() {
         try {
-            Map<String, Object> stats = new HashMap<>();
-            
-            List<HistoricoAgendamento> todos = historicoService.listarHistoricos();
-            List<HistoricoAgendamento> criados = historicoService.buscarPorAcao("CRIADO");
-            List<HistoricoAgendamento> atualizados = historicoService.buscarPorAcao("ATUALIZADO");
-            List<HistoricoAgendamento> statusAlterados = historicoService.buscarPorAcao("STATUS_ALTERADO");
-            
-            stats.put("total", todos.size());
-            stats.put("criados", criados.size());
-            stats.put("atualizados", atualizados.size());
-            stats.put("statusAlterados", statusAlterados.size());
+            // Conta no banco (ativos + arquivo) em vez de carregar cada lista
+            Map<String, Long> porAcao = historicoService.contarPorAcao();
             
-            return ResponseEntity.ok(stats);
+            return ResponseEntity.ok(new HistoricoStatsResponse(
+                porAcao.values().stream().mapToLong(Long::longValue).sum(),
+                porAcao.getOrDefault("CRIADO", 0L),
+                porAcao.getOrDefault("ATUALIZADO", 0L),
+                porAcao.getOrDefault("STATUS_ALTERADO", 0L)));
             
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
@@ -0,0 +1,54 @@
+package com.boxpro.controller;
+
+import com.boxpro.dto.response.ErroResponse;
+import com.boxpro.dto.response.ImportacaoResponse;
+import com.boxpro.importacao.ImportacaoService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.InputStream;
+
+@RestController
+@RequestMapping("/api/importacao")
+@CrossOrigin(origins = "*")
+public class ImportacaoController {
+
+    @Autowired
+    private ImportacaoService importacaoService;
+
+    // Corpo da requisição é o próprio CSV (text/csv), lido em streaming; multipart
+    // não é aceito porque o servlet o bufferiza inteiro antes de chegar aqui.
+    // Primeira linha é o cabeçalho; separador ',' ou ';'.
+    @PostMapping(value = "/{tipo}", consumes = {"text/csv", MediaType.TEXT_PLAIN_VALUE, MediaType.APPLICATION_OCTET_STREAM_VALUE})
+    public ResponseEntity<?> importar(@PathVariable String tipo, HttpServletRequest request) {
+        try {
+            ImportacaoResponse resposta = importacaoService.importar(tipo, request.getInputStream());
+            return ResponseEntity.ok(resposta);
+
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new ErroResponse(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(new ErroResponse("Erro interno do servidor: " + e.getMessage()));
+        }
+    }
+
+    @GetMapping("/relatorios/{id}")
+    public ResponseEntity<?> relatorio(@PathVariable String id) {
+        InputStream conteudo = importacaoService.relatorio(id);
+        if (conteudo == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                .body(new ErroResponse("Relatório não encontrado ou expirado"));
+        }
+        return ResponseEntity.ok()
+            .contentType(MediaType.parseMediaType("text/csv; charset=UTF-8"))
+            .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"erros-importacao.csv\"")
+            .body(new InputStreamResource(conteudo));
+    }
+}
@@ -0,0 +1,98 @@
+package com.boxpro.controller;
+
+import com.boxpro.dto.response.ControllerStatusResponse;
+import com.boxpro.dto.response.ErroResponse;
+import com.boxpro.dto.response.MensagemResponse;
+import com.boxpro.dto.response.ResumoAgendamentosResponse;
+import com.boxpro.service.RelatorioService;
+import com.boxpro.service.ResumoDiarioService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/relatorios")
+@CrossOrigin(origins = "*")
+public class RelatorioController {
+
+    @Autowired
+    private RelatorioService relatorioService;
+
+    @Autowired
+    private ResumoDiarioService resumoDiarioService;
+
+    @GetMapping("/status")
+    public ResponseEntity<ControllerStatusResponse> status() {
+        return ResponseEntity.ok(new ControllerStatusResponse(
+            "✅ RelatorioController funcionando!",
+            System.currentTimeMillis(),
+            List.of(
+            "GET /api/relatorios/diario?dataInicio=&dataFim= - Volume e faturamento por dia e status",
+            "GET /api/relatorios/mensal?ano= - Volume e faturamento por mês e status",
+            "GET /api/relatorios/servicos?dataInicio=&dataFim= - Por serviço e status",
+            "GET /api/relatorios/funcionarios?dataInicio=&dataFim= - Por funcionário e status",
+            "POST /api/relatorios/resumo/reconstruir?dataInicio=&dataFim= - Recalcular resumo diário"
+        )));
+    }
+
+    @GetMapping("/diario")
+    public ResponseEntity<?> diario(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataInicio,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataFim) {
+        try {
+            List<ResumoAgendamentosResponse> linhas = relatorioService.porDia(dataInicio, dataFim);
+            return ResponseEntity.ok(linhas);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new ErroResponse(e.getMessage()));
+        }
+    }
+
+    @GetMapping("/mensal")
+    public ResponseEntity<List<ResumoAgendamentosResponse>> mensal(
+            @RequestParam(required = false) Integer ano) {
+        int anoConsulta = (ano != null) ? ano : LocalDate.now().getYear();
+        return ResponseEntity.ok(relatorioService.porMes(anoConsulta));
+    }
+
+    @GetMapping("/servicos")
+    public ResponseEntity<?> porServico(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataInicio,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataFim) {
+        try {
+            return ResponseEntity.ok(relatorioService.porServico(dataInicio, dataFim));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new ErroResponse(e.getMessage()));
+        }
+    }
+
+    @GetMapping("/funcionarios")
+    public ResponseEntity<?> porFuncionario(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataInicio,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataFim) {
+        try {
+            return ResponseEntity.ok(relatorioService.porFuncionario(dataInicio, dataFim));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new ErroResponse(e.getMessage()));
+        }
+    }
+
+    @PostMapping("/resumo/reconstruir")
+    public ResponseEntity<?> reconstruirResumo(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataInicio,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataFim) {
+        try {
+            int linhas = resumoDiarioService.reconstruir(dataInicio, dataFim);
+            return ResponseEntity.ok(new MensagemResponse("Resumo reconstruído: " + linhas + " linhas"));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new ErroResponse(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(new ErroResponse("Erro interno do servidor: " + e.getMessage()));
+        }
+    }
+}
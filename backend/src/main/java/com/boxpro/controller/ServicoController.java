@@ -1,16 +1,30 @@
 package com.boxpro.controller;
 
+import com.boxpro.cache.PoliticaCache;
+import com.boxpro.cache.VersaoColecoes;
+import com.boxpro.dto.response.ErroResponse;
 import com.boxpro.entity.Servico;
+import com.boxpro.projecao.Projecao;
+import com.boxpro.projecao.ProjecaoService;
+import com.boxpro.service.CatalogoService;
 import com.boxpro.service.ServicoService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
 
+import java.io.IOException;
 import java.util.List;
 
 @RestController
@@ -21,6 +35,18 @@ public class ServicoController {
     @Autowired
     private ServicoService servicoService;
     
+    @Autowired
+    private VersaoColecoes versaoColecoes;
+    
+    @Autowired
+    private CatalogoService catalogoService;
+    
+    @Autowired
+    private ProjecaoService projecaoService;
+    
+    @Value("${app.cache.servicos.max-age:60}")
+    private long cacheMaxAge;
+    
     @GetMapping("/teste")
     public ResponseEntity<String> teste() {
         return ResponseEntity.ok("OK - Serviços funcionando!");
@@ -28,18 +54,24 @@ public class ServicoController {
     
     // Endpoint paginado para a lista principal
     @GetMapping
-    public ResponseEntity<Page<Servico>> listarServicos(
+    public ResponseEntity<?> listarServicos(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "5") int size,
             @RequestParam(defaultValue = "createdAt") String sortBy,
-            @RequestParam(defaultValue = "desc") String sortDir) {
+            @RequestParam(defaultValue = "desc") String sortDir,
+            @RequestParam(required = false) String fields) {
         try {
             Sort.Direction direction = sortDir.equalsIgnoreCase("desc") ? 
                 Sort.Direction.DESC : Sort.Direction.ASC;
             
             Pageable pageable = PageRequest.of(page, size, Sort.by(direction, sortBy));
+            if (fields != null) {
+                return ResponseEntity.ok(projecaoService.listar(Projecao.SERVICOS, fields, pageable));
+            }
             Page<Servico> servicos = servicoService.listarServicosPaginados(pageable);
             return ResponseEntity.ok(servicos);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new ErroResponse(e.getMessage()));
         } catch (Exception e) {
             e.printStackTrace();
             return ResponseEntity.internalServerError().build();
@@ -58,11 +90,60 @@ public class ServicoController {
         }
     }
     
+    // Catálogo completo (categorias + serviços ativos) escrito direto na resposta a partir
+    // dos bytes prontos do snapshot, em gzip quando o cliente aceita
+    @GetMapping("/catalogo")
+    public void catalogo(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String etag = catalogoService.etagAtual();
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, PoliticaCache.maxAge(cacheMaxAge).getHeaderValue());
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+
+        if (new ServletWebRequest(request, response).checkNotModified(etag)) {
+            return;
+        }
+
+        CatalogoService.Snapshot catalogo = catalogoService.obter();
+        byte[] corpo = catalogo.identidade();
+        if (aceitaGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING))) {
+            corpo = catalogo.gzip();
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        response.setHeader(HttpHeaders.ETAG, catalogo.etag());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLength(corpo.length);
+        response.getOutputStream().write(corpo);
+    }
+    
+    private static boolean aceitaGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String codificacao : acceptEncoding.split(",")) {
+            String[] partes = codificacao.trim().split(";");
+            if (partes[0].trim().equalsIgnoreCase("gzip")) {
+                return partes.length == 1 || !partes[1].replace(" ", "").equals("q=0");
+            }
+        }
+        return false;
+    }
+    
     @GetMapping("/ativos")
-    public ResponseEntity<List<Servico>> listarServicosAtivos() {
+    public ResponseEntity<List<Servico>> listarServicosAtivos(WebRequest request) {
+        // A versão é lida antes da consulta: um 304 não toca o banco
+        String etag = versaoColecoes.etag(VersaoColecoes.SERVICOS, "ativos");
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .eTag(etag)
+                .cacheControl(PoliticaCache.maxAge(cacheMaxAge))
+                .build();
+        }
         try {
             List<Servico> servicos = servicoService.listarServicosAtivos();
-            return ResponseEntity.ok(servicos);
+            return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(PoliticaCache.maxAge(cacheMaxAge))
+                .body(servicos);
         } catch (Exception e) {
             e.printStackTrace();
             return ResponseEntity.internalServerError().build();
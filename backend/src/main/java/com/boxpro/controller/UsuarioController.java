@@ -4,7 +4,6 @@ import java.util.List;
 
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
@@ -19,8 +18,13 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.boxpro.dto.response.ErroResponse;
+import com.boxpro.dto.response.VisaoGeralClienteResponse;
 import com.boxpro.entity.Usuario;
+import com.boxpro.projecao.Projecao;
+import com.boxpro.projecao.ProjecaoService;
 import com.boxpro.service.UsuarioService;
+import com.boxpro.service.VisaoGeralClienteService;
 
 
 @RestController
@@ -30,6 +34,12 @@ public class UsuarioController {
     @Autowired
     private UsuarioService usuarioService;
 
+    @Autowired
+    private VisaoGeralClienteService visaoGeralClienteService;
+
+    @Autowired
+    private ProjecaoService projecaoService;
+
     @PostMapping
     public ResponseEntity<Usuario> criarCliente(@RequestBody Usuario cliente) {
         System.out.println("POST /clientes chamado com: " + cliente);
@@ -51,12 +61,29 @@ public class UsuarioController {
         return ResponseEntity.ok(clienteEditado);
     }
 
+    @GetMapping("/{id}/visao-geral")
+    public ResponseEntity<VisaoGeralClienteResponse> visaoGeral(
+        @PathVariable Long id,
+        @RequestParam(defaultValue = "10") int agendamentos
+    ) {
+        return ResponseEntity.ok(visaoGeralClienteService.montar(id, agendamentos));
+    }
+
+    // ?fields=nome,email devolve só essas colunas
     @GetMapping
-    public Page<Usuario> listarClientes(
+    public ResponseEntity<?> listarClientes(
         @RequestParam(defaultValue = "0") int page,
-        @RequestParam(defaultValue = "10") int size
+        @RequestParam(defaultValue = "10") int size,
+        @RequestParam(required = false) String fields
     ) {
-        return usuarioService.listPage(page, size);
+        if (fields != null) {
+            try {
+                return ResponseEntity.ok(projecaoService.listar(Projecao.CLIENTES, fields, PageRequest.of(page, size)));
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body(new ErroResponse(e.getMessage()));
+            }
+        }
+        return ResponseEntity.ok(usuarioService.listPage(page, size));
     }
 
     @GetMapping("/todos")
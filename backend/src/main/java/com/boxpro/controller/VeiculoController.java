@@ -4,6 +4,7 @@ import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -16,8 +17,12 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.boxpro.dto.response.ErroResponse;
 import com.boxpro.dto.request.VeiculoRequestDTO;
+import com.boxpro.dto.response.HistoricoServicosResponse;
 import com.boxpro.dto.response.VeiculoResponseDTO;
+import com.boxpro.projecao.Projecao;
+import com.boxpro.projecao.ProjecaoService;
 import com.boxpro.service.VeiculoService;
 
 import io.swagger.v3.oas.annotations.parameters.RequestBody;
@@ -29,6 +34,9 @@ public class VeiculoController {
     @Autowired
     private VeiculoService veiculoService;
 
+    @Autowired
+    private ProjecaoService projecaoService;
+
     @PostMapping("/adicionar")
     public ResponseEntity<VeiculoResponseDTO> adicionar(@RequestBody VeiculoRequestDTO dto){
         System.out.println("DTO completo no controller: " + dto);
@@ -70,10 +78,19 @@ public class VeiculoController {
         return ResponseEntity.noContent().build();
     }
 
+    // ?fields=placa,modelo devolve só essas colunas
     @GetMapping("/pagina")
-    public ResponseEntity<Page<VeiculoResponseDTO>> listarVeiculosPaginados(
+    public ResponseEntity<?> listarVeiculosPaginados(
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "5") int size) {
+            @RequestParam(defaultValue = "5") int size,
+            @RequestParam(required = false) String fields) {
+        if (fields != null) {
+            try {
+                return ResponseEntity.ok(projecaoService.listar(Projecao.VEICULOS, fields, PageRequest.of(page, size)));
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body(new ErroResponse(e.getMessage()));
+            }
+        }
         Page<VeiculoResponseDTO> veiculosPage = veiculoService.listarVeiculosPaginados(page, size);
         return ResponseEntity.ok(veiculosPage);
     }
@@ -87,6 +104,15 @@ public class VeiculoController {
         return ResponseEntity.ok(veiculosPage);
     }
 
+    // Linha do tempo de serviços, paginada por cursor (proximoCursor da resposta)
+    @GetMapping("/{id}/historico-servicos")
+    public ResponseEntity<HistoricoServicosResponse> historicoServicos(
+            @PathVariable Long id,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limite) {
+        return ResponseEntity.ok(veiculoService.historicoServicos(id, cursor, limite));
+    }
+
     @GetMapping("/placa/existe/{placa}")
     public ResponseEntity<Boolean> placaExiste(@PathVariable String placa) {
         boolean existe = veiculoService.placaExiste(placa);
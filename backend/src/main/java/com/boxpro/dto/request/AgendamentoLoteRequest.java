@@ -0,0 +1,21 @@
+package com.boxpro.dto.request;
+
+import com.boxpro.entity.Agendamento;
+
+import java.util.List;
+
+/**
+ * Criação de vários agendamentos de uma vez (clientes de frota).
+ * Sem modo informado, o lote é tudo-ou-nada.
+ */
+public record AgendamentoLoteRequest(Modo modo, List<Agendamento> agendamentos) {
+
+    public enum Modo {
+        TUDO_OU_NADA,
+        MELHOR_ESFORCO
+    }
+
+    public Modo modoEfetivo() {
+        return modo != null ? modo : Modo.TUDO_OU_NADA;
+    }
+}
@@ -0,0 +1,10 @@
+package com.boxpro.dto.request;
+
+import java.time.LocalTime;
+import java.util.List;
+
+/**
+ * Serviços a cotar (ids do catálogo, podem repetir) e, opcionalmente, o
+ * horário de início para calcular o término.
+ */
+public record CotacaoRequest(List<Long> servicos, LocalTime horaInicio) {}
@@ -0,0 +1,13 @@
+package com.boxpro.dto.request;
+
+import java.util.List;
+
+/**
+ * Mudanças de status em lote (fechamento do dia). statusEsperado protege
+ * contra alterações concorrentes: se o agendamento não estiver nesse status,
+ * o item é recusado. Sem statusEsperado vale o status lido no momento.
+ */
+public record StatusLoteRequest(Integer funcionarioId, List<Transicao> transicoes) {
+
+    public record Transicao(Integer id, String statusEsperado, String novoStatus, String motivo) {}
+}
@@ -0,0 +1,16 @@
+package com.boxpro.dto.response;
+
+import java.util.List;
+
+public record AgendamentoLoteResponse(String modo, int criados, int rejeitados, List<Item> itens) {
+
+    public static final String CRIADO = "CRIADO";
+    public static final String REJEITADO = "REJEITADO";
+    public static final String NAO_PROCESSADO = "NAO_PROCESSADO";
+
+    /**
+     * Resultado de cada posição do lote, na ordem em que foi enviada.
+     */
+    public record Item(int indice, String resultado, Integer agendamentoId,
+                       Integer funcionarioResponsavelId, String erro) {}
+}
@@ -0,0 +1,5 @@
+package com.boxpro.dto.response;
+
+import com.boxpro.entity.Agendamento;
+
+public record AgendamentoMensagemResponse(String message, Agendamento agendamento) {}
@@ -0,0 +1,9 @@
+package com.boxpro.dto.response;
+
+public record AgendamentoStatsResponse(
+        long total,
+        long agendados,
+        long concluidos,
+        long cancelados,
+        long emAndamento,
+        long futuros) {}
@@ -0,0 +1,5 @@
+package com.boxpro.dto.response;
+
+import java.util.Map;
+
+public record AuthStatusResponse(String service, String status, String version, Map<String, String> endpoints) {}
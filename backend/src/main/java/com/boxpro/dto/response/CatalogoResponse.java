@@ -0,0 +1,15 @@
+package com.boxpro.dto.response;
+
+import java.math.BigDecimal;
+import java.time.LocalTime;
+import java.util.List;
+
+/**
+ * Catálogo público: categorias com os serviços ativos de cada uma.
+ */
+public record CatalogoResponse(List<Categoria> categorias) {
+
+    public record Categoria(Long id, String nome, String descricao, List<Servico> servicos) {}
+
+    public record Servico(Long id, String nome, String descricao, BigDecimal preco, LocalTime duracaoEstimada) {}
+}
@@ -0,0 +1,3 @@
+package com.boxpro.dto.response;
+
+public record ContatoRemovidoResponse(String message, String contatoId) {}
@@ -0,0 +1,5 @@
+package com.boxpro.dto.response;
+
+import java.util.List;
+
+public record ControllerStatusResponse(String message, long timestamp, List<String> endpoints) {}
@@ -0,0 +1,19 @@
+package com.boxpro.dto.response;
+
+import java.math.BigDecimal;
+import java.time.LocalTime;
+import java.util.List;
+
+/**
+ * Preço e duração de uma cesta de serviços pelo catálogo atual. horaFim e
+ * duracaoMinutos ficam nulos se algum serviço não tem duração estimada.
+ */
+public record CotacaoResponse(List<Item> itens,
+                              BigDecimal valorTotal,
+                              Long duracaoMinutos,
+                              LocalTime horaInicio,
+                              LocalTime horaFim,
+                              BigDecimal taxaCancelamento) {
+
+    public record Item(Long servicoId, String nome, BigDecimal preco, Long duracaoMinutos) {}
+}
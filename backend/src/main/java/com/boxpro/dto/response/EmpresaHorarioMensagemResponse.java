@@ -0,0 +1,3 @@
+package com.boxpro.dto.response;
+
+public record EmpresaHorarioMensagemResponse(String message, EmpresaHorariosResponseDTO horario) {}
@@ -0,0 +1,3 @@
+package com.boxpro.dto.response;
+
+public record EmpresaMensagemResponse(String message, EmpresaResponseDTO empresa) {}
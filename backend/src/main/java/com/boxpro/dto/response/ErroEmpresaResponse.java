@@ -0,0 +1,3 @@
+package com.boxpro.dto.response;
+
+public record ErroEmpresaResponse(String error, String empresaId) {}
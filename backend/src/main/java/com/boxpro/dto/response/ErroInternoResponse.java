@@ -0,0 +1,3 @@
+package com.boxpro.dto.response;
+
+public record ErroInternoResponse(String error, String message) {}
@@ -0,0 +1,33 @@
+package com.boxpro.dto.response;
+
+import com.boxpro.entity.Funcionario;
+import com.boxpro.entity.enums.TipoFuncionario;
+
+import java.time.LocalDateTime;
+
+public record FuncionarioLogadoResponse(
+        Integer id,
+        String nome,
+        String email,
+        String telefone,
+        String cpf,
+        TipoFuncionario tipoFuncionario,
+        Boolean ativo,
+        LocalDateTime dataCriacao,
+        LocalDateTime ultimoLogin,
+        String status) {
+
+    public static FuncionarioLogadoResponse de(Funcionario funcionario) {
+        return new FuncionarioLogadoResponse(
+                funcionario.getId(),
+                funcionario.getNome(),
+                funcionario.getEmail(),
+                funcionario.getTelefone(),
+                funcionario.getCpf(),
+                funcionario.getTipoFuncionario(),
+                funcionario.getAtivo(),
+                funcionario.getDataCriacao(),
+                funcionario.getUltimoLogin(),
+                "success");
+    }
+}
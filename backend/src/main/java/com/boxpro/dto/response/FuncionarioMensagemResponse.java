@@ -0,0 +1,5 @@
+package com.boxpro.dto.response;
+
+import com.boxpro.entity.Funcionario;
+
+public record FuncionarioMensagemResponse(String message, Funcionario funcionario) {}
@@ -0,0 +1,9 @@
+package com.boxpro.dto.response;
+
+public record FuncionarioStatsResponse(
+        long total,
+        long ativos,
+        long disponiveis,
+        long admins,
+        long funcionarios,
+        long inativos) {}
@@ -0,0 +1,5 @@
+package com.boxpro.dto.response;
+
+import com.boxpro.entity.HistoricoAgendamento;
+
+public record HistoricoMensagemResponse(String message, HistoricoAgendamento historico) {}
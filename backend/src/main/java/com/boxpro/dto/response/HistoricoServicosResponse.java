@@ -0,0 +1,20 @@
+package com.boxpro.dto.response;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+
+/**
+ * Página da linha do tempo de serviços de um veículo, do mais recente para
+ * o mais antigo. proximoCursor é null na última página.
+ */
+public record HistoricoServicosResponse(Long veiculoId, List<Atendimento> atendimentos, String proximoCursor) {
+
+    public record Atendimento(Integer agendamentoId, LocalDate data, LocalTime horaInicio, LocalTime horaFim,
+                              String status, Integer servicoId, String servicoNome, BigDecimal valorTotal,
+                              boolean arquivado, List<Evento> historico) {}
+
+    public record Evento(String acao, String detalhes, Integer funcionarioId, LocalDateTime dataAcao) {}
+}
@@ -0,0 +1,7 @@
+package com.boxpro.dto.response;
+
+public record HistoricoStatsResponse(
+        long total,
+        long criados,
+        long atualizados,
+        long statusAlterados) {}
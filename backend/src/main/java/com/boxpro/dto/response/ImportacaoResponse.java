@@ -0,0 +1,13 @@
+package com.boxpro.dto.response;
+
+import java.util.List;
+
+/**
+ * Resultado de uma importação. relatorioErros aponta para o CSV com todas
+ * as linhas recusadas; null quando nenhuma foi recusada.
+ */
+public record ImportacaoResponse(String tipo, long linhas, long importados, long rejeitados,
+                                 List<Erro> erros, String relatorioErros) {
+
+    public record Erro(long linha, String mensagem) {}
+}
@@ -0,0 +1,3 @@
+package com.boxpro.dto.response;
+
+public record LogoutResponse(String message, String status, String instruction) {}
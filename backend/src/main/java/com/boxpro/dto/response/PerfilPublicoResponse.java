@@ -0,0 +1,10 @@
+package com.boxpro.dto.response;
+
+import java.util.List;
+
+/**
+ * Dados públicos da empresa para a página inicial, em uma única resposta.
+ */
+public record PerfilPublicoResponse(EmpresaResponseDTO empresa,
+                                    List<EmpresaHorariosResponseDTO> horarios,
+                                    List<EmpresaContatosResponseDTO> contatos) {}
@@ -0,0 +1,10 @@
+package com.boxpro.dto.response;
+
+import java.math.BigDecimal;
+
+/**
+ * Linha de relatório lida do resumo diário. grupo é a data, o mês
+ * (yyyy-MM), o id do serviço ou o id do funcionário, conforme o relatório.
+ */
+public record ResumoAgendamentosResponse(String grupo, String status, long quantidade,
+                                         BigDecimal valorTotal, BigDecimal taxaCancelamento) {}
@@ -0,0 +1,13 @@
+package com.boxpro.dto.response;
+
+import java.util.List;
+
+public record StatusLoteResponse(int atualizados, int recusados, List<Item> itens) {
+
+    public static final String ATUALIZADO = "ATUALIZADO";
+    public static final String NAO_ENCONTRADO = "NAO_ENCONTRADO";
+    public static final String CONFLITO = "CONFLITO";
+    public static final String INVALIDO = "INVALIDO";
+
+    public record Item(Integer id, String resultado, String statusAtual, String erro) {}
+}
@@ -0,0 +1,3 @@
+package com.boxpro.dto.response;
+
+public record StatusOnlineResponse(String status, String service, String timestamp) {}
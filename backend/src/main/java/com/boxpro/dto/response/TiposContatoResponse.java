@@ -0,0 +1,5 @@
+package com.boxpro.dto.response;
+
+import java.util.Map;
+
+public record TiposContatoResponse(Map<String, String> tipos, int total) {}
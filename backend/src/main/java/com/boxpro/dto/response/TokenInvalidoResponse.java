@@ -0,0 +1,3 @@
+package com.boxpro.dto.response;
+
+public record TokenInvalidoResponse(boolean valid, String message, String status) {}
@@ -0,0 +1,10 @@
+package com.boxpro.dto.response;
+
+import com.boxpro.entity.enums.TipoFuncionario;
+
+public record TokenValidoResponse(
+        boolean valid,
+        String funcionario,
+        String email,
+        TipoFuncionario tipoFuncionario,
+        String status) {}
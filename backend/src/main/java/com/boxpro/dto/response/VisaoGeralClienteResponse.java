@@ -0,0 +1,32 @@
+package com.boxpro.dto.response;
+
+import com.boxpro.entity.Usuario;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+/**
+ * Tela do cliente em uma resposta. Partes que não ficaram prontas no prazo
+ * vêm nulas e com o nome em incompletos.
+ */
+public record VisaoGeralClienteResponse(Usuario cliente,
+                                        List<VeiculoResponseDTO> veiculos,
+                                        List<AgendamentoRecente> ultimosAgendamentos,
+                                        Agregados agregados,
+                                        List<String> incompletos) {
+
+    public static final String CLIENTE = "cliente";
+    public static final String VEICULOS = "veiculos";
+    public static final String ULTIMOS_AGENDAMENTOS = "ultimosAgendamentos";
+    public static final String AGREGADOS = "agregados";
+
+    public record AgendamentoRecente(Integer id, LocalDate data, LocalTime horaInicio, String status,
+                                     Integer veiculoId, String servicoNome, BigDecimal valorTotal) {}
+
+    /**
+     * Considera só agendamentos concluídos, incluindo os arquivados.
+     */
+    public record Agregados(long visitas, BigDecimal totalGasto, LocalDate ultimaVisita) {}
+}
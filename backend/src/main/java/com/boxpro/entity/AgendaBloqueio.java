@@ -0,0 +1,67 @@
+package com.boxpro.entity;
+
+import jakarta.persistence.*;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * Uma linha por empresa e dia com agendamentos criados ou remarcados. O
+ * upsert que incrementa versao trava a linha até o fim da transação, o que
+ * serializa as escritas do dia entre nós; versao conta essas escritas.
+ * empresa_id = 0 fora do modo multiempresa.
+ */
+@Entity
+@Table(name = "agenda_bloqueio")
+@IdClass(AgendaBloqueio.Chave.class)
+public class AgendaBloqueio {
+
+    @Id
+    @Column(name = "empresa_id", nullable = false)
+    private Long empresaId;
+
+    @Id
+    @Column(name = "data", nullable = false)
+    private LocalDate data;
+
+    @Column(name = "versao", nullable = false)
+    private Long versao = 0L;
+
+    public AgendaBloqueio() {}
+
+    // Getters and Setters
+    public Long getEmpresaId() { return empresaId; }
+    public void setEmpresaId(Long empresaId) { this.empresaId = empresaId; }
+
+    public LocalDate getData() { return data; }
+    public void setData(LocalDate data) { this.data = data; }
+
+    public Long getVersao() { return versao; }
+    public void setVersao(Long versao) { this.versao = versao; }
+
+    public static class Chave implements Serializable {
+        private Long empresaId;
+        private LocalDate data;
+
+        public Chave() {}
+
+        public Chave(Long empresaId, LocalDate data) {
+            this.empresaId = empresaId;
+            this.data = data;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Chave)) return false;
+            Chave chave = (Chave) o;
+            return Objects.equals(empresaId, chave.empresaId) && Objects.equals(data, chave.data);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(empresaId, data);
+        }
+    }
+}
@@ -7,16 +7,38 @@ import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.List;
 
+import com.boxpro.entity.converter.StatusAgendamentoConverter;
+import com.boxpro.entity.enums.StatusAgendamento;
+import com.boxpro.multiempresa.EmpresaContexto;
+import com.boxpro.multiempresa.EmpresaListener;
+import com.boxpro.multiempresa.PertenceEmpresa;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
-
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.Filter;
+import org.hibernate.annotations.FilterDef;
+import org.hibernate.annotations.ParamDef;
+
+// O filtro da empresa é declarado aqui e usado também por Servico e Funcionario
+@FilterDef(name = EmpresaContexto.FILTRO, parameters = @ParamDef(name = EmpresaContexto.PARAMETRO_FILTRO, type = Long.class))
+@Filter(name = EmpresaContexto.FILTRO, condition = "empresa_id = :" + EmpresaContexto.PARAMETRO_FILTRO)
+@EntityListeners(EmpresaListener.class)
+@DynamicUpdate
 @Entity
-@Table(name = "agendamentos")
-public class Agendamento {
+@Table(name = "agendamentos", indexes = {
+    @Index(name = "idx_agendamentos_status_codigo_data", columnList = "status_codigo, data_agendamento"),
+    @Index(name = "idx_agendamentos_empresa_data", columnList = "empresa_id, data_agendamento"),
+    @Index(name = "idx_agendamentos_veiculo_data", columnList = "veiculo_id, data_agendamento"),
+    @Index(name = "idx_agendamentos_cliente_data", columnList = "cliente_id, data_agendamento")
+})
+public class Agendamento implements PertenceEmpresa {
 
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Integer id;
 
+    @Column(name = "empresa_id")
+    private Long empresaId;
+
     @Column(name = "cliente_id", nullable = false)
     private Integer clienteId;
 
@@ -38,8 +60,9 @@ public class Agendamento {
     @Column(name = "hora_fim")
     private LocalTime horaFim;
 
-    @Column(length = 50)
-    private String status = "agendado";
+    @Convert(converter = StatusAgendamentoConverter.class)
+    @Column(name = "status_codigo", columnDefinition = "TINYINT")
+    private StatusAgendamento status = StatusAgendamento.AGENDADO;
 
     @Column(columnDefinition = "TEXT")
     private String observacoes;
@@ -56,12 +79,20 @@ public class Agendamento {
     @Column(name = "taxa_cancelamento", precision = 10, scale = 2)
     private BigDecimal taxaCancelamento;
 
+    @Column(name = "lembrete_enviado_em")
+    private LocalDateTime lembreteEnviadoEm;
+
     @Column(name = "created_at")
     private LocalDateTime createdAt;
 
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
+    // Concorrência otimista; o PATCH recebe a versão esperada no If-Match
+    @Version
+    @Column(name = "versao", columnDefinition = "BIGINT NOT NULL DEFAULT 0")
+    private Long versao;
+
     @OneToMany(mappedBy = "agendamento")
     @JsonManagedReference // Lado "pai" da referência
     private List<HistoricoAgendamento> historicos;
@@ -71,7 +102,7 @@ public class Agendamento {
 
     public Agendamento(Integer id, Integer clienteId, Integer veiculoId, Integer servicoId, 
                       Integer funcionarioResponsavelId, LocalDate dataAgendamento, LocalTime horaInicio, 
-                      LocalTime horaFim, String status, String observacoes, BigDecimal valorTotal) {
+                      LocalTime horaFim, StatusAgendamento status, String observacoes, BigDecimal valorTotal) {
         this.id = id;
         this.clienteId = clienteId;
         this.veiculoId = veiculoId;
@@ -123,8 +154,8 @@ public class Agendamento {
     public LocalTime getHoraFim() { return horaFim; }
     public void setHoraFim(LocalTime horaFim) { this.horaFim = horaFim; }
 
-    public String getStatus() { return status; }
-    public void setStatus(String status) { this.status = status; }
+    public StatusAgendamento getStatus() { return status; }
+    public void setStatus(StatusAgendamento status) { this.status = status; }
 
     public String getObservacoes() { return observacoes; }
     public void setObservacoes(String observacoes) { this.observacoes = observacoes; }
@@ -141,12 +172,23 @@ public class Agendamento {
     public BigDecimal getTaxaCancelamento() { return taxaCancelamento; }
     public void setTaxaCancelamento(BigDecimal taxaCancelamento) { this.taxaCancelamento = taxaCancelamento; }
 
+    @Override
+    public Long getEmpresaId() { return empresaId; }
+    @Override
+    public void setEmpresaId(Long empresaId) { this.empresaId = empresaId; }
+
+    public LocalDateTime getLembreteEnviadoEm() { return lembreteEnviadoEm; }
+    public void setLembreteEnviadoEm(LocalDateTime lembreteEnviadoEm) { this.lembreteEnviadoEm = lembreteEnviadoEm; }
+
     public LocalDateTime getCreatedAt() { return createdAt; }
     public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
 
     public LocalDateTime getUpdatedAt() { return updatedAt; }
     public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
 
+    public Long getVersao() { return versao; }
+    public void setVersao(Long versao) { this.versao = versao; }
+
     public List<HistoricoAgendamento> getHistoricos() { return historicos; }
     public void setHistoricos(List<HistoricoAgendamento> historicos) { this.historicos = historicos; }
 }
\ No newline at end of file
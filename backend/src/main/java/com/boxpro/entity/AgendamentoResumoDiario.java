@@ -0,0 +1,108 @@
+package com.boxpro.entity;
+
+import jakarta.persistence.*;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * Agregado diário de agendamentos por empresa, serviço, funcionário e
+ * status, mantido incrementalmente pelas escritas em agendamentos.
+ * funcionario_id = 0 representa agendamentos sem funcionário responsável;
+ * empresa_id = 0 fora do modo multiempresa.
+ */
+@Entity
+@Table(name = "agendamento_resumo_diario")
+@IdClass(AgendamentoResumoDiario.Chave.class)
+public class AgendamentoResumoDiario {
+
+    @Id
+    @Column(name = "empresa_id", nullable = false, columnDefinition = "BIGINT NOT NULL DEFAULT 0")
+    private Long empresaId;
+
+    @Id
+    @Column(name = "data", nullable = false)
+    private LocalDate data;
+
+    @Id
+    @Column(name = "servico_id", nullable = false)
+    private Integer servicoId;
+
+    @Id
+    @Column(name = "funcionario_id", nullable = false)
+    private Integer funcionarioId;
+
+    @Id
+    @Column(name = "status", length = 50, nullable = false)
+    private String status;
+
+    @Column(name = "quantidade", nullable = false)
+    private Long quantidade = 0L;
+
+    @Column(name = "valor_total", precision = 14, scale = 2, nullable = false)
+    private BigDecimal valorTotal = BigDecimal.ZERO;
+
+    @Column(name = "taxa_cancelamento", precision = 14, scale = 2, nullable = false)
+    private BigDecimal taxaCancelamento = BigDecimal.ZERO;
+
+    public AgendamentoResumoDiario() {}
+
+    // Getters and Setters
+    public Long getEmpresaId() { return empresaId; }
+    public void setEmpresaId(Long empresaId) { this.empresaId = empresaId; }
+
+    public LocalDate getData() { return data; }
+    public void setData(LocalDate data) { this.data = data; }
+
+    public Integer getServicoId() { return servicoId; }
+    public void setServicoId(Integer servicoId) { this.servicoId = servicoId; }
+
+    public Integer getFuncionarioId() { return funcionarioId; }
+    public void setFuncionarioId(Integer funcionarioId) { this.funcionarioId = funcionarioId; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public Long getQuantidade() { return quantidade; }
+    public void setQuantidade(Long quantidade) { this.quantidade = quantidade; }
+
+    public BigDecimal getValorTotal() { return valorTotal; }
+    public void setValorTotal(BigDecimal valorTotal) { this.valorTotal = valorTotal; }
+
+    public BigDecimal getTaxaCancelamento() { return taxaCancelamento; }
+    public void setTaxaCancelamento(BigDecimal taxaCancelamento) { this.taxaCancelamento = taxaCancelamento; }
+
+    public static class Chave implements Serializable {
+        private Long empresaId;
+        private LocalDate data;
+        private Integer servicoId;
+        private Integer funcionarioId;
+        private String status;
+
+        public Chave() {}
+
+        public Chave(Long empresaId, LocalDate data, Integer servicoId, Integer funcionarioId, String status) {
+            this.empresaId = empresaId;
+            this.data = data;
+            this.servicoId = servicoId;
+            this.funcionarioId = funcionarioId;
+            this.status = status;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Chave)) return false;
+            Chave chave = (Chave) o;
+            return Objects.equals(empresaId, chave.empresaId) && Objects.equals(data, chave.data)
+                    && Objects.equals(servicoId, chave.servicoId) && Objects.equals(funcionarioId, chave.funcionarioId) && Objects.equals(status, chave.status);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(empresaId, data, servicoId, funcionarioId, status);
+        }
+    }
+}
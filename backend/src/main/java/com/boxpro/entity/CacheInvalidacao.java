@@ -0,0 +1,58 @@
+package com.boxpro.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Registro de alteração para invalidar caches locais dos outros nós. O id
+ * crescente é a versão do registro; cada nó lê os ids acima do último que
+ * processou. Escrito e lido via JDBC por InvalidacaoCacheService; a entidade
+ * existe para o ddl-auto manter a tabela.
+ */
+@Entity
+@Table(name = "cache_invalidacao", indexes = {
+    @Index(name = "idx_cache_invalidacao_criado_em", columnList = "criado_em")
+})
+public class CacheInvalidacao {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "entidade", length = 50, nullable = false)
+    private String entidade;
+
+    @Column(name = "empresa_id")
+    private Long empresaId;
+
+    @Column(name = "chave", length = 100)
+    private String chave;
+
+    @Column(name = "no_origem", length = 64, nullable = false)
+    private String noOrigem;
+
+    @Column(name = "criado_em", nullable = false, columnDefinition = "DATETIME(3)")
+    private LocalDateTime criadoEm;
+
+    public CacheInvalidacao() {}
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getEntidade() { return entidade; }
+    public void setEntidade(String entidade) { this.entidade = entidade; }
+
+    public Long getEmpresaId() { return empresaId; }
+    public void setEmpresaId(Long empresaId) { this.empresaId = empresaId; }
+
+    public String getChave() { return chave; }
+    public void setChave(String chave) { this.chave = chave; }
+
+    public String getNoOrigem() { return noOrigem; }
+    public void setNoOrigem(String noOrigem) { this.noOrigem = noOrigem; }
+
+    public LocalDateTime getCriadoEm() { return criadoEm; }
+    public void setCriadoEm(LocalDateTime criadoEm) { this.criadoEm = criadoEm; }
+}
@@ -0,0 +1,58 @@
+package com.boxpro.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Evento de agendamento gravado na mesma transação da escrita. O id
+ * crescente é a ordem de entrega; OutboxRelay lê em lotes e repassa aos
+ * assinantes. Escrito e lido via JDBC; a entidade existe para o ddl-auto
+ * manter a tabela.
+ */
+@Entity
+@Table(name = "agendamento_outbox", indexes = {
+    @Index(name = "idx_agendamento_outbox_criado_em", columnList = "criado_em")
+})
+public class EventoOutbox {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "tipo", length = 30, nullable = false)
+    private String tipo;
+
+    @Column(name = "agendamento_id", nullable = false)
+    private Integer agendamentoId;
+
+    @Column(name = "empresa_id")
+    private Long empresaId;
+
+    @Column(name = "payload", nullable = false, columnDefinition = "TEXT")
+    private String payload;
+
+    @Column(name = "criado_em", nullable = false, columnDefinition = "DATETIME(3)")
+    private LocalDateTime criadoEm;
+
+    public EventoOutbox() {}
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getTipo() { return tipo; }
+    public void setTipo(String tipo) { this.tipo = tipo; }
+
+    public Integer getAgendamentoId() { return agendamentoId; }
+    public void setAgendamentoId(Integer agendamentoId) { this.agendamentoId = agendamentoId; }
+
+    public Long getEmpresaId() { return empresaId; }
+    public void setEmpresaId(Long empresaId) { this.empresaId = empresaId; }
+
+    public String getPayload() { return payload; }
+    public void setPayload(String payload) { this.payload = payload; }
+
+    public LocalDateTime getCriadoEm() { return criadoEm; }
+    public void setCriadoEm(LocalDateTime criadoEm) { this.criadoEm = criadoEm; }
+}
@@ -1,6 +1,7 @@
 package com.boxpro.entity;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Filter;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -10,15 +11,25 @@ import java.util.Collection;
 import java.util.List;
 
 import com.boxpro.entity.enums.TipoFuncionario;
+import com.boxpro.multiempresa.EmpresaContexto;
+import com.boxpro.multiempresa.EmpresaListener;
+import com.boxpro.multiempresa.PertenceEmpresa;
 
+@Filter(name = EmpresaContexto.FILTRO, condition = "empresa_id = :" + EmpresaContexto.PARAMETRO_FILTRO)
+@EntityListeners(EmpresaListener.class)
 @Entity
-@Table(name = "funcionarios")
-public class Funcionario implements UserDetails {
+@Table(name = "funcionarios", indexes = {
+    @Index(name = "idx_funcionarios_empresa", columnList = "empresa_id")
+})
+public class Funcionario implements UserDetails, PertenceEmpresa {
 
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Integer id;
 
+    @Column(name = "empresa_id")
+    private Long empresaId;
+
     @Column(nullable = false, length = 100)
     private String nome;
 
@@ -124,6 +135,11 @@ public class Funcionario implements UserDetails {
     public Boolean getBloqueado() { return bloqueado; }
     public void setBloqueado(Boolean bloqueado) { this.bloqueado = bloqueado; }
 
+    @Override
+    public Long getEmpresaId() { return empresaId; }
+    @Override
+    public void setEmpresaId(Long empresaId) { this.empresaId = empresaId; }
+
     // Métodos auxiliares
     public void incrementarTentativasLogin() {
         this.tentativasLogin = (this.tentativasLogin == null) ? 1 : this.tentativasLogin + 1;
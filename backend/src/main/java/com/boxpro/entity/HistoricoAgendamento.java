@@ -3,7 +3,9 @@ package com.boxpro.entity;
 import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
+import com.boxpro.historico.HistoricoCompacto;
 import com.fasterxml.jackson.annotation.JsonBackReference;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 
 @Entity
 @Table(name = "historico_agendamentos")
@@ -18,15 +20,29 @@ public class HistoricoAgendamento {
     @JsonBackReference
     private Agendamento agendamento;
 
-    @Column(name = "funcionario_id", nullable = false)
+    // Null em ações do sistema (atribuição automática, fechamento automático)
+    @Column(name = "funcionario_id")
     private Integer funcionarioId;
 
     @Column(nullable = false)
     private String acao;
 
+    // Texto livre; registros novos usam os campos compactos abaixo e deixam nulo
     @Column(columnDefinition = "TEXT")
     private String detalhes;
 
+    @JsonIgnore
+    @Column(name = "status_anterior", columnDefinition = "TINYINT")
+    private Byte statusAnterior;
+
+    @JsonIgnore
+    @Column(name = "status_novo", columnDefinition = "TINYINT")
+    private Byte statusNovo;
+
+    @JsonIgnore
+    @Column(name = "payload", columnDefinition = "BLOB")
+    private byte[] payload;
+
     @Column(name = "data_acao")
     private LocalDateTime dataAcao;
 
@@ -61,9 +77,29 @@ public class HistoricoAgendamento {
     public String getAcao() { return acao; }
     public void setAcao(String acao) { this.acao = acao; }
 
-    public String getDetalhes() { return detalhes; }
+    // Registros compactos têm o texto montado na leitura
+    public String getDetalhes() {
+        return detalhes != null ? detalhes : HistoricoCompacto.renderizar(acao, statusAnterior, statusNovo, payload);
+    }
     public void setDetalhes(String detalhes) { this.detalhes = detalhes; }
 
     public LocalDateTime getDataAcao() { return dataAcao; }
     public void setDataAcao(LocalDateTime dataAcao) { this.dataAcao = dataAcao; }
-}
\ No newline at end of file
+
+    public Byte getStatusAnterior() { return statusAnterior; }
+    public void setStatusAnterior(Byte statusAnterior) { this.statusAnterior = statusAnterior; }
+
+    public Byte getStatusNovo() { return statusNovo; }
+    public void setStatusNovo(Byte statusNovo) { this.statusNovo = statusNovo; }
+
+    public byte[] getPayload() { return payload; }
+    public void setPayload(byte[] payload) { this.payload = payload; }
+
+    public void aplicar(HistoricoCompacto.Registro registro) {
+        this.acao = registro.acao();
+        this.statusAnterior = registro.statusAnterior();
+        this.statusNovo = registro.statusNovo();
+        this.payload = registro.payload();
+        this.detalhes = registro.detalhes();
+    }
+}
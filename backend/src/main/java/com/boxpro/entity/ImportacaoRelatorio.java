@@ -0,0 +1,40 @@
+package com.boxpro.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * CSV de erros de uma importação, comprimido com gzip, para qualquer nó
+ * servir o download. Escrito e lido via JDBC por ImportacaoService; a
+ * entidade existe para o ddl-auto manter a tabela.
+ */
+@Entity
+@Table(name = "importacao_relatorio", indexes = {
+    @Index(name = "idx_importacao_relatorio_criado_em", columnList = "criado_em")
+})
+public class ImportacaoRelatorio {
+
+    @Id
+    @Column(name = "id", length = 36)
+    private String id;
+
+    @Lob
+    @Column(name = "conteudo", nullable = false, columnDefinition = "LONGBLOB")
+    private byte[] conteudo;
+
+    @Column(name = "criado_em", nullable = false, columnDefinition = "DATETIME(3)")
+    private LocalDateTime criadoEm;
+
+    public ImportacaoRelatorio() {}
+
+    // Getters and Setters
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+
+    public byte[] getConteudo() { return conteudo; }
+    public void setConteudo(byte[] conteudo) { this.conteudo = conteudo; }
+
+    public LocalDateTime getCriadoEm() { return criadoEm; }
+    public void setCriadoEm(LocalDateTime criadoEm) { this.criadoEm = criadoEm; }
+}
@@ -0,0 +1,36 @@
+package com.boxpro.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Último evento do outbox entregue a um assinante durável. A linha é
+ * travada durante a entrega, então só um nó processa cada assinante.
+ */
+@Entity
+@Table(name = "outbox_posicao")
+public class OutboxPosicao {
+
+    @Id
+    @Column(name = "assinante", length = 50)
+    private String assinante;
+
+    @Column(name = "ultimo_id", nullable = false)
+    private Long ultimoId;
+
+    @Column(name = "atualizado_em", nullable = false)
+    private LocalDateTime atualizadoEm;
+
+    public OutboxPosicao() {}
+
+    // Getters and Setters
+    public String getAssinante() { return assinante; }
+    public void setAssinante(String assinante) { this.assinante = assinante; }
+
+    public Long getUltimoId() { return ultimoId; }
+    public void setUltimoId(Long ultimoId) { this.ultimoId = ultimoId; }
+
+    public LocalDateTime getAtualizadoEm() { return atualizadoEm; }
+    public void setAtualizadoEm(LocalDateTime atualizadoEm) { this.atualizadoEm = atualizadoEm; }
+}
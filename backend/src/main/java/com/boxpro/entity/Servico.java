@@ -1,18 +1,30 @@
 package com.boxpro.entity;
 
+import com.boxpro.multiempresa.EmpresaContexto;
+import com.boxpro.multiempresa.EmpresaListener;
+import com.boxpro.multiempresa.PertenceEmpresa;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Filter;
+
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 
+@Filter(name = EmpresaContexto.FILTRO, condition = "empresa_id = :" + EmpresaContexto.PARAMETRO_FILTRO)
+@EntityListeners(EmpresaListener.class)
 @Entity
-@Table(name = "servicos")
-public class Servico {
+@Table(name = "servicos", indexes = {
+    @Index(name = "idx_servicos_empresa_ativo", columnList = "empresa_id, ativo")
+})
+public class Servico implements PertenceEmpresa {
     
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
     
+    @Column(name = "empresa_id")
+    private Long empresaId;
+    
     @Column(name = "categoria_id", nullable = false)
     private Long categoriaId;
     
@@ -108,6 +120,16 @@ public class Servico {
         this.ativo = ativo;
     }
     
+    @Override
+    public Long getEmpresaId() {
+        return empresaId;
+    }
+    
+    @Override
+    public void setEmpresaId(Long empresaId) {
+        this.empresaId = empresaId;
+    }
+    
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
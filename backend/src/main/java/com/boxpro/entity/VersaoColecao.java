@@ -0,0 +1,30 @@
+package com.boxpro.entity;
+
+import jakarta.persistence.*;
+
+/**
+ * Versão compartilhada de uma coleção com ETag (coleção mais sufixo da
+ * empresa). Incrementada na mesma transação da escrita, então todos os nós
+ * e reinícios enxergam o mesmo número. Escrita e lida via JDBC por
+ * VersaoColecoes; a entidade existe para o ddl-auto manter a tabela.
+ */
+@Entity
+@Table(name = "versao_colecao")
+public class VersaoColecao {
+
+    @Id
+    @Column(name = "chave", length = 80)
+    private String chave;
+
+    @Column(name = "versao", nullable = false)
+    private Long versao;
+
+    public VersaoColecao() {}
+
+    // Getters and Setters
+    public String getChave() { return chave; }
+    public void setChave(String chave) { this.chave = chave; }
+
+    public Long getVersao() { return versao; }
+    public void setVersao(Long versao) { this.versao = versao; }
+}
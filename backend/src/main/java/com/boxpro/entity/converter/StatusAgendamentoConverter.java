@@ -0,0 +1,20 @@
+package com.boxpro.entity.converter;
+
+import com.boxpro.entity.enums.StatusAgendamento;
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+// Grava o status como código TINYINT (ver StatusAgendamento.getCodigo)
+@Converter
+public class StatusAgendamentoConverter implements AttributeConverter<StatusAgendamento, Byte> {
+
+    @Override
+    public Byte convertToDatabaseColumn(StatusAgendamento status) {
+        return status != null ? status.getCodigo() : null;
+    }
+
+    @Override
+    public StatusAgendamento convertToEntityAttribute(Byte codigo) {
+        return StatusAgendamento.deCodigo(codigo);
+    }
+}
@@ -0,0 +1,6 @@
+package com.boxpro.entity.enums;
+
+// Ações registradas em historico_agendamentos.acao
+public enum AcaoHistorico {
+    CRIADO, ATUALIZADO, STATUS_ALTERADO
+}
@@ -0,0 +1,84 @@
+package com.boxpro.entity.enums;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+// Status de agendamento: valor exposto na API e código compacto gravado em
+// agendamentos.status_codigo e no histórico
+public enum StatusAgendamento {
+    AGENDADO("agendado", 1),
+    EM_ANDAMENTO("em_andamento", 2),
+    CONCLUIDO("concluido", 3),
+    CANCELADO("cancelado", 4),
+    NAO_COMPARECEU("nao_compareceu", 5);
+
+    private static final StatusAgendamento[] POR_CODIGO = new StatusAgendamento[8];
+
+    static {
+        for (StatusAgendamento status : values()) {
+            POR_CODIGO[status.codigo] = status;
+        }
+        // Tabela de transições permitidas; concluido e cancelado são finais
+        AGENDADO.proximos = EnumSet.of(EM_ANDAMENTO, CONCLUIDO, CANCELADO, NAO_COMPARECEU);
+        EM_ANDAMENTO.proximos = EnumSet.of(AGENDADO, CONCLUIDO, CANCELADO);
+        NAO_COMPARECEU.proximos = EnumSet.of(AGENDADO, CONCLUIDO);
+        CONCLUIDO.proximos = EnumSet.noneOf(StatusAgendamento.class);
+        CANCELADO.proximos = EnumSet.noneOf(StatusAgendamento.class);
+    }
+
+    private final String valor;
+    private final byte codigo;
+    private Set<StatusAgendamento> proximos;
+
+    StatusAgendamento(String valor, int codigo) {
+        this.valor = valor;
+        this.codigo = (byte) codigo;
+    }
+
+    @JsonValue
+    public String getValor() { return valor; }
+
+    public byte getCodigo() { return codigo; }
+
+    public boolean podeMudarPara(StatusAgendamento destino) {
+        return proximos.contains(destino);
+    }
+
+    // Agendado e em andamento ocupam horário de veículo e funcionário
+    public boolean ocupaAgenda() {
+        return this == AGENDADO || this == EM_ANDAMENTO;
+    }
+
+    public static StatusAgendamento deValor(String valor) {
+        if (valor != null) {
+            for (StatusAgendamento status : values()) {
+                if (status.valor.equals(valor)) {
+                    return status;
+                }
+            }
+        }
+        return null;
+    }
+
+    @JsonCreator
+    public static StatusAgendamento deJson(String valor) {
+        if (valor == null || valor.isBlank()) {
+            return null;
+        }
+        StatusAgendamento status = deValor(valor);
+        if (status == null) {
+            throw new IllegalArgumentException("Status inválido: " + valor);
+        }
+        return status;
+    }
+
+    public static StatusAgendamento deCodigo(Byte codigo) {
+        if (codigo == null || codigo < 0 || codigo >= POR_CODIGO.length) {
+            return null;
+        }
+        return POR_CODIGO[codigo];
+    }
+}
@@ -0,0 +1,42 @@
+package com.boxpro.event;
+
+import com.boxpro.entity.Agendamento;
+import com.boxpro.entity.enums.StatusAgendamento;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * Evento gravado no outbox a cada escrita em agendamentos (ver OutboxService).
+ * dataAnterior é preenchida quando o agendamento muda de dia, para que
+ * quem acompanha o dia antigo também seja avisado.
+ */
+public record AgendamentoEvento(
+        String tipo,
+        Integer agendamentoId,
+        LocalDate dataAgendamento,
+        LocalDate dataAnterior,
+        LocalTime horaInicio,
+        StatusAgendamento status,
+        Integer funcionarioResponsavelId) {
+
+    public static final String CRIADO = "CRIADO";
+    public static final String ATUALIZADO = "ATUALIZADO";
+    public static final String STATUS_ALTERADO = "STATUS_ALTERADO";
+    public static final String REMOVIDO = "REMOVIDO";
+
+    public static AgendamentoEvento de(String tipo, Agendamento agendamento, LocalDate dataAnterior) {
+        return new AgendamentoEvento(
+                tipo,
+                agendamento.getId(),
+                agendamento.getDataAgendamento(),
+                dataAnterior != null && !dataAnterior.equals(agendamento.getDataAgendamento()) ? dataAnterior : null,
+                agendamento.getHoraInicio(),
+                agendamento.getStatus(),
+                agendamento.getFuncionarioResponsavelId());
+    }
+
+    public boolean afeta(LocalDate data) {
+        return data == null || data.equals(dataAgendamento) || data.equals(dataAnterior);
+    }
+}
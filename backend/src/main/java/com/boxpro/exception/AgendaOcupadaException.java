@@ -0,0 +1,8 @@
+package com.boxpro.exception;
+
+// A agenda do dia está travada por outra escrita ou sem funcionário livre no horário (409)
+public class AgendaOcupadaException extends RuntimeException {
+    public AgendaOcupadaException(String message) {
+        super(message);
+    }
+}
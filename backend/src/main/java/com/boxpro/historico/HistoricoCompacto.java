@@ -0,0 +1,161 @@
+package com.boxpro.historico;
+
+import com.boxpro.entity.enums.AcaoHistorico;
+import com.boxpro.entity.enums.StatusAgendamento;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Formato compacto do histórico de agendamentos.
+ *
+ * Em vez da frase pronta em detalhes, cada registro guarda a ação, os códigos
+ * de status (TINYINT) e, quando necessário, um payload curto. O primeiro byte
+ * do payload indica se o restante é UTF-8 puro ou comprimido com deflate
+ * (usado só quando compensa). O texto legível é montado na leitura.
+ */
+public final class HistoricoCompacto {
+
+    private static final byte TEXTO = 0;
+    private static final byte DEFLATE = 1;
+    private static final int MINIMO_PARA_COMPRIMIR = 96;
+    private static final char SEPARADOR = '|';
+
+    private HistoricoCompacto() {}
+
+    /**
+     * Campos de um registro de histórico. detalhes só é preenchido quando o
+     * conteúdo não cabe no formato compacto (status fora do enum, por exemplo).
+     */
+    public record Registro(String acao, Byte statusAnterior, Byte statusNovo, byte[] payload, String detalhes) {}
+
+    public static Registro criacao(LocalDate data, LocalTime hora) {
+        return new Registro(AcaoHistorico.CRIADO.name(), null, null,
+                codificar(data + String.valueOf(SEPARADOR) + hora), null);
+    }
+
+    public static Registro atualizacao() {
+        return new Registro(AcaoHistorico.ATUALIZADO.name(), null, null, null, null);
+    }
+
+    public static Registro mudancaStatus(StatusAgendamento de, StatusAgendamento para, String motivo) {
+        return mudancaStatus(de != null ? de.getValor() : null, para != null ? para.getValor() : null, motivo);
+    }
+
+    public static Registro mudancaStatus(String de, String para, String motivo) {
+        StatusAgendamento anterior = StatusAgendamento.deValor(de);
+        StatusAgendamento novo = StatusAgendamento.deValor(para);
+        if (anterior == null || novo == null) {
+            return new Registro(AcaoHistorico.STATUS_ALTERADO.name(), null, null, null,
+                    textoMudancaStatus(de, para, motivo));
+        }
+        return new Registro(AcaoHistorico.STATUS_ALTERADO.name(), anterior.getCodigo(), novo.getCodigo(),
+                motivo != null ? codificar(motivo) : null, null);
+    }
+
+    /**
+     * Monta o texto legível do registro, no mesmo formato que era gravado
+     * antes em detalhes.
+     */
+    public static String renderizar(String acao, Byte statusAnterior, Byte statusNovo, byte[] payload) {
+        if (AcaoHistorico.CRIADO.name().equals(acao) && payload != null) {
+            String conteudo = decodificar(payload);
+            int separador = conteudo.indexOf(SEPARADOR);
+            if (separador > 0) {
+                return String.format("Agendamento criado para %s às %s",
+                        conteudo.substring(0, separador), conteudo.substring(separador + 1));
+            }
+            return conteudo;
+        }
+        if (AcaoHistorico.ATUALIZADO.name().equals(acao)) {
+            return "Agendamento atualizado";
+        }
+        if (AcaoHistorico.STATUS_ALTERADO.name().equals(acao) && statusAnterior != null && statusNovo != null) {
+            return textoMudancaStatus(valor(statusAnterior), valor(statusNovo),
+                    payload != null ? decodificar(payload) : null);
+        }
+        return payload != null ? decodificar(payload) : null;
+    }
+
+    public static byte[] codificar(String texto) {
+        byte[] bruto = texto.getBytes(StandardCharsets.UTF_8);
+        if (bruto.length >= MINIMO_PARA_COMPRIMIR) {
+            byte[] comprimido = deflate(bruto);
+            if (comprimido.length < bruto.length) {
+                return comFlag(DEFLATE, comprimido);
+            }
+        }
+        return comFlag(TEXTO, bruto);
+    }
+
+    public static String decodificar(byte[] payload) {
+        if (payload.length == 0) {
+            return "";
+        }
+        byte[] conteudo = Arrays.copyOfRange(payload, 1, payload.length);
+        if (payload[0] == DEFLATE) {
+            conteudo = inflate(conteudo);
+        }
+        return new String(conteudo, StandardCharsets.UTF_8);
+    }
+
+    private static String textoMudancaStatus(String de, String para, String motivo) {
+        return String.format("Status alterado de '%s' para '%s'%s",
+                de, para, motivo != null ? ". Motivo: " + motivo : "");
+    }
+
+    private static String valor(Byte codigo) {
+        StatusAgendamento status = StatusAgendamento.deCodigo(codigo);
+        return status != null ? status.getValor() : String.valueOf(codigo);
+    }
+
+    private static byte[] comFlag(byte flag, byte[] conteudo) {
+        byte[] payload = new byte[conteudo.length + 1];
+        payload[0] = flag;
+        System.arraycopy(conteudo, 0, payload, 1, conteudo.length);
+        return payload;
+    }
+
+    private static byte[] deflate(byte[] bruto) {
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION, true);
+        try {
+            deflater.setInput(bruto);
+            deflater.finish();
+            ByteArrayOutputStream saida = new ByteArrayOutputStream(bruto.length);
+            byte[] buffer = new byte[512];
+            while (!deflater.finished()) {
+                saida.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return saida.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] comprimido) {
+        Inflater inflater = new Inflater(true);
+        try {
+            inflater.setInput(comprimido);
+            ByteArrayOutputStream saida = new ByteArrayOutputStream(comprimido.length * 3);
+            byte[] buffer = new byte[512];
+            while (!inflater.finished()) {
+                int lidos = inflater.inflate(buffer);
+                if (lidos == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                saida.write(buffer, 0, lidos);
+            }
+            return saida.toByteArray();
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Payload de histórico corrompido", e);
+        } finally {
+            inflater.end();
+        }
+    }
+}
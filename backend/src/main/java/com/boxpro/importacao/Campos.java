@@ -0,0 +1,43 @@
+package com.boxpro.importacao;
+
+import java.util.Map;
+
+/**
+ * Leitura e validação dos campos de uma linha importada.
+ */
+final class Campos {
+
+    private Campos() {}
+
+    static String obrigatorio(Map<String, String> valores, String coluna, int tamanhoMaximo) {
+        String valor = opcional(valores, coluna, tamanhoMaximo);
+        if (valor == null) {
+            throw new IllegalArgumentException("Campo obrigatório vazio: " + coluna);
+        }
+        return valor;
+    }
+
+    static String opcional(Map<String, String> valores, String coluna, int tamanhoMaximo) {
+        String valor = valores.get(coluna);
+        if (valor == null || valor.isBlank()) {
+            return null;
+        }
+        valor = valor.trim();
+        if (valor.length() > tamanhoMaximo) {
+            throw new IllegalArgumentException("Campo " + coluna + " excede " + tamanhoMaximo + " caracteres");
+        }
+        return valor;
+    }
+
+    static Long numero(Map<String, String> valores, String coluna) {
+        String valor = opcional(valores, coluna, 20);
+        if (valor == null) {
+            return null;
+        }
+        try {
+            return Long.parseLong(valor);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Campo " + coluna + " não é numérico: " + valor);
+        }
+    }
+}
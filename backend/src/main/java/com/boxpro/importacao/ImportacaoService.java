@@ -0,0 +1,349 @@
+package com.boxpro.importacao;
+
+import com.boxpro.dto.response.ImportacaoResponse;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Importação em massa de clientes e veículos a partir de CSV.
+ *
+ * O arquivo é lido em streaming, em blocos de app.importacao.tamanho-lote
+ * linhas. Os blocos são validados em paralelo e gravados na ordem do
+ * arquivo, cada um em um batch JDBC na sua transação. Duplicados são
+ * recusados pelas chaves carregadas no início (e-mail/CPF, placa); se o
+ * batch ainda assim violar uma restrição (escrita concorrente), o bloco é
+ * regravado linha a linha para isolar a recusada.
+ *
+ * As linhas recusadas vão para um CSV temporário; no fim ele é comprimido
+ * e gravado em importacao_relatorio, de onde qualquer nó o serve por
+ * app.importacao.retencao-minutos.
+ */
+@Service
+public class ImportacaoService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImportacaoService.class);
+
+    public static final String CLIENTES = "clientes";
+    public static final String VEICULOS = "veiculos";
+
+    public static final String CAMINHO_RELATORIOS = "/api/importacao/relatorios/";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${app.importacao.tamanho-lote:1000}")
+    private int tamanhoLote;
+
+    @Value("${app.importacao.erros-na-resposta:20}")
+    private int errosNaResposta;
+
+    @Value("${app.importacao.retencao-minutos:60}")
+    private int retencaoMinutos;
+
+    // Acima disso (já comprimido) o relatório não é guardado; fica só o resumo da resposta
+    @Value("${app.importacao.relatorio-max-bytes:16777216}")
+    private int relatorioMaxBytes;
+
+    private final int threads;
+    private final ExecutorService executor;
+
+    public ImportacaoService(@Value("${app.importacao.threads:4}") int threads) {
+        this.threads = threads;
+        AtomicInteger contador = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "importacao-" + contador.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    public ImportacaoResponse importar(String tipo, InputStream entrada) {
+        Importador<?> importador = switch (tipo) {
+            case CLIENTES -> new ImportadorClientes(jdbcTemplate);
+            case VEICULOS -> new ImportadorVeiculos(jdbcTemplate, namedJdbcTemplate);
+            default -> throw new IllegalArgumentException("Tipo de importação desconhecido: " + tipo);
+        };
+        return executar(tipo, importador, entrada);
+    }
+
+    /**
+     * CSV de erros de uma importação, descomprimido enquanto é lido, ou null
+     * se não existe ou expirou.
+     */
+    public InputStream relatorio(String id) {
+        List<byte[]> conteudo = jdbcTemplate.query(
+                "SELECT conteudo FROM importacao_relatorio WHERE id = ? AND criado_em >= ?",
+                (rs, rowNum) -> rs.getBytes(1), id, limiteRetencao());
+        if (conteudo.isEmpty()) {
+            return null;
+        }
+        try {
+            return new GZIPInputStream(new ByteArrayInputStream(conteudo.get(0)));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.importacao.limpeza-ms:600000}")
+    public void limparRelatorios() {
+        int removidos = jdbcTemplate.update("DELETE FROM importacao_relatorio WHERE criado_em < ?", limiteRetencao());
+        if (removidos > 0) {
+            logger.debug("Relatórios de importação expirados removidos: {}", removidos);
+        }
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        executor.shutdownNow();
+    }
+
+    private <T> ImportacaoResponse executar(String tipo, Importador<T> importador, InputStream entrada) {
+        long inicio = System.currentTimeMillis();
+        LeitorCsv leitor = new LeitorCsv(new InputStreamReader(entrada, StandardCharsets.UTF_8));
+        List<String> cabecalho = leitor.cabecalho();
+        if (cabecalho == null) {
+            throw new IllegalArgumentException("Arquivo vazio");
+        }
+        List<String> colunas = new ArrayList<>(cabecalho.size());
+        for (String coluna : cabecalho) {
+            colunas.add(normalizarColuna(coluna));
+        }
+        importador.validarCabecalho(new LinkedHashSet<>(colunas));
+        importador.carregarChaves();
+
+        Contagem contagem = new Contagem();
+        Deque<Future<Bloco<T>>> pendentes = new ArrayDeque<>();
+        RelatorioErros relatorio = new RelatorioErros(cabecalho);
+        try {
+            List<Linha> linhas = new ArrayList<>(tamanhoLote);
+            long numero = 1;
+            List<String> valores;
+            while ((valores = leitor.proxima()) != null) {
+                numero++;
+                if (valores.size() == 1 && valores.get(0).isBlank()) {
+                    continue;
+                }
+                linhas.add(new Linha(numero, valores));
+                if (linhas.size() == tamanhoLote) {
+                    pendentes.add(validar(importador, colunas, linhas));
+                    linhas = new ArrayList<>(tamanhoLote);
+                    // Limita a memória: no máximo dois blocos por thread em andamento
+                    if (pendentes.size() >= threads * 2) {
+                        gravar(importador, aguardar(pendentes.poll()), relatorio, contagem);
+                    }
+                }
+            }
+            if (!linhas.isEmpty()) {
+                pendentes.add(validar(importador, colunas, linhas));
+            }
+            while (!pendentes.isEmpty()) {
+                gravar(importador, aguardar(pendentes.poll()), relatorio, contagem);
+            }
+            relatorio.close();
+
+            String relatorioId = null;
+            if (relatorio.arquivo() != null) {
+                try {
+                    relatorioId = guardarRelatorio(relatorio.arquivo());
+                } finally {
+                    apagar(relatorio.arquivo());
+                }
+            }
+            logger.info("📥 Importação de {}: {} linhas, {} importadas, {} recusadas em {} ms",
+                    tipo, contagem.linhas, contagem.importados, contagem.rejeitados, System.currentTimeMillis() - inicio);
+            return new ImportacaoResponse(tipo, contagem.linhas, contagem.importados, contagem.rejeitados,
+                    contagem.erros, relatorioId != null ? CAMINHO_RELATORIOS + relatorioId : null);
+        } catch (RuntimeException e) {
+            relatorio.close();
+            if (relatorio.arquivo() != null) {
+                apagar(relatorio.arquivo());
+            }
+            throw e;
+        } finally {
+            pendentes.forEach(f -> f.cancel(true));
+        }
+    }
+
+    private String guardarRelatorio(Path arquivo) {
+        ByteArrayOutputStream comprimido = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(comprimido)) {
+            Files.copy(arquivo, gzip);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (comprimido.size() > relatorioMaxBytes) {
+            logger.warn("⚠️ Relatório de erros da importação com {} bytes comprimidos, acima do limite de {}; não será guardado",
+                    comprimido.size(), relatorioMaxBytes);
+            return null;
+        }
+        String id = UUID.randomUUID().toString();
+        jdbcTemplate.update("INSERT INTO importacao_relatorio (id, conteudo, criado_em) VALUES (?, ?, ?)",
+                id, comprimido.toByteArray(), Timestamp.valueOf(LocalDateTime.now()));
+        return id;
+    }
+
+    private Timestamp limiteRetencao() {
+        return Timestamp.valueOf(LocalDateTime.now().minusMinutes(retencaoMinutos));
+    }
+
+    private <T> Future<Bloco<T>> validar(Importador<T> importador, List<String> colunas, List<Linha> linhas) {
+        return executor.submit(() -> {
+            Bloco<T> bloco = new Bloco<>(linhas.size());
+            for (Linha linha : linhas) {
+                if (linha.valores().size() != colunas.size()) {
+                    bloco.erros.add(new Rejeicao(linha, "Esperadas " + colunas.size() + " colunas, encontradas " +
+                            linha.valores().size()));
+                    continue;
+                }
+                Map<String, String> valores = new HashMap<>();
+                for (int i = 0; i < colunas.size(); i++) {
+                    valores.put(colunas.get(i), linha.valores().get(i));
+                }
+                try {
+                    T item = importador.converter(valores);
+                    bloco.linhas.add(linha);
+                    bloco.itens.add(item);
+                } catch (IllegalArgumentException e) {
+                    bloco.erros.add(new Rejeicao(linha, e.getMessage()));
+                }
+            }
+            return bloco;
+        });
+    }
+
+    private <T> void gravar(Importador<T> importador, Bloco<T> bloco, RelatorioErros relatorio, Contagem contagem) {
+        contagem.linhas += bloco.itens.size() + bloco.erros.size();
+        List<Rejeicao> rejeicoes = new ArrayList<>(bloco.erros);
+
+        List<String> errosFiltro = importador.filtrar(bloco.itens);
+        List<T> aceitos = new ArrayList<>(bloco.itens.size());
+        List<Linha> linhasAceitas = new ArrayList<>(bloco.itens.size());
+        for (int i = 0; i < bloco.itens.size(); i++) {
+            if (errosFiltro.get(i) != null) {
+                rejeicoes.add(new Rejeicao(bloco.linhas.get(i), errosFiltro.get(i)));
+            } else {
+                aceitos.add(bloco.itens.get(i));
+                linhasAceitas.add(bloco.linhas.get(i));
+            }
+        }
+
+        if (!aceitos.isEmpty()) {
+            TransactionTemplate tx = new TransactionTemplate(transactionManager);
+            try {
+                tx.executeWithoutResult(s -> importador.inserir(aceitos));
+                contagem.importados += aceitos.size();
+            } catch (DataIntegrityViolationException e) {
+                for (int i = 0; i < aceitos.size(); i++) {
+                    T item = aceitos.get(i);
+                    try {
+                        tx.executeWithoutResult(s -> importador.inserir(List.of(item)));
+                        contagem.importados++;
+                    } catch (DataIntegrityViolationException erro) {
+                        rejeicoes.add(new Rejeicao(linhasAceitas.get(i), "Registro duplicado ou inválido no banco"));
+                    }
+                }
+            }
+        }
+
+        rejeicoes.sort((a, b) -> Long.compare(a.linha().numero(), b.linha().numero()));
+        for (Rejeicao rejeicao : rejeicoes) {
+            contagem.rejeitados++;
+            relatorio.registrar(rejeicao.linha().numero(), rejeicao.erro(), rejeicao.linha().valores());
+            if (contagem.erros.size() < errosNaResposta) {
+                contagem.erros.add(new ImportacaoResponse.Erro(rejeicao.linha().numero(), rejeicao.erro()));
+            }
+        }
+    }
+
+    private static <T> Bloco<T> aguardar(Future<Bloco<T>> futuro) {
+        try {
+            return futuro.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Importação interrompida", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException("Falha ao validar bloco da importação", e.getCause());
+        }
+    }
+
+    private static String normalizarColuna(String coluna) {
+        return coluna.replace("\uFEFF", "").trim().toLowerCase(Locale.ROOT).replace(' ', '_').replace('-', '_');
+    }
+
+    private static void apagar(Path arquivo) {
+        try {
+            Files.deleteIfExists(arquivo);
+        } catch (IOException e) {
+            logger.warn("Não foi possível apagar {}: {}", arquivo, e.getMessage());
+        }
+    }
+
+    private record Linha(long numero, List<String> valores) {}
+
+    private record Rejeicao(Linha linha, String erro) {}
+
+    private static final class Bloco<T> {
+        final List<Linha> linhas;
+        final List<T> itens;
+        final List<Rejeicao> erros = new ArrayList<>();
+
+        Bloco(int tamanho) {
+            this.linhas = new ArrayList<>(tamanho);
+            this.itens = new ArrayList<>(tamanho);
+        }
+    }
+
+    private static final class Contagem {
+        long linhas;
+        long importados;
+        long rejeitados;
+        final List<ImportacaoResponse.Erro> erros = new ArrayList<>();
+    }
+}
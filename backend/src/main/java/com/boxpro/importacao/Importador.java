@@ -0,0 +1,37 @@
+package com.boxpro.importacao;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Um tipo de importação. Uma instância por arquivo: guarda as chaves já
+ * existentes e as já importadas para recusar duplicados sem consultar o
+ * banco a cada linha.
+ *
+ * converter() roda em paralelo nas threads da importação; os demais
+ * métodos rodam na thread da requisição, na ordem do arquivo.
+ */
+interface Importador<T> {
+
+    /**
+     * Lança IllegalArgumentException quando falta uma coluna obrigatória.
+     */
+    void validarCabecalho(Set<String> colunas);
+
+    void carregarChaves();
+
+    /**
+     * Valida e converte uma linha; IllegalArgumentException com a mensagem
+     * para o relatório de erros.
+     */
+    T converter(Map<String, String> valores);
+
+    /**
+     * Erro de cada posição (null quando a linha pode ser inserida). As linhas
+     * aceitas passam a contar como existentes.
+     */
+    List<String> filtrar(List<T> itens);
+
+    void inserir(List<T> itens);
+}
@@ -0,0 +1,97 @@
+package com.boxpro.importacao;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Colunas: nome, email (obrigatórias), telefone, cpf.
+ */
+class ImportadorClientes implements Importador<ImportadorClientes.NovoCliente> {
+
+    private static final String INSERT =
+            "INSERT INTO clientes (nome, email, telefone, cpf, data_criacao, data_atualizacao) VALUES (?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final Set<String> emails = new HashSet<>();
+    private final Set<String> cpfs = new HashSet<>();
+
+    ImportadorClientes(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void validarCabecalho(Set<String> colunas) {
+        for (String coluna : List.of("nome", "email")) {
+            if (!colunas.contains(coluna)) {
+                throw new IllegalArgumentException("Coluna obrigatória ausente: " + coluna);
+            }
+        }
+    }
+
+    @Override
+    public void carregarChaves() {
+        jdbcTemplate.query("SELECT email, cpf FROM clientes", rs -> {
+            emails.add(rs.getString("email").toLowerCase(Locale.ROOT));
+            String cpf = rs.getString("cpf");
+            if (cpf != null) {
+                cpfs.add(cpf);
+            }
+        });
+    }
+
+    @Override
+    public NovoCliente converter(Map<String, String> valores) {
+        String nome = Campos.obrigatorio(valores, "nome", 100);
+        String email = Campos.obrigatorio(valores, "email", 100);
+        if (email.indexOf('@') < 1) {
+            throw new IllegalArgumentException("E-mail inválido: " + email);
+        }
+        return new NovoCliente(nome, email,
+                Campos.opcional(valores, "telefone", 15),
+                Campos.opcional(valores, "cpf", 14));
+    }
+
+    @Override
+    public List<String> filtrar(List<NovoCliente> itens) {
+        List<String> erros = new ArrayList<>(itens.size());
+        for (NovoCliente cliente : itens) {
+            String email = cliente.email().toLowerCase(Locale.ROOT);
+            if (emails.contains(email)) {
+                erros.add("E-mail já cadastrado: " + cliente.email());
+            } else if (cliente.cpf() != null && cpfs.contains(cliente.cpf())) {
+                erros.add("CPF já cadastrado: " + cliente.cpf());
+            } else {
+                emails.add(email);
+                if (cliente.cpf() != null) {
+                    cpfs.add(cliente.cpf());
+                }
+                erros.add(null);
+            }
+        }
+        return erros;
+    }
+
+    @Override
+    public void inserir(List<NovoCliente> itens) {
+        Timestamp agora = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(INSERT, itens, itens.size(), (ps, c) -> {
+            ps.setString(1, c.nome());
+            ps.setString(2, c.email());
+            ps.setString(3, c.telefone());
+            ps.setString(4, c.cpf());
+            ps.setTimestamp(5, agora);
+            ps.setTimestamp(6, agora);
+        });
+    }
+
+    record NovoCliente(String nome, String email, String telefone, String cpf) {}
+}
@@ -0,0 +1,203 @@
+package com.boxpro.importacao;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.Year;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Colunas: placa, marca, modelo, ano, cor (obrigatórias) e o dono em
+ * cliente_id, cliente_email ou cliente_cpf. Os donos de cada lote são
+ * resolvidos em uma consulta.
+ */
+class ImportadorVeiculos implements Importador<ImportadorVeiculos.NovoVeiculo> {
+
+    private static final String INSERT =
+            "INSERT INTO veiculos (marca, modelo, ano, placa, cor, cliente_id, data_criacao, data_atualizacao) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final List<String> COLUNAS_CLIENTE = List.of("cliente_id", "cliente_email", "cliente_cpf");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    private final Set<String> placas = new HashSet<>();
+
+    ImportadorVeiculos(JdbcTemplate jdbcTemplate, NamedParameterJdbcTemplate namedJdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = namedJdbcTemplate;
+    }
+
+    @Override
+    public void validarCabecalho(Set<String> colunas) {
+        for (String coluna : List.of("placa", "marca", "modelo", "ano", "cor")) {
+            if (!colunas.contains(coluna)) {
+                throw new IllegalArgumentException("Coluna obrigatória ausente: " + coluna);
+            }
+        }
+        if (COLUNAS_CLIENTE.stream().noneMatch(colunas::contains)) {
+            throw new IllegalArgumentException("Informe o cliente em uma das colunas " + COLUNAS_CLIENTE);
+        }
+    }
+
+    @Override
+    public void carregarChaves() {
+        jdbcTemplate.query("SELECT placa FROM veiculos WHERE placa IS NOT NULL",
+                rs -> { placas.add(rs.getString("placa").toUpperCase(Locale.ROOT)); });
+    }
+
+    @Override
+    public NovoVeiculo converter(Map<String, String> valores) {
+        String placa = Campos.obrigatorio(valores, "placa", 8).replace("-", "").toUpperCase(Locale.ROOT);
+        if (placa.length() != 7) {
+            throw new IllegalArgumentException("Placa deve ter 7 caracteres: " + placa);
+        }
+        Long ano = Campos.numero(valores, "ano");
+        if (ano == null || ano < 1900 || ano > Year.now().getValue() + 1) {
+            throw new IllegalArgumentException("Ano inválido: " + valores.get("ano"));
+        }
+        Long clienteId = Campos.numero(valores, "cliente_id");
+        String clienteEmail = Campos.opcional(valores, "cliente_email", 100);
+        String clienteCpf = Campos.opcional(valores, "cliente_cpf", 14);
+        if (clienteId == null && clienteEmail == null && clienteCpf == null) {
+            throw new IllegalArgumentException("Cliente não informado");
+        }
+        return new NovoVeiculo(
+                Campos.obrigatorio(valores, "marca", 255),
+                Campos.obrigatorio(valores, "modelo", 255),
+                ano.intValue(),
+                placa,
+                Campos.obrigatorio(valores, "cor", 255),
+                clienteId,
+                clienteEmail != null ? clienteEmail.toLowerCase(Locale.ROOT) : null,
+                clienteCpf);
+    }
+
+    @Override
+    public List<String> filtrar(List<NovoVeiculo> itens) {
+        Donos donos = buscarDonos(itens);
+        List<String> erros = new ArrayList<>(itens.size());
+        for (NovoVeiculo veiculo : itens) {
+            Long dono = veiculo.clienteId() != null ? (donos.ids.contains(veiculo.clienteId()) ? veiculo.clienteId() : null)
+                    : veiculo.clienteEmail() != null ? donos.porEmail.get(veiculo.clienteEmail())
+                    : donos.porCpf.get(veiculo.clienteCpf());
+            if (dono == null) {
+                erros.add("Cliente não encontrado");
+            } else if (!placas.add(veiculo.placa())) {
+                erros.add("Placa já cadastrada: " + veiculo.placa());
+            } else {
+                veiculo.dono = dono;
+                erros.add(null);
+            }
+        }
+        return erros;
+    }
+
+    @Override
+    public void inserir(List<NovoVeiculo> itens) {
+        Timestamp agora = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(INSERT, itens, itens.size(), (ps, v) -> {
+            ps.setString(1, v.marca());
+            ps.setString(2, v.modelo());
+            ps.setInt(3, v.ano());
+            ps.setString(4, v.placa());
+            ps.setString(5, v.cor());
+            ps.setLong(6, v.dono);
+            ps.setTimestamp(7, agora);
+            ps.setTimestamp(8, agora);
+        });
+    }
+
+    private Donos buscarDonos(List<NovoVeiculo> itens) {
+        Set<Long> ids = new HashSet<>();
+        Set<String> emails = new HashSet<>();
+        Set<String> cpfs = new HashSet<>();
+        for (NovoVeiculo veiculo : itens) {
+            if (veiculo.clienteId() != null) {
+                ids.add(veiculo.clienteId());
+            } else if (veiculo.clienteEmail() != null) {
+                emails.add(veiculo.clienteEmail());
+            } else {
+                cpfs.add(veiculo.clienteCpf());
+            }
+        }
+        Donos donos = new Donos();
+        List<String> condicoes = new ArrayList<>();
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        if (!ids.isEmpty()) {
+            condicoes.add("id IN (:ids)");
+            params.addValue("ids", ids);
+        }
+        if (!emails.isEmpty()) {
+            condicoes.add("email IN (:emails)");
+            params.addValue("emails", emails);
+        }
+        if (!cpfs.isEmpty()) {
+            condicoes.add("cpf IN (:cpfs)");
+            params.addValue("cpfs", cpfs);
+        }
+        if (condicoes.isEmpty()) {
+            return donos;
+        }
+        namedJdbcTemplate.query("SELECT id, email, cpf FROM clientes WHERE " + String.join(" OR ", condicoes), params, rs -> {
+            long id = rs.getLong("id");
+            donos.ids.add(id);
+            donos.porEmail.put(rs.getString("email").toLowerCase(Locale.ROOT), id);
+            String cpf = rs.getString("cpf");
+            if (cpf != null) {
+                donos.porCpf.put(cpf, id);
+            }
+        });
+        return donos;
+    }
+
+    private static final class Donos {
+        final Set<Long> ids = new HashSet<>();
+        final Map<String, Long> porEmail = new HashMap<>();
+        final Map<String, Long> porCpf = new HashMap<>();
+    }
+
+    static final class NovoVeiculo {
+        private final String marca;
+        private final String modelo;
+        private final int ano;
+        private final String placa;
+        private final String cor;
+        private final Long clienteId;
+        private final String clienteEmail;
+        private final String clienteCpf;
+        // Preenchido em filtrar()
+        Long dono;
+
+        NovoVeiculo(String marca, String modelo, int ano, String placa, String cor,
+                    Long clienteId, String clienteEmail, String clienteCpf) {
+            this.marca = marca;
+            this.modelo = modelo;
+            this.ano = ano;
+            this.placa = placa;
+            this.cor = cor;
+            this.clienteId = clienteId;
+            this.clienteEmail = clienteEmail;
+            this.clienteCpf = clienteCpf;
+        }
+
+        String marca() { return marca; }
+        String modelo() { return modelo; }
+        int ano() { return ano; }
+        String placa() { return placa; }
+        String cor() { return cor; }
+        Long clienteId() { return clienteId; }
+        String clienteEmail() { return clienteEmail; }
+        String clienteCpf() { return clienteCpf; }
+    }
+}
@@ -0,0 +1,109 @@
+package com.boxpro.importacao;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Leitor de CSV linha a linha, sem carregar o arquivo. Aceita campos entre
+ * aspas (com "" para aspas literais e quebras de linha dentro do campo) e
+ * separador ',' ou ';', detectado no cabeçalho.
+ */
+class LeitorCsv {
+
+    private final Reader entrada;
+    private final char[] buffer = new char[8192];
+    private int posicao;
+    private int limite;
+    private char separador;
+
+    LeitorCsv(Reader entrada) {
+        this.entrada = entrada;
+    }
+
+    /**
+     * Lê o cabeçalho e define o separador; null se o arquivo está vazio.
+     */
+    List<String> cabecalho() {
+        StringBuilder linha = new StringBuilder();
+        int c;
+        while ((c = ler()) != -1 && c != '\n') {
+            linha.append((char) c);
+        }
+        if (linha.length() == 0 && c == -1) {
+            return null;
+        }
+        // Excel em português exporta com ';'
+        String texto = linha.toString();
+        separador = texto.indexOf(';') >= 0 && texto.indexOf(',') < 0 ? ';' : ',';
+        return dividir(texto);
+    }
+
+    /**
+     * Próximo registro, ou null no fim do arquivo.
+     */
+    List<String> proxima() {
+        int c = ler();
+        if (c == -1) {
+            return null;
+        }
+        List<String> campos = new ArrayList<>();
+        StringBuilder campo = new StringBuilder();
+        boolean aspas = false;
+        while (c != -1) {
+            char ch = (char) c;
+            if (aspas) {
+                if (ch == '"') {
+                    int seguinte = ler();
+                    if (seguinte == '"') {
+                        campo.append('"');
+                    } else {
+                        aspas = false;
+                        c = seguinte;
+                        continue;
+                    }
+                } else {
+                    campo.append(ch);
+                }
+            } else if (ch == '"' && campo.length() == 0) {
+                aspas = true;
+            } else if (ch == separador) {
+                campos.add(campo.toString());
+                campo.setLength(0);
+            } else if (ch == '\n') {
+                break;
+            } else if (ch != '\r') {
+                campo.append(ch);
+            }
+            c = ler();
+        }
+        campos.add(campo.toString());
+        return campos;
+    }
+
+    private List<String> dividir(String linha) {
+        List<String> campos = new ArrayList<>();
+        for (String campo : linha.replace("\r", "").split(String.valueOf(separador), -1)) {
+            campos.add(campo.replace("\"", ""));
+        }
+        return campos;
+    }
+
+    private int ler() {
+        if (posicao == limite) {
+            try {
+                limite = entrada.read(buffer, 0, buffer.length);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            posicao = 0;
+            if (limite <= 0) {
+                limite = 0;
+                return -1;
+            }
+        }
+        return buffer[posicao++];
+    }
+}
@@ -0,0 +1,79 @@
+package com.boxpro.importacao;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * CSV com as linhas recusadas: número da linha, erro e os valores
+ * originais, para o usuário corrigir e reenviar. O arquivo temporário só é
+ * criado no primeiro erro.
+ */
+class RelatorioErros implements AutoCloseable {
+
+    private final List<String> cabecalho;
+    private Path arquivo;
+    private BufferedWriter escritor;
+
+    RelatorioErros(List<String> cabecalho) {
+        this.cabecalho = cabecalho;
+    }
+
+    void registrar(long linha, String erro, List<String> valores) {
+        try {
+            if (escritor == null) {
+                arquivo = Files.createTempFile("boxpro-importacao-", ".csv");
+                escritor = Files.newBufferedWriter(arquivo, StandardCharsets.UTF_8);
+                escrever(List.of("linha", "erro"), cabecalho);
+            }
+            escrever(List.of(Long.toString(linha), erro), valores);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Arquivo gerado, ou null quando não houve erros.
+     */
+    Path arquivo() {
+        return arquivo;
+    }
+
+    @Override
+    public void close() {
+        if (escritor != null) {
+            try {
+                escritor.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private void escrever(List<String> inicio, List<String> valores) throws IOException {
+        StringBuilder linha = new StringBuilder();
+        for (String valor : inicio) {
+            campo(linha, valor);
+        }
+        for (String valor : valores) {
+            campo(linha, valor);
+        }
+        linha.setLength(linha.length() - 1);
+        escritor.write(linha.toString());
+        escritor.newLine();
+    }
+
+    private static void campo(StringBuilder linha, String valor) {
+        String texto = valor != null ? valor : "";
+        if (texto.indexOf(',') >= 0 || texto.indexOf('"') >= 0 || texto.indexOf('\n') >= 0) {
+            linha.append('"').append(texto.replace("\"", "\"\"")).append('"');
+        } else {
+            linha.append(texto);
+        }
+        linha.append(',');
+    }
+}
@@ -0,0 +1,14 @@
+package com.boxpro.lembrete;
+
+import java.util.List;
+
+/**
+ * Destino dos lembretes. O canal ativo é escolhido por app.lembrete.canal.
+ * Uma exceção faz o lote inteiro voltar para nova tentativa.
+ */
+public interface CanalLembrete {
+
+    String nome();
+
+    void enviar(List<Lembrete> lembretes) throws Exception;
+}
@@ -0,0 +1,16 @@
+package com.boxpro.lembrete;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * Dados de um lembrete pronto para envio.
+ */
+public record Lembrete(
+        Integer agendamentoId,
+        String clienteNome,
+        String clienteEmail,
+        String clienteTelefone,
+        String servicoNome,
+        LocalDate dataAgendamento,
+        LocalTime horaInicio) {}
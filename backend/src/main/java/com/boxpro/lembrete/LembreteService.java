@@ -0,0 +1,286 @@
+package com.boxpro.lembrete;
+
+import com.boxpro.entity.Agendamento;
+import com.boxpro.entity.enums.StatusAgendamento;
+import com.boxpro.event.AgendamentoEvento;
+import com.boxpro.multiempresa.BancosEmpresa;
+import com.boxpro.outbox.AssinanteOutbox;
+import com.boxpro.outbox.EventoPublicado;
+import com.boxpro.repository.AgendamentoRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Lembretes enviados app.lembrete.antecedencia-horas antes de cada agendamento.
+ *
+ * Os agendamentos pendentes ficam em uma roda de tempo em memória, carregada
+ * na inicialização e mantida pelos eventos do outbox. A cada tick os
+ * vencidos são enviados em lotes por um executor pequeno. Antes do envio o
+ * lote é reservado no banco (lembrete_enviado_em), o que evita envio duplo
+ * entre reinícios e entre nós. Com roteamento de datasource a roda guarda
+ * também o banco de cada agendamento, já que os ids se repetem entre bancos.
+ */
+@Service
+public class LembreteService implements AssinanteOutbox {
+
+    private static final Logger logger = LoggerFactory.getLogger(LembreteService.class);
+
+    @Autowired
+    private AgendamentoRepository agendamentoRepository;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private List<CanalLembrete> canais;
+
+    @Autowired
+    private BancosEmpresa bancos;
+
+    @Value("${app.lembrete.habilitado:true}")
+    private boolean habilitado;
+
+    @Value("${app.lembrete.antecedencia-horas:24}")
+    private int antecedenciaHoras;
+
+    @Value("${app.lembrete.canal:log}")
+    private String nomeCanal;
+
+    @Value("${app.lembrete.tamanho-lote:50}")
+    private int tamanhoLote;
+
+    @Value("${app.lembrete.retentativa-minutos:5}")
+    private int retentativaMinutos;
+
+    private final RodaTemporal<Pendente> roda;
+    private final ExecutorService executor;
+
+    public LembreteService(@Value("${app.lembrete.tick-ms:60000}") long tickMs,
+                           @Value("${app.lembrete.threads:2}") int threads) {
+        this.roda = new RodaTemporal<>(tickMs, System.currentTimeMillis());
+        AtomicInteger contador = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "lembrete-" + contador.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void carregar() {
+        if (!habilitado) {
+            return;
+        }
+        List<Pendente> imediatos = new ArrayList<>();
+        bancos.paraCadaBanco(banco -> {
+            List<Agendamento> futuros = agendamentoRepository.findAgendamentosFuturos(LocalDate.now(), StatusAgendamento.AGENDADO);
+            synchronized (roda) {
+                for (Agendamento agendamento : futuros) {
+                    if (agendamento.getLembreteEnviadoEm() == null) {
+                        agendar(new Pendente(banco, agendamento.getId()), agendamento.getDataAgendamento(),
+                                agendamento.getHoraInicio(), imediatos);
+                    }
+                }
+            }
+        });
+        int pendentes;
+        synchronized (roda) {
+            pendentes = roda.tamanho();
+        }
+        logger.info("🔔 Lembretes: {} agendados, {} para envio imediato (canal {})",
+                pendentes, imediatos.size(), canal().nome());
+        despachar(imediatos);
+    }
+
+    @Override
+    public String nome() {
+        return "lembrete";
+    }
+
+    @Override
+    public boolean local() {
+        return true;
+    }
+
+    @Override
+    public void receber(List<EventoPublicado> eventos) {
+        if (!habilitado) {
+            return;
+        }
+        List<Pendente> imediatos = new ArrayList<>();
+        synchronized (roda) {
+            for (EventoPublicado publicado : eventos) {
+                AgendamentoEvento evento = publicado.evento();
+                Pendente pendente = new Pendente(bancos.bancoDe(publicado.empresaId()), evento.agendamentoId());
+                if (AgendamentoEvento.REMOVIDO.equals(evento.tipo()) || evento.status() != StatusAgendamento.AGENDADO) {
+                    roda.cancelar(pendente);
+                } else {
+                    agendar(pendente, evento.dataAgendamento(), evento.horaInicio(), imediatos);
+                }
+            }
+        }
+        despachar(imediatos);
+    }
+
+    @Scheduled(fixedRateString = "${app.lembrete.tick-ms:60000}")
+    public void tick() {
+        if (!habilitado) {
+            return;
+        }
+        List<Pendente> vencidos;
+        synchronized (roda) {
+            vencidos = roda.avancar(System.currentTimeMillis());
+        }
+        despachar(vencidos);
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        executor.shutdown();
+    }
+
+    /**
+     * Deve ser chamado com a roda travada. Agendamentos já iniciados não
+     * recebem lembrete; os que já estão dentro da antecedência vão para
+     * envio imediato.
+     */
+    private void agendar(Pendente pendente, LocalDate data, LocalTime horaInicio, List<Pendente> imediatos) {
+        LocalDateTime inicio = LocalDateTime.of(data, horaInicio);
+        if (!inicio.isAfter(LocalDateTime.now())) {
+            roda.cancelar(pendente);
+            return;
+        }
+        if (!roda.agendar(pendente, epochMilli(inicio.minusHours(antecedenciaHoras)))) {
+            imediatos.add(pendente);
+        }
+    }
+
+    private void despachar(List<Pendente> pendentes) {
+        Map<Long, List<Integer>> porBanco = new LinkedHashMap<>();
+        for (Pendente pendente : pendentes) {
+            porBanco.computeIfAbsent(pendente.banco(), b -> new ArrayList<>()).add(pendente.agendamentoId());
+        }
+        porBanco.forEach((banco, ids) -> {
+            for (int i = 0; i < ids.size(); i += tamanhoLote) {
+                List<Integer> lote = new ArrayList<>(ids.subList(i, Math.min(i + tamanhoLote, ids.size())));
+                executor.execute(() -> bancos.noBanco(banco, () -> {
+                    enviarLote(banco, lote);
+                    return null;
+                }));
+            }
+        });
+    }
+
+    private void enviarLote(long banco, List<Integer> ids) {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        LocalDateTime marca = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        List<Lembrete> lembretes;
+        try {
+            lembretes = tx.execute(s -> reservar(ids, marca));
+        } catch (Exception e) {
+            logger.warn("Falha ao reservar lembretes: {}", e.getMessage());
+            reagendarParaRetentativa(banco, ids);
+            return;
+        }
+        if (lembretes == null || lembretes.isEmpty()) {
+            return;
+        }
+
+        try {
+            canal().enviar(lembretes);
+        } catch (Exception e) {
+            logger.warn("Falha ao enviar {} lembretes pelo canal {}: {}", lembretes.size(), nomeCanal, e.getMessage());
+            List<Integer> reservados = lembretes.stream().map(Lembrete::agendamentoId).toList();
+            tx.executeWithoutResult(s -> namedJdbcTemplate.update(
+                    "UPDATE agendamentos SET lembrete_enviado_em = NULL " +
+                    "WHERE id IN (:ids) AND lembrete_enviado_em = :marca",
+                    new MapSqlParameterSource("ids", reservados).addValue("marca", Timestamp.valueOf(marca))));
+            reagendarParaRetentativa(banco, reservados);
+        }
+    }
+
+    /**
+     * Trava os agendamentos ainda elegíveis, marca como enviados e devolve
+     * os dados para o envio. Quem já foi enviado, mudou de status ou saiu da
+     * janela de antecedência fica de fora.
+     */
+    private List<Lembrete> reservar(List<Integer> ids, LocalDateTime marca) {
+        LocalDateTime limite = marca.plusHours(antecedenciaHoras).plusMinutes(1);
+        List<Lembrete> lembretes = new ArrayList<>();
+        namedJdbcTemplate.query(
+                "SELECT a.id, a.data_agendamento, a.hora_inicio, c.nome, c.email, c.telefone, " +
+                "s.nome AS servico_nome FROM agendamentos a " +
+                "JOIN clientes c ON c.id = a.cliente_id JOIN servicos s ON s.id = a.servico_id " +
+                "WHERE a.id IN (:ids) AND a.status_codigo = :agendado AND a.lembrete_enviado_em IS NULL FOR UPDATE",
+                new MapSqlParameterSource("ids", ids).addValue("agendado", StatusAgendamento.AGENDADO.getCodigo()),
+                rs -> {
+                    LocalDate data = rs.getObject("data_agendamento", LocalDate.class);
+                    LocalTime hora = rs.getObject("hora_inicio", LocalTime.class);
+                    LocalDateTime inicio = LocalDateTime.of(data, hora);
+                    if (inicio.isAfter(marca) && inicio.isBefore(limite)) {
+                        lembretes.add(new Lembrete(rs.getInt("id"), rs.getString("nome"), rs.getString("email"),
+                                rs.getString("telefone"), rs.getString("servico_nome"), data, hora));
+                    }
+                });
+        if (!lembretes.isEmpty()) {
+            namedJdbcTemplate.update(
+                    "UPDATE agendamentos SET lembrete_enviado_em = :marca WHERE id IN (:ids)",
+                    new MapSqlParameterSource("ids", lembretes.stream().map(Lembrete::agendamentoId).toList())
+                            .addValue("marca", Timestamp.valueOf(marca)));
+        }
+        return lembretes;
+    }
+
+    private void reagendarParaRetentativa(long banco, List<Integer> ids) {
+        long instante = System.currentTimeMillis() + retentativaMinutos * 60_000L;
+        synchronized (roda) {
+            for (Integer id : ids) {
+                roda.agendar(new Pendente(banco, id), instante);
+            }
+        }
+    }
+
+    private CanalLembrete canal() {
+        for (CanalLembrete canal : canais) {
+            if (canal.nome().equals(nomeCanal)) {
+                return canal;
+            }
+        }
+        throw new IllegalStateException("Canal de lembrete desconhecido: " + nomeCanal);
+    }
+
+    private static long epochMilli(LocalDateTime dataHora) {
+        return dataHora.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    // Chave da roda: o id do agendamento só é único dentro do banco
+    private record Pendente(long banco, Integer agendamentoId) {}
+}
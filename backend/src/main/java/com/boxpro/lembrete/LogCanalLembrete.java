@@ -0,0 +1,27 @@
+package com.boxpro.lembrete;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Component
+public class LogCanalLembrete implements CanalLembrete {
+
+    private static final Logger logger = LoggerFactory.getLogger(LogCanalLembrete.class);
+
+    @Override
+    public String nome() {
+        return "log";
+    }
+
+    @Override
+    public void enviar(List<Lembrete> lembretes) {
+        for (Lembrete lembrete : lembretes) {
+            logger.info("🔔 Lembrete: {} - {} em {} às {} (agendamento {})",
+                    lembrete.clienteNome(), lembrete.servicoNome(), lembrete.dataAgendamento(),
+                    lembrete.horaInicio(), lembrete.agendamentoId());
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.boxpro.lembrete;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Roda de tempo hierárquica (estilo timer do kernel Linux).
+ *
+ * São NIVEIS rodas de 64 posições; o nível n cobre 64^(n+1) ticks. Uma
+ * entrada fica no nível mais baixo que alcança seu tick e desce de nível
+ * (cascata) quando a roda inferior dá a volta. Agendar e cancelar são O(1) e
+ * cada tick custa O(1) mais as entradas que vencem ou descem nele.
+ *
+ * Não é thread-safe: quem usa sincroniza.
+ */
+public class RodaTemporal<K> {
+
+    private static final int BITS = 6;
+    private static final int POSICOES = 1 << BITS;
+    private static final int MASCARA = POSICOES - 1;
+    private static final int NIVEIS = 4;
+
+    private final long tickMs;
+    private final List<List<Set<Entrada<K>>>> niveis = new ArrayList<>(NIVEIS);
+    private final Map<K, Entrada<K>> entradas = new HashMap<>();
+    private long tickAtual;
+
+    public RodaTemporal(long tickMs, long agoraMs) {
+        this.tickMs = tickMs;
+        this.tickAtual = agoraMs / tickMs;
+        for (int n = 0; n < NIVEIS; n++) {
+            List<Set<Entrada<K>>> posicoes = new ArrayList<>(POSICOES);
+            for (int p = 0; p < POSICOES; p++) {
+                posicoes.add(new LinkedHashSet<>());
+            }
+            niveis.add(posicoes);
+        }
+    }
+
+    /**
+     * Agenda (ou reagenda) a chave. Retorna false se o instante já passou;
+     * nesse caso nada fica agendado e quem chamou decide o que fazer.
+     */
+    public boolean agendar(K chave, long instanteMs) {
+        cancelar(chave);
+        long tick = (instanteMs + tickMs - 1) / tickMs;
+        if (tick <= tickAtual) {
+            return false;
+        }
+        Entrada<K> entrada = new Entrada<>(chave, tick);
+        entradas.put(chave, entrada);
+        inserir(entrada);
+        return true;
+    }
+
+    public boolean cancelar(K chave) {
+        Entrada<K> entrada = entradas.remove(chave);
+        if (entrada == null) {
+            return false;
+        }
+        entrada.posicao.remove(entrada);
+        return true;
+    }
+
+    /**
+     * Instante agendado para a chave, ou null.
+     */
+    public Long instante(K chave) {
+        Entrada<K> entrada = entradas.get(chave);
+        return entrada != null ? entrada.tick * tickMs : null;
+    }
+
+    public int tamanho() {
+        return entradas.size();
+    }
+
+    /**
+     * Avança até agoraMs e devolve as chaves vencidas, em ordem de vencimento.
+     */
+    public List<K> avancar(long agoraMs) {
+        long alvo = agoraMs / tickMs;
+        List<K> vencidas = new ArrayList<>();
+        while (tickAtual < alvo) {
+            tickAtual++;
+            cascatear();
+            Set<Entrada<K>> posicao = niveis.get(0).get((int) (tickAtual & MASCARA));
+            for (Entrada<K> entrada : posicao) {
+                entradas.remove(entrada.chave);
+                vencidas.add(entrada.chave);
+            }
+            posicao.clear();
+        }
+        return vencidas;
+    }
+
+    private void cascatear() {
+        // Do nível mais alto para o mais baixo, enquanto os bits inferiores estiverem zerados
+        int nivelMaximo = 0;
+        for (int n = 1; n < NIVEIS; n++) {
+            if ((tickAtual & ((1L << (BITS * n)) - 1)) != 0) {
+                break;
+            }
+            nivelMaximo = n;
+        }
+        for (int n = nivelMaximo; n >= 1; n--) {
+            Set<Entrada<K>> posicao = niveis.get(n).get((int) ((tickAtual >>> (BITS * n)) & MASCARA));
+            if (posicao.isEmpty()) {
+                continue;
+            }
+            List<Entrada<K>> descendo = new ArrayList<>(posicao);
+            posicao.clear();
+            for (Entrada<K> entrada : descendo) {
+                inserir(entrada);
+            }
+        }
+    }
+
+    private void inserir(Entrada<K> entrada) {
+        long delta = entrada.tick - tickAtual;
+        int nivel = 0;
+        while (nivel < NIVEIS - 1 && delta >= 1L << (BITS * (nivel + 1))) {
+            nivel++;
+        }
+        // Além do alcance do último nível: fica na posição mais distante e volta a descer depois
+        long tick = nivel == NIVEIS - 1 && delta >= 1L << (BITS * NIVEIS)
+                ? tickAtual + (1L << (BITS * NIVEIS)) - 1
+                : entrada.tick;
+        Set<Entrada<K>> posicao = niveis.get(nivel).get((int) ((tick >>> (BITS * nivel)) & MASCARA));
+        posicao.add(entrada);
+        entrada.posicao = posicao;
+    }
+
+    private static final class Entrada<K> {
+        final K chave;
+        final long tick;
+        Set<Entrada<K>> posicao;
+
+        Entrada(K chave, long tick) {
+            this.chave = chave;
+            this.tick = tick;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.boxpro.lembrete;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * Substituto local de SMTP: grava cada lembrete como um arquivo .eml no
+ * diretório configurado, no formato que um servidor de e-mail receberia.
+ */
+@Component
+public class SmtpLocalCanalLembrete implements CanalLembrete {
+
+    @Value("${app.lembrete.smtp.diretorio:./lembretes}")
+    private String diretorio;
+
+    @Value("${app.lembrete.smtp.remetente:nao-responda@boxpro.local}")
+    private String remetente;
+
+    @Override
+    public String nome() {
+        return "smtp";
+    }
+
+    @Override
+    public void enviar(List<Lembrete> lembretes) throws Exception {
+        Path destino = Paths.get(diretorio);
+        Files.createDirectories(destino);
+        for (Lembrete lembrete : lembretes) {
+            if (lembrete.clienteEmail() == null) {
+                continue;
+            }
+            String mensagem =
+                    "From: " + remetente + "\r\n" +
+                    "To: " + lembrete.clienteEmail() + "\r\n" +
+                    "Date: " + ZonedDateTime.now().format(DateTimeFormatter.RFC_1123_DATE_TIME) + "\r\n" +
+                    "Subject: Lembrete do seu agendamento\r\n" +
+                    "Content-Type: text/plain; charset=UTF-8\r\n" +
+                    "\r\n" +
+                    "Olá, " + lembrete.clienteNome() + "!\r\n\r\n" +
+                    "Lembramos do seu agendamento de " + lembrete.servicoNome() + " em " +
+                    lembrete.dataAgendamento() + " às " + lembrete.horaInicio() + ".\r\n";
+            Files.write(destino.resolve("agendamento-" + lembrete.agendamentoId() + ".eml"),
+                    mensagem.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.boxpro.lembrete;
+
+import com.boxpro.config.EscritoresJson;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Envia o lote inteiro em um POST JSON. Sem URL configurada apenas registra
+ * no log o que seria enviado.
+ */
+@Component
+public class WebhookCanalLembrete implements CanalLembrete {
+
+    private static final Logger logger = LoggerFactory.getLogger(WebhookCanalLembrete.class);
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    @Autowired
+    private EscritoresJson escritoresJson;
+
+    @Value("${app.lembrete.webhook.url:}")
+    private String url;
+
+    @Override
+    public String nome() {
+        return "webhook";
+    }
+
+    @Override
+    public void enviar(List<Lembrete> lembretes) throws Exception {
+        if (url == null || url.isBlank()) {
+            logger.info("Webhook de lembretes sem URL; {} lembretes não enviados", lembretes.size());
+            return;
+        }
+        byte[] corpo = escritoresJson.para(List.class).writeValueAsBytes(lembretes);
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                .timeout(Duration.ofSeconds(10))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(corpo))
+                .build();
+        HttpResponse<Void> resposta = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+        if (resposta.statusCode() >= 300) {
+            throw new IllegalStateException("Webhook de lembretes respondeu " + resposta.statusCode());
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.boxpro.multiempresa;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Bancos físicos atrás do roteamento de datasource.
+ *
+ * Jobs de fundo e tarefas de inicialização rodam sem empresa no contexto e
+ * por isso só enxergariam o banco padrão. Eles usam paraCadaBanco() para
+ * repetir o trabalho uma vez por banco, com EmpresaContexto apontando para
+ * uma empresa daquele banco; a transação precisa começar dentro da tarefa,
+ * já que a conexão é escolhida na abertura. Sem roteamento existe só o banco
+ * padrão e a tarefa roda uma vez, sem empresa.
+ *
+ * Cada banco é identificado pelo id da empresa dona do banco dedicado, ou
+ * por EmpresaContexto.SEM_EMPRESA para o padrão.
+ */
+@Component
+public class BancosEmpresa {
+
+    @Value("${app.multiempresa.roteamento.habilitado:false}")
+    private boolean roteamento;
+
+    @Autowired
+    private Environment environment;
+
+    private List<Long> dedicados = List.of();
+
+    @PostConstruct
+    public void carregar() {
+        if (roteamento) {
+            Map<Long, DataSourceProperties> empresas = Binder.get(environment)
+                    .bind(RoteamentoDataSourceConfig.EMPRESAS, Bindable.mapOf(Long.class, DataSourceProperties.class))
+                    .orElse(Map.of());
+            dedicados = List.copyOf(new TreeSet<>(empresas.keySet()));
+        }
+    }
+
+    /**
+     * O banco padrão primeiro, depois os dedicados em ordem de empresa.
+     */
+    public List<Long> bancos() {
+        List<Long> bancos = new ArrayList<>(dedicados.size() + 1);
+        bancos.add(EmpresaContexto.SEM_EMPRESA);
+        bancos.addAll(dedicados);
+        return bancos;
+    }
+
+    public long bancoDe(Long empresaId) {
+        return empresaId != null && dedicados.contains(empresaId) ? empresaId : EmpresaContexto.SEM_EMPRESA;
+    }
+
+    // Banco da requisição corrente
+    public long bancoAtual() {
+        return bancoDe(EmpresaContexto.atual());
+    }
+
+    public void paraCadaBanco(Consumer<Long> tarefa) {
+        for (Long banco : bancos()) {
+            noBanco(banco, () -> {
+                tarefa.accept(banco);
+                return null;
+            });
+        }
+    }
+
+    /**
+     * Executa com o contexto apontando para o banco e restaura o contexto
+     * anterior no fim.
+     */
+    public <T> T noBanco(long banco, Supplier<T> tarefa) {
+        Long anterior = EmpresaContexto.atual();
+        EmpresaContexto.definir(banco == EmpresaContexto.SEM_EMPRESA ? null : banco);
+        try {
+            return tarefa.get();
+        } finally {
+            EmpresaContexto.definir(anterior);
+        }
+    }
+
+    public static String nome(long banco) {
+        return banco == EmpresaContexto.SEM_EMPRESA ? "padrao" : Long.toString(banco);
+    }
+}
@@ -0,0 +1,61 @@
+package com.boxpro.multiempresa;
+
+/**
+ * Empresa (tenant) da requisição corrente, guardada na thread.
+ *
+ * Definida pelo EmpresaContextoFilter no início de cada requisição e limpa
+ * no fim. Fora de requisições (jobs agendados, inicialização) fica vazia e
+ * nada é restringido por empresa.
+ */
+public final class EmpresaContexto {
+
+    // Filtro Hibernate declarado nas entidades com empresa_id
+    public static final String FILTRO = "empresa";
+    public static final String PARAMETRO_FILTRO = "empresaId";
+
+    // Chave usada em caches quando não há empresa definida (modo de empresa única)
+    public static final long SEM_EMPRESA = 0L;
+
+    private static final ThreadLocal<Long> EMPRESA = new ThreadLocal<>();
+    private static final ThreadLocal<Boolean> FILTRO_ATIVO = new ThreadLocal<>();
+
+    private EmpresaContexto() {}
+
+    public static Long atual() {
+        return EMPRESA.get();
+    }
+
+    public static long chave() {
+        Long empresaId = EMPRESA.get();
+        return empresaId != null ? empresaId : SEM_EMPRESA;
+    }
+
+    public static void definir(Long empresaId) {
+        if (empresaId == null) {
+            EMPRESA.remove();
+        } else {
+            EMPRESA.set(empresaId);
+        }
+    }
+
+    /**
+     * Indica se o filtro Hibernate da empresa está ligado na sessão desta
+     * thread; só então leituras por id de outra empresa são recusadas.
+     */
+    public static boolean filtroAtivo() {
+        return Boolean.TRUE.equals(FILTRO_ATIVO.get());
+    }
+
+    static void marcarFiltroAtivo(boolean ativo) {
+        if (ativo) {
+            FILTRO_ATIVO.set(Boolean.TRUE);
+        } else {
+            FILTRO_ATIVO.remove();
+        }
+    }
+
+    public static void limpar() {
+        EMPRESA.remove();
+        FILTRO_ATIVO.remove();
+    }
+}
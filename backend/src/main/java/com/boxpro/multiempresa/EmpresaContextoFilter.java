@@ -0,0 +1,104 @@
+package com.boxpro.multiempresa;
+
+import com.boxpro.security.JwtUtil;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Set;
+
+/**
+ * Resolve a empresa da requisição no modo multiempresa.
+ *
+ * Com token válido vale a empresa gravada no token. O cabeçalho X-Empresa-Id
+ * só é aceito em requisições sem token aos endpoints públicos de cada loja
+ * (ENDPOINTS_PUBLICOS); nos demais é ignorado, já que a segurança libera as
+ * rotas e o cabeçalho deixaria qualquer um escolher a empresa. Sem token nem
+ * cabeçalho aceito, usa app.multiempresa.empresa-padrao. Com o modo
+ * desligado não faz nada.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class EmpresaContextoFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmpresaContextoFilter.class);
+
+    public static final String CABECALHO = "X-Empresa-Id";
+
+    // Únicas rotas em que o cabeçalho escolhe a empresa
+    private static final Set<String> ENDPOINTS_PUBLICOS = Set.of(
+            "/api/empresa/perfil-publico",
+            "/api/servicos/catalogo",
+            "/api/agendamentos/cotacao");
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Value("${app.multiempresa.habilitado:false}")
+    private boolean habilitado;
+
+    @Value("${app.multiempresa.empresa-padrao:1}")
+    private Long empresaPadrao;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !habilitado;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        Long empresaId;
+        try {
+            empresaId = resolver(request);
+        } catch (NumberFormatException e) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Cabeçalho " + CABECALHO + " inválido");
+            return;
+        }
+
+        EmpresaContexto.definir(empresaId);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            EmpresaContexto.limpar();
+        }
+    }
+
+    private Long resolver(HttpServletRequest request) {
+        String bearerToken = request.getHeader("Authorization");
+        if (StringUtils.hasText(bearerToken) && bearerToken.startsWith("Bearer ")) {
+            String jwt = bearerToken.substring(7);
+            if (jwtUtil.validateToken(jwt)) {
+                Long empresaId = jwtUtil.getEmpresaIdFromToken(jwt);
+                // Tokens emitidos antes do modo multiempresa pertencem à empresa padrão
+                return empresaId != null ? empresaId : empresaPadrao;
+            }
+        }
+
+        String cabecalho = request.getHeader(CABECALHO);
+        if (StringUtils.hasText(cabecalho)) {
+            if (ENDPOINTS_PUBLICOS.contains(caminho(request))) {
+                return Long.valueOf(cabecalho.trim());
+            }
+            logger.debug("Cabeçalho {} ignorado fora dos endpoints públicos: {}", CABECALHO, request.getRequestURI());
+        }
+        logger.trace("Requisição sem empresa; usando a empresa padrão {}", empresaPadrao);
+        return empresaPadrao;
+    }
+
+    private static String caminho(HttpServletRequest request) {
+        String caminho = request.getRequestURI().substring(request.getContextPath().length());
+        return caminho.endsWith("/") && caminho.length() > 1 ? caminho.substring(0, caminho.length() - 1) : caminho;
+    }
+}
@@ -0,0 +1,53 @@
+package com.boxpro.multiempresa;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.hibernate.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.orm.jpa.EntityManagerFactoryUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Liga o filtro Hibernate da empresa na sessão da requisição.
+ *
+ * Depende do open-in-view: a sessão aberta pelo OpenEntityManagerInViewInterceptor
+ * é a mesma usada pelas transações dos services, então o filtro vale para
+ * todas as consultas JPQL e derivadas da requisição. Leituras por id não
+ * passam pelo filtro e são conferidas pelo EmpresaListener.
+ */
+@Component
+public class EmpresaFiltroInterceptor implements HandlerInterceptor {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmpresaFiltroInterceptor.class);
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        Long empresaId = EmpresaContexto.atual();
+        if (empresaId == null) {
+            return true;
+        }
+        EntityManager entityManager = EntityManagerFactoryUtils.getTransactionalEntityManager(entityManagerFactory);
+        if (entityManager == null) {
+            logger.warn("⚠️ Sem EntityManager da requisição (open-in-view desligado?); filtro de empresa não aplicado");
+            return true;
+        }
+        entityManager.unwrap(Session.class)
+                .enableFilter(EmpresaContexto.FILTRO)
+                .setParameter(EmpresaContexto.PARAMETRO_FILTRO, empresaId);
+        EmpresaContexto.marcarFiltroAtivo(true);
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        EmpresaContexto.marcarFiltroAtivo(false);
+    }
+}
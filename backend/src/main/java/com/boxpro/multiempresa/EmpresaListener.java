@@ -0,0 +1,31 @@
+package com.boxpro.multiempresa;
+
+import com.boxpro.exception.ResourceNotFoundException;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PrePersist;
+
+/**
+ * Listener das entidades com empresa_id: preenche a empresa na criação e
+ * recusa, com o filtro ligado, registros de outra empresa carregados por id
+ * (o filtro Hibernate não se aplica a find).
+ */
+public class EmpresaListener {
+
+    @PrePersist
+    public void antesDeInserir(Object entidade) {
+        if (entidade instanceof PertenceEmpresa registro && registro.getEmpresaId() == null) {
+            registro.setEmpresaId(EmpresaContexto.atual());
+        }
+    }
+
+    @PostLoad
+    public void aposCarregar(Object entidade) {
+        if (!EmpresaContexto.filtroAtivo() || !(entidade instanceof PertenceEmpresa registro)) {
+            return;
+        }
+        Long empresaId = EmpresaContexto.atual();
+        if (registro.getEmpresaId() != null && !registro.getEmpresaId().equals(empresaId)) {
+            throw new ResourceNotFoundException("Registro não encontrado");
+        }
+    }
+}
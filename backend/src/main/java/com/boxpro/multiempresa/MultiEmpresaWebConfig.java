@@ -0,0 +1,24 @@
+package com.boxpro.multiempresa;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+@ConditionalOnProperty(name = "app.multiempresa.habilitado", havingValue = "true")
+public class MultiEmpresaWebConfig implements WebMvcConfigurer {
+
+    @Autowired
+    private EmpresaFiltroInterceptor empresaFiltroInterceptor;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        // Depois do open-in-view, que abre a sessão; login e cadastro procuram o funcionário em todas as empresas
+        registry.addInterceptor(empresaFiltroInterceptor)
+                .excludePathPatterns("/auth/**")
+                .order(Ordered.LOWEST_PRECEDENCE);
+    }
+}
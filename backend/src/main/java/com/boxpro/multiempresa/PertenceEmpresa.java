@@ -0,0 +1,9 @@
+package com.boxpro.multiempresa;
+
+// Entidade com coluna empresa_id, restrita pelo filtro da empresa
+public interface PertenceEmpresa {
+
+    Long getEmpresaId();
+
+    void setEmpresaId(Long empresaId);
+}
@@ -0,0 +1,15 @@
+package com.boxpro.multiempresa;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+/**
+ * Escolhe o banco pela empresa do contexto. Empresas sem banco próprio e
+ * threads sem empresa usam o datasource padrão.
+ */
+public class RoteamentoDataSource extends AbstractRoutingDataSource {
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return EmpresaContexto.atual();
+    }
+}
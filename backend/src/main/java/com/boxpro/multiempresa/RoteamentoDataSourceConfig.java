@@ -0,0 +1,56 @@
+package com.boxpro.multiempresa;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Roteamento opcional de empresas para bancos próprios.
+ *
+ * Cada empresa com banco dedicado é declarada em
+ * app.multiempresa.roteamento.empresas.&lt;id&gt;.url/username/password; as
+ * demais ficam no banco de spring.datasource. O esquema dos bancos dedicados
+ * precisa existir (o ddl-auto só atua no padrão). Os jobs de fundo e as
+ * migrações de inicialização percorrem todos os bancos via BancosEmpresa.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.multiempresa.roteamento.habilitado", havingValue = "true")
+public class RoteamentoDataSourceConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(RoteamentoDataSourceConfig.class);
+
+    static final String EMPRESAS = "app.multiempresa.roteamento.empresas";
+
+    @Bean
+    @Primary
+    public DataSource dataSource(DataSourceProperties padrao, Environment environment) {
+        Map<Long, DataSourceProperties> empresas = Binder.get(environment)
+                .bind(EMPRESAS, Bindable.mapOf(Long.class, DataSourceProperties.class))
+                .orElse(Map.of());
+
+        Map<Object, Object> destinos = new HashMap<>();
+        empresas.forEach((empresaId, propriedades) -> {
+            if (propriedades.getDriverClassName() == null) {
+                propriedades.setDriverClassName(padrao.determineDriverClassName());
+            }
+            destinos.put(empresaId, propriedades.initializeDataSourceBuilder().build());
+        });
+
+        RoteamentoDataSource roteamento = new RoteamentoDataSource();
+        roteamento.setDefaultTargetDataSource(padrao.initializeDataSourceBuilder().build());
+        roteamento.setTargetDataSources(destinos);
+        logger.info("🏢 Roteamento de datasource ligado para as empresas {}", destinos.keySet());
+        return roteamento;
+    }
+}
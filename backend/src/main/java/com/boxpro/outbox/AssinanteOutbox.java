@@ -0,0 +1,29 @@
+package com.boxpro.outbox;
+
+import java.util.List;
+
+/**
+ * Consumidor dos eventos de agendamento. Chamado pela thread do OutboxRelay,
+ * em ordem de id e em lotes; a entrega é pelo menos uma vez, então receber()
+ * deve tolerar eventos repetidos. Uma exceção faz o lote ser reentregue.
+ */
+public interface AssinanteOutbox {
+
+    /**
+     * Identifica a posição do assinante; não deve mudar entre versões.
+     */
+    String nome();
+
+    /**
+     * true para estado mantido em memória em cada nó (painéis, roda de
+     * lembretes): a posição não é persistida e começa no fim do outbox na
+     * inicialização, quando o assinante recarrega seu estado do banco.
+     * false: a posição fica em outbox_posicao, um nó por vez entrega o lote
+     * e receber() roda na mesma transação que avança a posição.
+     */
+    default boolean local() {
+        return false;
+    }
+
+    void receber(List<EventoPublicado> eventos);
+}
@@ -0,0 +1,9 @@
+package com.boxpro.outbox;
+
+import com.boxpro.event.AgendamentoEvento;
+
+/**
+ * Evento lido do outbox. json é o payload gravado, já pronto para quem só
+ * repassa o evento (stream SSE).
+ */
+public record EventoPublicado(long id, Long empresaId, AgendamentoEvento evento, String json, long criadoEmMs) {}
@@ -0,0 +1,445 @@
+package com.boxpro.outbox;
+
+import com.boxpro.event.AgendamentoEvento;
+import com.boxpro.multiempresa.BancosEmpresa;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Entrega os eventos de agendamento_outbox aos AssinanteOutbox.
+ *
+ * Uma única thread lê os ids acima da fronteira em ordem, em lotes, e
+ * repassa a cada assinante a partir da sua posição. Um id faltando pode ser
+ * de uma transação ainda aberta: a fronteira segue adiante e o id vira
+ * lacuna, relida a cada rodada até app.outbox.margem-lacuna-ms e depois
+ * tratada como rollback. Assinantes locais recebem a lacuna quando ela
+ * aparece, fora de ordem; um evento recuperado é descartado se um evento
+ * mais novo do mesmo agendamento já foi entregue (o payload é o estado
+ * completo). Assinantes duráveis guardam só a última posição, então leem
+ * até a primeira lacuna aberta. A thread é acordada no commit de cada
+ * escrita e, por garantia, a cada app.outbox.intervalo-ms.
+ *
+ * Com roteamento de datasource cada banco tem o seu outbox: a fronteira e a
+ * posição de cada assinante são mantidas por banco e a rodada passa por
+ * todos.
+ *
+ * Métricas por assinante e banco: boxpro.outbox.pendentes (eventos atrás do
+ * último id lido), boxpro.outbox.atraso (gravação até a entrega) e
+ * boxpro.outbox.falhas.
+ */
+@Service
+@DependsOn("entityManagerFactory")
+public class OutboxRelay {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboxRelay.class);
+
+    private static final String COLUNAS =
+            "SELECT id, empresa_id, payload, criado_em FROM agendamento_outbox ";
+
+    // Saltos maiores que isso (auto_increment após restart, rollback em massa) não viram lacunas
+    private static final int MAX_LACUNAS = 1000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectProvider<AssinanteOutbox> assinantes;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private BancosEmpresa bancos;
+
+    @Value("${app.outbox.habilitado:true}")
+    private boolean habilitado;
+
+    @Value("${app.outbox.tamanho-lote:200}")
+    private int tamanhoLote;
+
+    @Value("${app.outbox.margem-lacuna-ms:10000}")
+    private long margemLacunaMs;
+
+    @Value("${app.outbox.retencao-horas:24}")
+    private int retencaoHoras;
+
+    // Por banco; preenchido em iniciar()
+    private final Map<Long, Origem> origens = new ConcurrentHashMap<>();
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "outbox-relay");
+        t.setDaemon(true);
+        return t;
+    });
+    private final AtomicBoolean agendado = new AtomicBoolean();
+
+    /**
+     * Posiciona a fronteira no fim do outbox antes de os assinantes locais
+     * carregarem seu estado (ApplicationReadyEvent): eventos confirmados
+     * entre as duas leituras são reentregues, nunca perdidos.
+     */
+    @PostConstruct
+    public void iniciar() {
+        if (!habilitado) {
+            return;
+        }
+        bancos.paraCadaBanco(banco -> {
+            Long maximo = jdbcTemplate.queryForObject("SELECT MAX(id) FROM agendamento_outbox", Long.class);
+            Origem origem = new Origem(banco, maximo != null ? maximo : 0);
+            origens.put(banco, origem);
+            logger.info("📬 Outbox de agendamentos do banco {} a partir do id {}", BancosEmpresa.nome(banco), origem.fronteira);
+        });
+    }
+
+    /**
+     * Pede uma rodada de entrega; chamadas enquanto uma rodada já está na
+     * fila são agrupadas.
+     */
+    public void acordar() {
+        if (habilitado && !executor.isShutdown() && agendado.compareAndSet(false, true)) {
+            executor.execute(() -> {
+                agendado.set(false);
+                processar();
+            });
+        }
+    }
+
+    /**
+     * Fronteira do banco quando o relay iniciou: assinantes locais só
+     * recebem eventos acima dela. Long.MAX_VALUE se o banco não é lido.
+     */
+    public long fronteiraInicial(long banco) {
+        Origem origem = origens.get(banco);
+        return origem != null ? origem.inicio : Long.MAX_VALUE;
+    }
+
+    @Scheduled(fixedDelayString = "${app.outbox.intervalo-ms:1000}")
+    public void periodico() {
+        acordar();
+    }
+
+    @Scheduled(cron = "${app.outbox.limpeza-cron:0 15 * * * *}")
+    public void limpar() {
+        if (!habilitado) {
+            return;
+        }
+        Timestamp limite = Timestamp.valueOf(LocalDateTime.now().minusHours(retencaoHoras));
+        List<String> duraveis = assinantes.orderedStream().filter(a -> !a.local()).map(AssinanteOutbox::nome).toList();
+        bancos.paraCadaBanco(banco -> {
+            long ateId = Long.MAX_VALUE;
+            if (!duraveis.isEmpty()) {
+                // Não remove o que um assinante durável ainda não recebeu
+                Long minimo = namedJdbcTemplate.queryForObject(
+                        "SELECT MIN(ultimo_id) FROM outbox_posicao WHERE assinante IN (:nomes)",
+                        new MapSqlParameterSource("nomes", duraveis), Long.class);
+                ateId = minimo != null ? minimo : 0;
+            }
+            int removidas;
+            do {
+                removidas = jdbcTemplate.update("DELETE FROM agendamento_outbox WHERE criado_em < ? AND id <= ? LIMIT ?",
+                        limite, ateId, tamanhoLote);
+            } while (removidas == tamanhoLote);
+        });
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        executor.shutdown();
+    }
+
+    // Uma rodada em todos os bancos; acordar() a executa na thread do relay
+    void processar() {
+        if (origens.isEmpty()) {
+            return;
+        }
+        List<AssinanteOutbox> lista = assinantes.orderedStream().toList();
+        boolean restam = false;
+        for (Origem origem : origens.values()) {
+            restam |= bancos.noBanco(origem.banco, () -> processar(origem, lista));
+        }
+        if (restam) {
+            acordar();
+        }
+    }
+
+    /**
+     * Uma rodada no banco da origem, com o contexto já apontando para ele.
+     * Retorna true se o lote veio cheio.
+     */
+    private boolean processar(Origem origem, List<AssinanteOutbox> lista) {
+        long inicio = origem.fronteira;
+        Rodada rodada;
+        try {
+            lista.forEach(assinante -> estado(origem, assinante));
+            rodada = avancar(origem);
+        } catch (DataAccessException e) {
+            logger.warn("Falha ao ler o outbox do banco {}: {}", BancosEmpresa.nome(origem.banco), e.getMessage());
+            return false;
+        }
+        for (AssinanteOutbox assinante : lista) {
+            Estado estado = origem.estados.get(assinante.nome());
+            try {
+                if (assinante.local()) {
+                    entregarLocal(origem, assinante, estado, rodada, estado.posicao == inicio);
+                } else {
+                    entregarDuravel(origem, assinante, estado);
+                }
+            } catch (RuntimeException e) {
+                estado.falhas.increment();
+                logger.warn("Falha ao entregar eventos do outbox a {}: {}", assinante.nome(), e.getMessage());
+            }
+        }
+        return rodada.novos().size() == tamanhoLote;
+    }
+
+    /**
+     * Lê o próximo lote acima da fronteira, registra os ids pulados como
+     * lacunas e relê as lacunas ainda dentro da margem.
+     */
+    private Rodada avancar(Origem origem) {
+        List<EventoPublicado> novos = jdbcTemplate.query(COLUNAS + "WHERE id > ? ORDER BY id LIMIT ?",
+                mapper(), origem.fronteira, tamanhoLote);
+        long agora = System.currentTimeMillis();
+        for (EventoPublicado evento : novos) {
+            long esperado = origem.fronteira + 1;
+            if (evento.id() > esperado && evento.id() - esperado < MAX_LACUNAS) {
+                for (long id = esperado; id < evento.id(); id++) {
+                    origem.lacunas.put(id, agora);
+                }
+            }
+            origem.fronteira = evento.id();
+            origem.maiorIdVisto = Math.max(origem.maiorIdVisto, evento.id());
+        }
+        List<EventoPublicado> recuperados = relerLacunas(origem, agora);
+
+        // Com lacuna aberta, lembra o último id entregue de cada agendamento
+        if (origem.lacunas.isEmpty()) {
+            origem.entreguesComLacuna.clear();
+        } else {
+            for (List<EventoPublicado> entregues : List.of(novos, recuperados)) {
+                for (EventoPublicado evento : entregues) {
+                    if (evento.evento() != null) {
+                        origem.entreguesComLacuna.merge(evento.evento().agendamentoId(), evento.id(), Math::max);
+                    }
+                }
+            }
+        }
+        return new Rodada(novos, recuperados);
+    }
+
+    private List<EventoPublicado> relerLacunas(Origem origem, long agora) {
+        origem.lacunas.entrySet().removeIf(lacuna -> {
+            if (agora - lacuna.getValue() <= margemLacunaMs) {
+                return false;
+            }
+            logger.debug("Id {} do outbox não apareceu; seguindo", lacuna.getKey());
+            return true;
+        });
+        if (origem.lacunas.isEmpty()) {
+            return List.of();
+        }
+        List<EventoPublicado> encontrados = namedJdbcTemplate.query(COLUNAS + "WHERE id IN (:ids) ORDER BY id",
+                new MapSqlParameterSource("ids", origem.lacunas.keySet()), mapper());
+        List<EventoPublicado> recuperados = new ArrayList<>(encontrados.size());
+        for (EventoPublicado evento : encontrados) {
+            origem.lacunas.remove(evento.id());
+            Long entregue = evento.evento() != null ? origem.entreguesComLacuna.get(evento.evento().agendamentoId()) : null;
+            if (entregue != null && entregue > evento.id()) {
+                logger.debug("Evento {} do outbox chegou depois do {} do mesmo agendamento; descartado", evento.id(), entregue);
+                continue;
+            }
+            recuperados.add(evento);
+        }
+        return recuperados;
+    }
+
+    private void entregarLocal(Origem origem, AssinanteOutbox assinante, Estado estado, Rodada rodada, boolean emDia) {
+        List<EventoPublicado> pendentes = new ArrayList<>(rodada.recuperados());
+        if (emDia) {
+            pendentes.addAll(rodada.novos());
+        } else {
+            // Depois de uma falha a posição fica para trás e o lote é relido
+            pendentes.removeIf(evento -> evento.id() > estado.posicao);
+            pendentes.addAll(ler(origem, estado.posicao, origem.fronteira));
+        }
+        if (pendentes.isEmpty()) {
+            return;
+        }
+        receber(assinante, pendentes);
+        confirmar(estado, pendentes);
+    }
+
+    private void entregarDuravel(Origem origem, AssinanteOutbox assinante, Estado estado) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            // Outro nó entregando a este assinante: fica para a próxima rodada
+            List<Long> posicao = jdbcTemplate.queryForList(
+                    "SELECT ultimo_id FROM outbox_posicao WHERE assinante = ? FOR UPDATE SKIP LOCKED",
+                    Long.class, assinante.nome());
+            if (posicao.isEmpty()) {
+                return;
+            }
+            estado.posicao = posicao.get(0);
+            List<EventoPublicado> pendentes = ler(origem, estado.posicao, fronteiraSemLacunas(origem));
+            if (pendentes.isEmpty()) {
+                return;
+            }
+            receber(assinante, pendentes);
+            long ultimo = pendentes.get(pendentes.size() - 1).id();
+            jdbcTemplate.update("UPDATE outbox_posicao SET ultimo_id = ?, atualizado_em = ? WHERE assinante = ?",
+                    ultimo, Timestamp.valueOf(LocalDateTime.now()), assinante.nome());
+            confirmar(estado, pendentes);
+        });
+    }
+
+    // Eventos com payload ilegível (evento null) avançam a posição sem serem entregues
+    private void receber(AssinanteOutbox assinante, List<EventoPublicado> pendentes) {
+        List<EventoPublicado> validos = pendentes.stream().filter(e -> e.evento() != null).toList();
+        if (!validos.isEmpty()) {
+            assinante.receber(validos);
+        }
+    }
+
+    private List<EventoPublicado> ler(Origem origem, long desde, long ate) {
+        return jdbcTemplate.query(COLUNAS + "WHERE id > ? AND id <= ? ORDER BY id LIMIT ?",
+                mapper(), desde, ate, tamanhoLote);
+    }
+
+    // Último id antes da primeira lacuna aberta
+    private static long fronteiraSemLacunas(Origem origem) {
+        long fronteira = origem.fronteira;
+        for (Long lacuna : origem.lacunas.keySet()) {
+            fronteira = Math.min(fronteira, lacuna - 1);
+        }
+        return fronteira;
+    }
+
+    private void confirmar(Estado estado, List<EventoPublicado> entregues) {
+        long agora = System.currentTimeMillis();
+        for (EventoPublicado evento : entregues) {
+            estado.atraso.record(Math.max(0, agora - evento.criadoEmMs()), TimeUnit.MILLISECONDS);
+        }
+        // Lacunas recuperadas podem estar abaixo da posição
+        estado.posicao = Math.max(estado.posicao, entregues.get(entregues.size() - 1).id());
+    }
+
+    private Estado estado(Origem origem, AssinanteOutbox assinante) {
+        return origem.estados.computeIfAbsent(assinante.nome(), nome -> {
+            if (!assinante.local()) {
+                // Assinante novo começa do fim; os existentes mantêm a posição gravada
+                jdbcTemplate.update("INSERT IGNORE INTO outbox_posicao (assinante, ultimo_id, atualizado_em) VALUES (?, ?, ?)",
+                        nome, origem.fronteira, Timestamp.valueOf(LocalDateTime.now()));
+            }
+            String banco = BancosEmpresa.nome(origem.banco);
+            Estado estado = new Estado(nome, banco, origem.fronteira);
+            Gauge.builder("boxpro.outbox.pendentes", estado, e -> Math.max(0, origem.maiorIdVisto - e.posicao))
+                    .description("Eventos do outbox ainda não entregues ao assinante")
+                    .tag("assinante", nome)
+                    .tag("banco", banco)
+                    .register(meterRegistry);
+            return estado;
+        });
+    }
+
+    private RowMapper<EventoPublicado> mapper() {
+        return (rs, rowNum) -> {
+            String payload = rs.getString("payload");
+            AgendamentoEvento evento = null;
+            try {
+                evento = objectMapper.readValue(payload, AgendamentoEvento.class);
+            } catch (JsonProcessingException e) {
+                logger.error("Evento {} do outbox ilegível, ignorado: {}", rs.getLong("id"), e.getMessage());
+            }
+            return new EventoPublicado(
+                    rs.getLong("id"),
+                    rs.getObject("empresa_id", Long.class),
+                    evento,
+                    payload,
+                    rs.getTimestamp("criado_em").toLocalDateTime().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+        };
+    }
+
+    // Outbox de um banco; campos não voláteis acessados só pela thread do relay
+    private static final class Origem {
+        final long banco;
+        final long inicio;
+        final Map<String, Estado> estados = new ConcurrentHashMap<>();
+        // id -> instante em que foi pulado
+        final Map<Long, Long> lacunas = new HashMap<>();
+        // agendamento -> maior id entregue enquanto havia lacuna aberta
+        final Map<Integer, Long> entreguesComLacuna = new HashMap<>();
+        long fronteira;
+        volatile long maiorIdVisto;
+
+        Origem(long banco, long fronteira) {
+            this.banco = banco;
+            this.inicio = fronteira;
+            this.fronteira = fronteira;
+            this.maiorIdVisto = fronteira;
+        }
+    }
+
+    private record Rodada(List<EventoPublicado> novos, List<EventoPublicado> recuperados) {}
+
+    private final class Estado {
+        volatile long posicao;
+        final Timer atraso;
+        final Counter falhas;
+
+        Estado(String nome, String banco, long posicao) {
+            this.posicao = posicao;
+            this.atraso = Timer.builder("boxpro.outbox.atraso")
+                    .description("Tempo entre a gravação do evento e a entrega ao assinante")
+                    .tag("assinante", nome)
+                    .tag("banco", banco)
+                    .register(meterRegistry);
+            this.falhas = Counter.builder("boxpro.outbox.falhas")
+                    .description("Lotes do outbox que o assinante não processou")
+                    .tag("assinante", nome)
+                    .tag("banco", banco)
+                    .register(meterRegistry);
+        }
+    }
+}
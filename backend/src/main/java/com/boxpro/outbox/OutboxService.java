@@ -0,0 +1,78 @@
+package com.boxpro.outbox;
+
+import com.boxpro.config.EscritoresJson;
+import com.boxpro.entity.Agendamento;
+import com.boxpro.event.AgendamentoEvento;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Grava os eventos de agendamento em agendamento_outbox, na transação da
+ * escrita: o evento existe se e somente se a escrita foi confirmada. Depois
+ * do commit só acorda o OutboxRelay; nenhum assinante roda na requisição.
+ */
+@Service
+public class OutboxService {
+
+    private static final String INSERT =
+            "INSERT INTO agendamento_outbox (tipo, agendamento_id, empresa_id, payload, criado_em) VALUES (?, ?, ?, ?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EscritoresJson escritoresJson;
+
+    @Autowired
+    private OutboxRelay relay;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void publicar(String tipo, Agendamento agendamento, LocalDate dataAnterior) {
+        gravar(List.of(new Pendente(AgendamentoEvento.de(tipo, agendamento, dataAnterior), agendamento.getEmpresaId())));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void publicarTodos(String tipo, Collection<Agendamento> agendamentos) {
+        List<Pendente> pendentes = new ArrayList<>(agendamentos.size());
+        for (Agendamento agendamento : agendamentos) {
+            pendentes.add(new Pendente(AgendamentoEvento.de(tipo, agendamento, null), agendamento.getEmpresaId()));
+        }
+        gravar(pendentes);
+    }
+
+    private void gravar(List<Pendente> pendentes) {
+        if (pendentes.isEmpty()) {
+            return;
+        }
+        Timestamp agora = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(INSERT, pendentes, pendentes.size(), (ps, p) -> {
+            ps.setString(1, p.evento().tipo());
+            ps.setInt(2, p.evento().agendamentoId());
+            ps.setObject(3, p.empresaId(), Types.BIGINT);
+            ps.setString(4, new String(escritoresJson.serializar(p.evento()), StandardCharsets.UTF_8));
+            ps.setTimestamp(5, agora);
+        });
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                relay.acordar();
+            }
+        });
+    }
+
+    private record Pendente(AgendamentoEvento evento, Long empresaId) {}
+}
@@ -0,0 +1,168 @@
+package com.boxpro.projecao;
+
+import com.boxpro.entity.enums.StatusAgendamento;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Campos de uma listagem que podem ser pedidos em ?fields=, com a coluna de
+ * cada um. Só os campos daqui são selecionados e serializados, então o que
+ * não está listado (senha do funcionário, coleções) nunca sai por projeção.
+ */
+public final class Projecao {
+
+    public static final String CAMPO_ID = "id";
+
+    public static final Projecao AGENDAMENTOS = new Projecao("agendamentos", true)
+            .campo("id", "t.id", Integer.class)
+            .campo("empresaId", "t.empresa_id", Long.class)
+            .campo("clienteId", "t.cliente_id", Integer.class)
+            .campo("veiculoId", "t.veiculo_id", Integer.class)
+            .campo("servicoId", "t.servico_id", Integer.class)
+            .campo("funcionarioResponsavelId", "t.funcionario_responsavel_id", Integer.class)
+            .campo("dataAgendamento", "t.data_agendamento", LocalDate.class)
+            .campo("horaInicio", "t.hora_inicio", LocalTime.class)
+            .campo("horaFim", "t.hora_fim", LocalTime.class)
+            .campo("status", "t.status_codigo", null,
+                    (rs, nome) -> StatusAgendamento.deCodigo(rs.getObject(nome, Byte.class)))
+            .campo("observacoes", "t.observacoes", String.class)
+            .campo("valorTotal", "t.valor_total", BigDecimal.class)
+            .campo("dataCancelamento", "t.data_cancelamento", LocalDate.class)
+            .campo("motivoCancelamento", "t.motivo_cancelamento", String.class)
+            .campo("taxaCancelamento", "t.taxa_cancelamento", BigDecimal.class)
+            .campo("lembreteEnviadoEm", "t.lembrete_enviado_em", LocalDateTime.class)
+            .campo("createdAt", "t.created_at", LocalDateTime.class)
+            .campo("updatedAt", "t.updated_at", LocalDateTime.class)
+            .campo("versao", "t.versao", Long.class);
+
+    public static final Projecao FUNCIONARIOS = new Projecao("funcionarios", true)
+            .campo("id", "t.id", Integer.class)
+            .campo("empresaId", "t.empresa_id", Long.class)
+            .campo("nome", "t.nome", String.class)
+            .campo("email", "t.email", String.class)
+            .campo("telefone", "t.telefone", String.class)
+            .campo("cpf", "t.cpf", String.class)
+            .campo("tipoFuncionario", "t.tipo_funcionario", String.class)
+            .campo("ativo", "t.ativo", Boolean.class)
+            .campo("dataCriacao", "t.data_criacao", LocalDateTime.class)
+            .campo("dataAtualizacao", "t.data_atualizacao", LocalDateTime.class)
+            .campo("ultimoLogin", "t.ultimo_login", LocalDateTime.class)
+            .campo("tentativasLogin", "t.tentativas_login", Integer.class)
+            .campo("bloqueado", "t.bloqueado", Boolean.class);
+
+    public static final Projecao CLIENTES = new Projecao("clientes", false)
+            .campo("id", "t.id", Long.class)
+            .campo("nome", "t.nome", String.class)
+            .campo("email", "t.email", String.class)
+            .campo("telefone", "t.telefone", String.class)
+            .campo("cpf", "t.cpf", String.class)
+            .campo("dataCriacao", "t.data_criacao", LocalDateTime.class)
+            .campo("dataAtualizacao", "t.data_atualizacao", LocalDateTime.class);
+
+    // Mesmos campos do VeiculoResponseDTO; o nome do cliente só junta clientes quando pedido
+    public static final Projecao VEICULOS = new Projecao("veiculos", false)
+            .campo("id", "t.id", Long.class)
+            .campo("marca", "t.marca", String.class)
+            .campo("modelo", "t.modelo", String.class)
+            .campo("ano", "t.ano", Integer.class)
+            .campo("placa", "t.placa", String.class)
+            .campo("cor", "t.cor", String.class)
+            .campo("clienteNome", "c.nome", "LEFT JOIN clientes c ON c.id = t.cliente_id", leitor(String.class))
+            .campo("clienteId", "t.cliente_id", Long.class)
+            .campo("dataCriacao", "t.data_criacao", LocalDateTime.class);
+
+    public static final Projecao SERVICOS = new Projecao("servicos", true)
+            .campo("id", "t.id", Long.class)
+            .campo("empresaId", "t.empresa_id", Long.class)
+            .campo("categoriaId", "t.categoria_id", Long.class)
+            .campo("nome", "t.nome", String.class)
+            .campo("descricao", "t.descricao", String.class)
+            .campo("preco", "t.preco", BigDecimal.class)
+            .campo("duracaoEstimada", "t.duracao_estimada", LocalTime.class)
+            .campo("ativo", "t.ativo", Boolean.class)
+            .campo("createdAt", "t.created_at", LocalDateTime.class)
+            .campo("updatedAt", "t.updated_at", LocalDateTime.class);
+
+    @FunctionalInterface
+    public interface Leitor {
+        Object ler(ResultSet rs, String nome) throws SQLException;
+    }
+
+    /**
+     * expressao é qualificada pelo alias da tabela (t) ou da junção; o valor
+     * sai no ResultSet com o nome do campo.
+     */
+    public record Campo(String nome, String expressao, String juncao, Leitor leitor) {}
+
+    private final String tabela;
+    private final boolean porEmpresa;
+    private final Map<String, Campo> campos = new LinkedHashMap<>();
+
+    private Projecao(String tabela, boolean porEmpresa) {
+        this.tabela = tabela;
+        this.porEmpresa = porEmpresa;
+    }
+
+    public String tabela() {
+        return tabela;
+    }
+
+    /**
+     * Se a tabela tem empresa_id; consultas JDBC não passam pelo filtro
+     * Hibernate e precisam aplicá-lo.
+     */
+    public boolean porEmpresa() {
+        return porEmpresa;
+    }
+
+    public Campo campo(String nome) {
+        Campo campo = campos.get(nome);
+        if (campo == null) {
+            throw new IllegalArgumentException("Campo desconhecido: " + nome + ". Disponíveis: " + campos.keySet());
+        }
+        return campo;
+    }
+
+    /**
+     * Interpreta ?fields= ("nome,email"). O id vem sempre, primeiro, para
+     * identificar a linha.
+     */
+    public List<Campo> selecionar(String fields) {
+        Set<String> nomes = new LinkedHashSet<>();
+        nomes.add(CAMPO_ID);
+        for (String nome : fields.split(",")) {
+            if (!nome.isBlank()) {
+                nomes.add(nome.trim());
+            }
+        }
+        List<Campo> selecionados = new ArrayList<>(nomes.size());
+        for (String nome : nomes) {
+            selecionados.add(campo(nome));
+        }
+        return selecionados;
+    }
+
+    private Projecao campo(String nome, String expressao, Class<?> tipo) {
+        return campo(nome, expressao, null, leitor(tipo));
+    }
+
+    private Projecao campo(String nome, String expressao, String juncao, Leitor leitor) {
+        campos.put(nome, new Campo(nome, expressao, juncao, leitor));
+        return this;
+    }
+
+    private static Leitor leitor(Class<?> tipo) {
+        return (rs, nome) -> rs.getObject(nome, tipo);
+    }
+}
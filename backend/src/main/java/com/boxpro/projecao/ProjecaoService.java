@@ -0,0 +1,83 @@
+package com.boxpro.projecao;
+
+import com.boxpro.multiempresa.EmpresaContexto;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Listagens com ?fields=: seleciona só as colunas pedidas e devolve cada
+ * linha como um mapa com esses campos, na mesma página/ordenação da
+ * listagem completa. Colunas TEXT não pedidas não são lidas do banco nem
+ * serializadas.
+ */
+@Service
+public class ProjecaoService {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    public Page<Map<String, Object>> listar(Projecao projecao, String fields, Pageable pageable) {
+        List<Projecao.Campo> campos = projecao.selecionar(fields);
+
+        List<String> ordem = new ArrayList<>();
+        Set<String> juncoes = new LinkedHashSet<>();
+        for (Projecao.Campo campo : campos) {
+            if (campo.juncao() != null) {
+                juncoes.add(campo.juncao());
+            }
+        }
+        for (Sort.Order order : pageable.getSort()) {
+            Projecao.Campo campo = projecao.campo(order.getProperty());
+            if (campo.juncao() != null) {
+                juncoes.add(campo.juncao());
+            }
+            ordem.add(campo.expressao() + (order.isDescending() ? " DESC" : " ASC"));
+        }
+        // Desempate pelo id para a paginação ser estável
+        ordem.add("t.id");
+
+        List<String> colunas = new ArrayList<>(campos.size());
+        for (Projecao.Campo campo : campos) {
+            colunas.add(campo.expressao() + " AS " + campo.nome());
+        }
+
+        List<Object> args = new ArrayList<>();
+        String filtro = "";
+        Long empresaId = EmpresaContexto.atual();
+        if (projecao.porEmpresa() && empresaId != null) {
+            filtro = " WHERE t.empresa_id = ?";
+            args.add(empresaId);
+        }
+        String origem = " FROM " + projecao.tabela() + " t" + filtro;
+
+        List<Object> argsPagina = new ArrayList<>(args);
+        argsPagina.add(pageable.getPageSize());
+        argsPagina.add(pageable.getOffset());
+        List<Map<String, Object>> linhas = jdbcTemplate.query(
+                "SELECT " + String.join(", ", colunas) + " FROM " + projecao.tabela() + " t " +
+                String.join(" ", juncoes) + filtro + " ORDER BY " + String.join(", ", ordem) + " LIMIT ? OFFSET ?",
+                (rs, rowNum) -> {
+                    Map<String, Object> linha = new LinkedHashMap<>();
+                    for (Projecao.Campo campo : campos) {
+                        linha.put(campo.nome(), campo.leitor().ler(rs, campo.nome()));
+                    }
+                    return linha;
+                },
+                argsPagina.toArray());
+
+        return PageableExecutionUtils.getPage(linhas, pageable,
+                () -> jdbcTemplate.queryForObject("SELECT COUNT(*)" + origem, Long.class, args.toArray()));
+    }
+}
@@ -0,0 +1,326 @@
+package com.boxpro.repository;
+
+import com.boxpro.entity.Agendamento;
+import com.boxpro.entity.HistoricoAgendamento;
+import com.boxpro.entity.enums.StatusAgendamento;
+import com.boxpro.multiempresa.EmpresaContexto;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Acesso às tabelas de arquivo (agendamentos_arquivo e
+ * historico_agendamentos_arquivo). Os registros lidos daqui são objetos
+ * soltos, fora do contexto de persistência, e servem apenas para leitura.
+ */
+@Repository
+public class AgendamentoArquivoRepository {
+
+    public static final String AGENDAMENTOS = "agendamentos";
+    public static final String AGENDAMENTOS_ARQUIVO = "agendamentos_arquivo";
+    public static final String HISTORICO = "historico_agendamentos";
+    public static final String HISTORICO_ARQUIVO = "historico_agendamentos_arquivo";
+
+    private static final String MAIS_RECENTES = " ORDER BY data_agendamento DESC, hora_inicio DESC";
+
+    private static final String COLUNAS_HISTORICO =
+            "SELECT id, agendamento_id, funcionario_id, acao, detalhes, status_anterior, status_novo, payload, " +
+            "data_acao FROM " + HISTORICO_ARQUIVO;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    /**
+     * Cria as tabelas de arquivo com a mesma estrutura das originais (LIKE não
+     * copia chaves estrangeiras) e acrescenta colunas e índices que o ddl-auto
+     * tenha criado nas originais depois disso.
+     */
+    public void prepararTabelas() {
+        // Ações do sistema gravam histórico sem funcionário; o ddl-auto não remove o NOT NULL antigo
+        permitirNulo(HISTORICO, "funcionario_id");
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + AGENDAMENTOS_ARQUIVO + " LIKE " + AGENDAMENTOS);
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + HISTORICO_ARQUIVO + " LIKE " + HISTORICO);
+        sincronizarColunas(AGENDAMENTOS, AGENDAMENTOS_ARQUIVO);
+        sincronizarColunas(HISTORICO, HISTORICO_ARQUIVO);
+        sincronizarIndices(AGENDAMENTOS, AGENDAMENTOS_ARQUIVO);
+        permitirNulo(HISTORICO_ARQUIVO, "funcionario_id");
+    }
+
+    private void permitirNulo(String tabela, String coluna) {
+        List<Map<String, Object>> definicao = jdbcTemplate.queryForList(
+                "SELECT column_type, is_nullable FROM information_schema.columns " +
+                "WHERE table_schema = DATABASE() AND table_name = ? AND column_name = ?",
+                tabela, coluna);
+        if (!definicao.isEmpty() && "NO".equals(definicao.get(0).get("is_nullable"))) {
+            jdbcTemplate.execute("ALTER TABLE " + tabela + " MODIFY `" + coluna + "` " +
+                    definicao.get(0).get("column_type") + " NULL");
+        }
+    }
+
+    private void sincronizarColunas(String origem, String arquivo) {
+        Map<String, String> colunasOrigem = colunas(origem);
+        Map<String, String> colunasArquivo = colunas(arquivo);
+        colunasOrigem.forEach((nome, tipo) -> {
+            if (!colunasArquivo.containsKey(nome)) {
+                jdbcTemplate.execute("ALTER TABLE " + arquivo + " ADD COLUMN `" + nome + "` " + tipo + " NULL");
+            }
+        });
+    }
+
+    private void sincronizarIndices(String origem, String arquivo) {
+        Map<String, String> indicesArquivo = indices(arquivo);
+        indices(origem).forEach((nome, colunas) -> {
+            if (!indicesArquivo.containsKey(nome)) {
+                jdbcTemplate.execute("CREATE INDEX `" + nome + "` ON " + arquivo + " (" + colunas + ")");
+            }
+        });
+    }
+
+    // Índices idx_* não únicos, com as colunas na ordem do índice
+    private Map<String, String> indices(String tabela) {
+        Map<String, String> indices = new LinkedHashMap<>();
+        jdbcTemplate.query(
+                "SELECT index_name, GROUP_CONCAT(CONCAT('`', column_name, '`') ORDER BY seq_in_index) " +
+                "FROM information_schema.statistics " +
+                "WHERE table_schema = DATABASE() AND table_name = ? AND non_unique = 1 AND index_name LIKE 'idx%' " +
+                "GROUP BY index_name",
+                rs -> {
+                    indices.put(rs.getString(1), rs.getString(2));
+                },
+                tabela);
+        return indices;
+    }
+
+    private Map<String, String> colunas(String tabela) {
+        Map<String, String> colunas = new LinkedHashMap<>();
+        jdbcTemplate.query(
+                "SELECT column_name, column_type FROM information_schema.columns " +
+                "WHERE table_schema = DATABASE() AND table_name = ? ORDER BY ordinal_position",
+                rs -> {
+                    colunas.put(rs.getString(1), rs.getString(2));
+                },
+                tabela);
+        return colunas;
+    }
+
+    /**
+     * Ids de agendamentos encerrados antes do horizonte, travados para a
+     * movimentação na transação corrente.
+     */
+    public List<Integer> travarEncerradosAntesDe(LocalDate horizonte, int limite) {
+        return jdbcTemplate.queryForList(
+                "SELECT id FROM " + AGENDAMENTOS + " WHERE status_codigo IN (?, ?) " +
+                "AND data_agendamento < ? ORDER BY id LIMIT ? FOR UPDATE",
+                Integer.class, StatusAgendamento.CONCLUIDO.getCodigo(), StatusAgendamento.CANCELADO.getCodigo(),
+                horizonte, limite);
+    }
+
+    /**
+     * Copia os agendamentos e seus históricos para o arquivo e remove das
+     * tabelas originais. Deve rodar na mesma transação de travarEncerradosAntesDe.
+     */
+    public void mover(List<Integer> ids) {
+        MapSqlParameterSource params = new MapSqlParameterSource("ids", ids);
+        String colunasAgendamento = listaColunas(AGENDAMENTOS);
+        String colunasHistorico = listaColunas(HISTORICO);
+
+        namedJdbcTemplate.update("INSERT INTO " + HISTORICO_ARQUIVO + " (" + colunasHistorico + ") SELECT " +
+                colunasHistorico + " FROM " + HISTORICO + " WHERE agendamento_id IN (:ids)", params);
+        namedJdbcTemplate.update("INSERT INTO " + AGENDAMENTOS_ARQUIVO + " (" + colunasAgendamento + ") SELECT " +
+                colunasAgendamento + " FROM " + AGENDAMENTOS + " WHERE id IN (:ids)", params);
+        namedJdbcTemplate.update("DELETE FROM " + HISTORICO + " WHERE agendamento_id IN (:ids)", params);
+        namedJdbcTemplate.update("DELETE FROM " + AGENDAMENTOS + " WHERE id IN (:ids)", params);
+    }
+
+    private String listaColunas(String tabela) {
+        return colunas(tabela).keySet().stream().map(c -> "`" + c + "`").collect(Collectors.joining(", "));
+    }
+
+    /**
+     * Data mais recente presente no arquivo; consultas que terminam antes
+     * dela não precisam olhar o arquivo.
+     */
+    public Optional<LocalDate> dataMaisRecente() {
+        return Optional.ofNullable(jdbcTemplate.queryForObject(
+                "SELECT MAX(data_agendamento) FROM " + AGENDAMENTOS_ARQUIVO, LocalDate.class));
+    }
+
+    public List<Agendamento> buscarPorPeriodo(LocalDate dataInicio, LocalDate dataFim) {
+        return comHistorico(consultar("data_agendamento BETWEEN ? AND ?", MAIS_RECENTES, dataInicio, dataFim));
+    }
+
+    public List<Agendamento> buscarPorData(LocalDate data) {
+        return comHistorico(consultar("data_agendamento = ?", " ORDER BY hora_inicio", data));
+    }
+
+    public Optional<Agendamento> buscarPorId(Integer id) {
+        List<Agendamento> encontrados = comHistorico(consultar("id = ?", "", id));
+        return encontrados.stream().findFirst();
+    }
+
+    public List<Agendamento> buscarPorCliente(Integer clienteId) {
+        return comHistorico(consultar("cliente_id = ?", MAIS_RECENTES, clienteId));
+    }
+
+    public List<Agendamento> buscarPorFuncionario(Integer funcionarioId) {
+        return comHistorico(consultar("funcionario_responsavel_id = ?", MAIS_RECENTES, funcionarioId));
+    }
+
+    public List<Agendamento> buscarPorStatus(StatusAgendamento status) {
+        return comHistorico(consultar("status_codigo = ?", MAIS_RECENTES, status.getCodigo()));
+    }
+
+    public Map<StatusAgendamento, Long> contarPorStatus() {
+        Long empresaId = EmpresaContexto.atual();
+        Map<StatusAgendamento, Long> contagem = new LinkedHashMap<>();
+        jdbcTemplate.query(
+                "SELECT status_codigo, COUNT(*) FROM " + AGENDAMENTOS_ARQUIVO +
+                (empresaId != null ? " WHERE empresa_id = ?" : "") + " GROUP BY status_codigo",
+                rs -> {
+                    StatusAgendamento status = StatusAgendamento.deCodigo(rs.getObject(1, Byte.class));
+                    if (status != null) {
+                        contagem.put(status, rs.getLong(2));
+                    }
+                },
+                empresaId != null ? new Object[] {empresaId} : new Object[0]);
+        return contagem;
+    }
+
+    // Históricos arquivados, mais recentes primeiro; o agendamento vem só com o id
+    public List<HistoricoAgendamento> buscarHistoricoPorAgendamento(Integer agendamentoId) {
+        return consultarHistorico("agendamento_id = ?", agendamentoId);
+    }
+
+    public List<HistoricoAgendamento> buscarHistoricoPorFuncionario(Integer funcionarioId) {
+        return consultarHistorico("funcionario_id = ?", funcionarioId);
+    }
+
+    public List<HistoricoAgendamento> buscarHistoricoPorAcao(String acao) {
+        return consultarHistorico("acao = ?", acao);
+    }
+
+    public Map<String, Long> contarHistoricoPorAcao() {
+        Long empresaId = EmpresaContexto.atual();
+        Map<String, Long> contagem = new LinkedHashMap<>();
+        jdbcTemplate.query(
+                "SELECT acao, COUNT(*) FROM " + HISTORICO_ARQUIVO +
+                (empresaId != null ? " WHERE " + DA_EMPRESA : "") + " GROUP BY acao",
+                rs -> {
+                    contagem.put(rs.getString(1), rs.getLong(2));
+                },
+                empresaId != null ? new Object[] {empresaId} : new Object[0]);
+        return contagem;
+    }
+
+    // Histórico arquivado não tem empresa_id; a empresa vem do agendamento arquivado
+    private static final String DA_EMPRESA =
+            "agendamento_id IN (SELECT id FROM " + AGENDAMENTOS_ARQUIVO + " WHERE empresa_id = ?)";
+
+    private List<HistoricoAgendamento> consultarHistorico(String condicao, Object parametro) {
+        Long empresaId = EmpresaContexto.atual();
+        List<Object> args = new ArrayList<>(List.of(parametro));
+        String sql = COLUNAS_HISTORICO + " WHERE " + condicao;
+        if (empresaId != null) {
+            sql += " AND " + DA_EMPRESA;
+            args.add(empresaId);
+        }
+        return jdbcTemplate.query(sql + " ORDER BY data_acao DESC", (rs, rowNum) -> {
+            Agendamento agendamento = new Agendamento();
+            agendamento.setId(rs.getInt("agendamento_id"));
+            return lerHistorico(rs, agendamento);
+        }, args.toArray());
+    }
+
+    // Consulta o arquivo restrita à empresa do contexto, quando houver
+    private List<Agendamento> consultar(String condicao, String ordem, Object... parametros) {
+        Long empresaId = EmpresaContexto.atual();
+        List<Object> args = new ArrayList<>(List.of(parametros));
+        String sql = "SELECT * FROM " + AGENDAMENTOS_ARQUIVO + " WHERE " + condicao;
+        if (empresaId != null) {
+            sql += " AND empresa_id = ?";
+            args.add(empresaId);
+        }
+        return jdbcTemplate.query(sql + ordem, AGENDAMENTO_MAPPER, args.toArray());
+    }
+
+    private List<Agendamento> comHistorico(List<Agendamento> agendamentos) {
+        if (agendamentos.isEmpty()) {
+            return agendamentos;
+        }
+        Map<Integer, Agendamento> porId = new LinkedHashMap<>();
+        for (Agendamento agendamento : agendamentos) {
+            agendamento.setHistoricos(new ArrayList<>());
+            porId.put(agendamento.getId(), agendamento);
+        }
+        namedJdbcTemplate.query(
+                COLUNAS_HISTORICO + " WHERE agendamento_id IN (:ids) ORDER BY data_acao",
+                new MapSqlParameterSource("ids", porId.keySet()),
+                rs -> {
+                    Agendamento agendamento = porId.get(rs.getInt("agendamento_id"));
+                    agendamento.getHistoricos().add(lerHistorico(rs, agendamento));
+                });
+        return agendamentos;
+    }
+
+    private static HistoricoAgendamento lerHistorico(ResultSet rs, Agendamento agendamento) throws SQLException {
+        HistoricoAgendamento historico = new HistoricoAgendamento();
+        historico.setId(rs.getInt("id"));
+        historico.setAgendamento(agendamento);
+        historico.setFuncionarioId(rs.getObject("funcionario_id", Integer.class));
+        historico.setAcao(rs.getString("acao"));
+        historico.setDetalhes(rs.getString("detalhes"));
+        historico.setStatusAnterior(rs.getObject("status_anterior", Byte.class));
+        historico.setStatusNovo(rs.getObject("status_novo", Byte.class));
+        historico.setPayload(rs.getBytes("payload"));
+        historico.setDataAcao(toLocalDateTime(rs.getTimestamp("data_acao")));
+        return historico;
+    }
+
+    private static final RowMapper<Agendamento> AGENDAMENTO_MAPPER = (rs, rowNum) -> {
+        Agendamento a = new Agendamento();
+        a.setId(rs.getInt("id"));
+        a.setEmpresaId(rs.getObject("empresa_id", Long.class));
+        a.setClienteId(rs.getInt("cliente_id"));
+        a.setVeiculoId(rs.getInt("veiculo_id"));
+        a.setServicoId(rs.getInt("servico_id"));
+        a.setFuncionarioResponsavelId(rs.getObject("funcionario_responsavel_id", Integer.class));
+        a.setDataAgendamento(rs.getObject("data_agendamento", LocalDate.class));
+        a.setHoraInicio(rs.getObject("hora_inicio", LocalTime.class));
+        a.setHoraFim(rs.getObject("hora_fim", LocalTime.class));
+        a.setStatus(StatusAgendamento.deCodigo(rs.getObject("status_codigo", Byte.class)));
+        a.setObservacoes(rs.getString("observacoes"));
+        a.setValorTotal(rs.getBigDecimal("valor_total"));
+        a.setDataCancelamento(rs.getObject("data_cancelamento", LocalDate.class));
+        a.setMotivoCancelamento(rs.getString("motivo_cancelamento"));
+        a.setTaxaCancelamento(rs.getBigDecimal("taxa_cancelamento"));
+        a.setLembreteEnviadoEm(toLocalDateTime(rs.getTimestamp("lembrete_enviado_em")));
+        a.setCreatedAt(toLocalDateTime(rs.getTimestamp("created_at")));
+        a.setUpdatedAt(toLocalDateTime(rs.getTimestamp("updated_at")));
+        // Nula em linhas arquivadas antes de a coluna existir
+        a.setVersao(rs.getObject("versao", Long.class));
+        return a;
+    };
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+}
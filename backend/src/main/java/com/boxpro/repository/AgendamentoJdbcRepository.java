@@ -0,0 +1,280 @@
+package com.boxpro.repository;
+
+import com.boxpro.entity.Agendamento;
+import com.boxpro.entity.enums.StatusAgendamento;
+import com.boxpro.historico.HistoricoCompacto;
+import com.boxpro.multiempresa.EmpresaContexto;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Operações em lote sobre agendamentos que não compensam passar pelo
+ * EntityManager (inserção em massa com JDBC batching).
+ */
+@Repository
+public class AgendamentoJdbcRepository {
+
+    private static final String INSERT_AGENDAMENTO =
+            "INSERT INTO agendamentos (cliente_id, veiculo_id, servico_id, funcionario_responsavel_id, " +
+            "data_agendamento, hora_inicio, hora_fim, status_codigo, observacoes, valor_total, created_at, updated_at, " +
+            "empresa_id) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_HISTORICO =
+            "INSERT INTO historico_agendamentos " +
+            "(agendamento_id, funcionario_id, acao, status_anterior, status_novo, payload, detalhes, data_acao) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    /**
+     * Horários ocupados (agendado/em_andamento) nas datas informadas pelos
+     * veículos ou funcionários informados, em uma única consulta.
+     */
+    public List<Ocupacao> buscarOcupacoes(Collection<LocalDate> datas,
+                                          Collection<Integer> veiculoIds,
+                                          Collection<Integer> funcionarioIds) {
+        if (datas.isEmpty() || (veiculoIds.isEmpty() && funcionarioIds.isEmpty())) {
+            return List.of();
+        }
+
+        StringBuilder sql = new StringBuilder(
+                "SELECT id, veiculo_id, funcionario_responsavel_id, data_agendamento, hora_inicio, hora_fim " +
+                "FROM agendamentos WHERE data_agendamento IN (:datas) " +
+                "AND status_codigo IN (:ativos) AND (");
+        MapSqlParameterSource params = new MapSqlParameterSource("datas", datas)
+                .addValue("ativos", List.of(StatusAgendamento.AGENDADO.getCodigo(), StatusAgendamento.EM_ANDAMENTO.getCodigo()));
+        if (!veiculoIds.isEmpty()) {
+            sql.append("veiculo_id IN (:veiculos)");
+            params.addValue("veiculos", veiculoIds);
+        }
+        if (!funcionarioIds.isEmpty()) {
+            sql.append(veiculoIds.isEmpty() ? "" : " OR ").append("funcionario_responsavel_id IN (:funcionarios)");
+            params.addValue("funcionarios", funcionarioIds);
+        }
+        sql.append(")");
+
+        return namedJdbcTemplate.query(sql.toString(), params, (rs, rowNum) -> new Ocupacao(
+                rs.getInt("id"),
+                rs.getInt("veiculo_id"),
+                rs.getObject("funcionario_responsavel_id", Integer.class),
+                rs.getObject("data_agendamento", LocalDate.class),
+                rs.getObject("hora_inicio", LocalTime.class),
+                rs.getObject("hora_fim", LocalTime.class)));
+    }
+
+    /**
+     * Insere os agendamentos em um único batch e preenche id, createdAt e
+     * updatedAt em cada objeto.
+     */
+    public void inserirLote(List<Agendamento> agendamentos) {
+        if (agendamentos.isEmpty()) {
+            return;
+        }
+        LocalDateTime agora = LocalDateTime.now();
+        for (Agendamento a : agendamentos) {
+            if (a.getEmpresaId() == null) {
+                a.setEmpresaId(EmpresaContexto.atual());
+            }
+        }
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+
+        jdbcTemplate.batchUpdate(
+                con -> con.prepareStatement(INSERT_AGENDAMENTO, Statement.RETURN_GENERATED_KEYS),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        Agendamento a = agendamentos.get(i);
+                        ps.setInt(1, a.getClienteId());
+                        ps.setInt(2, a.getVeiculoId());
+                        ps.setInt(3, a.getServicoId());
+                        ps.setObject(4, a.getFuncionarioResponsavelId(), Types.INTEGER);
+                        ps.setObject(5, a.getDataAgendamento());
+                        ps.setObject(6, a.getHoraInicio());
+                        ps.setObject(7, a.getHoraFim());
+                        ps.setByte(8, a.getStatus().getCodigo());
+                        ps.setString(9, a.getObservacoes());
+                        ps.setBigDecimal(10, a.getValorTotal());
+                        ps.setTimestamp(11, Timestamp.valueOf(agora));
+                        ps.setTimestamp(12, Timestamp.valueOf(agora));
+                        ps.setObject(13, a.getEmpresaId(), Types.BIGINT);
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return agendamentos.size();
+                    }
+                },
+                keyHolder);
+
+        List<Map<String, Object>> chaves = keyHolder.getKeyList();
+        for (int i = 0; i < agendamentos.size(); i++) {
+            Agendamento a = agendamentos.get(i);
+            a.setId(((Number) chaves.get(i).values().iterator().next()).intValue());
+            a.setCreatedAt(agora);
+            a.setUpdatedAt(agora);
+        }
+    }
+
+    public void inserirHistoricos(List<NovoHistorico> historicos) {
+        if (historicos.isEmpty()) {
+            return;
+        }
+        Timestamp agora = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(INSERT_HISTORICO, historicos, historicos.size(), (ps, h) -> {
+            ps.setInt(1, h.agendamentoId());
+            ps.setObject(2, h.funcionarioId(), Types.INTEGER);
+            ps.setString(3, h.registro().acao());
+            ps.setObject(4, h.registro().statusAnterior(), Types.TINYINT);
+            ps.setObject(5, h.registro().statusNovo(), Types.TINYINT);
+            ps.setBytes(6, h.registro().payload());
+            ps.setString(7, h.registro().detalhes());
+            ps.setTimestamp(8, agora);
+        });
+    }
+
+    /**
+     * Lê e trava (FOR UPDATE) os agendamentos informados, com os campos que
+     * mudanças de status precisam (resumo diário, agenda, eventos). Com
+     * empresa no contexto, ids de outra empresa ficam de fora.
+     */
+    public Map<Integer, Agendamento> travarParaAtualizacao(Collection<Integer> ids) {
+        return ler(ids, true);
+    }
+
+    /**
+     * Mesmos campos de travarParaAtualizacao, sem travar a linha; null se
+     * não existe (ou é de outra empresa).
+     */
+    public Agendamento buscarEstado(Integer id) {
+        return ler(List.of(id), false).get(id);
+    }
+
+    /**
+     * UPDATE só das colunas informadas, condicionado à versão esperada, que é
+     * incrementada. Retorna as linhas afetadas: 0 se o agendamento não existe
+     * ou a versão mudou (ver buscarVersao).
+     */
+    public int atualizarCampos(Integer id, long versaoEsperada, Map<String, Object> colunas) {
+        StringBuilder sql = new StringBuilder("UPDATE agendamentos SET versao = versao + 1, updated_at = :agora");
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("id", id)
+                .addValue("versao", versaoEsperada)
+                .addValue("agora", Timestamp.valueOf(LocalDateTime.now()));
+        int i = 0;
+        for (Map.Entry<String, Object> coluna : colunas.entrySet()) {
+            sql.append(", ").append(coluna.getKey()).append(" = :c").append(i);
+            params.addValue("c" + i++, coluna.getValue());
+        }
+        sql.append(" WHERE id = :id AND versao = :versao");
+        Long empresaId = EmpresaContexto.atual();
+        if (empresaId != null) {
+            sql.append(" AND empresa_id = :empresaId");
+            params.addValue("empresaId", empresaId);
+        }
+        return namedJdbcTemplate.update(sql.toString(), params);
+    }
+
+    public Long buscarVersao(Integer id) {
+        Long empresaId = EmpresaContexto.atual();
+        List<Long> versoes = jdbcTemplate.queryForList(
+                "SELECT versao FROM agendamentos WHERE id = ?" + (empresaId != null ? " AND empresa_id = ?" : ""),
+                Long.class, empresaId != null ? new Object[]{id, empresaId} : new Object[]{id});
+        return versoes.isEmpty() ? null : versoes.get(0);
+    }
+
+    private Map<Integer, Agendamento> ler(Collection<Integer> ids, boolean travar) {
+        Map<Integer, Agendamento> agendamentos = new LinkedHashMap<>();
+        if (ids.isEmpty()) {
+            return agendamentos;
+        }
+        Long empresaId = EmpresaContexto.atual();
+        namedJdbcTemplate.query(
+                "SELECT id, empresa_id, cliente_id, veiculo_id, servico_id, funcionario_responsavel_id, data_agendamento, " +
+                "hora_inicio, hora_fim, status_codigo, valor_total, taxa_cancelamento, versao " +
+                "FROM agendamentos WHERE id IN (:ids)" +
+                (empresaId != null ? " AND empresa_id = :empresaId" : "") + (travar ? " FOR UPDATE" : ""),
+                new MapSqlParameterSource("ids", ids).addValue("empresaId", empresaId),
+                rs -> {
+                    Agendamento a = new Agendamento();
+                    a.setId(rs.getInt("id"));
+                    a.setEmpresaId(rs.getObject("empresa_id", Long.class));
+                    a.setClienteId(rs.getInt("cliente_id"));
+                    a.setVeiculoId(rs.getInt("veiculo_id"));
+                    a.setServicoId(rs.getInt("servico_id"));
+                    a.setFuncionarioResponsavelId(rs.getObject("funcionario_responsavel_id", Integer.class));
+                    a.setDataAgendamento(rs.getObject("data_agendamento", LocalDate.class));
+                    a.setHoraInicio(rs.getObject("hora_inicio", LocalTime.class));
+                    a.setHoraFim(rs.getObject("hora_fim", LocalTime.class));
+                    a.setStatus(StatusAgendamento.deCodigo(rs.getObject("status_codigo", Byte.class)));
+                    a.setValorTotal(rs.getBigDecimal("valor_total"));
+                    a.setTaxaCancelamento(rs.getBigDecimal("taxa_cancelamento"));
+                    a.setVersao(rs.getLong("versao"));
+                    agendamentos.put(a.getId(), a);
+                });
+        return agendamentos;
+    }
+
+    /**
+     * Ids com o status informado e data anterior ao limite, mais antigos
+     * primeiro. Usa o índice (status, data_agendamento).
+     */
+    public List<Integer> buscarIdsPorStatusAntesDe(StatusAgendamento status, LocalDate limite, int quantidade) {
+        return jdbcTemplate.queryForList(
+                "SELECT id FROM agendamentos WHERE status_codigo = ? AND data_agendamento < ? " +
+                "ORDER BY data_agendamento, id LIMIT ?",
+                Integer.class, status.getCodigo(), limite, quantidade);
+    }
+
+    /**
+     * UPDATE em massa de status, protegido pelo status anterior esperado.
+     * Cancelamentos também gravam a data e, se houver, o motivo.
+     */
+    public int atualizarStatus(Collection<Integer> ids, StatusAgendamento statusEsperado,
+                               StatusAgendamento novoStatus, String motivo) {
+        StringBuilder sql = new StringBuilder(
+                "UPDATE agendamentos SET status_codigo = :novo, updated_at = :agora, versao = versao + 1");
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("ids", ids)
+                .addValue("esperado", statusEsperado.getCodigo())
+                .addValue("novo", novoStatus.getCodigo())
+                .addValue("agora", Timestamp.valueOf(LocalDateTime.now()));
+        if (novoStatus == StatusAgendamento.CANCELADO) {
+            sql.append(", data_cancelamento = :hoje");
+            params.addValue("hoje", LocalDate.now());
+            if (motivo != null && !motivo.trim().isEmpty()) {
+                sql.append(", motivo_cancelamento = :motivo");
+                params.addValue("motivo", motivo);
+            }
+        }
+        sql.append(" WHERE id IN (:ids) AND status_codigo = :esperado");
+        return namedJdbcTemplate.update(sql.toString(), params);
+    }
+
+    public record Ocupacao(Integer agendamentoId, Integer veiculoId, Integer funcionarioId,
+                           LocalDate data, LocalTime horaInicio, LocalTime horaFim) {}
+
+    public record NovoHistorico(Integer agendamentoId, Integer funcionarioId, HistoricoCompacto.Registro registro) {}
+}
@@ -1,12 +1,14 @@
 package com.boxpro.repository;
 
 import com.boxpro.entity.Agendamento;
+import com.boxpro.entity.enums.StatusAgendamento;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -18,16 +20,34 @@ public interface AgendamentoRepository extends JpaRepository<Agendamento, Intege
     
     List<Agendamento> findByFuncionarioResponsavelIdOrderByDataAgendamentoDescHoraInicioDesc(Integer funcionarioId);
     
-    List<Agendamento> findByStatusOrderByDataAgendamentoDescHoraInicioDesc(String status);
+    List<Agendamento> findByStatusOrderByDataAgendamentoDescHoraInicioDesc(StatusAgendamento status);
     
     @Query("SELECT a FROM Agendamento a WHERE a.dataAgendamento BETWEEN :dataInicio AND :dataFim ORDER BY a.dataAgendamento DESC, a.horaInicio DESC")
     List<Agendamento> findByDataAgendamentoBetween(@Param("dataInicio") LocalDate dataInicio, @Param("dataFim") LocalDate dataFim);
     
     @Query("SELECT a FROM Agendamento a WHERE a.dataAgendamento >= :data AND a.status = :status ORDER BY a.dataAgendamento ASC, a.horaInicio ASC")
-    List<Agendamento> findAgendamentosFuturos(@Param("data") LocalDate data, @Param("status") String status);
+    List<Agendamento> findAgendamentosFuturos(@Param("data") LocalDate data, @Param("status") StatusAgendamento status);
     
-    @Query("SELECT a FROM Agendamento a WHERE a.dataAgendamento = :data AND a.status IN ('agendado', 'em_andamento') ORDER BY a.horaInicio ASC")
-    List<Agendamento> findAgendamentosAtivos(@Param("data") LocalDate data);
+    @Query("SELECT COUNT(a) FROM Agendamento a WHERE a.dataAgendamento >= :data AND a.status = :status")
+    long countAgendamentosFuturos(@Param("data") LocalDate data, @Param("status") StatusAgendamento status);
+
+    @Query("SELECT a.status, COUNT(a) FROM Agendamento a GROUP BY a.status")
+    List<Object[]> countPorStatus();
+    
+    @Query("SELECT a FROM Agendamento a WHERE a.dataAgendamento = :data AND a.status IN :status ORDER BY a.horaInicio ASC")
+    List<Agendamento> findByDataAgendamentoAndStatusIn(@Param("data") LocalDate data, @Param("status") Collection<StatusAgendamento> status);
+
+    default List<Agendamento> findAgendamentosAtivos(LocalDate data) {
+        return findByDataAgendamentoAndStatusIn(data, List.of(StatusAgendamento.AGENDADO, StatusAgendamento.EM_ANDAMENTO));
+    }
+
+    @Query("SELECT a FROM Agendamento a WHERE a.empresaId = :empresaId AND a.dataAgendamento = :data AND a.status IN :status ORDER BY a.horaInicio ASC")
+    List<Agendamento> findByEmpresaIdAndDataAgendamentoAndStatusIn(@Param("empresaId") Long empresaId, @Param("data") LocalDate data,
+                                                                   @Param("status") Collection<StatusAgendamento> status);
+
+    default List<Agendamento> findAgendamentosAtivos(Long empresaId, LocalDate data) {
+        return findByEmpresaIdAndDataAgendamentoAndStatusIn(empresaId, data, List.of(StatusAgendamento.AGENDADO, StatusAgendamento.EM_ANDAMENTO));
+    }
     
-    boolean existsByDataAgendamentoAndHoraInicioAndStatus(LocalDate dataAgendamento, LocalDate horaInicio, String status);
+    boolean existsByDataAgendamentoAndHoraInicioAndStatus(LocalDate dataAgendamento, LocalDate horaInicio, StatusAgendamento status);
 }
\ No newline at end of file
@@ -35,6 +35,9 @@ public interface FuncionarioRepository extends JpaRepository<Funcionario, Intege
     @Query("SELECT f FROM Funcionario f WHERE f.ativo = true AND f.bloqueado = false")
     List<Funcionario> findFuncionariosDisponiveis();
     
+    @Query("SELECT f FROM Funcionario f WHERE f.empresaId = :empresaId AND f.ativo = true AND f.bloqueado = false")
+    List<Funcionario> findFuncionariosDisponiveisPorEmpresa(Long empresaId);
+    
     // Buscar funcionários com muitas tentativas de login
     @Query("SELECT f FROM Funcionario f WHERE f.tentativasLogin >= :maxTentativas AND f.bloqueado = false")
     List<Funcionario> findFuncionariosComMuitasTentativas(Integer maxTentativas);
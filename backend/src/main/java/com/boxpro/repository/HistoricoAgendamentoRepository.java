@@ -2,6 +2,7 @@ package com.boxpro.repository;
 
 import com.boxpro.entity.HistoricoAgendamento;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -14,4 +15,7 @@ public interface HistoricoAgendamentoRepository extends JpaRepository<HistoricoA
     List<HistoricoAgendamento> findByFuncionarioIdOrderByDataAcaoDesc(Integer funcionarioId);
     
     List<HistoricoAgendamento> findByAcaoOrderByDataAcaoDesc(String acao);
+
+    @Query("SELECT h.acao, COUNT(h) FROM HistoricoAgendamento h GROUP BY h.acao")
+    List<Object[]> countPorAcao();
 }
\ No newline at end of file
@@ -0,0 +1,124 @@
+package com.boxpro.repository;
+
+import com.boxpro.dto.response.HistoricoServicosResponse.Atendimento;
+import com.boxpro.dto.response.HistoricoServicosResponse.Evento;
+import com.boxpro.entity.enums.StatusAgendamento;
+import com.boxpro.historico.HistoricoCompacto;
+import com.boxpro.multiempresa.EmpresaContexto;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.boxpro.repository.AgendamentoArquivoRepository.AGENDAMENTOS;
+import static com.boxpro.repository.AgendamentoArquivoRepository.AGENDAMENTOS_ARQUIVO;
+import static com.boxpro.repository.AgendamentoArquivoRepository.HISTORICO;
+import static com.boxpro.repository.AgendamentoArquivoRepository.HISTORICO_ARQUIVO;
+
+/**
+ * Linha do tempo de um veículo em uma única consulta: agendamentos ativos e
+ * arquivados, com o nome do serviço e o histórico de cada um.
+ *
+ * A paginação é por chave (data_agendamento, id) decrescente. Cada lado do
+ * UNION ALL percorre idx_agendamentos_veiculo_data a partir do cursor e
+ * para em limite + 1 linhas; só a página escolhida é juntada a servicos e
+ * aos históricos.
+ */
+@Repository
+public class HistoricoVeiculoRepository {
+
+    private static final String COLUNAS =
+            "id, data_agendamento, hora_inicio, hora_fim, status_codigo, servico_id, valor_total";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Até limite + 1 atendimentos anteriores ao cursor (ou os mais recentes,
+     * sem cursor); o excedente indica que há próxima página.
+     */
+    public List<Atendimento> buscar(Integer veiculoId, LocalDate antesDeData, Integer antesDeId, int limite) {
+        Long empresaId = EmpresaContexto.atual();
+        StringBuilder filtro = new StringBuilder("veiculo_id = ?");
+        List<Object> argsLado = new ArrayList<>();
+        argsLado.add(veiculoId);
+        if (antesDeData != null) {
+            filtro.append(" AND (data_agendamento < ? OR (data_agendamento = ? AND id < ?))");
+            argsLado.add(antesDeData);
+            argsLado.add(antesDeData);
+            argsLado.add(antesDeId);
+        }
+        if (empresaId != null) {
+            filtro.append(" AND empresa_id = ?");
+            argsLado.add(empresaId);
+        }
+        String lado = " WHERE " + filtro + " ORDER BY data_agendamento DESC, id DESC LIMIT ?";
+
+        String sql =
+                "SELECT p.*, s.nome AS servico_nome, " +
+                "COALESCE(h.acao, ha.acao) AS h_acao, COALESCE(h.detalhes, ha.detalhes) AS h_detalhes, " +
+                "COALESCE(h.status_anterior, ha.status_anterior) AS h_status_anterior, " +
+                "COALESCE(h.status_novo, ha.status_novo) AS h_status_novo, " +
+                "COALESCE(h.payload, ha.payload) AS h_payload, " +
+                "COALESCE(h.funcionario_id, ha.funcionario_id) AS h_funcionario_id, " +
+                "COALESCE(h.data_acao, ha.data_acao) AS h_data_acao " +
+                "FROM (" +
+                "(SELECT " + COLUNAS + ", 0 AS arquivado FROM " + AGENDAMENTOS + lado + ") " +
+                "UNION ALL " +
+                "(SELECT " + COLUNAS + ", 1 AS arquivado FROM " + AGENDAMENTOS_ARQUIVO + lado + ") " +
+                "ORDER BY data_agendamento DESC, id DESC LIMIT ?" +
+                ") p " +
+                "JOIN servicos s ON s.id = p.servico_id " +
+                "LEFT JOIN " + HISTORICO + " h ON p.arquivado = 0 AND h.agendamento_id = p.id " +
+                "LEFT JOIN " + HISTORICO_ARQUIVO + " ha ON p.arquivado = 1 AND ha.agendamento_id = p.id " +
+                "ORDER BY p.data_agendamento DESC, p.id DESC, h_data_acao";
+
+        List<Object> args = new ArrayList<>(argsLado);
+        args.add(limite + 1);
+        args.addAll(argsLado);
+        args.add(limite + 1);
+        args.add(limite + 1);
+
+        Map<Integer, Atendimento> porId = new LinkedHashMap<>();
+        jdbcTemplate.query(sql, rs -> {
+            int id = rs.getInt("id");
+            Atendimento atendimento = porId.get(id);
+            if (atendimento == null) {
+                StatusAgendamento status = StatusAgendamento.deCodigo(rs.getObject("status_codigo", Byte.class));
+                atendimento = new Atendimento(
+                        id,
+                        rs.getObject("data_agendamento", LocalDate.class),
+                        rs.getObject("hora_inicio", LocalTime.class),
+                        rs.getObject("hora_fim", LocalTime.class),
+                        status != null ? status.getValor() : null,
+                        rs.getInt("servico_id"),
+                        rs.getString("servico_nome"),
+                        rs.getBigDecimal("valor_total"),
+                        rs.getInt("arquivado") == 1,
+                        new ArrayList<>());
+                porId.put(id, atendimento);
+            }
+            String acao = rs.getString("h_acao");
+            if (acao != null) {
+                Byte statusAnterior = rs.getObject("h_status_anterior", Byte.class);
+                Byte statusNovo = rs.getObject("h_status_novo", Byte.class);
+                String detalhes = rs.getString("h_detalhes");
+                Timestamp dataAcao = rs.getTimestamp("h_data_acao");
+                atendimento.historico().add(new Evento(
+                        acao,
+                        detalhes != null ? detalhes
+                                : HistoricoCompacto.renderizar(acao, statusAnterior, statusNovo, rs.getBytes("h_payload")),
+                        rs.getObject("h_funcionario_id", Integer.class),
+                        dataAcao != null ? dataAcao.toLocalDateTime() : null));
+            }
+        }, args.toArray());
+        return new ArrayList<>(porId.values());
+    }
+}
@@ -1,5 +1,6 @@
 package com.boxpro.security;
 
+import com.boxpro.entity.Funcionario;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value;
@@ -16,6 +17,8 @@ public class JwtUtil {
 
     private static final Logger log = Logger.getLogger(JwtUtil.class.getName());
 
+    public static final String CLAIM_EMPRESA = "empresaId";
+
     @Value("${app.jwt.secret}")
     private String jwtSecret;
 
@@ -30,22 +33,39 @@ public class JwtUtil {
         UserDetails userPrincipal = (UserDetails) authentication.getPrincipal();
         Date expiryDate = new Date(System.currentTimeMillis() + jwtExpirationInMs);
 
-        return Jwts.builder()
+        JwtBuilder builder = Jwts.builder()
                 .setSubject(userPrincipal.getUsername())
                 .setIssuedAt(new Date())
-                .setExpiration(expiryDate)
+                .setExpiration(expiryDate);
+
+        // Empresa do funcionário, usada no modo multiempresa
+        if (userPrincipal instanceof Funcionario funcionario && funcionario.getEmpresaId() != null) {
+            builder.claim(CLAIM_EMPRESA, funcionario.getEmpresaId());
+        }
+
+        return builder
                 .signWith(getSigningKey(), SignatureAlgorithm.HS512)
                 .compact();
     }
 
     public String getUsernameFromToken(String token) {
-        Claims claims = Jwts.parserBuilder()
+        return getClaims(token).getSubject();
+    }
+
+    /**
+     * Empresa gravada no token, ou null em tokens emitidos sem ela.
+     */
+    public Long getEmpresaIdFromToken(String token) {
+        Number empresaId = getClaims(token).get(CLAIM_EMPRESA, Number.class);
+        return empresaId != null ? empresaId.longValue() : null;
+    }
+
+    private Claims getClaims(String token) {
+        return Jwts.parserBuilder()
                 .setSigningKey(getSigningKey())
                 .build()
                 .parseClaimsJws(token)
                 .getBody();
-
-        return claims.getSubject();
     }
 
     public boolean validateToken(String token) {
@@ -0,0 +1,265 @@
+package com.boxpro.service;
+
+import com.boxpro.dto.request.AgendamentoLoteRequest;
+import com.boxpro.dto.response.AgendamentoLoteResponse;
+import com.boxpro.entity.Agendamento;
+import com.boxpro.exception.AgendaOcupadaException;
+import com.boxpro.entity.enums.StatusAgendamento;
+import com.boxpro.event.AgendamentoEvento;
+import com.boxpro.historico.HistoricoCompacto;
+import com.boxpro.outbox.OutboxService;
+import com.boxpro.repository.AgendamentoJdbcRepository;
+import com.boxpro.repository.AgendamentoJdbcRepository.NovoHistorico;
+import com.boxpro.repository.AgendamentoJdbcRepository.Ocupacao;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Criação de agendamentos em lote: valida tudo em memória, confere as
+ * referências e os conflitos de horário com uma consulta cada e insere
+ * agendamentos e histórico com JDBC batching na mesma transação.
+ */
+@Service
+@Transactional
+public class AgendamentoLoteService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AgendamentoLoteService.class);
+
+    @Autowired
+    private AgendamentoService agendamentoService;
+
+    @Autowired
+    private AtribuicaoFuncionarioService atribuicaoService;
+
+    @Autowired
+    private AgendamentoJdbcRepository agendamentoJdbcRepository;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Autowired
+    private ResumoDiarioService resumoDiarioService;
+
+    @Autowired
+    private TravaAgendaService travaAgendaService;
+
+    @Autowired
+    private ValidadorReferencias validadorReferencias;
+
+    @Autowired
+    private CotacaoService cotacaoService;
+
+    @Value("${app.agendamento.lote.max-itens:200}")
+    private int maxItens;
+
+    public AgendamentoLoteResponse criarLote(AgendamentoLoteRequest request) {
+        List<Agendamento> agendamentos = request.agendamentos();
+        if (agendamentos == null || agendamentos.isEmpty()) {
+            throw new IllegalArgumentException("O lote não possui agendamentos");
+        }
+        if (agendamentos.size() > maxItens) {
+            throw new IllegalArgumentException("O lote excede o limite de " + maxItens + " agendamentos");
+        }
+
+        AgendamentoLoteRequest.Modo modo = request.modoEfetivo();
+        int total = agendamentos.size();
+        String[] erros = new String[total];
+
+        // 1. Validação individual
+        for (int i = 0; i < total; i++) {
+            Agendamento agendamento = agendamentos.get(i);
+            if (agendamento == null) {
+                erros[i] = "Agendamento vazio";
+                continue;
+            }
+            try {
+                agendamentoService.validarNovoAgendamento(agendamento);
+                agendamento.setId(null);
+                agendamento.setStatus(StatusAgendamento.AGENDADO);
+            } catch (IllegalArgumentException e) {
+                erros[i] = e.getMessage();
+            }
+        }
+        validarReferencias(agendamentos, erros);
+
+        // 2. Trava os dias do lote entre nós; conflitos com o banco (uma consulta) e entre itens do próprio lote
+        Set<LocalDate> dias = new HashSet<>();
+        for (int i = 0; i < total; i++) {
+            if (erros[i] == null) {
+                dias.add(agendamentos.get(i).getDataAgendamento());
+            }
+        }
+        travaAgendaService.travar(dias);
+        Map<LocalDate, List<Ocupacao>> ocupacoesPorDia = carregarOcupacoes(agendamentos, erros);
+        Map<Integer, AtribuicaoFuncionarioService.Reserva> reservas = new HashMap<>();
+        for (int i = 0; i < total; i++) {
+            if (erros[i] != null) {
+                continue;
+            }
+            Agendamento agendamento = agendamentos.get(i);
+            List<Ocupacao> doDia = ocupacoesPorDia.computeIfAbsent(agendamento.getDataAgendamento(), d -> new ArrayList<>());
+            erros[i] = conflito(agendamento, doDia);
+            if (erros[i] != null) {
+                continue;
+            }
+            // Reserva já aqui para que os próximos itens enxerguem o funcionário atribuído
+            AtribuicaoFuncionarioService.Reserva reserva;
+            try {
+                reserva = atribuicaoService.reservar(agendamento);
+            } catch (AgendaOcupadaException e) {
+                erros[i] = e.getMessage();
+                continue;
+            }
+            reservas.put(i, reserva);
+            doDia.add(new Ocupacao(null, agendamento.getVeiculoId(), agendamento.getFuncionarioResponsavelId(),
+                    agendamento.getDataAgendamento(), agendamento.getHoraInicio(),
+                    atribuicaoService.horaFimEfetiva(agendamento.getHoraInicio(), agendamento.getHoraFim())));
+        }
+
+        int rejeitados = 0;
+        for (String erro : erros) {
+            if (erro != null) {
+                rejeitados++;
+            }
+        }
+
+        if (rejeitados > 0 && modo == AgendamentoLoteRequest.Modo.TUDO_OU_NADA) {
+            // O rollback também desfaz as reservas feitas na agenda em memória
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+            logger.info("Lote tudo-ou-nada recusado: {} de {} itens com erro", rejeitados, total);
+            return resposta(modo, agendamentos, erros, 0, rejeitados, false);
+        }
+
+        // 3. Inserção em batch dos itens válidos
+        List<Agendamento> validos = new ArrayList<>();
+        for (int i = 0; i < total; i++) {
+            if (erros[i] == null) {
+                validos.add(agendamentos.get(i));
+            }
+        }
+        agendamentoJdbcRepository.inserirLote(validos);
+
+        List<NovoHistorico> historicos = new ArrayList<>(validos.size());
+        for (int i = 0; i < total; i++) {
+            if (erros[i] != null) {
+                continue;
+            }
+            Agendamento agendamento = agendamentos.get(i);
+            atribuicaoService.confirmar(reservas.get(i), agendamento.getId());
+            historicos.add(new NovoHistorico(agendamento.getId(), agendamento.getFuncionarioResponsavelId(),
+                    HistoricoCompacto.criacao(agendamento.getDataAgendamento(), agendamento.getHoraInicio())));
+        }
+        agendamentoJdbcRepository.inserirHistoricos(historicos);
+        resumoDiarioService.registrarCriacoes(validos);
+        outboxService.publicarTodos(AgendamentoEvento.CRIADO, validos);
+
+        logger.info("Lote de agendamentos: {} criados, {} rejeitados", validos.size(), rejeitados);
+        return resposta(modo, agendamentos, erros, validos.size(), rejeitados, true);
+    }
+
+    // Cliente, veículo (e dono), serviço e funcionário de todos os itens em uma consulta; depois a cotação
+    private void validarReferencias(List<Agendamento> agendamentos, String[] erros) {
+        List<Integer> indices = new ArrayList<>();
+        List<Agendamento> validos = new ArrayList<>();
+        for (int i = 0; i < agendamentos.size(); i++) {
+            if (erros[i] == null) {
+                indices.add(i);
+                validos.add(agendamentos.get(i));
+            }
+        }
+        if (validos.isEmpty()) {
+            return;
+        }
+        List<String> errosReferencia = validadorReferencias.validar(validos);
+        List<Agendamento> referenciados = new ArrayList<>();
+        List<Integer> indicesReferenciados = new ArrayList<>();
+        for (int i = 0; i < indices.size(); i++) {
+            erros[indices.get(i)] = errosReferencia.get(i);
+            if (errosReferencia.get(i) == null) {
+                referenciados.add(validos.get(i));
+                indicesReferenciados.add(indices.get(i));
+            }
+        }
+        // Valor e término pelo catálogo em memória, como na criação individual
+        List<String> errosCotacao = cotacaoService.precificar(referenciados);
+        for (int i = 0; i < indicesReferenciados.size(); i++) {
+            erros[indicesReferenciados.get(i)] = errosCotacao.get(i);
+        }
+    }
+
+    private Map<LocalDate, List<Ocupacao>> carregarOcupacoes(List<Agendamento> agendamentos, String[] erros) {
+        Set<LocalDate> datas = new HashSet<>();
+        Set<Integer> veiculos = new HashSet<>();
+        Set<Integer> funcionarios = new HashSet<>();
+        for (int i = 0; i < agendamentos.size(); i++) {
+            if (erros[i] != null) {
+                continue;
+            }
+            Agendamento agendamento = agendamentos.get(i);
+            datas.add(agendamento.getDataAgendamento());
+            veiculos.add(agendamento.getVeiculoId());
+            if (agendamento.getFuncionarioResponsavelId() != null) {
+                funcionarios.add(agendamento.getFuncionarioResponsavelId());
+            }
+        }
+
+        Map<LocalDate, List<Ocupacao>> porDia = new HashMap<>();
+        for (Ocupacao ocupacao : agendamentoJdbcRepository.buscarOcupacoes(datas, veiculos, funcionarios)) {
+            porDia.computeIfAbsent(ocupacao.data(), d -> new ArrayList<>()).add(new Ocupacao(
+                    ocupacao.agendamentoId(), ocupacao.veiculoId(), ocupacao.funcionarioId(), ocupacao.data(),
+                    ocupacao.horaInicio(), atribuicaoService.horaFimEfetiva(ocupacao.horaInicio(), ocupacao.horaFim())));
+        }
+        return porDia;
+    }
+
+    private String conflito(Agendamento agendamento, List<Ocupacao> doDia) {
+        LocalTime inicio = agendamento.getHoraInicio();
+        LocalTime fim = atribuicaoService.horaFimEfetiva(inicio, agendamento.getHoraFim());
+        Integer funcionarioId = agendamento.getFuncionarioResponsavelId();
+
+        for (Ocupacao ocupacao : doDia) {
+            boolean sobrepoe = ocupacao.horaInicio().isBefore(fim) && ocupacao.horaFim().isAfter(inicio);
+            if (!sobrepoe) {
+                continue;
+            }
+            if (agendamento.getVeiculoId().equals(ocupacao.veiculoId())) {
+                return "Veículo já possui agendamento neste horário";
+            }
+            if (funcionarioId != null && funcionarioId.equals(ocupacao.funcionarioId())) {
+                return "Funcionário já possui agendamento neste horário";
+            }
+        }
+        return null;
+    }
+
+    private AgendamentoLoteResponse resposta(AgendamentoLoteRequest.Modo modo, List<Agendamento> agendamentos,
+                                             String[] erros, int criados, int rejeitados, boolean gravado) {
+        List<AgendamentoLoteResponse.Item> itens = new ArrayList<>(agendamentos.size());
+        for (int i = 0; i < agendamentos.size(); i++) {
+            Agendamento agendamento = agendamentos.get(i);
+            if (erros[i] != null) {
+                itens.add(new AgendamentoLoteResponse.Item(i, AgendamentoLoteResponse.REJEITADO, null, null, erros[i]));
+            } else if (gravado) {
+                itens.add(new AgendamentoLoteResponse.Item(i, AgendamentoLoteResponse.CRIADO,
+                        agendamento.getId(), agendamento.getFuncionarioResponsavelId(), null));
+            } else {
+                itens.add(new AgendamentoLoteResponse.Item(i, AgendamentoLoteResponse.NAO_PROCESSADO, null, null, null));
+            }
+        }
+        return new AgendamentoLoteResponse(modo.name(), criados, rejeitados, itens);
+    }
+}
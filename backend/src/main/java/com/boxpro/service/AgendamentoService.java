@@ -1,10 +1,19 @@
 package com.boxpro.service;
 
+import com.boxpro.dto.response.CotacaoResponse;
 import com.boxpro.entity.Agendamento;
 import com.boxpro.entity.HistoricoAgendamento;
+import com.boxpro.entity.enums.StatusAgendamento;
+import com.boxpro.event.AgendamentoEvento;
+import com.boxpro.exception.ResourceNotFoundException;
+import com.boxpro.historico.HistoricoCompacto;
+import com.boxpro.outbox.OutboxService;
+import com.boxpro.repository.AgendamentoJdbcRepository;
 import com.boxpro.repository.AgendamentoRepository;
 import com.boxpro.repository.HistoricoAgendamentoRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -12,19 +21,68 @@ import org.springframework.transaction.annotation.Transactional;
 
 import jakarta.annotation.PostConstruct;
 import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
 
 @Service
 @Transactional
 public class AgendamentoService {
 
+    public static final String CAMPO_VERSAO = "versao";
+
+    // Campos aceitos no PATCH. Os que mexem na agenda, no resumo diário ou em referências precisam do estado anterior.
+    // valorTotal e horaFim ficam de fora: vêm do catálogo, via recotarPatch
+    private static final Map<String, CampoPatch> CAMPOS_PATCH = Map.of(
+            "clienteId", new CampoPatch("cliente_id", Integer.class, "Cliente é obrigatório", true, Agendamento::getClienteId),
+            "observacoes", new CampoPatch("observacoes", String.class, null, false, Agendamento::getObservacoes),
+            "veiculoId", new CampoPatch("veiculo_id", Integer.class, "Veículo é obrigatório", true, Agendamento::getVeiculoId),
+            "servicoId", new CampoPatch("servico_id", Integer.class, "Serviço é obrigatório", true, Agendamento::getServicoId),
+            "funcionarioResponsavelId", new CampoPatch("funcionario_responsavel_id", Integer.class, null, true,
+                    Agendamento::getFuncionarioResponsavelId),
+            "dataAgendamento", new CampoPatch("data_agendamento", LocalDate.class, "Data do agendamento é obrigatória", true,
+                    Agendamento::getDataAgendamento),
+            "horaInicio", new CampoPatch("hora_inicio", LocalTime.class, "Hora de início é obrigatória", true,
+                    Agendamento::getHoraInicio));
+
     @Autowired
     private AgendamentoRepository agendamentoRepository;
 
+    @Autowired
+    private AgendamentoJdbcRepository agendamentoJdbcRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
     @Autowired
     private HistoricoAgendamentoRepository historicoRepository;
 
+    @Autowired
+    private AtribuicaoFuncionarioService atribuicaoService;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Autowired
+    private ResumoDiarioService resumoDiarioService;
+
+    @Autowired
+    private ArquivamentoService arquivamentoService;
+
+    @Autowired
+    private TravaAgendaService travaAgendaService;
+
+    @Autowired
+    private ValidadorReferencias validadorReferencias;
+
+    @Autowired
+    private CotacaoService cotacaoService;
+
     @PostConstruct
     public void init() {
         System.out.println("✅ AgendamentoService carregado!");
@@ -40,32 +98,59 @@ public class AgendamentoService {
         return agendamentoRepository.findAll();
     }
 
+    // Agendamentos arquivados continuam acessíveis para leitura
     public Optional<Agendamento> buscarPorId(Integer id) {
-        return agendamentoRepository.findById(id);
+        Optional<Agendamento> agendamento = agendamentoRepository.findById(id);
+        return agendamento.isPresent() ? agendamento : arquivamentoService.buscarArquivadoPorId(id);
     }
 
     public List<Agendamento> buscarPorDataAgendamento(LocalDate data) {
-        return agendamentoRepository.findByDataAgendamentoOrderByHoraInicioAsc(data);
+        return arquivamentoService.complementarPorData(
+                agendamentoRepository.findByDataAgendamentoOrderByHoraInicioAsc(data), data);
     }
 
     public List<Agendamento> buscarPorClienteId(Integer clienteId) {
-        return agendamentoRepository.findByClienteIdOrderByDataAgendamentoDescHoraInicioDesc(clienteId);
+        return arquivamentoService.complementarPorCliente(
+                agendamentoRepository.findByClienteIdOrderByDataAgendamentoDescHoraInicioDesc(clienteId), clienteId);
     }
 
     public List<Agendamento> buscarPorFuncionarioId(Integer funcionarioId) {
-        return agendamentoRepository.findByFuncionarioResponsavelIdOrderByDataAgendamentoDescHoraInicioDesc(funcionarioId);
+        return arquivamentoService.complementarPorFuncionario(
+                agendamentoRepository.findByFuncionarioResponsavelIdOrderByDataAgendamentoDescHoraInicioDesc(funcionarioId),
+                funcionarioId);
     }
 
     public List<Agendamento> buscarPorStatus(String status) {
-        return agendamentoRepository.findByStatusOrderByDataAgendamentoDescHoraInicioDesc(status);
+        StatusAgendamento statusAgendamento = StatusAgendamento.deValor(status);
+        if (statusAgendamento == null) {
+            return List.of();
+        }
+        return arquivamentoService.complementarPorStatus(
+                agendamentoRepository.findByStatusOrderByDataAgendamentoDescHoraInicioDesc(statusAgendamento),
+                statusAgendamento);
+    }
+
+    // Contagem por status somando ativos e arquivados, sem carregar as linhas
+    public Map<StatusAgendamento, Long> contarPorStatus() {
+        Map<StatusAgendamento, Long> contagem = new EnumMap<>(StatusAgendamento.class);
+        for (Object[] linha : agendamentoRepository.countPorStatus()) {
+            contagem.put((StatusAgendamento) linha[0], (Long) linha[1]);
+        }
+        arquivamentoService.contarArquivadosPorStatus().forEach((status, total) -> contagem.merge(status, total, Long::sum));
+        return contagem;
+    }
+
+    public long contarAgendamentosFuturos() {
+        return agendamentoRepository.countAgendamentosFuturos(LocalDate.now(), StatusAgendamento.AGENDADO);
     }
 
     public List<Agendamento> buscarPorPeriodo(LocalDate dataInicio, LocalDate dataFim) {
-        return agendamentoRepository.findByDataAgendamentoBetween(dataInicio, dataFim);
+        return arquivamentoService.complementarPorPeriodo(
+                agendamentoRepository.findByDataAgendamentoBetween(dataInicio, dataFim), dataInicio, dataFim);
     }
 
     public List<Agendamento> buscarAgendamentosFuturos() {
-        return agendamentoRepository.findAgendamentosFuturos(LocalDate.now(), "agendado");
+        return agendamentoRepository.findAgendamentosFuturos(LocalDate.now(), StatusAgendamento.AGENDADO);
     }
 
     public List<Agendamento> buscarAgendamentosAtivos(LocalDate data) {
@@ -73,47 +158,30 @@ public class AgendamentoService {
     }
 
     public Agendamento criarAgendamento(Agendamento agendamento) {
-        // Validações básicas
-        if (agendamento.getClienteId() == null) {
-            throw new IllegalArgumentException("Cliente é obrigatório");
-        }
-        
-        if (agendamento.getVeiculoId() == null) {
-            throw new IllegalArgumentException("Veículo é obrigatório");
-        }
-        
-        if (agendamento.getServicoId() == null) {
-            throw new IllegalArgumentException("Serviço é obrigatório");
-        }
-        
-        if (agendamento.getDataAgendamento() == null) {
-            throw new IllegalArgumentException("Data do agendamento é obrigatória");
-        }
-        
-        if (agendamento.getHoraInicio() == null) {
-            throw new IllegalArgumentException("Hora de início é obrigatória");
-        }
-
-        // Verificar se data não é no passado
-        if (agendamento.getDataAgendamento().isBefore(LocalDate.now())) {
-            throw new IllegalArgumentException("Não é possível agendar para datas passadas");
-        }
+        validarNovoAgendamento(agendamento);
+        validadorReferencias.validar(agendamento);
+        // Valor e término vêm do catálogo, não do cliente
+        cotacaoService.precificar(agendamento);
+        travaAgendaService.travar(List.of(agendamento.getDataAgendamento()));
 
         // Configurar status padrão
-        if (agendamento.getStatus() == null || agendamento.getStatus().trim().isEmpty()) {
-            agendamento.setStatus("agendado");
+        if (agendamento.getStatus() == null) {
+            agendamento.setStatus(StatusAgendamento.AGENDADO);
         }
 
+        // Sem funcionário informado, atribui o livre com menor carga no dia
+        AtribuicaoFuncionarioService.Reserva reserva = atribuicaoService.reservar(agendamento);
+
         Agendamento savedAgendamento = agendamentoRepository.save(agendamento);
+        atribuicaoService.confirmar(reserva, savedAgendamento.getId());
+        resumoDiarioService.registrar(null, ResumoDiarioService.Contribuicao.de(savedAgendamento));
+        outboxService.publicar(AgendamentoEvento.CRIADO, savedAgendamento, null);
         
         // Registrar no histórico
-        registrarHistorico(savedAgendamento, 
-                          agendamento.getFuncionarioResponsavelId() != null ? 
-                          agendamento.getFuncionarioResponsavelId() : 1, 
-                          "CRIADO", 
-                          String.format("Agendamento criado para %s às %s", 
-                                      agendamento.getDataAgendamento(), 
-                                      agendamento.getHoraInicio()));
+        // Sem funcionário, a ação fica sem autor (null), em vez de ser atribuída a alguém
+        registrarHistorico(savedAgendamento, savedAgendamento.getFuncionarioResponsavelId(),
+                          HistoricoCompacto.criacao(agendamento.getDataAgendamento(),
+                                                    agendamento.getHoraInicio()));
         
         return savedAgendamento;
     }
@@ -123,7 +191,7 @@ public class AgendamentoService {
         Optional<Agendamento> agendamentoExistente = agendamentoRepository.findById(agendamento.getId());
         
         if (!agendamentoExistente.isPresent()) {
-            throw new IllegalArgumentException("Agendamento não encontrado");
+            throw new ResourceNotFoundException("Agendamento não encontrado");
         }
 
         Agendamento existente = agendamentoExistente.get();
@@ -148,6 +216,20 @@ public class AgendamentoService {
         if (agendamento.getHoraInicio() == null) {
             throw new IllegalArgumentException("Hora de início é obrigatória");
         }
+        validadorReferencias.validar(agendamento);
+
+        LocalDate dataAnterior = existente.getDataAgendamento();
+        travaAgendaService.travar(List.of(dataAnterior, agendamento.getDataAgendamento()));
+        ResumoDiarioService.Contribuicao contribuicaoAnterior = ResumoDiarioService.Contribuicao.de(existente);
+
+        // Novo horário, novo lembrete
+        if (!agendamento.getDataAgendamento().equals(existente.getDataAgendamento())
+                || !agendamento.getHoraInicio().equals(existente.getHoraInicio())) {
+            existente.setLembreteEnviadoEm(null);
+        }
+
+        boolean mudouServico = !agendamento.getServicoId().equals(existente.getServicoId());
+        boolean mudouInicio = !agendamento.getHoraInicio().equals(existente.getHoraInicio());
 
         // Atualizar campos
         existente.setClienteId(agendamento.getClienteId());
@@ -156,18 +238,18 @@ public class AgendamentoService {
         existente.setFuncionarioResponsavelId(agendamento.getFuncionarioResponsavelId());
         existente.setDataAgendamento(agendamento.getDataAgendamento());
         existente.setHoraInicio(agendamento.getHoraInicio());
-        existente.setHoraFim(agendamento.getHoraFim());
         existente.setObservacoes(agendamento.getObservacoes());
-        existente.setValorTotal(agendamento.getValorTotal());
+        // valorTotal e horaFim do corpo são ignorados; só a recotação os altera
+        recotar(existente, mudouServico, mudouInicio);
 
         Agendamento savedAgendamento = agendamentoRepository.save(existente);
+        atribuicaoService.reagendar(dataAnterior, savedAgendamento);
+        resumoDiarioService.registrar(contribuicaoAnterior, ResumoDiarioService.Contribuicao.de(savedAgendamento));
+        outboxService.publicar(AgendamentoEvento.ATUALIZADO, savedAgendamento, dataAnterior);
 
         // Registrar no histórico
-        registrarHistorico(savedAgendamento, 
-                          agendamento.getFuncionarioResponsavelId() != null ? 
-                          agendamento.getFuncionarioResponsavelId() : 1, 
-                          "ATUALIZADO", 
-                          "Agendamento atualizado");
+        registrarHistorico(savedAgendamento, agendamento.getFuncionarioResponsavelId(),
+                          HistoricoCompacto.atualizacao());
 
         return savedAgendamento;
     }
@@ -175,14 +257,16 @@ public class AgendamentoService {
     public Agendamento atualizarStatus(Integer id, String novoStatus, Integer funcionarioId, String motivo) {
         Optional<Agendamento> optionalAgendamento = agendamentoRepository.findById(id);
         if (!optionalAgendamento.isPresent()) {
-            throw new IllegalArgumentException("Agendamento não encontrado");
+            throw new ResourceNotFoundException("Agendamento não encontrado");
         }
 
         Agendamento agendamento = optionalAgendamento.get();
-        String statusAnterior = agendamento.getStatus();
-        agendamento.setStatus(novoStatus);
+        StatusAgendamento statusAnterior = agendamento.getStatus();
+        StatusAgendamento statusNovo = validarTransicao(statusAnterior, novoStatus);
+        ResumoDiarioService.Contribuicao contribuicaoAnterior = ResumoDiarioService.Contribuicao.de(agendamento);
+        agendamento.setStatus(statusNovo);
         
-        if ("cancelado".equals(novoStatus)) {
+        if (statusNovo == StatusAgendamento.CANCELADO) {
             agendamento.setDataCancelamento(LocalDate.now());
             if (motivo != null && !motivo.trim().isEmpty()) {
                 agendamento.setMotivoCancelamento(motivo);
@@ -190,30 +274,246 @@ public class AgendamentoService {
         }
 
         Agendamento savedAgendamento = agendamentoRepository.save(agendamento);
+        atribuicaoService.reagendar(savedAgendamento.getDataAgendamento(), savedAgendamento);
+        resumoDiarioService.registrar(contribuicaoAnterior, ResumoDiarioService.Contribuicao.de(savedAgendamento));
+        outboxService.publicar(AgendamentoEvento.STATUS_ALTERADO, savedAgendamento, null);
 
         // Registrar no histórico
-        registrarHistorico(savedAgendamento, funcionarioId, "STATUS_ALTERADO", 
-                          String.format("Status alterado de '%s' para '%s'%s", 
-                                      statusAnterior, novoStatus,
-                                      motivo != null ? ". Motivo: " + motivo : ""));
+        registrarHistorico(savedAgendamento, funcionarioId,
+                          HistoricoCompacto.mudancaStatus(statusAnterior, statusNovo, motivo));
 
         return savedAgendamento;
     }
 
+    /**
+     * PATCH no formato JSON Merge Patch: só os campos presentes mudam e null
+     * apaga o valor. A escrita é um UPDATE das colunas enviadas, condicionado
+     * à versão, sem carregar a entidade; sem linha afetada, a versão atual
+     * decide entre ResourceNotFoundException e OptimisticLockingFailureException.
+     *
+     * Se o patch mexe em campos da agenda, do resumo diário ou em
+     * referências, o estado anterior é lido antes (sem travar) para a trava
+     * do dia, o resumo, a agenda em memória e a validação das referências;
+     * colunas que não mudaram ficam fora do UPDATE.
+     */
+    public Agendamento aplicarPatch(Integer id, Long versaoEsperada, Map<String, Object> patch) {
+        Long versao = versaoEsperada;
+        Object versaoNoCorpo = patch.get(CAMPO_VERSAO);
+        if (versaoNoCorpo != null) {
+            // "3" ou 3.5 não são versões; sem isso o campo seria ignorado em silêncio
+            if (!(versaoNoCorpo instanceof Integer || versaoNoCorpo instanceof Long)) {
+                throw new IllegalArgumentException("Campo versao deve ser um número inteiro, recebido: " + versaoNoCorpo);
+            }
+            if (versao == null) {
+                versao = ((Number) versaoNoCorpo).longValue();
+            }
+        }
+        if (versao == null) {
+            throw new IllegalArgumentException("Informe a versão do agendamento (If-Match ou campo versao)");
+        }
+
+        Map<String, Object> valores = new LinkedHashMap<>();
+        boolean precisaEstado = false;
+        for (Map.Entry<String, Object> entrada : patch.entrySet()) {
+            if (CAMPO_VERSAO.equals(entrada.getKey())) {
+                continue;
+            }
+            CampoPatch campo = CAMPOS_PATCH.get(entrada.getKey());
+            if (campo == null) {
+                throw new IllegalArgumentException("Campo não pode ser alterado por PATCH: " + entrada.getKey());
+            }
+            Object valor = converter(entrada.getKey(), entrada.getValue(), campo.tipo());
+            if (valor == null && campo.obrigatorio() != null) {
+                throw new IllegalArgumentException(campo.obrigatorio());
+            }
+            valores.put(entrada.getKey(), valor);
+            precisaEstado |= campo.estadoAnterior();
+        }
+
+        Agendamento anterior = null;
+        LocalDate dataAnterior = null;
+        Map<String, Object> colunas = new LinkedHashMap<>();
+        if (precisaEstado) {
+            anterior = agendamentoJdbcRepository.buscarEstado(id);
+            if (anterior == null) {
+                throw new ResourceNotFoundException("Agendamento não encontrado");
+            }
+            if (!anterior.getVersao().equals(versao)) {
+                throw versaoDesatualizada();
+            }
+            Agendamento estado = anterior;
+            valores.entrySet().removeIf(e -> Objects.equals(CAMPOS_PATCH.get(e.getKey()).valor().apply(estado), e.getValue()));
+            validarReferenciasDoPatch(anterior, valores);
+            recotarPatch(anterior, valores, colunas);
+            dataAnterior = anterior.getDataAgendamento();
+            LocalDate novaData = (LocalDate) valores.getOrDefault("dataAgendamento", dataAnterior);
+            travaAgendaService.travar(List.of(dataAnterior, novaData));
+            // Novo horário, novo lembrete
+            if (valores.containsKey("dataAgendamento") || valores.containsKey("horaInicio")) {
+                colunas.put("lembrete_enviado_em", null);
+            }
+        }
+        if (valores.isEmpty()) {
+            // Nada a gravar, mas a versão informada ainda precisa ser a atual
+            Agendamento atual = agendamentoRepository.findById(id)
+                    .orElseThrow(() -> new ResourceNotFoundException("Agendamento não encontrado"));
+            if (!versao.equals(atual.getVersao())) {
+                throw versaoDesatualizada();
+            }
+            return atual;
+        }
+        valores.forEach((nome, valor) -> colunas.put(CAMPOS_PATCH.get(nome).coluna(), valor));
+
+        if (agendamentoJdbcRepository.atualizarCampos(id, versao, colunas) == 0) {
+            if (agendamentoJdbcRepository.buscarVersao(id) == null) {
+                throw new ResourceNotFoundException("Agendamento não encontrado");
+            }
+            throw versaoDesatualizada();
+        }
+
+        Agendamento atualizado = agendamentoRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Agendamento não encontrado"));
+        if (anterior != null) {
+            atribuicaoService.reagendar(dataAnterior, atualizado);
+            resumoDiarioService.registrar(ResumoDiarioService.Contribuicao.de(anterior),
+                    ResumoDiarioService.Contribuicao.de(atualizado));
+        }
+        outboxService.publicar(AgendamentoEvento.ATUALIZADO, atualizado, dataAnterior);
+        registrarHistorico(atualizado, atualizado.getFuncionarioResponsavelId(),
+                          HistoricoCompacto.atualizacao());
+        return atualizado;
+    }
+
+    /**
+     * Confere a mudança de status pela tabela de transições de
+     * StatusAgendamento, antes de qualquer escrita.
+     */
+    public StatusAgendamento validarTransicao(StatusAgendamento atual, String novoStatus) {
+        StatusAgendamento novo = StatusAgendamento.deValor(novoStatus);
+        if (novo == null) {
+            throw new IllegalArgumentException("Status inválido: " + novoStatus);
+        }
+        if (atual != null && !atual.podeMudarPara(novo)) {
+            throw new IllegalArgumentException("Transição de status não permitida: '" + atual.getValor() +
+                    "' para '" + novo.getValor() + "'");
+        }
+        return novo;
+    }
+
     public void deletarAgendamento(Integer id) {
-        if (!agendamentoRepository.existsById(id)) {
-            throw new IllegalArgumentException("Agendamento não encontrado");
+        Optional<Agendamento> agendamento = agendamentoRepository.findById(id);
+        if (!agendamento.isPresent()) {
+            throw new ResourceNotFoundException("Agendamento não encontrado");
         }
-        agendamentoRepository.deleteById(id);
+        agendamentoRepository.delete(agendamento.get());
+        resumoDiarioService.registrar(ResumoDiarioService.Contribuicao.de(agendamento.get()), null);
+        atribuicaoService.liberar(agendamento.get());
+        outboxService.publicar(AgendamentoEvento.REMOVIDO, agendamento.get(), null);
     }
 
-    private void registrarHistorico(Agendamento agendamento, Integer funcionarioId, String acao, String detalhes) {
+    /**
+     * Validações de um agendamento novo, compartilhadas com a criação em lote.
+     */
+    public void validarNovoAgendamento(Agendamento agendamento) {
+        // Validações básicas
+        if (agendamento.getClienteId() == null) {
+            throw new IllegalArgumentException("Cliente é obrigatório");
+        }
+        
+        if (agendamento.getVeiculoId() == null) {
+            throw new IllegalArgumentException("Veículo é obrigatório");
+        }
+        
+        if (agendamento.getServicoId() == null) {
+            throw new IllegalArgumentException("Serviço é obrigatório");
+        }
+        
+        if (agendamento.getDataAgendamento() == null) {
+            throw new IllegalArgumentException("Data do agendamento é obrigatória");
+        }
+        
+        if (agendamento.getHoraInicio() == null) {
+            throw new IllegalArgumentException("Hora de início é obrigatória");
+        }
+
+        // Verificar se data não é no passado
+        if (agendamento.getDataAgendamento().isBefore(LocalDate.now())) {
+            throw new IllegalArgumentException("Não é possível agendar para datas passadas");
+        }
+    }
+
+    private void validarReferenciasDoPatch(Agendamento anterior, Map<String, Object> valores) {
+        if (valores.containsKey("clienteId") || valores.containsKey("veiculoId")
+                || valores.containsKey("servicoId") || valores.containsKey("funcionarioResponsavelId")) {
+            Agendamento resultado = new Agendamento();
+            resultado.setClienteId((Integer) valores.getOrDefault("clienteId", anterior.getClienteId()));
+            resultado.setVeiculoId((Integer) valores.getOrDefault("veiculoId", anterior.getVeiculoId()));
+            resultado.setServicoId((Integer) valores.getOrDefault("servicoId", anterior.getServicoId()));
+            resultado.setFuncionarioResponsavelId((Integer) valores.getOrDefault("funcionarioResponsavelId",
+                    anterior.getFuncionarioResponsavelId()));
+            validadorReferencias.validar(resultado);
+        }
+    }
+
+    /**
+     * Troca de serviço recalcula valor e término pelo catálogo; troca só do
+     * início recalcula o término. Sem essas mudanças ficam os valores já
+     * gravados; o cliente nunca define preço nem término.
+     */
+    private void recotar(Agendamento agendamento, boolean mudouServico, boolean mudouInicio) {
+        if (!mudouServico && !mudouInicio) {
+            return;
+        }
+        CotacaoResponse cotacao = cotacaoService.cotar(List.of(agendamento.getServicoId().longValue()),
+                agendamento.getHoraInicio());
+        agendamento.setHoraFim(cotacao.horaFim());
+        if (mudouServico) {
+            agendamento.setValorTotal(cotacao.valorTotal());
+        }
+    }
+
+    private void recotarPatch(Agendamento anterior, Map<String, Object> valores, Map<String, Object> colunas) {
+        Agendamento resultado = new Agendamento();
+        resultado.setServicoId((Integer) valores.getOrDefault("servicoId", anterior.getServicoId()));
+        resultado.setHoraInicio((LocalTime) valores.getOrDefault("horaInicio", anterior.getHoraInicio()));
+        resultado.setHoraFim(anterior.getHoraFim());
+        resultado.setValorTotal(anterior.getValorTotal());
+        boolean mudouServico = valores.containsKey("servicoId");
+        boolean mudouInicio = valores.containsKey("horaInicio");
+        recotar(resultado, mudouServico, mudouInicio);
+        if (mudouServico || mudouInicio) {
+            colunas.put("hora_fim", resultado.getHoraFim());
+        }
+        if (mudouServico) {
+            colunas.put("valor_total", resultado.getValorTotal());
+        }
+    }
+
+    private Object converter(String nome, Object valor, Class<?> tipo) {
+        if (valor == null) {
+            return null;
+        }
+        try {
+            return objectMapper.convertValue(valor, tipo);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Valor inválido para " + nome + ": " + valor);
+        }
+    }
+
+    private static OptimisticLockingFailureException versaoDesatualizada() {
+        return new OptimisticLockingFailureException(
+                "O agendamento foi alterado por outra operação. Recarregue e tente novamente.");
+    }
+
+    private void registrarHistorico(Agendamento agendamento, Integer funcionarioId, HistoricoCompacto.Registro registro) {
         HistoricoAgendamento historico = new HistoricoAgendamento();
         historico.setAgendamento(agendamento);
         historico.setFuncionarioId(funcionarioId);
-        historico.setAcao(acao);
-        historico.setDetalhes(detalhes);
+        historico.aplicar(registro);
         
         historicoRepository.save(historico);
     }
-}
\ No newline at end of file
+
+    private record CampoPatch(String coluna, Class<?> tipo, String obrigatorio, boolean estadoAnterior,
+                              Function<Agendamento, Object> valor) {}
+}
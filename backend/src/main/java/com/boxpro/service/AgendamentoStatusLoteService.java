@@ -0,0 +1,179 @@
+package com.boxpro.service;
+
+import com.boxpro.dto.request.StatusLoteRequest;
+import com.boxpro.dto.response.StatusLoteResponse;
+import com.boxpro.entity.Agendamento;
+import com.boxpro.entity.enums.StatusAgendamento;
+import com.boxpro.event.AgendamentoEvento;
+import com.boxpro.historico.HistoricoCompacto;
+import com.boxpro.outbox.OutboxService;
+import com.boxpro.repository.AgendamentoJdbcRepository;
+import com.boxpro.repository.AgendamentoJdbcRepository.NovoHistorico;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Mudança de status de vários agendamentos de uma vez (fechamento do dia).
+ *
+ * Os agendamentos do lote são lidos e travados com uma consulta; as
+ * transições com o mesmo (status esperado, novo status, motivo) viram um
+ * único UPDATE ... WHERE id IN (...) AND status = ?. O histórico é gravado
+ * em batch. Cada id recebe seu próprio resultado.
+ */
+@Service
+@Transactional
+public class AgendamentoStatusLoteService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AgendamentoStatusLoteService.class);
+
+    @Autowired
+    private AgendamentoJdbcRepository agendamentoJdbcRepository;
+
+    @Autowired
+    private AtribuicaoFuncionarioService atribuicaoService;
+
+    @Autowired
+    private ResumoDiarioService resumoDiarioService;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Value("${app.agendamento.lote.max-itens:200}")
+    private int maxItens;
+
+    public StatusLoteResponse aplicar(StatusLoteRequest request) {
+        List<StatusLoteRequest.Transicao> transicoes = request.transicoes();
+        if (transicoes == null || transicoes.isEmpty()) {
+            throw new IllegalArgumentException("O lote não possui transições");
+        }
+        if (transicoes.size() > maxItens) {
+            throw new IllegalArgumentException("O lote excede o limite de " + maxItens + " transições");
+        }
+        if (request.funcionarioId() == null) {
+            throw new IllegalArgumentException("Funcionário é obrigatório");
+        }
+        return aplicar(transicoes, request.funcionarioId());
+    }
+
+    /**
+     * Aplica as transições na transação corrente. Também usado pelo
+     * fechamento automático.
+     */
+    public StatusLoteResponse aplicar(List<StatusLoteRequest.Transicao> transicoes, Integer funcionarioId) {
+        Set<Integer> ids = new HashSet<>();
+        for (StatusLoteRequest.Transicao transicao : transicoes) {
+            if (transicao != null && transicao.id() != null) {
+                ids.add(transicao.id());
+            }
+        }
+        Map<Integer, Agendamento> atuais = agendamentoJdbcRepository.travarParaAtualizacao(ids);
+
+        StatusLoteResponse.Item[] itens = new StatusLoteResponse.Item[transicoes.size()];
+        Map<Grupo, List<Integer>> grupos = new LinkedHashMap<>();
+        Set<Integer> vistos = new HashSet<>();
+
+        for (int i = 0; i < transicoes.size(); i++) {
+            StatusLoteRequest.Transicao transicao = transicoes.get(i);
+            if (transicao == null || transicao.id() == null) {
+                itens[i] = new StatusLoteResponse.Item(null, StatusLoteResponse.INVALIDO, null, "Id é obrigatório");
+                continue;
+            }
+            Integer id = transicao.id();
+            StatusAgendamento novo = StatusAgendamento.deValor(transicao.novoStatus());
+            if (novo == null) {
+                itens[i] = new StatusLoteResponse.Item(id, StatusLoteResponse.INVALIDO, null,
+                        "Status inválido: " + transicao.novoStatus());
+                continue;
+            }
+            StatusAgendamento esperadoInformado = StatusAgendamento.deValor(transicao.statusEsperado());
+            if (transicao.statusEsperado() != null && esperadoInformado == null) {
+                itens[i] = new StatusLoteResponse.Item(id, StatusLoteResponse.INVALIDO, null,
+                        "Status esperado inválido: " + transicao.statusEsperado());
+                continue;
+            }
+            if (!vistos.add(id)) {
+                itens[i] = new StatusLoteResponse.Item(id, StatusLoteResponse.INVALIDO, null,
+                        "Agendamento repetido no lote");
+                continue;
+            }
+            Agendamento atual = atuais.get(id);
+            if (atual == null) {
+                itens[i] = new StatusLoteResponse.Item(id, StatusLoteResponse.NAO_ENCONTRADO, null,
+                        "Agendamento não encontrado");
+                continue;
+            }
+            StatusAgendamento esperado = esperadoInformado != null ? esperadoInformado : atual.getStatus();
+            String statusAtual = atual.getStatus() != null ? atual.getStatus().getValor() : null;
+            if (esperado != atual.getStatus()) {
+                itens[i] = new StatusLoteResponse.Item(id, StatusLoteResponse.CONFLITO, statusAtual,
+                        "Status atual difere do esperado '" + esperado.getValor() + "'");
+                continue;
+            }
+            if (esperado == null || !esperado.podeMudarPara(novo)) {
+                itens[i] = new StatusLoteResponse.Item(id, StatusLoteResponse.INVALIDO, statusAtual,
+                        "Transição de status não permitida: '" + statusAtual + "' para '" + novo.getValor() + "'");
+                continue;
+            }
+            grupos.computeIfAbsent(new Grupo(esperado, novo, transicao.motivo()),
+                    g -> new ArrayList<>()).add(id);
+            itens[i] = new StatusLoteResponse.Item(id, StatusLoteResponse.ATUALIZADO, novo.getValor(), null);
+        }
+
+        List<ResumoDiarioService.Contribuicao> antes = new ArrayList<>();
+        List<ResumoDiarioService.Contribuicao> depois = new ArrayList<>();
+        List<Agendamento> modificados = new ArrayList<>();
+        List<NovoHistorico> historicos = new ArrayList<>();
+
+        grupos.forEach((grupo, idsGrupo) -> {
+            int alterados = agendamentoJdbcRepository.atualizarStatus(
+                    idsGrupo, grupo.esperado(), grupo.novoStatus(), grupo.motivo());
+            if (alterados != idsGrupo.size()) {
+                // As linhas estão travadas desde a leitura; divergência aqui é erro
+                throw new IllegalStateException("Atualização em lote alterou " + alterados +
+                        " de " + idsGrupo.size() + " agendamentos");
+            }
+            for (Integer id : idsGrupo) {
+                Agendamento agendamento = atuais.get(id);
+                antes.add(ResumoDiarioService.Contribuicao.de(agendamento));
+                aplicarEmMemoria(agendamento, grupo);
+                depois.add(ResumoDiarioService.Contribuicao.de(agendamento));
+                historicos.add(new NovoHistorico(id, funcionarioId,
+                        HistoricoCompacto.mudancaStatus(grupo.esperado(), grupo.novoStatus(), grupo.motivo())));
+                atribuicaoService.reagendar(agendamento.getDataAgendamento(), agendamento);
+                modificados.add(agendamento);
+            }
+        });
+
+        agendamentoJdbcRepository.inserirHistoricos(historicos);
+        resumoDiarioService.registrarAlteracoes(antes, depois);
+        outboxService.publicarTodos(AgendamentoEvento.STATUS_ALTERADO, modificados);
+
+        int atualizados = historicos.size();
+        logger.info("Status em lote: {} atualizados, {} recusados", atualizados, transicoes.size() - atualizados);
+        return new StatusLoteResponse(atualizados, transicoes.size() - atualizados, List.of(itens));
+    }
+
+    private void aplicarEmMemoria(Agendamento agendamento, Grupo grupo) {
+        agendamento.setStatus(grupo.novoStatus());
+        if (grupo.novoStatus() == StatusAgendamento.CANCELADO) {
+            agendamento.setDataCancelamento(LocalDate.now());
+            if (grupo.motivo() != null && !grupo.motivo().trim().isEmpty()) {
+                agendamento.setMotivoCancelamento(grupo.motivo());
+            }
+        }
+    }
+
+    private record Grupo(StatusAgendamento esperado, StatusAgendamento novoStatus, String motivo) {}
+}
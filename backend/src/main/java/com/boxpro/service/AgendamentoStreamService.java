@@ -0,0 +1,293 @@
+package com.boxpro.service;
+
+import com.boxpro.event.AgendamentoEvento;
+import com.boxpro.multiempresa.BancosEmpresa;
+import com.boxpro.multiempresa.EmpresaContexto;
+import com.boxpro.outbox.AssinanteOutbox;
+import com.boxpro.outbox.EventoPublicado;
+import com.boxpro.outbox.OutboxRelay;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Distribui eventos de agendamento via Server-Sent Events para os painéis.
+ *
+ * Cada conexão é um contexto assíncrono do servlet, sem thread dedicada: os
+ * eventos entram numa fila limitada por cliente e um pool pequeno drena as
+ * filas. Cliente que não acompanha (fila cheia) é desconectado e retoma pelo
+ * Last-Event-ID, a partir do buffer circular dos últimos eventos.
+ *
+ * O id de cada evento SSE é o id do outbox, igual em todos os nós, então a
+ * reconexão pode cair em outro nó. O buffer guarda a ordem de chegada: se o
+ * Last-Event-ID está nele, reenvia o que chegou depois (inclui lacunas do
+ * outbox entregues fora de ordem); senão, reenvia os ids maiores.
+ *
+ * Os eventos chegam pelo outbox, então o painel vê também as escritas
+ * feitas em outros nós. Com multi-empresa, cada conexão só recebe (e só
+ * reenvia pelo Last-Event-ID) eventos da empresa em que foi aberta.
+ */
+@Service
+public class AgendamentoStreamService implements AssinanteOutbox {
+
+    private static final Logger logger = LoggerFactory.getLogger(AgendamentoStreamService.class);
+
+    private static final Object HEARTBEAT = new Object();
+
+    @Autowired
+    private OutboxRelay relay;
+
+    @Autowired
+    private BancosEmpresa bancos;
+
+    @Value("${app.stream.buffer-por-cliente:256}")
+    private int bufferPorCliente;
+
+    @Value("${app.stream.timeout-ms:1800000}")
+    private long timeoutMs;
+
+    private final Set<Cliente> clientes = ConcurrentHashMap.newKeySet();
+
+    // Anel em ordem de chegada; recebidos conta todos os já gravados
+    private final Registro[] historico;
+    private long recebidos;
+
+    // Maior id do outbox já sobrescrito no anel, por empresa
+    private final Map<Long, Long> maiorDescartado = new HashMap<>();
+
+    private final ExecutorService executor;
+
+    public AgendamentoStreamService(@Value("${app.stream.historico:1000}") int tamanhoHistorico,
+                                    @Value("${app.stream.threads:2}") int threads) {
+        this.historico = new Registro[tamanhoHistorico];
+        AtomicInteger contador = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "agendamento-sse-" + contador.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Abre uma conexão. Com lastEventId, reenvia os eventos perdidos que ainda
+     * estão no buffer; se o buffer já não cobre o intervalo, envia "reset" para
+     * o painel recarregar a lista. A empresa vem do contexto da requisição.
+     */
+    public SseEmitter assinar(LocalDate data, String lastEventId) {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Cliente cliente = new Cliente(emitter, data, EmpresaContexto.atual(), bufferPorCliente);
+
+        emitter.onCompletion(() -> clientes.remove(cliente));
+        emitter.onTimeout(() -> clientes.remove(cliente));
+        emitter.onError(e -> clientes.remove(cliente));
+
+        synchronized (historico) {
+            Long desde = parseId(lastEventId);
+            if (desde != null && !reenviar(cliente, desde)) {
+                cliente.fila.offer(Registro.RESET);
+            }
+            clientes.add(cliente);
+        }
+        cliente.agendarDrenagem();
+        logger.debug("Painel conectado ao stream (data={}, clientes={})", data, clientes.size());
+        return emitter;
+    }
+
+    @Override
+    public String nome() {
+        return "stream";
+    }
+
+    @Override
+    public boolean local() {
+        return true;
+    }
+
+    @Override
+    public void receber(List<EventoPublicado> eventos) {
+        synchronized (historico) {
+            for (EventoPublicado publicado : eventos) {
+                AgendamentoEvento evento = publicado.evento();
+                Registro registro = new Registro(publicado.id(), publicado.empresaId(), evento, publicado.json());
+                int posicao = (int) (recebidos++ % historico.length);
+                Registro descartado = historico[posicao];
+                if (descartado != null) {
+                    maiorDescartado.merge(chave(descartado.empresaId), descartado.id, Math::max);
+                }
+                historico[posicao] = registro;
+                for (Cliente cliente : clientes) {
+                    if (cliente.interessa(registro)) {
+                        entregar(cliente, registro);
+                    }
+                }
+            }
+        }
+    }
+
+    @Scheduled(fixedRateString = "${app.stream.heartbeat-ms:15000}")
+    public void heartbeat() {
+        for (Cliente cliente : clientes) {
+            entregar(cliente, HEARTBEAT);
+        }
+    }
+
+    public int clientesConectados() {
+        return clientes.size();
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        for (Cliente cliente : clientes) {
+            cliente.emitter.complete();
+        }
+        executor.shutdownNow();
+    }
+
+    private void entregar(Cliente cliente, Object item) {
+        if (!cliente.fila.offer(item)) {
+            logger.warn("Painel não acompanhou o stream, desconectando (data={})", cliente.data);
+            clientes.remove(cliente);
+            cliente.emitter.complete();
+            return;
+        }
+        cliente.agendarDrenagem();
+    }
+
+    /**
+     * Chamado com o lock do histórico. Retorna false quando o buffer não
+     * contém todos os eventos posteriores a desde.
+     */
+    private boolean reenviar(Cliente cliente, long desde) {
+        int total = (int) Math.min(recebidos, historico.length);
+        long primeiro = recebidos - total;
+
+        // Último evento visto ainda no anel: tudo o que chegou depois dele
+        for (long i = recebidos - 1; i >= primeiro; i--) {
+            Registro registro = historico[(int) (i % historico.length)];
+            if (registro.id == desde && cliente.mesmaEmpresa(registro)) {
+                return reenviarDesde(cliente, i + 1, Long.MIN_VALUE);
+            }
+        }
+
+        // Visto em outro nó ou já descartado: vale o id, se o anel ainda cobre
+        // o intervalo (nada descartado acima dele e nada anterior ao início do relay)
+        if (desde < relay.fronteiraInicial(bancos.bancoDe(cliente.empresaId)) || desde < maiorDescartado(cliente)) {
+            return false;
+        }
+        return reenviarDesde(cliente, primeiro, desde);
+    }
+
+    private boolean reenviarDesde(Cliente cliente, long posicao, long idMinimo) {
+        for (long i = posicao; i < recebidos; i++) {
+            Registro registro = historico[(int) (i % historico.length)];
+            if (registro.id > idMinimo && cliente.interessa(registro) && !cliente.fila.offer(registro)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private long maiorDescartado(Cliente cliente) {
+        if (cliente.empresaId != null) {
+            return maiorDescartado.getOrDefault(cliente.empresaId, Long.MIN_VALUE);
+        }
+        return maiorDescartado.values().stream().mapToLong(Long::longValue).max().orElse(Long.MIN_VALUE);
+    }
+
+    private static long chave(Long empresaId) {
+        return empresaId != null ? empresaId : EmpresaContexto.SEM_EMPRESA;
+    }
+
+    private static Long parseId(String lastEventId) {
+        if (lastEventId == null || lastEventId.isBlank()) {
+            return null;
+        }
+        try {
+            return Long.parseLong(lastEventId.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private record Registro(long id, Long empresaId, AgendamentoEvento evento, String json) {
+        static final Registro RESET = new Registro(0, null, null, "{}");
+    }
+
+    private final class Cliente {
+        final SseEmitter emitter;
+        final LocalDate data;
+        // null sem multi-empresa: recebe tudo
+        final Long empresaId;
+        final ArrayBlockingQueue<Object> fila;
+        final AtomicBoolean drenando = new AtomicBoolean();
+
+        Cliente(SseEmitter emitter, LocalDate data, Long empresaId, int capacidade) {
+            this.emitter = emitter;
+            this.data = data;
+            this.empresaId = empresaId;
+            this.fila = new ArrayBlockingQueue<>(capacidade);
+        }
+
+        boolean mesmaEmpresa(Registro registro) {
+            return empresaId == null || empresaId.equals(registro.empresaId);
+        }
+
+        boolean interessa(Registro registro) {
+            return mesmaEmpresa(registro) && registro.evento.afeta(data);
+        }
+
+        void agendarDrenagem() {
+            if (!fila.isEmpty() && drenando.compareAndSet(false, true)) {
+                executor.execute(this::drenar);
+            }
+        }
+
+        private void drenar() {
+            try {
+                Object item;
+                while ((item = fila.poll()) != null) {
+                    enviar(item);
+                }
+            } catch (IOException | IllegalStateException e) {
+                clientes.remove(this);
+                fila.clear();
+                return;
+            } finally {
+                drenando.set(false);
+            }
+            agendarDrenagem();
+        }
+
+        private void enviar(Object item) throws IOException {
+            if (item == HEARTBEAT) {
+                emitter.send(SseEmitter.event().comment("heartbeat"));
+            } else if (item == Registro.RESET) {
+                emitter.send(SseEmitter.event().name("reset").data(Registro.RESET.json));
+            } else {
+                Registro registro = (Registro) item;
+                emitter.send(SseEmitter.event()
+                        .id(Long.toString(registro.id))
+                        .name(registro.evento.tipo())
+                        .data(registro.json));
+            }
+        }
+    }
+}
@@ -0,0 +1,290 @@
+package com.boxpro.service;
+
+import com.boxpro.cache.InvalidacaoCacheService;
+import com.boxpro.cache.OuvinteInvalidacao;
+import com.boxpro.entity.Agendamento;
+import com.boxpro.entity.HistoricoAgendamento;
+import com.boxpro.entity.enums.StatusAgendamento;
+import com.boxpro.multiempresa.BancosEmpresa;
+import com.boxpro.multiempresa.EmpresaContexto;
+import com.boxpro.repository.AgendamentoArquivoRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Move agendamentos concluídos/cancelados mais antigos que o horizonte
+ * configurado (e seus históricos) para as tabelas de arquivo, em lotes
+ * pequenos, cada um na sua transação.
+ *
+ * A data mais recente já arquivada funciona como marca d'água: leituras por
+ * data ou período só consultam o arquivo quando o intervalo chega até ela.
+ * Os outros nós atualizam a marca a cada lote movido, via cache_invalidacao.
+ * Com roteamento de datasource cada banco é arquivado em sequência e tem a
+ * sua marca.
+ */
+@Service
+public class ArquivamentoService implements OuvinteInvalidacao {
+
+    private static final Logger logger = LoggerFactory.getLogger(ArquivamentoService.class);
+
+    private static final String ARQUIVO = "arquivo";
+
+    @Autowired
+    private AgendamentoArquivoRepository arquivoRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private InvalidacaoCacheService invalidacaoCache;
+
+    @Autowired
+    private BancosEmpresa bancos;
+
+    @Value("${app.arquivamento.habilitado:true}")
+    private boolean habilitado;
+
+    @Value("${app.arquivamento.horizonte-meses:12}")
+    private int horizonteMeses;
+
+    @Value("${app.arquivamento.tamanho-lote:500}")
+    private int tamanhoLote;
+
+    @Value("${app.arquivamento.pausa-ms:200}")
+    private long pausaMs;
+
+    private final AtomicBoolean executando = new AtomicBoolean();
+
+    // Por banco; ausente enquanto o banco não tem nada arquivado
+    private final Map<Long, LocalDate> marcasDagua = new ConcurrentHashMap<>();
+
+    /**
+     * Roda antes dos demais listeners de inicialização: o backfill do resumo
+     * diário já lê das tabelas de arquivo.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void prepararTabelas() {
+        bancos.paraCadaBanco(banco -> {
+            arquivoRepository.prepararTabelas();
+            atualizarMarcaDagua(banco);
+        });
+    }
+
+    @Scheduled(cron = "${app.arquivamento.cron:0 0 4 * * *}")
+    public void arquivarAgendado() {
+        if (habilitado) {
+            arquivar();
+        }
+    }
+
+    /**
+     * Executa o arquivamento até não sobrar nada antes do horizonte.
+     * Retorna a quantidade de agendamentos movidos.
+     */
+    public int arquivar() {
+        if (!executando.compareAndSet(false, true)) {
+            logger.info("Arquivamento já em execução, ignorando");
+            return 0;
+        }
+        try {
+            LocalDate horizonte = LocalDate.now().minusMonths(horizonteMeses);
+            int total = 0;
+            for (Long banco : bancos.bancos()) {
+                total += bancos.noBanco(banco, () -> arquivarBanco(banco, horizonte));
+            }
+            logger.info("📦 Arquivamento concluído: {} agendamentos anteriores a {} movidos", total, horizonte);
+            return total;
+        } finally {
+            executando.set(false);
+        }
+    }
+
+    private int arquivarBanco(long banco, LocalDate horizonte) {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        int total = 0;
+
+        while (true) {
+            List<Integer> movidos = tx.execute(status -> {
+                List<Integer> ids = arquivoRepository.travarEncerradosAntesDe(horizonte, tamanhoLote);
+                if (!ids.isEmpty()) {
+                    arquivoRepository.mover(ids);
+                    // A chave diz de qual banco é a marca
+                    invalidacaoCache.registrar(ARQUIVO, null, banco);
+                }
+                return ids;
+            });
+            total += movidos.size();
+            if (movidos.size() < tamanhoLote) {
+                break;
+            }
+            pausar();
+        }
+
+        atualizarMarcaDagua(banco);
+        return total;
+    }
+
+    public boolean precisaDoArquivo(LocalDate dataInicio) {
+        LocalDate limite = marcasDagua.get(bancos.bancoAtual());
+        return limite != null && dataInicio != null && !dataInicio.isAfter(limite);
+    }
+
+    public List<Agendamento> complementarPorPeriodo(List<Agendamento> ativos, LocalDate dataInicio, LocalDate dataFim) {
+        if (!precisaDoArquivo(dataInicio)) {
+            return ativos;
+        }
+        // Mesma ordem dos ativos: mais recentes primeiro
+        return maisRecentesPrimeiro(ativos, arquivoRepository.buscarPorPeriodo(dataInicio, dataFim));
+    }
+
+    public List<Agendamento> complementarPorData(List<Agendamento> ativos, LocalDate data) {
+        if (!precisaDoArquivo(data)) {
+            return ativos;
+        }
+        List<Agendamento> todos = new ArrayList<>(arquivoRepository.buscarPorData(data));
+        todos.addAll(ativos);
+        todos.sort((a, b) -> a.getHoraInicio().compareTo(b.getHoraInicio()));
+        return todos;
+    }
+
+    /*
+     * Buscas sem data (cliente, funcionário, status) não têm como podar pela
+     * marca d'água: consultam o arquivo sempre que o banco já tem algo
+     * arquivado. Os ativos vêm mais recentes primeiro e a junção mantém essa
+     * ordem.
+     */
+    public List<Agendamento> complementarPorCliente(List<Agendamento> ativos, Integer clienteId) {
+        if (!temArquivo()) {
+            return ativos;
+        }
+        return maisRecentesPrimeiro(ativos, arquivoRepository.buscarPorCliente(clienteId));
+    }
+
+    public List<Agendamento> complementarPorFuncionario(List<Agendamento> ativos, Integer funcionarioId) {
+        if (!temArquivo()) {
+            return ativos;
+        }
+        return maisRecentesPrimeiro(ativos, arquivoRepository.buscarPorFuncionario(funcionarioId));
+    }
+
+    public List<Agendamento> complementarPorStatus(List<Agendamento> ativos, StatusAgendamento status) {
+        // Só concluídos e cancelados são arquivados
+        if (!temArquivo() || (status != StatusAgendamento.CONCLUIDO && status != StatusAgendamento.CANCELADO)) {
+            return ativos;
+        }
+        return maisRecentesPrimeiro(ativos, arquivoRepository.buscarPorStatus(status));
+    }
+
+    public Map<StatusAgendamento, Long> contarArquivadosPorStatus() {
+        return temArquivo() ? arquivoRepository.contarPorStatus() : Map.of();
+    }
+
+    public List<HistoricoAgendamento> complementarHistoricoPorAgendamento(List<HistoricoAgendamento> ativos,
+                                                                         Integer agendamentoId) {
+        if (!temArquivo()) {
+            return ativos;
+        }
+        return historicoMaisRecentePrimeiro(ativos, arquivoRepository.buscarHistoricoPorAgendamento(agendamentoId));
+    }
+
+    public List<HistoricoAgendamento> complementarHistoricoPorFuncionario(List<HistoricoAgendamento> ativos,
+                                                                         Integer funcionarioId) {
+        if (!temArquivo()) {
+            return ativos;
+        }
+        return historicoMaisRecentePrimeiro(ativos, arquivoRepository.buscarHistoricoPorFuncionario(funcionarioId));
+    }
+
+    public List<HistoricoAgendamento> complementarHistoricoPorAcao(List<HistoricoAgendamento> ativos, String acao) {
+        if (!temArquivo()) {
+            return ativos;
+        }
+        return historicoMaisRecentePrimeiro(ativos, arquivoRepository.buscarHistoricoPorAcao(acao));
+    }
+
+    public Map<String, Long> contarHistoricoArquivadoPorAcao() {
+        return temArquivo() ? arquivoRepository.contarHistoricoPorAcao() : Map.of();
+    }
+
+    private boolean temArquivo() {
+        return marcasDagua.containsKey(bancos.bancoAtual());
+    }
+
+    private static List<Agendamento> maisRecentesPrimeiro(List<Agendamento> ativos, List<Agendamento> arquivados) {
+        List<Agendamento> todos = new ArrayList<>(ativos);
+        todos.addAll(arquivados);
+        todos.sort(Comparator.comparing(Agendamento::getDataAgendamento)
+                .thenComparing(Agendamento::getHoraInicio)
+                .reversed());
+        return todos;
+    }
+
+    private static List<HistoricoAgendamento> historicoMaisRecentePrimeiro(List<HistoricoAgendamento> ativos,
+                                                                           List<HistoricoAgendamento> arquivados) {
+        List<HistoricoAgendamento> todos = new ArrayList<>(ativos);
+        todos.addAll(arquivados);
+        todos.sort(Comparator.comparing(HistoricoAgendamento::getDataAcao).reversed());
+        return todos;
+    }
+
+    public Optional<Agendamento> buscarArquivadoPorId(Integer id) {
+        if (!temArquivo()) {
+            return Optional.empty();
+        }
+        return arquivoRepository.buscarPorId(id);
+    }
+
+    @Override
+    public void invalidar(String entidade, Long empresaId, String chave) {
+        if (ARQUIVO.equals(entidade)) {
+            long banco = chave != null ? Long.parseLong(chave) : EmpresaContexto.SEM_EMPRESA;
+            bancos.noBanco(banco, () -> {
+                atualizarMarcaDagua(banco);
+                return null;
+            });
+        }
+    }
+
+    @Override
+    public void invalidarTudo() {
+        bancos.paraCadaBanco(this::atualizarMarcaDagua);
+    }
+
+    // Chamado com o contexto já apontando para o banco
+    private void atualizarMarcaDagua(long banco) {
+        Optional<LocalDate> marca = arquivoRepository.dataMaisRecente();
+        if (marca.isPresent()) {
+            marcasDagua.put(banco, marca.get());
+        } else {
+            marcasDagua.remove(banco);
+        }
+    }
+
+    private void pausar() {
+        try {
+            Thread.sleep(pausaMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,530 @@
+package com.boxpro.service;
+
+import com.boxpro.cache.InvalidacaoCacheService;
+import com.boxpro.cache.OuvinteInvalidacao;
+import com.boxpro.entity.Agendamento;
+import com.boxpro.entity.Funcionario;
+import com.boxpro.exception.AgendaOcupadaException;
+import com.boxpro.multiempresa.EmpresaContexto;
+import com.boxpro.repository.AgendamentoRepository;
+import com.boxpro.repository.FuncionarioRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Atribuição automática de funcionário para novos agendamentos.
+ *
+ * Mantém em memória, por dia, a agenda de cada funcionário disponível e um
+ * índice ordenado por carga (minutos reservados). A escolha percorre o índice
+ * a partir do menos carregado e só pula quem já tem reserva naquele horário;
+ * cada teste de horário livre é O(log m) na agenda do funcionário. O total é
+ * O((k + 1) log n), com k limitado pelos atendimentos simultâneos do horário
+ * (capacidade de boxes), não pelo tamanho da equipe. Todas as operações de um dia são
+ * serializadas no objeto do dia, o que mantém a atribuição consistente entre
+ * requisições concorrentes neste nó. No modo multiempresa agendas e
+ * funcionários são separados por empresa. Alterações feitas em outros nós
+ * chegam pelo InvalidacaoCacheService e descartam o dia ou a lista afetada.
+ */
+@Service
+public class AtribuicaoFuncionarioService implements OuvinteInvalidacao {
+
+    private static final Logger logger = LoggerFactory.getLogger(AtribuicaoFuncionarioService.class);
+
+    // Entidades no cache_invalidacao
+    static final String AGENDA = "agenda";
+    static final String FUNCIONARIOS = "funcionarios";
+
+    @Autowired
+    private AgendamentoRepository agendamentoRepository;
+
+    @Autowired
+    private FuncionarioRepository funcionarioRepository;
+
+    @Autowired
+    private InvalidacaoCacheService invalidacaoCache;
+
+    @Value("${app.agendamento.duracao-padrao-minutos:60}")
+    private int duracaoPadraoMinutos;
+
+    private final ConcurrentHashMap<ChaveAgenda, AgendaDia> agendas = new ConcurrentHashMap<>();
+
+    private final ConcurrentHashMap<Long, List<Integer>> funcionariosDisponiveis = new ConcurrentHashMap<>();
+
+    /**
+     * Reserva o horário do agendamento na agenda do dia. Se o agendamento não
+     * tem funcionário, escolhe o livre com menor carga e o define no próprio
+     * agendamento; com todos ocupados no horário lança AgendaOcupadaException.
+     * Só sem nenhum funcionário disponível cadastrado o agendamento segue sem
+     * funcionário. Em caso de rollback a reserva é desfeita.
+     */
+    public Reserva reservar(Agendamento agendamento) {
+        if (agendamento.getDataAgendamento() == null || agendamento.getHoraInicio() == null
+                || agendamento.getStatus() == null || !agendamento.getStatus().ocupaAgenda()) {
+            return Reserva.VAZIA;
+        }
+
+        ChaveAgenda chave = new ChaveAgenda(empresaDe(agendamento), agendamento.getDataAgendamento());
+        AgendaDia agenda = agenda(chave);
+        LocalTime inicio = agendamento.getHoraInicio();
+        LocalTime fim = horaFim(agendamento);
+        Intervalo intervalo;
+
+        synchronized (agenda) {
+            Integer funcionarioId = agendamento.getFuncionarioResponsavelId();
+            if (funcionarioId == null) {
+                funcionarioId = agenda.menosCarregadoLivre(inicio, fim);
+                if (funcionarioId == null) {
+                    if (agenda.semFuncionarios()) {
+                        logger.info("Nenhum funcionário disponível cadastrado; agendamento em {} fica sem funcionário",
+                                agendamento.getDataAgendamento());
+                        return Reserva.VAZIA;
+                    }
+                    throw new AgendaOcupadaException("Nenhum funcionário livre em " +
+                            agendamento.getDataAgendamento() + " às " + inicio + ". Escolha outro horário.");
+                }
+                agendamento.setFuncionarioResponsavelId(funcionarioId);
+            }
+            intervalo = new Intervalo(funcionarioId, inicio, fim);
+            agenda.ocupar(intervalo);
+        }
+
+        invalidacaoCache.registrar(AGENDA, chave.empresaId(), chave.data());
+        Reserva reserva = new Reserva(chave, intervalo);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        cancelar(reserva);
+                    }
+                }
+            });
+        }
+        return reserva;
+    }
+
+    /**
+     * Chamado pela TravaAgendaService com a linha do dia travada. Se a agenda
+     * em memória não corresponde à versão anterior do dia, outro nó escreveu
+     * nela: recarrega do banco. Depois disso a agenda passa a refletir a
+     * escrita em andamento (versão anterior + 1).
+     */
+    public void sincronizar(LocalDate data, Long versaoAnterior) {
+        ChaveAgenda chave = new ChaveAgenda(EmpresaContexto.atual(), data);
+        AgendaDia agenda = agendas.get(chave);
+        if (agenda != null) {
+            synchronized (agenda) {
+                if (agenda.versao == versaoAnterior) {
+                    agenda.versao = versaoAnterior + 1;
+                    return;
+                }
+            }
+            agendas.remove(chave, agenda);
+            logger.debug("Agenda de {} alterada em outro nó; recarregando", chave);
+        }
+        agenda = agenda(chave);
+        synchronized (agenda) {
+            agenda.versao = versaoAnterior + 1;
+        }
+    }
+
+    /**
+     * Associa a reserva ao id gerado para o agendamento, permitindo liberá-la depois.
+     */
+    public void confirmar(Reserva reserva, Integer agendamentoId) {
+        if (reserva.intervalo == null) {
+            return;
+        }
+        AgendaDia agenda = agendas.get(reserva.chave);
+        if (agenda == null) {
+            return;
+        }
+        synchronized (agenda) {
+            agenda.vincular(reserva.intervalo, agendamentoId);
+        }
+    }
+
+    /**
+     * Atualiza a agenda em memória após o commit de uma alteração no agendamento:
+     * libera o horário antigo e ocupa o novo se o status ainda ocupa a agenda.
+     */
+    public void reagendar(LocalDate dataAnterior, Agendamento agendamento) {
+        Integer id = agendamento.getId();
+        Long empresaId = empresaDe(agendamento);
+        ChaveAgenda chave = new ChaveAgenda(empresaId, agendamento.getDataAgendamento());
+        Integer funcionarioId = agendamento.getFuncionarioResponsavelId();
+        LocalTime inicio = agendamento.getHoraInicio();
+        LocalTime fim = horaFim(agendamento);
+        boolean ocupa = funcionarioId != null && agendamento.getStatus() != null && agendamento.getStatus().ocupaAgenda();
+        registrarAgenda(empresaId, dataAnterior);
+        registrarAgenda(empresaId, chave.data());
+
+        aposCommit(() -> {
+            liberarAgora(new ChaveAgenda(empresaId, dataAnterior), id);
+            if (ocupa) {
+                AgendaDia agenda = agendas.get(chave);
+                if (agenda != null) {
+                    synchronized (agenda) {
+                        Intervalo intervalo = new Intervalo(funcionarioId, inicio, fim);
+                        agenda.ocupar(intervalo);
+                        agenda.vincular(intervalo, id);
+                    }
+                }
+            }
+        });
+    }
+
+    public void liberar(Agendamento agendamento) {
+        ChaveAgenda chave = new ChaveAgenda(empresaDe(agendamento), agendamento.getDataAgendamento());
+        Integer agendamentoId = agendamento.getId();
+        registrarAgenda(chave.empresaId(), chave.data());
+        aposCommit(() -> liberarAgora(chave, agendamentoId));
+    }
+
+    /**
+     * Descarta o cache de funcionários e as agendas carregadas da empresa
+     * corrente (de todas, fora do modo multiempresa); chamado quando um
+     * funcionário é criado, alterado, bloqueado ou desativado.
+     */
+    public void invalidarFuncionarios() {
+        Long empresaId = EmpresaContexto.atual();
+        invalidacaoCache.registrar(FUNCIONARIOS, empresaId, null);
+        aposCommit(() -> descartarFuncionarios(empresaId));
+    }
+
+    @Override
+    public void invalidar(String entidade, Long empresaId, String chave) {
+        if (AGENDA.equals(entidade) && chave != null) {
+            agendas.remove(new ChaveAgenda(empresaId, LocalDate.parse(chave)));
+        } else if (FUNCIONARIOS.equals(entidade)) {
+            descartarFuncionarios(empresaId);
+        }
+    }
+
+    @Override
+    public void invalidarTudo() {
+        funcionariosDisponiveis.clear();
+        agendas.clear();
+    }
+
+    private void descartarFuncionarios(Long empresaId) {
+        if (empresaId == null) {
+            invalidarTudo();
+        } else {
+            funcionariosDisponiveis.remove(empresaId);
+            agendas.keySet().removeIf(chave -> empresaId.equals(chave.empresaId()));
+        }
+    }
+
+    private void registrarAgenda(Long empresaId, LocalDate data) {
+        if (data != null) {
+            invalidacaoCache.registrar(AGENDA, empresaId, data);
+        }
+    }
+
+    private void cancelar(Reserva reserva) {
+        AgendaDia agenda = agendas.get(reserva.chave);
+        if (agenda == null) {
+            return;
+        }
+        synchronized (agenda) {
+            agenda.desocupar(reserva.intervalo);
+        }
+    }
+
+    private void liberarAgora(ChaveAgenda chave, Integer agendamentoId) {
+        if (chave.data() == null || agendamentoId == null) {
+            return;
+        }
+        AgendaDia agenda = agendas.get(chave);
+        if (agenda == null) {
+            return;
+        }
+        synchronized (agenda) {
+            agenda.liberar(agendamentoId);
+        }
+    }
+
+    private AgendaDia agenda(ChaveAgenda chave) {
+        AgendaDia agenda = agendas.get(chave);
+        if (agenda != null) {
+            return agenda;
+        }
+        descartarDiasPassados();
+        AgendaDia carregada = carregar(chave);
+        agenda = agendas.putIfAbsent(chave, carregada);
+        return agenda != null ? agenda : carregada;
+    }
+
+    private AgendaDia carregar(ChaveAgenda chave) {
+        AgendaDia agenda = new AgendaDia();
+        for (Integer funcionarioId : funcionariosDisponiveis(chave.empresaId())) {
+            agenda.adicionarFuncionario(funcionarioId);
+        }
+        List<Agendamento> ativos = chave.empresaId() != null
+                ? agendamentoRepository.findAgendamentosAtivos(chave.empresaId(), chave.data())
+                : agendamentoRepository.findAgendamentosAtivos(chave.data());
+        for (Agendamento agendamento : ativos) {
+            if (agendamento.getFuncionarioResponsavelId() == null) {
+                continue;
+            }
+            Intervalo intervalo = new Intervalo(agendamento.getFuncionarioResponsavelId(),
+                    agendamento.getHoraInicio(), horaFim(agendamento));
+            agenda.ocupar(intervalo);
+            agenda.vincular(intervalo, agendamento.getId());
+        }
+        logger.debug("Agenda de {} carregada para atribuição automática", chave);
+        return agenda;
+    }
+
+    private List<Integer> funcionariosDisponiveis(Long empresaId) {
+        Long chave = empresaId != null ? empresaId : EmpresaContexto.SEM_EMPRESA;
+        List<Integer> ids = funcionariosDisponiveis.get(chave);
+        if (ids == null) {
+            List<Funcionario> funcionarios = empresaId != null
+                    ? funcionarioRepository.findFuncionariosDisponiveisPorEmpresa(empresaId)
+                    : funcionarioRepository.findFuncionariosDisponiveis();
+            ids = funcionarios.stream()
+                    .map(Funcionario::getId)
+                    .collect(Collectors.toList());
+            funcionariosDisponiveis.put(chave, ids);
+        }
+        return ids;
+    }
+
+    private void descartarDiasPassados() {
+        LocalDate hoje = LocalDate.now();
+        agendas.keySet().removeIf(chave -> chave.data().isBefore(hoje));
+    }
+
+    // Agendamentos ainda não gravados herdam a empresa da requisição
+    private static Long empresaDe(Agendamento agendamento) {
+        return agendamento.getEmpresaId() != null ? agendamento.getEmpresaId() : EmpresaContexto.atual();
+    }
+
+    private LocalTime horaFim(Agendamento agendamento) {
+        return horaFimEfetiva(agendamento.getHoraInicio(), agendamento.getHoraFim());
+    }
+
+    /**
+     * Fim do intervalo ocupado: hora_fim quando válida, senão início mais a
+     * duração padrão, sem atravessar a meia-noite.
+     */
+    public LocalTime horaFimEfetiva(LocalTime inicio, LocalTime fim) {
+        if (fim != null && fim.isAfter(inicio)) {
+            return fim;
+        }
+        LocalTime estimado = inicio.plusMinutes(duracaoPadraoMinutos);
+        return estimado.isAfter(inicio) ? estimado : LocalTime.MAX;
+    }
+
+    private void aposCommit(Runnable acao) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    acao.run();
+                }
+            });
+        } else {
+            acao.run();
+        }
+    }
+
+    public static final class Reserva {
+
+        static final Reserva VAZIA = new Reserva(null, null);
+
+        private final ChaveAgenda chave;
+        private final Intervalo intervalo;
+
+        private Reserva(ChaveAgenda chave, Intervalo intervalo) {
+            this.chave = chave;
+            this.intervalo = intervalo;
+        }
+    }
+
+    // empresaId é null fora do modo multiempresa
+    private record ChaveAgenda(Long empresaId, LocalDate data) {}
+
+    private static final class Intervalo {
+        final Integer funcionarioId;
+        final LocalTime inicio;
+        final LocalTime fim;
+        Integer agendamentoId;
+
+        Intervalo(Integer funcionarioId, LocalTime inicio, LocalTime fim) {
+            this.funcionarioId = funcionarioId;
+            this.inicio = inicio;
+            this.fim = fim;
+        }
+
+        boolean sobrepoe(LocalTime outroInicio, LocalTime outroFim) {
+            return inicio.isBefore(outroFim) && fim.isAfter(outroInicio);
+        }
+
+        long minutos() {
+            return java.time.Duration.between(inicio, fim).toMinutes();
+        }
+    }
+
+    private static final class Carga {
+        final Integer funcionarioId;
+        final boolean elegivel;
+        final List<Intervalo> intervalos = new ArrayList<>();
+        // Intervalos por início; sem sobreposição os fins também ficam em ordem
+        private final TreeMap<LocalTime, Intervalo> porInicio = new TreeMap<>();
+        // Reservas sobrepostas (atribuição manual conflitante) desligam o índice
+        private boolean sobreposta;
+        long minutos;
+
+        Carga(Integer funcionarioId, boolean elegivel) {
+            this.funcionarioId = funcionarioId;
+            this.elegivel = elegivel;
+        }
+
+        void adicionar(Intervalo intervalo) {
+            intervalos.add(intervalo);
+            minutos += intervalo.minutos();
+            if (!sobreposta) {
+                if (livre(intervalo.inicio, intervalo.fim)) {
+                    porInicio.put(intervalo.inicio, intervalo);
+                } else {
+                    sobreposta = true;
+                }
+            }
+        }
+
+        void remover(Intervalo intervalo) {
+            intervalos.remove(intervalo);
+            minutos -= intervalo.minutos();
+            if (!sobreposta) {
+                porInicio.remove(intervalo.inicio, intervalo);
+            } else {
+                reindexar();
+            }
+        }
+
+        /**
+         * Só o intervalo com o maior início antes de fim pode alcançar o
+         * início pedido, já que os intervalos indexados não se sobrepõem.
+         */
+        boolean livre(LocalTime inicio, LocalTime fim) {
+            if (sobreposta) {
+                for (Intervalo intervalo : intervalos) {
+                    if (intervalo.sobrepoe(inicio, fim)) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+            Map.Entry<LocalTime, Intervalo> anterior = porInicio.lowerEntry(fim);
+            return anterior == null || !anterior.getValue().sobrepoe(inicio, fim);
+        }
+
+        private void reindexar() {
+            porInicio.clear();
+            sobreposta = false;
+            for (Intervalo intervalo : intervalos) {
+                if (!livre(intervalo.inicio, intervalo.fim)) {
+                    sobreposta = true;
+                    porInicio.clear();
+                    return;
+                }
+                porInicio.put(intervalo.inicio, intervalo);
+            }
+        }
+    }
+
+    /**
+     * Agenda de um dia. Não é thread-safe: o chamador sincroniza na instância.
+     */
+    private static final class AgendaDia {
+
+        private final Map<Integer, Carga> cargas = new HashMap<>();
+        private final TreeSet<Carga> porCarga = new TreeSet<>(
+                Comparator.comparingLong((Carga c) -> c.minutos).thenComparing(c -> c.funcionarioId));
+        private final Map<Integer, Intervalo> porAgendamento = new HashMap<>();
+        // Versão de agenda_bloqueio que esta agenda reflete; -1 quando carregada sem a trava
+        long versao = -1;
+
+        void adicionarFuncionario(Integer funcionarioId) {
+            Carga carga = new Carga(funcionarioId, true);
+            cargas.put(funcionarioId, carga);
+            porCarga.add(carga);
+        }
+
+        boolean semFuncionarios() {
+            return porCarga.isEmpty();
+        }
+
+        Integer menosCarregadoLivre(LocalTime inicio, LocalTime fim) {
+            for (Carga carga : porCarga) {
+                if (carga.livre(inicio, fim)) {
+                    return carga.funcionarioId;
+                }
+            }
+            return null;
+        }
+
+        void ocupar(Intervalo intervalo) {
+            // Funcionários fora da lista de disponíveis são rastreados, mas nunca escolhidos
+            Carga carga = cargas.computeIfAbsent(intervalo.funcionarioId, id -> new Carga(id, false));
+            ajustar(carga, intervalo, true);
+        }
+
+        void desocupar(Intervalo intervalo) {
+            Carga carga = cargas.get(intervalo.funcionarioId);
+            if (carga != null && carga.intervalos.contains(intervalo)) {
+                ajustar(carga, intervalo, false);
+            }
+            if (intervalo.agendamentoId != null) {
+                porAgendamento.remove(intervalo.agendamentoId, intervalo);
+            }
+        }
+
+        void vincular(Intervalo intervalo, Integer agendamentoId) {
+            intervalo.agendamentoId = agendamentoId;
+            porAgendamento.put(agendamentoId, intervalo);
+        }
+
+        void liberar(Integer agendamentoId) {
+            Intervalo intervalo = porAgendamento.get(agendamentoId);
+            if (intervalo != null) {
+                desocupar(intervalo);
+            }
+        }
+
+        private void ajustar(Carga carga, Intervalo intervalo, boolean adicionar) {
+            // A carga é chave do índice: remove, altera e reinsere
+            if (carga.elegivel) {
+                porCarga.remove(carga);
+            }
+            if (adicionar) {
+                carga.adicionar(intervalo);
+            } else {
+                carga.remover(intervalo);
+            }
+            if (carga.elegivel) {
+                porCarga.add(carga);
+            }
+        }
+    }
+}
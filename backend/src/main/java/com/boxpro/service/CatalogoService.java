@@ -0,0 +1,122 @@
+package com.boxpro.service;
+
+import com.boxpro.cache.VersaoColecoes;
+import com.boxpro.config.EscritoresJson;
+import com.boxpro.dto.response.CatalogoResponse;
+import com.boxpro.entity.CategoriaServico;
+import com.boxpro.entity.Servico;
+import com.boxpro.multiempresa.EmpresaContexto;
+import com.boxpro.repository.CategoriaServicoRepository;
+import com.boxpro.repository.ServicoRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Snapshot imutável do catálogo (categorias com serviços ativos, preços e
+ * durações), guardado já serializado em JSON puro e em gzip.
+ *
+ * Quando a versão de serviços ou categorias muda (após o commit de uma
+ * escrita em ServicoService/CategoriaServicoService), o próximo acesso monta
+ * um snapshot novo e troca a referência de uma vez; leitores nunca veem um
+ * catálogo pela metade e não esperam enquanto o snapshot está atual. No
+ * modo multiempresa há um snapshot por empresa.
+ */
+@Service
+public class CatalogoService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogoService.class);
+
+    private static final String[] COLECOES = { VersaoColecoes.SERVICOS, VersaoColecoes.CATEGORIAS };
+
+    @Autowired
+    private ServicoRepository servicoRepository;
+
+    @Autowired
+    private CategoriaServicoRepository categoriaRepository;
+
+    @Autowired
+    private VersaoColecoes versaoColecoes;
+
+    @Autowired
+    private EscritoresJson escritoresJson;
+
+    private final ConcurrentHashMap<Long, Snapshot> snapshots = new ConcurrentHashMap<>();
+
+    /**
+     * servicosAtivos indexa os serviços do snapshot por id, para quem precisa
+     * de preço e duração sem ir ao banco.
+     */
+    public record Snapshot(String etag, byte[] identidade, byte[] gzip,
+                           Map<Long, CatalogoResponse.Servico> servicosAtivos) {}
+
+    public String etagAtual() {
+        return versaoColecoes.etagComposto("catalogo", COLECOES);
+    }
+
+    public Snapshot obter() {
+        String etag = etagAtual();
+        Long empresa = EmpresaContexto.chave();
+        Snapshot atual = snapshots.get(empresa);
+        if (atual != null && atual.etag().equals(etag)) {
+            return atual;
+        }
+        synchronized (this) {
+            atual = snapshots.get(empresa);
+            if (atual == null || !atual.etag().equals(etag)) {
+                atual = montar(etag);
+                snapshots.put(empresa, atual);
+            }
+            return atual;
+        }
+    }
+
+    private Snapshot montar(String etag) {
+        Map<Long, List<CatalogoResponse.Servico>> porCategoria = new HashMap<>();
+        Map<Long, CatalogoResponse.Servico> servicosAtivos = new HashMap<>();
+        List<Servico> ativos = new ArrayList<>(servicoRepository.findByAtivoTrue());
+        ativos.sort(Comparator.comparing(Servico::getNome, String.CASE_INSENSITIVE_ORDER));
+        for (Servico servico : ativos) {
+            CatalogoResponse.Servico item = new CatalogoResponse.Servico(servico.getId(), servico.getNome(),
+                    servico.getDescricao(), servico.getPreco(), servico.getDuracaoEstimada());
+            porCategoria.computeIfAbsent(servico.getCategoriaId(), c -> new ArrayList<>()).add(item);
+            servicosAtivos.put(item.id(), item);
+        }
+
+        List<CatalogoResponse.Categoria> categorias = categoriaRepository.findAll(Sort.by("nome")).stream()
+                .map((CategoriaServico c) -> new CatalogoResponse.Categoria(c.getId(), c.getNome(), c.getDescricao(),
+                        List.copyOf(porCategoria.getOrDefault(c.getId(), List.of()))))
+                .collect(Collectors.toUnmodifiableList());
+
+        byte[] identidade = escritoresJson.serializar(new CatalogoResponse(categorias));
+        byte[] gzip = gzip(identidade);
+        logger.debug("Catálogo remontado ({}): {} serviços, {} bytes, {} bytes gzip",
+                etag, servicosAtivos.size(), identidade.length, gzip.length);
+        return new Snapshot(etag, identidade, gzip, Collections.unmodifiableMap(servicosAtivos));
+    }
+
+    private static byte[] gzip(byte[] dados) {
+        ByteArrayOutputStream saida = new ByteArrayOutputStream(Math.max(64, dados.length / 4));
+        try (GZIPOutputStream gzip = new GZIPOutputStream(saida)) {
+            gzip.write(dados);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return saida.toByteArray();
+    }
+}
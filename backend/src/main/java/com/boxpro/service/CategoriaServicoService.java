@@ -1,5 +1,6 @@
 package com.boxpro.service;
 
+import com.boxpro.cache.VersaoColecoes;
 import com.boxpro.entity.CategoriaServico;
 import com.boxpro.repository.CategoriaServicoRepository;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -15,6 +16,9 @@ public class CategoriaServicoService {
     @Autowired
     private CategoriaServicoRepository categoriaRepository;
     
+    @Autowired
+    private VersaoColecoes versaoColecoes;
+    
     // Método paginado
     public Page<CategoriaServico> listarCategoriasPaginadas(Pageable pageable) {
         return categoriaRepository.findAll(pageable);
@@ -38,11 +42,13 @@ public class CategoriaServicoService {
         if (categoriaRepository.existsByNomeIgnoreCase(categoria.getNome())) {
             throw new RuntimeException("Já existe uma categoria com este nome");
         }
-        return categoriaRepository.save(categoria);
+        CategoriaServico salva = categoriaRepository.save(categoria);
+        versaoColecoes.incrementar(VersaoColecoes.CATEGORIAS);
+        return salva;
     }
     
     public CategoriaServico atualizarCategoria(Long id, CategoriaServico categoria) {
-        return categoriaRepository.findById(id)
+        CategoriaServico atualizada = categoriaRepository.findById(id)
             .map(categoriaExistente -> {
                 // Validações
                 if (categoria.getNome() == null || categoria.getNome().trim().isEmpty()) {
@@ -60,6 +66,8 @@ public class CategoriaServicoService {
                 return categoriaRepository.save(categoriaExistente);
             })
             .orElseThrow(() -> new RuntimeException("Categoria não encontrada"));
+        versaoColecoes.incrementar(VersaoColecoes.CATEGORIAS);
+        return atualizada;
     }
     
     public void deletarCategoria(Long id) {
@@ -67,6 +75,7 @@ public class CategoriaServicoService {
             throw new RuntimeException("Categoria não encontrada");
         }
         categoriaRepository.deleteById(id);
+        versaoColecoes.incrementar(VersaoColecoes.CATEGORIAS);
     }
     
     public List<CategoriaServico> buscarPorNome(String nome) {
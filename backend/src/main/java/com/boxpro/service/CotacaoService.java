@@ -0,0 +1,103 @@
+package com.boxpro.service;
+
+import com.boxpro.dto.response.CatalogoResponse;
+import com.boxpro.dto.response.CotacaoResponse;
+import com.boxpro.entity.Agendamento;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Cotação de serviços a partir da tabela em memória do CatalogoService
+ * (serviços ativos por id), sem consultar o banco. A tabela é o snapshot
+ * imutável do catálogo, remontado quando serviços ou categorias mudam.
+ *
+ * Também preenche valorTotal e horaFim dos agendamentos: o valor é o preço
+ * do serviço e o término é o início mais a duração estimada.
+ */
+@Service
+public class CotacaoService {
+
+    private static final BigDecimal CEM = BigDecimal.valueOf(100);
+
+    @Autowired
+    private CatalogoService catalogoService;
+
+    // Percentual do valor cobrado em caso de cancelamento (informado na cotação)
+    @Value("${app.cotacao.taxa-cancelamento-percentual:0}")
+    private BigDecimal taxaCancelamentoPercentual;
+
+    public CotacaoResponse cotar(List<Long> servicoIds, LocalTime horaInicio) {
+        if (servicoIds == null || servicoIds.isEmpty()) {
+            throw new IllegalArgumentException("Informe ao menos um serviço");
+        }
+        return cotar(catalogoService.obter().servicosAtivos(), servicoIds, horaInicio);
+    }
+
+    /**
+     * Preenche valorTotal e horaFim pelo catálogo. Lança IllegalArgumentException
+     * se o serviço não está ativo ou o atendimento passaria da meia-noite.
+     */
+    public void precificar(Agendamento agendamento) {
+        aplicar(agendamento, catalogoService.obter().servicosAtivos());
+    }
+
+    /**
+     * Versão em lote, com um único acesso ao catálogo: um erro por
+     * agendamento, na mesma ordem, ou null quando foi precificado.
+     */
+    public List<String> precificar(List<Agendamento> agendamentos) {
+        Map<Long, CatalogoResponse.Servico> tabela = catalogoService.obter().servicosAtivos();
+        List<String> erros = new ArrayList<>(agendamentos.size());
+        for (Agendamento agendamento : agendamentos) {
+            try {
+                aplicar(agendamento, tabela);
+                erros.add(null);
+            } catch (IllegalArgumentException e) {
+                erros.add(e.getMessage());
+            }
+        }
+        return erros;
+    }
+
+    private void aplicar(Agendamento agendamento, Map<Long, CatalogoResponse.Servico> tabela) {
+        CotacaoResponse cotacao = cotar(tabela, List.of(agendamento.getServicoId().longValue()),
+                agendamento.getHoraInicio());
+        agendamento.setValorTotal(cotacao.valorTotal());
+        agendamento.setHoraFim(cotacao.horaFim());
+    }
+
+    private CotacaoResponse cotar(Map<Long, CatalogoResponse.Servico> tabela, List<Long> servicoIds, LocalTime horaInicio) {
+        List<CotacaoResponse.Item> itens = new ArrayList<>(servicoIds.size());
+        BigDecimal total = BigDecimal.ZERO;
+        Long duracao = 0L;
+        for (Long id : servicoIds) {
+            CatalogoResponse.Servico servico = id != null ? tabela.get(id) : null;
+            if (servico == null) {
+                throw new IllegalArgumentException("Serviço não encontrado ou inativo: " + id);
+            }
+            Long minutos = servico.duracaoEstimada() != null
+                    ? (long) servico.duracaoEstimada().toSecondOfDay() / 60 : null;
+            itens.add(new CotacaoResponse.Item(servico.id(), servico.nome(), servico.preco(), minutos));
+            total = total.add(servico.preco());
+            duracao = duracao != null && minutos != null ? duracao + minutos : null;
+        }
+
+        LocalTime horaFim = null;
+        if (horaInicio != null && duracao != null) {
+            if (horaInicio.toSecondOfDay() / 60 + duracao >= 24 * 60) {
+                throw new IllegalArgumentException("O atendimento ultrapassa o fim do dia");
+            }
+            horaFim = horaInicio.plusMinutes(duracao);
+        }
+        BigDecimal taxa = total.multiply(taxaCancelamentoPercentual).divide(CEM, 2, RoundingMode.HALF_UP);
+        return new CotacaoResponse(List.copyOf(itens), total, duracao, horaInicio, horaFim, taxa);
+    }
+}
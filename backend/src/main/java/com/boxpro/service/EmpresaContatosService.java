@@ -1,5 +1,6 @@
 package com.boxpro.service;
 
+import com.boxpro.cache.VersaoColecoes;
 import com.boxpro.dto.request.EmpresaContatosRequestDTO;
 import com.boxpro.dto.response.EmpresaContatosResponseDTO;
 import com.boxpro.entity.Empresa;
@@ -30,6 +31,9 @@ public class EmpresaContatosService {
     @Autowired
     private EmpresaRepository empresaRepository;
     
+    @Autowired
+    private VersaoColecoes versaoColecoes;
+    
     /**
      * Buscar todos os contatos de uma empresa
      */
@@ -141,6 +145,7 @@ public class EmpresaContatosService {
             }
             
             contato = contatosRepository.save(contato);
+            versaoColecoes.incrementar(VersaoColecoes.EMPRESA_CONTATOS);
             logger.info("✅ Contato criado com sucesso: {}", contato);
             
             return new EmpresaContatosResponseDTO(contato);
@@ -197,6 +202,7 @@ public class EmpresaContatosService {
             
             updateContatoFromDTO(contato, requestDTO);
             contato = contatosRepository.save(contato);
+            versaoColecoes.incrementar(VersaoColecoes.EMPRESA_CONTATOS);
             logger.info("✅ Contato atualizado com sucesso: {}", contato);
             
             return new EmpresaContatosResponseDTO(contato);
@@ -226,6 +232,7 @@ public class EmpresaContatosService {
             
             contato.setAtivo(false);
             contatosRepository.save(contato);
+            versaoColecoes.incrementar(VersaoColecoes.EMPRESA_CONTATOS);
             logger.info("✅ Contato deletado (soft delete) com sucesso: {}", contato);
             
         } catch (ResourceNotFoundException e) {
@@ -260,6 +267,7 @@ public class EmpresaContatosService {
             // Definir este como principal
             contato.setPrincipal(true);
             contato = contatosRepository.save(contato);
+            versaoColecoes.incrementar(VersaoColecoes.EMPRESA_CONTATOS);
             logger.info("✅ Contato definido como principal: {}", contato);
             
             return new EmpresaContatosResponseDTO(contato);
@@ -1,5 +1,6 @@
 package com.boxpro.service;
 
+import com.boxpro.cache.VersaoColecoes;
 import com.boxpro.dto.request.EmpresaHorariosRequestDTO;
 import com.boxpro.dto.response.EmpresaHorariosResponseDTO;
 import com.boxpro.entity.Empresa;
@@ -24,6 +25,9 @@ public class EmpresaHorariosService {
     @Autowired
     private EmpresaRepository empresaRepository;
     
+    @Autowired
+    private VersaoColecoes versaoColecoes;
+    
     /**
      * Buscar todos os horários de uma empresa
      */
@@ -78,6 +82,7 @@ public class EmpresaHorariosService {
         
         EmpresaHorarios horario = createHorarioFromDTO(empresa, requestDTO);
         horario = horariosRepository.save(horario);
+        versaoColecoes.incrementar(VersaoColecoes.EMPRESA_HORARIOS);
         
         return new EmpresaHorariosResponseDTO(horario);
     }
@@ -108,6 +113,7 @@ public class EmpresaHorariosService {
         
         updateHorarioFromDTO(horario, requestDTO);
         horario = horariosRepository.save(horario);
+        versaoColecoes.incrementar(VersaoColecoes.EMPRESA_HORARIOS);
         
         return new EmpresaHorariosResponseDTO(horario);
     }
@@ -122,6 +128,7 @@ public class EmpresaHorariosService {
         
         horario.setAtivo(false);
         horariosRepository.save(horario);
+        versaoColecoes.incrementar(VersaoColecoes.EMPRESA_HORARIOS);
     }
     
     /**
@@ -1,38 +1,50 @@
 package com.boxpro.service;
 
+import com.boxpro.cache.VersaoColecoes;
 import com.boxpro.dto.request.EmpresaRequestDTO;
 import com.boxpro.dto.response.EmpresaResponseDTO;
 import com.boxpro.entity.Empresa;
 import com.boxpro.exception.BusinessException;
 import com.boxpro.exception.ResourceNotFoundException;
+import com.boxpro.multiempresa.EmpresaContexto;
 import com.boxpro.repository.EmpresaRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Optional;
+
 @Service
 public class EmpresaService {
     
     @Autowired
     private EmpresaRepository empresaRepository;
     
+    @Autowired
+    private VersaoColecoes versaoColecoes;
+    
+    @Value("${app.multiempresa.habilitado:false}")
+    private boolean multiEmpresa;
+    
     /**
-     * Busca a empresa ativa (deve existir apenas uma)
+     * Busca a empresa ativa (deve existir apenas uma). No modo multiempresa,
+     * a empresa da requisição.
      */
     public EmpresaResponseDTO getEmpresa() {
-        Empresa empresa = empresaRepository.findActiveEmpresa()
+        Empresa empresa = empresaAtiva()
                 .orElseThrow(() -> new ResourceNotFoundException("Empresa não encontrada"));
         
         return new EmpresaResponseDTO(empresa);
     }
     
     /**
-     * Cria uma nova empresa (apenas se não existir nenhuma ativa)
+     * Cria uma nova empresa (apenas se não existir nenhuma ativa, fora do modo multiempresa)
      */
     @Transactional
     public EmpresaResponseDTO createEmpresa(EmpresaRequestDTO requestDTO) {
         // Verificar se já existe uma empresa ativa
-        if (empresaRepository.countActiveEmpresas() > 0) {
+        if (!multiEmpresa && empresaRepository.countActiveEmpresas() > 0) {
             throw new BusinessException("Já existe uma empresa cadastrada. Use a função de atualização.");
         }
         
@@ -45,6 +57,7 @@ public class EmpresaService {
         
         Empresa empresa = createEmpresaFromDTO(requestDTO);
         empresa = empresaRepository.save(empresa);
+        versaoColecoes.incrementar(VersaoColecoes.EMPRESA);
         
         return new EmpresaResponseDTO(empresa);
     }
@@ -54,7 +67,9 @@ public class EmpresaService {
      */
     @Transactional
     public EmpresaResponseDTO updateEmpresa(Long id, EmpresaRequestDTO requestDTO) {
+        Long empresaAtual = EmpresaContexto.atual();
         Empresa empresa = empresaRepository.findById(id)
+                .filter(e -> empresaAtual == null || empresaAtual.equals(e.getId()))
                 .orElseThrow(() -> new ResourceNotFoundException("Empresa não encontrada"));
         
         // Verificar CNPJ único se fornecido e diferente do atual
@@ -66,6 +81,7 @@ public class EmpresaService {
         
         updateEmpresaFromDTO(empresa, requestDTO);
         empresa = empresaRepository.save(empresa);
+        versaoColecoes.incrementar(VersaoColecoes.EMPRESA);
         
         return new EmpresaResponseDTO(empresa);
     }
@@ -74,9 +90,20 @@ public class EmpresaService {
      * Verifica se existe empresa cadastrada
      */
     public boolean existeEmpresa() {
+        if (EmpresaContexto.atual() != null) {
+            return empresaAtiva().isPresent();
+        }
         return empresaRepository.countActiveEmpresas() > 0;
     }
     
+    private Optional<Empresa> empresaAtiva() {
+        Long empresaId = EmpresaContexto.atual();
+        if (empresaId == null) {
+            return empresaRepository.findActiveEmpresa();
+        }
+        return empresaRepository.findById(empresaId).filter(e -> Boolean.TRUE.equals(e.getAtivo()));
+    }
+    
     /**
      * Método auxiliar para criar empresa a partir do DTO
      */
@@ -0,0 +1,224 @@
+package com.boxpro.service;
+
+import com.boxpro.dto.request.StatusLoteRequest;
+import com.boxpro.dto.response.StatusLoteResponse;
+import com.boxpro.entity.enums.StatusAgendamento;
+import com.boxpro.multiempresa.BancosEmpresa;
+import com.boxpro.repository.AgendamentoJdbcRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Fecha agendamentos esquecidos: 'agendado' com data passada vira
+ * 'nao_compareceu' e 'em_andamento' antigo vira 'concluido'.
+ *
+ * Processa em lotes pequenos, cada um na sua transação, reaproveitando a
+ * mudança de status em lote. No horário de pico cada passada (agendado
+ * vencido, em_andamento antigo) roda no máximo alguns lotes por execução,
+ * com orçamento próprio para que uma não deixe a outra sem vez. Um GET_LOCK do MySQL garante que só um nó execute por vez.
+ * Com roteamento de datasource, cada banco é fechado em sequência.
+ */
+@Service
+public class FechamentoAutomaticoService {
+
+    private static final Logger logger = LoggerFactory.getLogger(FechamentoAutomaticoService.class);
+
+    private static final String NOME_TRAVA = "boxpro.fechamento_automatico";
+
+    @Autowired
+    private AgendamentoJdbcRepository agendamentoJdbcRepository;
+
+    @Autowired
+    private AgendamentoStatusLoteService statusLoteService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private BancosEmpresa bancos;
+
+    @Value("${app.fechamento.habilitado:true}")
+    private boolean habilitado;
+
+    @Value("${app.fechamento.dias-em-andamento:1}")
+    private int diasEmAndamento;
+
+    @Value("${app.fechamento.tamanho-lote:200}")
+    private int tamanhoLote;
+
+    @Value("${app.fechamento.pausa-ms:200}")
+    private long pausaMs;
+
+    @Value("${app.fechamento.pico-inicio:08:00}")
+    private String picoInicio;
+
+    @Value("${app.fechamento.pico-fim:19:00}")
+    private String picoFim;
+
+    @Value("${app.fechamento.lotes-no-pico:1}")
+    private int lotesNoPico;
+
+    // Sem valor o histórico registra o fechamento como ação do sistema (funcionário nulo)
+    @Value("${app.fechamento.funcionario-id:#{null}}")
+    private Integer funcionarioId;
+
+    private final AtomicBoolean executando = new AtomicBoolean();
+
+    public record Resultado(int naoCompareceu, int concluidos) {}
+
+    @Scheduled(fixedDelayString = "${app.fechamento.intervalo-ms:900000}",
+               initialDelayString = "${app.fechamento.atraso-inicial-ms:120000}")
+    public void fecharAgendado() {
+        if (habilitado) {
+            fechar();
+        }
+    }
+
+    public Resultado fechar() {
+        if (!executando.compareAndSet(false, true)) {
+            logger.info("Fechamento automático já em execução, ignorando");
+            return new Resultado(0, 0);
+        }
+        try {
+            int naoCompareceu = 0;
+            int concluidos = 0;
+            for (Long banco : bancos.bancos()) {
+                Resultado resultado = bancos.noBanco(banco, this::fecharBanco);
+                if (resultado != null) {
+                    naoCompareceu += resultado.naoCompareceu();
+                    concluidos += resultado.concluidos();
+                }
+            }
+            if (naoCompareceu + concluidos > 0) {
+                logger.info("🧹 Fechamento automático: {} sem comparecimento, {} concluídos", naoCompareceu, concluidos);
+            }
+            return new Resultado(naoCompareceu, concluidos);
+        } finally {
+            executando.set(false);
+        }
+    }
+
+    private Resultado fecharBanco() {
+        // A trava fica presa à conexão: ela é mantida até o fim da execução
+        return jdbcTemplate.execute((ConnectionCallback<Resultado>) conexao -> {
+            if (!travar(conexao)) {
+                logger.info("Fechamento automático em execução em outro nó, ignorando");
+                return new Resultado(0, 0);
+            }
+            try {
+                return executar();
+            } finally {
+                liberar(conexao);
+            }
+        });
+    }
+
+    private Resultado executar() {
+        LocalDate hoje = LocalDate.now();
+        int maxLotes = emHorarioDePico() ? lotesNoPico : Integer.MAX_VALUE;
+
+        int naoCompareceu = processar(StatusAgendamento.AGENDADO, StatusAgendamento.NAO_COMPARECEU, hoje,
+                new Orcamento(maxLotes));
+        int concluidos = processar(StatusAgendamento.EM_ANDAMENTO, StatusAgendamento.CONCLUIDO,
+                hoje.minusDays(diasEmAndamento), new Orcamento(maxLotes));
+        return new Resultado(naoCompareceu, concluidos);
+    }
+
+    private int processar(StatusAgendamento status, StatusAgendamento novoStatus, LocalDate antesDe,
+                          Orcamento orcamento) {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        int total = 0;
+
+        while (orcamento.consumir()) {
+            StatusLoteResponse resposta = tx.execute(s -> {
+                List<Integer> ids = agendamentoJdbcRepository.buscarIdsPorStatusAntesDe(status, antesDe, tamanhoLote);
+                if (ids.isEmpty()) {
+                    return null;
+                }
+                List<StatusLoteRequest.Transicao> transicoes = new ArrayList<>(ids.size());
+                for (Integer id : ids) {
+                    transicoes.add(new StatusLoteRequest.Transicao(id, status.getValor(), novoStatus.getValor(), null));
+                }
+                return statusLoteService.aplicar(transicoes, funcionarioId);
+            });
+            if (resposta == null) {
+                break;
+            }
+            total += resposta.atualizados();
+            if (resposta.itens().size() < tamanhoLote) {
+                break;
+            }
+            pausar();
+        }
+        return total;
+    }
+
+    private boolean emHorarioDePico() {
+        LocalTime agora = LocalTime.now();
+        return !agora.isBefore(LocalTime.parse(picoInicio)) && agora.isBefore(LocalTime.parse(picoFim));
+    }
+
+    private boolean travar(Connection conexao) throws SQLException {
+        try (PreparedStatement ps = conexao.prepareStatement("SELECT GET_LOCK(?, 0)")) {
+            ps.setString(1, NOME_TRAVA);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() && rs.getInt(1) == 1;
+            }
+        }
+    }
+
+    private void liberar(Connection conexao) throws SQLException {
+        try (PreparedStatement ps = conexao.prepareStatement("SELECT RELEASE_LOCK(?)")) {
+            ps.setString(1, NOME_TRAVA);
+            ps.execute();
+        }
+    }
+
+    private void pausar() {
+        try {
+            Thread.sleep(pausaMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Quantidade de lotes que uma passada ainda pode rodar nesta execução.
+     */
+    private static final class Orcamento {
+        private int restantes;
+
+        Orcamento(int restantes) {
+            this.restantes = restantes;
+        }
+
+        boolean consumir() {
+            if (restantes <= 0) {
+                return false;
+            }
+            restantes--;
+            return true;
+        }
+    }
+}
@@ -27,6 +27,9 @@ public class FuncionarioService {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private AtribuicaoFuncionarioService atribuicaoService;
+
     @PostConstruct
     public void init() {
         System.out.println("✅ FuncionarioService carregado!");
@@ -75,7 +78,9 @@ public class FuncionarioService {
             funcionario.setTipoFuncionario(TipoFuncionario.FUNCIONARIO);
         }
 
-        return funcionarioRepository.save(funcionario);
+        Funcionario salvo = funcionarioRepository.save(funcionario);
+        atribuicaoService.invalidarFuncionarios();
+        return salvo;
     }
 
     public List<Funcionario> listarFuncionariosAtivos() {
@@ -168,7 +173,9 @@ public class FuncionarioService {
             }
         }
 
-        return funcionarioRepository.save(existente);
+        Funcionario salvo = funcionarioRepository.save(existente);
+        atribuicaoService.invalidarFuncionarios();
+        return salvo;
     }
 
     public void desativarFuncionario(Integer id) {
@@ -177,6 +184,7 @@ public class FuncionarioService {
             Funcionario f = funcionario.get();
             f.setAtivo(false);
             funcionarioRepository.save(f);
+            atribuicaoService.invalidarFuncionarios();
         } else {
             throw new IllegalArgumentException("Funcionário não encontrado");
         }
@@ -188,6 +196,7 @@ public class FuncionarioService {
             Funcionario f = funcionario.get();
             f.setBloqueado(true);
             funcionarioRepository.save(f);
+            atribuicaoService.invalidarFuncionarios();
         } else {
             throw new IllegalArgumentException("Funcionário não encontrado");
         }
@@ -200,6 +209,7 @@ public class FuncionarioService {
             f.setBloqueado(false);
             f.resetarTentativasLogin();
             funcionarioRepository.save(f);
+            atribuicaoService.invalidarFuncionarios();
         } else {
             throw new IllegalArgumentException("Funcionário não encontrado");
         }
@@ -215,6 +225,7 @@ public class FuncionarioService {
             // Bloquear após 5 tentativas falhadas
             if (f.getTentativasLogin() >= 5) {
                 f.setBloqueado(true);
+                atribuicaoService.invalidarFuncionarios();
             }
             
             funcionarioRepository.save(f);
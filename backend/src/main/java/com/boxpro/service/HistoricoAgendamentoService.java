@@ -9,7 +9,9 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import jakarta.annotation.PostConstruct;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
@@ -19,6 +21,9 @@ public class HistoricoAgendamentoService {
     @Autowired
     private HistoricoAgendamentoRepository historicoRepository;
 
+    @Autowired
+    private ArquivamentoService arquivamentoService;
+
     @PostConstruct
     public void init() {
         System.out.println("✅ HistoricoAgendamentoService carregado!");
@@ -38,16 +43,30 @@ public class HistoricoAgendamentoService {
         return historicoRepository.findById(id);
     }
 
+    // Buscas incluem o histórico dos agendamentos já arquivados
     public List<HistoricoAgendamento> buscarPorAgendamentoId(Integer agendamentoId) {
-        return historicoRepository.findByAgendamento_IdOrderByDataAcaoDesc(agendamentoId);
+        return arquivamentoService.complementarHistoricoPorAgendamento(
+                historicoRepository.findByAgendamento_IdOrderByDataAcaoDesc(agendamentoId), agendamentoId);
     }
 
     public List<HistoricoAgendamento> buscarPorFuncionarioId(Integer funcionarioId) {
-        return historicoRepository.findByFuncionarioIdOrderByDataAcaoDesc(funcionarioId);
+        return arquivamentoService.complementarHistoricoPorFuncionario(
+                historicoRepository.findByFuncionarioIdOrderByDataAcaoDesc(funcionarioId), funcionarioId);
     }
 
     public List<HistoricoAgendamento> buscarPorAcao(String acao) {
-        return historicoRepository.findByAcaoOrderByDataAcaoDesc(acao);
+        return arquivamentoService.complementarHistoricoPorAcao(
+                historicoRepository.findByAcaoOrderByDataAcaoDesc(acao), acao);
+    }
+
+    // Contagem por ação somando ativos e arquivados
+    public Map<String, Long> contarPorAcao() {
+        Map<String, Long> contagem = new HashMap<>();
+        for (Object[] linha : historicoRepository.countPorAcao()) {
+            contagem.put((String) linha[0], (Long) linha[1]);
+        }
+        arquivamentoService.contarHistoricoArquivadoPorAcao().forEach((acao, total) -> contagem.merge(acao, total, Long::sum));
+        return contagem;
     }
 
     public HistoricoAgendamento criarHistorico(HistoricoAgendamento historico) {
@@ -0,0 +1,226 @@
+package com.boxpro.service;
+
+import com.boxpro.entity.enums.AcaoHistorico;
+import com.boxpro.historico.HistoricoCompacto;
+import com.boxpro.multiempresa.BancosEmpresa;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Retenção e compactação de historico_agendamentos.
+ *
+ * 1. Converte registros antigos com texto em detalhes para o formato compacto
+ *    (só quando o texto remontado é idêntico ao original).
+ * 2. Registros ATUALIZADO mais antigos que a retenção são colapsados: fica
+ *    apenas o último de cada agendamento.
+ *
+ * O tamanho da tabela (dados + índices) é medido antes e depois. Com
+ * roteamento de datasource, cada banco é compactado em sequência e o
+ * resultado é a soma.
+ */
+@Service
+public class HistoricoCompactacaoService {
+
+    private static final Logger logger = LoggerFactory.getLogger(HistoricoCompactacaoService.class);
+
+    private static final Pattern CRIADO = Pattern.compile("^Agendamento criado para (\\S+) às (\\S+)$");
+    private static final Pattern STATUS_ALTERADO = Pattern.compile(
+            "^Status alterado de '(.*?)' para '(.*?)'(?:\\. Motivo: (.*))?$", Pattern.DOTALL);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private BancosEmpresa bancos;
+
+    @Value("${app.historico.compactacao.habilitada:true}")
+    private boolean habilitada;
+
+    @Value("${app.historico.compactacao.retencao-dias:90}")
+    private int retencaoDias;
+
+    @Value("${app.historico.compactacao.tamanho-lote:1000}")
+    private int tamanhoLote;
+
+    @Value("${app.historico.compactacao.otimizar-tabela:false}")
+    private boolean otimizarTabela;
+
+    private final AtomicBoolean executando = new AtomicBoolean();
+
+    public record Resultado(int convertidos, int removidos, long bytesAntes, long bytesDepois) {}
+
+    @Scheduled(cron = "${app.historico.compactacao.cron:0 30 4 * * SUN}")
+    public void compactarAgendado() {
+        if (habilitada) {
+            compactar();
+        }
+    }
+
+    public Resultado compactar() {
+        if (!executando.compareAndSet(false, true)) {
+            throw new IllegalStateException("Compactação do histórico já em execução");
+        }
+        try {
+            LocalDateTime limite = LocalDateTime.now().minusDays(retencaoDias);
+            long antes = 0;
+            long depois = 0;
+            int convertidos = 0;
+            int removidos = 0;
+            for (Long banco : bancos.bancos()) {
+                Resultado parcial = bancos.noBanco(banco, () -> compactarBanco(limite));
+                antes += parcial.bytesAntes();
+                depois += parcial.bytesDepois();
+                convertidos += parcial.convertidos();
+                removidos += parcial.removidos();
+            }
+
+            logger.info("🗜️ Histórico compactado: {} convertidos, {} removidos, {} -> {} bytes ({}%)",
+                    convertidos, removidos, antes, depois,
+                    antes > 0 ? Math.round((antes - depois) * 100.0 / antes) : 0);
+            return new Resultado(convertidos, removidos, antes, depois);
+        } finally {
+            executando.set(false);
+        }
+    }
+
+    private Resultado compactarBanco(LocalDateTime limite) {
+        long antes = tamanhoTabela();
+        int convertidos = converterLegados();
+        int removidos = colapsarAtualizacoes(limite);
+
+        // Remoções só liberam espaço em disco quando a tabela é reconstruída
+        if (otimizarTabela) {
+            jdbcTemplate.execute("OPTIMIZE TABLE historico_agendamentos");
+        }
+        return new Resultado(convertidos, removidos, antes, tamanhoTabela());
+    }
+
+    private int converterLegados() {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        long ultimoId = 0;
+        int convertidos = 0;
+
+        while (true) {
+            List<Legado> lote = jdbcTemplate.query(
+                    "SELECT id, acao, detalhes FROM historico_agendamentos WHERE id > ? AND detalhes IS NOT NULL " +
+                    "AND acao IN ('CRIADO', 'ATUALIZADO', 'STATUS_ALTERADO') ORDER BY id LIMIT ?",
+                    (rs, rowNum) -> new Legado(rs.getLong("id"), rs.getString("acao"), rs.getString("detalhes")),
+                    ultimoId, tamanhoLote);
+            if (lote.isEmpty()) {
+                return convertidos;
+            }
+            ultimoId = lote.get(lote.size() - 1).id();
+
+            List<Conversao> conversoes = new ArrayList<>(lote.size());
+            for (Legado legado : lote) {
+                HistoricoCompacto.Registro registro = converter(legado);
+                if (registro != null) {
+                    conversoes.add(new Conversao(legado.id(), registro));
+                }
+            }
+            if (!conversoes.isEmpty()) {
+                tx.executeWithoutResult(status -> jdbcTemplate.batchUpdate(
+                        "UPDATE historico_agendamentos SET detalhes = NULL, status_anterior = ?, status_novo = ?, " +
+                        "payload = ? WHERE id = ?",
+                        conversoes, conversoes.size(), (ps, c) -> {
+                            ps.setObject(1, c.registro().statusAnterior(), Types.TINYINT);
+                            ps.setObject(2, c.registro().statusNovo(), Types.TINYINT);
+                            ps.setBytes(3, c.registro().payload());
+                            ps.setLong(4, c.id());
+                        }));
+                convertidos += conversoes.size();
+            }
+        }
+    }
+
+    private HistoricoCompacto.Registro converter(Legado legado) {
+        HistoricoCompacto.Registro registro = null;
+        if (AcaoHistorico.ATUALIZADO.name().equals(legado.acao())) {
+            registro = HistoricoCompacto.atualizacao();
+        } else if (AcaoHistorico.CRIADO.name().equals(legado.acao())) {
+            Matcher m = CRIADO.matcher(legado.detalhes());
+            if (m.matches()) {
+                try {
+                    registro = HistoricoCompacto.criacao(LocalDate.parse(m.group(1)), LocalTime.parse(m.group(2)));
+                } catch (DateTimeParseException e) {
+                    return null;
+                }
+            }
+        } else {
+            Matcher m = STATUS_ALTERADO.matcher(legado.detalhes());
+            if (m.matches()) {
+                registro = HistoricoCompacto.mudancaStatus(m.group(1), m.group(2), m.group(3));
+            }
+        }
+
+        // Só converte se nada se perde: o texto remontado tem que ser igual ao gravado
+        if (registro == null || registro.detalhes() != null) {
+            return null;
+        }
+        String remontado = HistoricoCompacto.renderizar(
+                registro.acao(), registro.statusAnterior(), registro.statusNovo(), registro.payload());
+        return Objects.equals(remontado, legado.detalhes()) ? registro : null;
+    }
+
+    private int colapsarAtualizacoes(LocalDateTime limite) {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        long ultimoId = 0;
+        int removidos = 0;
+
+        while (true) {
+            List<Long> ids = jdbcTemplate.queryForList(
+                    "SELECT h.id FROM historico_agendamentos h WHERE h.id > ? AND h.acao = 'ATUALIZADO' " +
+                    "AND h.data_acao < ? AND EXISTS (SELECT 1 FROM historico_agendamentos p " +
+                    "WHERE p.agendamento_id = h.agendamento_id AND p.acao = 'ATUALIZADO' AND p.id > h.id) " +
+                    "ORDER BY h.id LIMIT ?",
+                    Long.class, ultimoId, limite, tamanhoLote);
+            if (ids.isEmpty()) {
+                return removidos;
+            }
+            ultimoId = ids.get(ids.size() - 1);
+            Integer apagados = tx.execute(status -> namedJdbcTemplate.update(
+                    "DELETE FROM historico_agendamentos WHERE id IN (:ids)", new MapSqlParameterSource("ids", ids)));
+            removidos += apagados != null ? apagados : 0;
+        }
+    }
+
+    private long tamanhoTabela() {
+        // Atualiza as estatísticas usadas por information_schema.tables
+        jdbcTemplate.execute("ANALYZE TABLE historico_agendamentos");
+        Long bytes = jdbcTemplate.queryForObject(
+                "SELECT COALESCE(data_length + index_length, 0) FROM information_schema.tables " +
+                "WHERE table_schema = DATABASE() AND table_name = 'historico_agendamentos'", Long.class);
+        return bytes != null ? bytes : 0;
+    }
+
+    private record Legado(long id, String acao, String detalhes) {}
+
+    private record Conversao(long id, HistoricoCompacto.Registro registro) {}
+}
@@ -0,0 +1,86 @@
+package com.boxpro.service;
+
+import com.boxpro.multiempresa.BancosEmpresa;
+import com.boxpro.multiempresa.EmpresaContexto;
+import com.boxpro.repository.AgendamentoArquivoRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Ao ligar o modo multiempresa, atribui à empresa padrão os registros
+ * criados antes dele (empresa_id nulo). Roda na inicialização, depois do
+ * ddl-auto, em lotes e só sobre linhas sem empresa. Se algum agendamento
+ * mudou de empresa, o resumo diário (que os contava em empresa_id = 0) é
+ * descartado para ser refeito. Num banco dedicado do roteamento, as linhas
+ * sem empresa vão para a empresa dona do banco.
+ */
+@Service
+@DependsOn("entityManagerFactory")
+@ConditionalOnProperty(name = "app.multiempresa.habilitado", havingValue = "true")
+public class MigracaoMultiEmpresaService {
+
+    private static final Logger logger = LoggerFactory.getLogger(MigracaoMultiEmpresaService.class);
+
+    private static final List<String> TABELAS = List.of(
+            AgendamentoArquivoRepository.AGENDAMENTOS,
+            AgendamentoArquivoRepository.AGENDAMENTOS_ARQUIVO,
+            "servicos",
+            "funcionarios");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private AgendamentoArquivoRepository arquivoRepository;
+
+    @Autowired
+    private ResumoDiarioService resumoDiarioService;
+
+    @Autowired
+    private BancosEmpresa bancos;
+
+    @Value("${app.multiempresa.empresa-padrao:1}")
+    private Long empresaPadrao;
+
+    @Value("${app.agendamento.migracao-status.tamanho-lote:5000}")
+    private int tamanhoLote;
+
+    @PostConstruct
+    public void migrar() {
+        bancos.paraCadaBanco(banco -> migrarBanco(banco == EmpresaContexto.SEM_EMPRESA ? empresaPadrao : banco));
+    }
+
+    private void migrarBanco(Long empresaId) {
+        // Garante empresa_id também na tabela de arquivo
+        arquivoRepository.prepararTabelas();
+
+        boolean agendamentosMigrados = false;
+        for (String tabela : TABELAS) {
+            String sql = "UPDATE " + tabela + " SET empresa_id = ? WHERE empresa_id IS NULL LIMIT ?";
+            int total = 0;
+            int atualizados;
+            do {
+                atualizados = jdbcTemplate.update(sql, empresaId, tamanhoLote);
+                total += atualizados;
+            } while (atualizados == tamanhoLote);
+
+            if (total > 0) {
+                logger.info("🏢 {} linhas de {} atribuídas à empresa {}", total, tabela, empresaId);
+                agendamentosMigrados |= tabela.startsWith(AgendamentoArquivoRepository.AGENDAMENTOS);
+            }
+        }
+
+        if (agendamentosMigrados) {
+            resumoDiarioService.descartar();
+        }
+    }
+}
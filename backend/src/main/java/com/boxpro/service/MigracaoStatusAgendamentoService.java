@@ -0,0 +1,213 @@
+package com.boxpro.service;
+
+import com.boxpro.entity.enums.StatusAgendamento;
+import com.boxpro.multiempresa.BancosEmpresa;
+import com.boxpro.repository.AgendamentoArquivoRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Migração do status textual (agendamentos.status VARCHAR) para o código
+ * TINYINT em status_codigo, nas tabelas ativa e de arquivo.
+ *
+ * Roda na inicialização, depois do ddl-auto (depende do entityManagerFactory)
+ * e antes do servidor web aceitar requisições. Só toca linhas com
+ * status_codigo nulo, em lotes, então pode rodar sempre, em cada banco do
+ * roteamento de datasource.
+ *
+ * Durante o deploy gradual nós antigos ainda gravam só a coluna textual e
+ * leem só ela. Enquanto app.agendamento.migracao-status.compatibilidade
+ * estiver ligada, triggers mantêm as duas colunas em sincronia nos dois
+ * sentidos, o preenchimento roda também periodicamente (rede de segurança
+ * caso o usuário do banco não possa criar triggers) e o índice antigo é
+ * mantido. Com todos os nós nesta versão, desligar a compatibilidade remove
+ * triggers e índice antigo; a coluna pode então ser apagada.
+ */
+@Service
+@DependsOn("entityManagerFactory")
+public class MigracaoStatusAgendamentoService {
+
+    private static final Logger logger = LoggerFactory.getLogger(MigracaoStatusAgendamentoService.class);
+
+    // Índice da coluna textual, substituído por idx_agendamentos_status_codigo_data
+    private static final String INDICE_ANTIGO = "idx_agendamentos_status_data";
+
+    private static final List<String> TABELAS = List.of(AgendamentoArquivoRepository.AGENDAMENTOS,
+                                                        AgendamentoArquivoRepository.AGENDAMENTOS_ARQUIVO);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private AgendamentoArquivoRepository arquivoRepository;
+
+    @Autowired
+    private BancosEmpresa bancos;
+
+    @Value("${app.agendamento.migracao-status.tamanho-lote:5000}")
+    private int tamanhoLote;
+
+    @Value("${app.agendamento.migracao-status.compatibilidade:true}")
+    private boolean compatibilidade;
+
+    @PostConstruct
+    public void migrar() {
+        bancos.paraCadaBanco(banco -> migrarBanco());
+    }
+
+    // Linhas gravadas por nós antigos sem trigger ganham código aqui
+    @Scheduled(fixedDelayString = "${app.agendamento.migracao-status.intervalo-ms:60000}",
+               initialDelayString = "${app.agendamento.migracao-status.intervalo-ms:60000}")
+    public void sincronizar() {
+        if (!compatibilidade) {
+            return;
+        }
+        bancos.paraCadaBanco(banco -> {
+            for (String tabela : TABELAS) {
+                if (possuiColuna(tabela, "status")) {
+                    preencherCodigos(tabela);
+                }
+            }
+        });
+    }
+
+    private void migrarBanco() {
+        // Garante status_codigo também na tabela de arquivo
+        arquivoRepository.prepararTabelas();
+
+        for (String tabela : TABELAS) {
+            boolean legado = possuiColuna(tabela, "status");
+            if (legado && compatibilidade) {
+                criarTriggers(tabela);
+            } else {
+                removerTriggers(tabela);
+            }
+            if (legado) {
+                preencherCodigos(tabela);
+                Integer semCodigo = jdbcTemplate.queryForObject(
+                        "SELECT COUNT(*) FROM " + tabela + " WHERE status_codigo IS NULL", Integer.class);
+                if (semCodigo != null && semCodigo > 0) {
+                    logger.warn("⚠️ {} linhas em {} com status desconhecido ficaram sem código", semCodigo, tabela);
+                }
+            }
+            if (!compatibilidade && possuiIndice(tabela, INDICE_ANTIGO)) {
+                jdbcTemplate.execute("DROP INDEX " + INDICE_ANTIGO + " ON " + tabela);
+            }
+        }
+    }
+
+    private void preencherCodigos(String tabela) {
+        String sql = "UPDATE " + tabela + " SET status_codigo = " + codigoDoTexto("status") +
+                " WHERE status_codigo IS NULL AND status IN (" + valores() + ") LIMIT ?";
+        int total = 0;
+        int atualizados;
+        do {
+            atualizados = jdbcTemplate.update(sql, tamanhoLote);
+            total += atualizados;
+        } while (atualizados == tamanhoLote);
+
+        if (total > 0) {
+            logger.info("Status migrado para código em {}: {} linhas", tabela, total);
+        }
+    }
+
+    /*
+     * Na inserção vale a coluna preenchida (nó antigo: status; nó novo:
+     * status_codigo); na atualização, a coluna que mudou.
+     */
+    private void criarTriggers(String tabela) {
+        String codigo = codigoDoTexto("NEW.status");
+        String texto = textoDoCodigo("NEW.status_codigo");
+        criarTrigger(tabela, trigger(tabela, "ins"), "BEFORE INSERT",
+                "IF NEW.status_codigo IS NULL THEN SET NEW.status_codigo = " + codigo + "; " +
+                "ELSE SET NEW.status = " + texto + "; END IF;");
+        criarTrigger(tabela, trigger(tabela, "upd"), "BEFORE UPDATE",
+                "IF NOT (NEW.status_codigo <=> OLD.status_codigo) THEN SET NEW.status = " + texto + "; " +
+                "ELSEIF NOT (NEW.status <=> OLD.status) THEN SET NEW.status_codigo = " + codigo + "; END IF;");
+    }
+
+    private void criarTrigger(String tabela, String nome, String momento, String corpo) {
+        if (possuiTrigger(nome)) {
+            return;
+        }
+        try {
+            jdbcTemplate.execute("CREATE TRIGGER " + nome + " " + momento + " ON " + tabela +
+                    " FOR EACH ROW BEGIN " + corpo + " END");
+            logger.info("Trigger {} criada para manter status e status_codigo em sincronia", nome);
+        } catch (DataAccessException e) {
+            // Sem privilégio (ex.: binlog sem log_bin_trust_function_creators) sobra o preenchimento periódico
+            logger.error("❌ Não foi possível criar a trigger {}: nós antigos não verão status novos até a atualização",
+                    nome, e);
+        }
+    }
+
+    private void removerTriggers(String tabela) {
+        for (String sufixo : List.of("ins", "upd")) {
+            String nome = trigger(tabela, sufixo);
+            if (possuiTrigger(nome)) {
+                jdbcTemplate.execute("DROP TRIGGER " + nome);
+            }
+        }
+    }
+
+    private static String trigger(String tabela, String sufixo) {
+        return "trg_" + tabela + "_status_" + sufixo;
+    }
+
+    private static String codigoDoTexto(String coluna) {
+        StringBuilder caso = new StringBuilder("CASE ").append(coluna);
+        for (StatusAgendamento status : StatusAgendamento.values()) {
+            caso.append(" WHEN '").append(status.getValor()).append("' THEN ").append(status.getCodigo());
+        }
+        return caso.append(" END").toString();
+    }
+
+    private static String textoDoCodigo(String coluna) {
+        StringBuilder caso = new StringBuilder("CASE ").append(coluna);
+        for (StatusAgendamento status : StatusAgendamento.values()) {
+            caso.append(" WHEN ").append(status.getCodigo()).append(" THEN '").append(status.getValor()).append('\'');
+        }
+        return caso.append(" END").toString();
+    }
+
+    private static String valores() {
+        StringBuilder valores = new StringBuilder();
+        for (StatusAgendamento status : StatusAgendamento.values()) {
+            valores.append(valores.length() > 0 ? ", " : "").append('\'').append(status.getValor()).append('\'');
+        }
+        return valores.toString();
+    }
+
+    private boolean possuiTrigger(String nome) {
+        Integer existe = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM information_schema.triggers WHERE trigger_schema = DATABASE() AND trigger_name = ?",
+                Integer.class, nome);
+        return existe != null && existe > 0;
+    }
+
+    private boolean possuiColuna(String tabela, String coluna) {
+        Integer existe = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM information_schema.columns " +
+                "WHERE table_schema = DATABASE() AND table_name = ? AND column_name = ?",
+                Integer.class, tabela, coluna);
+        return existe != null && existe > 0;
+    }
+
+    private boolean possuiIndice(String tabela, String indice) {
+        Integer existe = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM information_schema.statistics " +
+                "WHERE table_schema = DATABASE() AND table_name = ? AND index_name = ?",
+                Integer.class, tabela, indice);
+        return existe != null && existe > 0;
+    }
+}
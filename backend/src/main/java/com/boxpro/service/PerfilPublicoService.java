@@ -0,0 +1,90 @@
+package com.boxpro.service;
+
+import com.boxpro.cache.VersaoColecoes;
+import com.boxpro.config.EscritoresJson;
+import com.boxpro.dto.response.EmpresaResponseDTO;
+import com.boxpro.dto.response.PerfilPublicoResponse;
+import com.boxpro.exception.ResourceNotFoundException;
+import com.boxpro.multiempresa.EmpresaContexto;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Perfil público da empresa (dados, horários e contatos ativos) mantido já
+ * serializado em memória. O JSON só é remontado quando a versão de alguma
+ * das três coleções muda, ou seja, depois de uma escrita confirmada em
+ * EmpresaService, EmpresaHorariosService ou EmpresaContatosService. No modo
+ * multiempresa cada empresa tem o seu.
+ */
+@Service
+public class PerfilPublicoService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PerfilPublicoService.class);
+
+    private static final String[] COLECOES = {
+            VersaoColecoes.EMPRESA, VersaoColecoes.EMPRESA_HORARIOS, VersaoColecoes.EMPRESA_CONTATOS
+    };
+
+    @Autowired
+    private EmpresaService empresaService;
+
+    @Autowired
+    private EmpresaHorariosService horariosService;
+
+    @Autowired
+    private EmpresaContatosService contatosService;
+
+    @Autowired
+    private VersaoColecoes versaoColecoes;
+
+    @Autowired
+    private EscritoresJson escritoresJson;
+
+    private final ConcurrentHashMap<Long, Snapshot> snapshots = new ConcurrentHashMap<>();
+
+    /**
+     * JSON pronto e ETag. json é null quando não há empresa cadastrada.
+     */
+    public record Snapshot(String etag, byte[] json) {}
+
+    public String etagAtual() {
+        return versaoColecoes.etagComposto("perfil-publico", COLECOES);
+    }
+
+    public Snapshot obter() {
+        String etag = etagAtual();
+        Long empresa = EmpresaContexto.chave();
+        Snapshot atual = snapshots.get(empresa);
+        if (atual != null && atual.etag().equals(etag)) {
+            return atual;
+        }
+        synchronized (this) {
+            atual = snapshots.get(empresa);
+            if (atual == null || !atual.etag().equals(etag)) {
+                // A versão é lida antes dos dados: uma escrita concorrente só adianta o conteúdo
+                atual = new Snapshot(etag, montar());
+                snapshots.put(empresa, atual);
+                logger.debug("Perfil público remontado ({})", etag);
+            }
+            return atual;
+        }
+    }
+
+    private byte[] montar() {
+        EmpresaResponseDTO empresa;
+        try {
+            empresa = empresaService.getEmpresa();
+        } catch (ResourceNotFoundException e) {
+            return null;
+        }
+        PerfilPublicoResponse perfil = new PerfilPublicoResponse(
+                empresa,
+                horariosService.getHorariosByEmpresa(empresa.getId()),
+                contatosService.getContatosByEmpresa(empresa.getId()));
+        return escritoresJson.serializar(perfil);
+    }
+}
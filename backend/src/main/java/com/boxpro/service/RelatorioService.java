@@ -0,0 +1,70 @@
+package com.boxpro.service;
+
+import com.boxpro.dto.response.ResumoAgendamentosResponse;
+import com.boxpro.multiempresa.EmpresaContexto;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Relatórios financeiros e de volume. Lê apenas agendamento_resumo_diario,
+ * então o custo depende do número de dias do intervalo e não do volume
+ * de agendamentos. Cada consulta fica na empresa da requisição.
+ */
+@Service
+@Transactional(readOnly = true)
+public class RelatorioService {
+
+    private enum Agrupamento {
+        DIA("DATE_FORMAT(data, '%Y-%m-%d')"),
+        MES("DATE_FORMAT(data, '%Y-%m')"),
+        SERVICO("CAST(servico_id AS CHAR)"),
+        FUNCIONARIO("CAST(funcionario_id AS CHAR)");
+
+        private final String expressao;
+
+        Agrupamento(String expressao) {
+            this.expressao = expressao;
+        }
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    public List<ResumoAgendamentosResponse> porDia(LocalDate dataInicio, LocalDate dataFim) {
+        return consultar(Agrupamento.DIA, dataInicio, dataFim);
+    }
+
+    public List<ResumoAgendamentosResponse> porMes(int ano) {
+        return consultar(Agrupamento.MES, LocalDate.of(ano, 1, 1), LocalDate.of(ano, 12, 31));
+    }
+
+    public List<ResumoAgendamentosResponse> porServico(LocalDate dataInicio, LocalDate dataFim) {
+        return consultar(Agrupamento.SERVICO, dataInicio, dataFim);
+    }
+
+    public List<ResumoAgendamentosResponse> porFuncionario(LocalDate dataInicio, LocalDate dataFim) {
+        return consultar(Agrupamento.FUNCIONARIO, dataInicio, dataFim);
+    }
+
+    private List<ResumoAgendamentosResponse> consultar(Agrupamento agrupamento, LocalDate dataInicio, LocalDate dataFim) {
+        if (dataInicio.isAfter(dataFim)) {
+            throw new IllegalArgumentException("Data inicial deve ser anterior à data final");
+        }
+        String sql = "SELECT " + agrupamento.expressao + " AS grupo, status, SUM(quantidade) AS quantidade, " +
+                "SUM(valor_total) AS valor_total, SUM(taxa_cancelamento) AS taxa_cancelamento " +
+                "FROM agendamento_resumo_diario WHERE empresa_id = ? AND data BETWEEN ? AND ? " +
+                "GROUP BY grupo, status HAVING SUM(quantidade) <> 0 ORDER BY grupo, status";
+
+        return jdbcTemplate.query(sql, (rs, rowNum) -> new ResumoAgendamentosResponse(
+                rs.getString("grupo"),
+                rs.getString("status"),
+                rs.getLong("quantidade"),
+                rs.getBigDecimal("valor_total"),
+                rs.getBigDecimal("taxa_cancelamento")), EmpresaContexto.chave(), dataInicio, dataFim);
+    }
+}
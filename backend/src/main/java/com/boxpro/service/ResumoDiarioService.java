@@ -0,0 +1,288 @@
+package com.boxpro.service;
+
+import com.boxpro.entity.Agendamento;
+import com.boxpro.entity.enums.StatusAgendamento;
+import com.boxpro.multiempresa.BancosEmpresa;
+import com.boxpro.multiempresa.EmpresaContexto;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Mantém a tabela agendamento_resumo_diario.
+ *
+ * Cada escrita em agendamentos informa a contribuição anterior e a nova do
+ * registro; a diferença vira um upsert (INSERT ... ON DUPLICATE KEY UPDATE)
+ * na mesma transação. A reconstrução recalcula um intervalo de datas a
+ * partir de agendamentos e corrige qualquer divergência, de todas as
+ * empresas. As linhas são separadas por empresa_id (0 fora do modo
+ * multiempresa). As tarefas de inicialização e a reconstrução periódica
+ * passam por todos os bancos do roteamento de datasource.
+ */
+@Service
+@DependsOn("entityManagerFactory")
+@Transactional
+public class ResumoDiarioService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ResumoDiarioService.class);
+
+    private static final String UPSERT =
+            "INSERT INTO agendamento_resumo_diario " +
+            "(empresa_id, data, servico_id, funcionario_id, status, quantidade, valor_total, taxa_cancelamento) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE quantidade = quantidade + VALUES(quantidade), " +
+            "valor_total = valor_total + VALUES(valor_total), " +
+            "taxa_cancelamento = taxa_cancelamento + VALUES(taxa_cancelamento)";
+
+    private static final String RECONSTRUIR =
+            "INSERT INTO agendamento_resumo_diario " +
+            "(empresa_id, data, servico_id, funcionario_id, status, quantidade, valor_total, taxa_cancelamento) " +
+            "SELECT COALESCE(empresa_id, 0), data_agendamento, servico_id, COALESCE(funcionario_responsavel_id, 0), " +
+            valorDoStatus("status_codigo") + ", COUNT(*), " +
+            "COALESCE(SUM(valor_total), 0), COALESCE(SUM(taxa_cancelamento), 0) " +
+            "FROM (" +
+            "SELECT empresa_id, data_agendamento, servico_id, funcionario_responsavel_id, status_codigo, valor_total, taxa_cancelamento " +
+            "FROM agendamentos WHERE data_agendamento BETWEEN ? AND ? " +
+            "UNION ALL " +
+            "SELECT empresa_id, data_agendamento, servico_id, funcionario_responsavel_id, status_codigo, valor_total, taxa_cancelamento " +
+            "FROM agendamentos_arquivo WHERE data_agendamento BETWEEN ? AND ?" +
+            ") a WHERE status_codigo IS NOT NULL " +
+            "GROUP BY COALESCE(empresa_id, 0), data_agendamento, servico_id, COALESCE(funcionario_responsavel_id, 0), status_codigo";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private BancosEmpresa bancos;
+
+    @Value("${app.relatorios.resumo.dias-reconstrucao:7}")
+    private int diasReconstrucao;
+
+    /**
+     * Tabelas criadas antes de empresa_id fazer parte da chave: o ddl-auto
+     * acrescenta a coluna mas não troca a chave primária. Troca aqui e
+     * esvazia o resumo, que backfillInicial refaz separado por empresa.
+     */
+    @PostConstruct
+    public void prepararChave() {
+        bancos.paraCadaBanco(banco -> prepararChaveDoBanco());
+    }
+
+    private void prepararChaveDoBanco() {
+        List<String> chave = jdbcTemplate.queryForList(
+                "SELECT column_name FROM information_schema.key_column_usage " +
+                "WHERE table_schema = DATABASE() AND table_name = 'agendamento_resumo_diario' AND constraint_name = 'PRIMARY'",
+                String.class);
+        if (chave.isEmpty() || chave.stream().anyMatch("empresa_id"::equalsIgnoreCase)) {
+            return;
+        }
+        descartar();
+        jdbcTemplate.execute("ALTER TABLE agendamento_resumo_diario DROP PRIMARY KEY, " +
+                "ADD PRIMARY KEY (empresa_id, data, servico_id, funcionario_id, status)");
+        logger.info("Chave de agendamento_resumo_diario passou a incluir empresa_id; resumo será reconstruído");
+    }
+
+    /**
+     * Esvazia o resumo para ser refeito por completo no backfillInicial;
+     * usado quando empresa_id dos agendamentos muda fora das escritas normais.
+     */
+    public void descartar() {
+        jdbcTemplate.update("DELETE FROM agendamento_resumo_diario");
+    }
+
+    /**
+     * Aplica a troca de contribuição de um agendamento. antes é null na
+     * criação e depois é null na remoção.
+     */
+    public void registrar(Contribuicao antes, Contribuicao depois) {
+        Map<Contribuicao.Chave, Delta> deltas = new LinkedHashMap<>();
+        acumular(deltas, antes, -1);
+        acumular(deltas, depois, 1);
+        aplicar(deltas.values());
+    }
+
+    /**
+     * Várias trocas de contribuição aplicadas em um único batch; as listas
+     * são pareadas por posição.
+     */
+    public void registrarAlteracoes(List<Contribuicao> antes, List<Contribuicao> depois) {
+        Map<Contribuicao.Chave, Delta> deltas = new LinkedHashMap<>();
+        for (int i = 0; i < antes.size(); i++) {
+            acumular(deltas, antes.get(i), -1);
+            acumular(deltas, depois.get(i), 1);
+        }
+        aplicar(deltas.values());
+    }
+
+    public void registrarCriacoes(Collection<Agendamento> agendamentos) {
+        Map<Contribuicao.Chave, Delta> deltas = new LinkedHashMap<>();
+        for (Agendamento agendamento : agendamentos) {
+            acumular(deltas, Contribuicao.de(agendamento), 1);
+        }
+        aplicar(deltas.values());
+    }
+
+    /**
+     * Recalcula o resumo das datas informadas a partir de agendamentos e do arquivo.
+     */
+    public int reconstruir(LocalDate dataInicio, LocalDate dataFim) {
+        if (dataInicio.isAfter(dataFim)) {
+            throw new IllegalArgumentException("Data inicial deve ser anterior à data final");
+        }
+        jdbcTemplate.update("DELETE FROM agendamento_resumo_diario WHERE data BETWEEN ? AND ?", dataInicio, dataFim);
+        int linhas = jdbcTemplate.update(RECONSTRUIR, dataInicio, dataFim, dataInicio, dataFim);
+        logger.info("Resumo diário reconstruído de {} a {}: {} linhas", dataInicio, dataFim, linhas);
+        return linhas;
+    }
+
+    /**
+     * Primeira carga: se o resumo está vazio e já existem agendamentos,
+     * preenche com todo o histórico.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void backfillInicial() {
+        // A conexão é escolhida ao abrir a transação, então uma por banco
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        bancos.paraCadaBanco(banco -> tx.executeWithoutResult(s -> backfillDoBanco()));
+    }
+
+    private void backfillDoBanco() {
+        Integer resumos = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM (SELECT 1 FROM agendamento_resumo_diario LIMIT 1) r", Integer.class);
+        if (resumos != null && resumos > 0) {
+            return;
+        }
+        Map<String, Object> limites = jdbcTemplate.queryForMap(
+                "SELECT MIN(inicio) AS inicio, MAX(fim) AS fim FROM (" +
+                "SELECT MIN(data_agendamento) AS inicio, MAX(data_agendamento) AS fim FROM agendamentos " +
+                "UNION ALL " +
+                "SELECT MIN(data_agendamento), MAX(data_agendamento) FROM agendamentos_arquivo) t");
+        if (limites.get("inicio") == null) {
+            return;
+        }
+        reconstruir(toLocalDate(limites.get("inicio")), toLocalDate(limites.get("fim")));
+    }
+
+    /**
+     * Reconstrução periódica dos dias recentes, para corrigir desvios de
+     * escritas feitas fora da aplicação.
+     */
+    @Scheduled(cron = "${app.relatorios.resumo.reconstrucao-cron:0 30 3 * * *}")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void reconstruirRecentes() {
+        LocalDate hoje = LocalDate.now();
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        bancos.paraCadaBanco(banco -> tx.executeWithoutResult(
+                s -> reconstruir(hoje.minusDays(diasReconstrucao), hoje.plusDays(diasReconstrucao))));
+    }
+
+    private void acumular(Map<Contribuicao.Chave, Delta> deltas, Contribuicao contribuicao, int sinal) {
+        if (contribuicao == null || contribuicao.chave().status() == null) {
+            return;
+        }
+        deltas.computeIfAbsent(contribuicao.chave(), c -> new Delta(c))
+                .somar(sinal, contribuicao.valorTotal(), contribuicao.taxaCancelamento());
+    }
+
+    private void aplicar(Collection<Delta> deltas) {
+        List<Delta> efetivos = new ArrayList<>(deltas.size());
+        for (Delta delta : deltas) {
+            if (!delta.nulo()) {
+                efetivos.add(delta);
+            }
+        }
+        if (efetivos.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(UPSERT, efetivos, efetivos.size(), (ps, d) -> {
+            ps.setLong(1, d.chave.empresaId());
+            ps.setObject(2, d.chave.data());
+            ps.setInt(3, d.chave.servicoId());
+            ps.setInt(4, d.chave.funcionarioId());
+            ps.setString(5, d.chave.status());
+            ps.setLong(6, d.quantidade);
+            ps.setBigDecimal(7, d.valorTotal);
+            ps.setBigDecimal(8, d.taxaCancelamento);
+        });
+    }
+
+    // O resumo guarda o valor textual do status; converte o código na própria consulta
+    private static String valorDoStatus(String coluna) {
+        StringBuilder sql = new StringBuilder("CASE ").append(coluna);
+        for (StatusAgendamento status : StatusAgendamento.values()) {
+            sql.append(" WHEN ").append(status.getCodigo()).append(" THEN '").append(status.getValor()).append("'");
+        }
+        return sql.append(" END").toString();
+    }
+
+    private static LocalDate toLocalDate(Object valor) {
+        if (valor instanceof java.sql.Date data) {
+            return data.toLocalDate();
+        }
+        return (LocalDate) valor;
+    }
+
+    /**
+     * O que um agendamento soma no resumo.
+     */
+    public record Contribuicao(Chave chave, BigDecimal valorTotal, BigDecimal taxaCancelamento) {
+
+        public record Chave(Long empresaId, LocalDate data, Integer servicoId, Integer funcionarioId, String status) {}
+
+        public static Contribuicao de(Agendamento agendamento) {
+            return new Contribuicao(
+                    new Chave(agendamento.getEmpresaId() != null ? agendamento.getEmpresaId() : EmpresaContexto.SEM_EMPRESA,
+                            agendamento.getDataAgendamento(),
+                            agendamento.getServicoId(),
+                            agendamento.getFuncionarioResponsavelId() != null ? agendamento.getFuncionarioResponsavelId() : 0,
+                            agendamento.getStatus() != null ? agendamento.getStatus().getValor() : null),
+                    agendamento.getValorTotal() != null ? agendamento.getValorTotal() : BigDecimal.ZERO,
+                    agendamento.getTaxaCancelamento() != null ? agendamento.getTaxaCancelamento() : BigDecimal.ZERO);
+        }
+    }
+
+    private static final class Delta {
+        final Contribuicao.Chave chave;
+        long quantidade;
+        BigDecimal valorTotal = BigDecimal.ZERO;
+        BigDecimal taxaCancelamento = BigDecimal.ZERO;
+
+        Delta(Contribuicao.Chave chave) {
+            this.chave = chave;
+        }
+
+        void somar(int sinal, BigDecimal valor, BigDecimal taxa) {
+            quantidade += sinal;
+            valorTotal = sinal > 0 ? valorTotal.add(valor) : valorTotal.subtract(valor);
+            taxaCancelamento = sinal > 0 ? taxaCancelamento.add(taxa) : taxaCancelamento.subtract(taxa);
+        }
+
+        boolean nulo() {
+            return quantidade == 0 && valorTotal.signum() == 0 && taxaCancelamento.signum() == 0;
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.boxpro.service;
 
+import com.boxpro.cache.VersaoColecoes;
 import com.boxpro.entity.Servico;
 import com.boxpro.repository.ServicoRepository;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -16,6 +17,9 @@ public class ServicoService {
     @Autowired
     private ServicoRepository servicoRepository;
     
+    @Autowired
+    private VersaoColecoes versaoColecoes;
+    
     // Método paginado
     public Page<Servico> listarServicosPaginados(Pageable pageable) {
         return servicoRepository.findAll(pageable);
@@ -46,7 +50,9 @@ public class ServicoService {
             throw new RuntimeException("Categoria do serviço é obrigatória");
         }
         
-        return servicoRepository.save(servico);
+        Servico salvo = servicoRepository.save(servico);
+        versaoColecoes.incrementar(VersaoColecoes.SERVICOS);
+        return salvo;
     }
     
     public Servico atualizarServico(Long id, Servico servicoAtualizado) {
@@ -77,7 +83,9 @@ public class ServicoService {
         servico.setCategoriaId(servicoAtualizado.getCategoriaId());
         servico.setAtivo(servicoAtualizado.getAtivo());
         
-        return servicoRepository.save(servico);
+        Servico salvo = servicoRepository.save(servico);
+        versaoColecoes.incrementar(VersaoColecoes.SERVICOS);
+        return salvo;
     }
     
     public void deletarServico(Long id) {
@@ -85,6 +93,7 @@ public class ServicoService {
             throw new RuntimeException("Serviço não encontrado com ID: " + id);
         }
         servicoRepository.deleteById(id);
+        versaoColecoes.incrementar(VersaoColecoes.SERVICOS);
     }
     
     public List<Servico> buscarPorNome(String nome) {
@@ -0,0 +1,131 @@
+package com.boxpro.service;
+
+import com.boxpro.exception.AgendaOcupadaException;
+import com.boxpro.multiempresa.EmpresaContexto;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serializa, entre nós, as escritas que ocupam a agenda de um dia.
+ *
+ * A trava é a linha (empresa, dia) de agenda_bloqueio: o upsert que
+ * incrementa a versão fica com a linha até o fim da transação do chamador.
+ * Dias distintos não disputam entre si, e vários dias são travados sempre em
+ * ordem crescente para não haver deadlock. A versão anterior de cada dia é
+ * repassada à AtribuicaoFuncionarioService, que recarrega a agenda em memória
+ * quando outro nó escreveu nela.
+ *
+ * A espera é limitada por app.agendamento.trava.timeout-segundos. Ao expirar,
+ * app.agendamento.trava.ao-expirar=recusar devolve AgendaOcupadaException;
+ * seguir continua sem a trava, só com as verificações locais.
+ */
+@Service
+public class TravaAgendaService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TravaAgendaService.class);
+
+    private static final String UPSERT =
+            "INSERT INTO agenda_bloqueio (empresa_id, data, versao) VALUES (?, ?, 1) " +
+            "ON DUPLICATE KEY UPDATE versao = versao + 1";
+
+    private static final String VERSAO = "SELECT versao FROM agenda_bloqueio WHERE empresa_id = ? AND data = ?";
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private AtribuicaoFuncionarioService atribuicaoService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.agendamento.trava.habilitada:true}")
+    private boolean habilitada;
+
+    @Value("${app.agendamento.trava.timeout-segundos:3}")
+    private int timeoutSegundos;
+
+    @Value("${app.agendamento.trava.ao-expirar:recusar}")
+    private String aoExpirar;
+
+    // JdbcTemplate próprio: o timeout de consulta limita a espera pela linha travada
+    private JdbcTemplate jdbcTemplate;
+
+    private Timer esperaObtida;
+    private Timer esperaExpirada;
+    private Counter ignoradas;
+
+    @PostConstruct
+    public void init() {
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.setQueryTimeout(timeoutSegundos);
+        esperaObtida = Timer.builder("boxpro.agenda.trava.espera")
+                .description("Espera pela trava da agenda do dia")
+                .tag("resultado", "obtida")
+                .register(meterRegistry);
+        esperaExpirada = Timer.builder("boxpro.agenda.trava.espera")
+                .description("Espera pela trava da agenda do dia")
+                .tag("resultado", "expirada")
+                .register(meterRegistry);
+        ignoradas = Counter.builder("boxpro.agenda.trava.ignorada")
+                .description("Escritas que seguiram sem a trava após expirar a espera")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Trava os dias informados até o fim da transação corrente. Retorna a
+     * versão de cada dia antes desta escrita; vazio quando seguiu sem trava.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Map<LocalDate, Long> travar(Collection<LocalDate> datas) {
+        Map<LocalDate, Long> versoes = new LinkedHashMap<>();
+        if (!habilitada) {
+            return versoes;
+        }
+        long empresaId = EmpresaContexto.chave();
+        TreeSet<LocalDate> ordenadas = new TreeSet<>();
+        datas.stream().filter(Objects::nonNull).forEach(ordenadas::add);
+
+        long inicio = System.nanoTime();
+        try {
+            for (LocalDate data : ordenadas) {
+                jdbcTemplate.update(UPSERT, empresaId, data);
+                Long versao = jdbcTemplate.queryForObject(VERSAO, Long.class, empresaId, data);
+                versoes.put(data, versao - 1);
+            }
+        } catch (QueryTimeoutException | PessimisticLockingFailureException e) {
+            esperaExpirada.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+            if ("seguir".equals(aoExpirar)) {
+                ignoradas.increment();
+                logger.warn("⚠️ Trava da agenda de {} não obtida em {}s; seguindo sem trava", ordenadas, timeoutSegundos);
+                return new LinkedHashMap<>();
+            }
+            throw new AgendaOcupadaException("A agenda do dia está sendo alterada por outra operação. Tente novamente.");
+        }
+        esperaObtida.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+
+        versoes.forEach(atribuicaoService::sincronizar);
+        return versoes;
+    }
+}
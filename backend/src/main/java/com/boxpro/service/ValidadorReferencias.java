@@ -0,0 +1,148 @@
+package com.boxpro.service;
+
+import com.boxpro.entity.Agendamento;
+import com.boxpro.multiempresa.EmpresaContexto;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Confere se cliente, veículo, serviço e funcionário de agendamentos existem
+ * e se o veículo é do cliente. agendamentos não tem chaves estrangeiras, então
+ * sem isso referências soltas chegam aos relatórios.
+ *
+ * Todas as referências de um agendamento (ou de um lote inteiro) são
+ * resolvidas em uma única consulta UNION ALL pelas chaves primárias.
+ * Serviços e funcionários de outra empresa contam como inexistentes.
+ */
+@Service
+public class ValidadorReferencias {
+
+    private static final String CLIENTE = "cliente";
+    private static final String VEICULO = "veiculo";
+    private static final String SERVICO = "servico";
+    private static final String FUNCIONARIO = "funcionario";
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    /**
+     * Lança IllegalArgumentException com o primeiro problema encontrado.
+     */
+    public void validar(Agendamento agendamento) {
+        String erro = validar(List.of(agendamento)).get(0);
+        if (erro != null) {
+            throw new IllegalArgumentException(erro);
+        }
+    }
+
+    /**
+     * Um erro por agendamento, na mesma ordem; null quando as referências
+     * estão corretas.
+     */
+    public List<String> validar(List<Agendamento> agendamentos) {
+        Set<Long> clientes = new HashSet<>();
+        Set<Long> veiculos = new HashSet<>();
+        Set<Long> servicos = new HashSet<>();
+        Set<Long> funcionarios = new HashSet<>();
+        for (Agendamento agendamento : agendamentos) {
+            adicionar(clientes, agendamento.getClienteId());
+            adicionar(veiculos, agendamento.getVeiculoId());
+            adicionar(servicos, agendamento.getServicoId());
+            adicionar(funcionarios, agendamento.getFuncionarioResponsavelId());
+        }
+        Encontrados encontrados = buscar(clientes, veiculos, servicos, funcionarios);
+
+        List<String> erros = new ArrayList<>(agendamentos.size());
+        for (Agendamento agendamento : agendamentos) {
+            erros.add(conferir(agendamento, encontrados));
+        }
+        return erros;
+    }
+
+    private String conferir(Agendamento agendamento, Encontrados encontrados) {
+        Long clienteId = longOuNull(agendamento.getClienteId());
+        Long veiculoId = longOuNull(agendamento.getVeiculoId());
+        if (clienteId != null && !encontrados.clientes.contains(clienteId)) {
+            return "Cliente não encontrado";
+        }
+        if (veiculoId != null) {
+            if (!encontrados.donoDoVeiculo.containsKey(veiculoId)) {
+                return "Veículo não encontrado";
+            }
+            if (clienteId != null && !clienteId.equals(encontrados.donoDoVeiculo.get(veiculoId))) {
+                return "Veículo não pertence ao cliente";
+            }
+        }
+        if (agendamento.getServicoId() != null && !encontrados.servicos.contains(longOuNull(agendamento.getServicoId()))) {
+            return "Serviço não encontrado";
+        }
+        if (agendamento.getFuncionarioResponsavelId() != null
+                && !encontrados.funcionarios.contains(longOuNull(agendamento.getFuncionarioResponsavelId()))) {
+            return "Funcionário não encontrado";
+        }
+        return null;
+    }
+
+    private Encontrados buscar(Set<Long> clientes, Set<Long> veiculos, Set<Long> servicos, Set<Long> funcionarios) {
+        Encontrados encontrados = new Encontrados();
+        Long empresaId = EmpresaContexto.atual();
+        String daEmpresa = empresaId != null ? " AND empresa_id = :empresaId" : "";
+        MapSqlParameterSource params = new MapSqlParameterSource("empresaId", empresaId);
+        List<String> partes = new ArrayList<>(4);
+        if (!clientes.isEmpty()) {
+            partes.add("SELECT '" + CLIENTE + "' AS tipo, id, NULL AS dono FROM clientes WHERE id IN (:clientes)");
+            params.addValue("clientes", clientes);
+        }
+        if (!veiculos.isEmpty()) {
+            partes.add("SELECT '" + VEICULO + "' AS tipo, id, cliente_id AS dono FROM veiculos WHERE id IN (:veiculos)");
+            params.addValue("veiculos", veiculos);
+        }
+        if (!servicos.isEmpty()) {
+            partes.add("SELECT '" + SERVICO + "' AS tipo, id, NULL AS dono FROM servicos WHERE id IN (:servicos)" + daEmpresa);
+            params.addValue("servicos", servicos);
+        }
+        if (!funcionarios.isEmpty()) {
+            partes.add("SELECT '" + FUNCIONARIO + "' AS tipo, id, NULL AS dono FROM funcionarios WHERE id IN (:funcionarios)" + daEmpresa);
+            params.addValue("funcionarios", funcionarios);
+        }
+        if (partes.isEmpty()) {
+            return encontrados;
+        }
+        namedJdbcTemplate.query(String.join(" UNION ALL ", partes), params, rs -> {
+            long id = rs.getLong("id");
+            switch (rs.getString("tipo")) {
+                case CLIENTE -> encontrados.clientes.add(id);
+                case VEICULO -> encontrados.donoDoVeiculo.put(id, rs.getObject("dono", Long.class));
+                case SERVICO -> encontrados.servicos.add(id);
+                default -> encontrados.funcionarios.add(id);
+            }
+        });
+        return encontrados;
+    }
+
+    private static void adicionar(Set<Long> ids, Integer id) {
+        if (id != null) {
+            ids.add(id.longValue());
+        }
+    }
+
+    private static Long longOuNull(Integer id) {
+        return id != null ? id.longValue() : null;
+    }
+
+    private static final class Encontrados {
+        final Set<Long> clientes = new HashSet<>();
+        final Map<Long, Long> donoDoVeiculo = new HashMap<>();
+        final Set<Long> servicos = new HashSet<>();
+        final Set<Long> funcionarios = new HashSet<>();
+    }
+}
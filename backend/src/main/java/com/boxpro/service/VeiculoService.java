@@ -1,5 +1,7 @@
 package com.boxpro.service;
 
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -10,10 +12,12 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
 import com.boxpro.dto.request.VeiculoRequestDTO;
+import com.boxpro.dto.response.HistoricoServicosResponse;
 import com.boxpro.dto.response.VeiculoResponseDTO;
 import com.boxpro.entity.Usuario;
 import com.boxpro.entity.Veiculo;
 import com.boxpro.mapper.VeiculoMapper;
+import com.boxpro.repository.HistoricoVeiculoRepository;
 import com.boxpro.repository.UsuarioRepository;
 import com.boxpro.repository.VeiculoRepository;
 
@@ -26,6 +30,11 @@ public class VeiculoService {
     @Autowired
     private UsuarioRepository usuarioRepository;
 
+    @Autowired
+    private HistoricoVeiculoRepository historicoVeiculoRepository;
+
+    private static final int LIMITE_HISTORICO_MAXIMO = 100;
+
     public VeiculoResponseDTO adicionarVeiculo(VeiculoRequestDTO dto) {
         System.out.println("DTO completo: " + dto);
         System.out.println("Cliente recebido aqui ó:" + dto.getClienteId());
@@ -79,6 +88,40 @@ public class VeiculoService {
         return veiculosPage.map(VeiculoMapper::toDTO);
     }
 
+    /**
+     * Atendimentos do veículo do mais recente para o mais antigo. O cursor é
+     * o proximoCursor da página anterior ("data:id").
+     */
+    public HistoricoServicosResponse historicoServicos(Long id, String cursor, int limite) {
+        if (!veiculoRepository.existsById(id)) {
+            throw new RuntimeException("Veículo não encontrado");
+        }
+        if (limite < 1 || limite > LIMITE_HISTORICO_MAXIMO) {
+            throw new IllegalArgumentException("Limite deve estar entre 1 e " + LIMITE_HISTORICO_MAXIMO);
+        }
+        LocalDate antesDeData = null;
+        Integer antesDeId = null;
+        if (cursor != null && !cursor.isBlank()) {
+            String[] partes = cursor.split(":");
+            try {
+                antesDeData = LocalDate.parse(partes[0]);
+                antesDeId = Integer.valueOf(partes[1]);
+            } catch (DateTimeParseException | NumberFormatException | ArrayIndexOutOfBoundsException e) {
+                throw new IllegalArgumentException("Cursor inválido: " + cursor);
+            }
+        }
+
+        List<HistoricoServicosResponse.Atendimento> atendimentos =
+                historicoVeiculoRepository.buscar(id.intValue(), antesDeData, antesDeId, limite);
+        String proximoCursor = null;
+        if (atendimentos.size() > limite) {
+            atendimentos = atendimentos.subList(0, limite);
+            HistoricoServicosResponse.Atendimento ultimo = atendimentos.get(limite - 1);
+            proximoCursor = ultimo.data() + ":" + ultimo.agendamentoId();
+        }
+        return new HistoricoServicosResponse(id, atendimentos, proximoCursor);
+    }
+
     public VeiculoResponseDTO editarVeiculo(Long id, VeiculoRequestDTO dto) {
         Veiculo veiculo = veiculoRepository.findById(id)
             .orElseThrow(() -> new RuntimeException("Veículo não encontrado para edição"));
@@ -0,0 +1,197 @@
+package com.boxpro.service;
+
+import com.boxpro.dto.response.VeiculoResponseDTO;
+import com.boxpro.dto.response.VisaoGeralClienteResponse;
+import com.boxpro.dto.response.VisaoGeralClienteResponse.AgendamentoRecente;
+import com.boxpro.dto.response.VisaoGeralClienteResponse.Agregados;
+import com.boxpro.entity.Usuario;
+import com.boxpro.entity.enums.StatusAgendamento;
+import com.boxpro.exception.ResourceNotFoundException;
+import com.boxpro.mapper.VeiculoMapper;
+import com.boxpro.multiempresa.EmpresaContexto;
+import com.boxpro.repository.UsuarioRepository;
+import com.boxpro.repository.VeiculoRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static com.boxpro.repository.AgendamentoArquivoRepository.AGENDAMENTOS;
+import static com.boxpro.repository.AgendamentoArquivoRepository.AGENDAMENTOS_ARQUIVO;
+
+/**
+ * Monta a visão geral do cliente (dados, veículos, últimos agendamentos e
+ * agregados) com as consultas em paralelo.
+ *
+ * As partes rodam em um pool próprio e a resposta espera no máximo
+ * app.clientes.visao-geral.prazo-ms; o que não terminou volta nulo e listado
+ * em incompletos. O pool não herda o contexto da requisição: a empresa é
+ * capturada antes e redefinida em cada tarefa (roteamento de banco e filtro
+ * empresa_id das consultas JDBC).
+ */
+@Service
+public class VisaoGeralClienteService {
+
+    private static final Logger logger = LoggerFactory.getLogger(VisaoGeralClienteService.class);
+
+    private static final int MAX_AGENDAMENTOS = 50;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private VeiculoRepository veiculoRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${app.clientes.visao-geral.prazo-ms:500}")
+    private long prazoMs;
+
+    private final ExecutorService executor;
+
+    public VisaoGeralClienteService(@Value("${app.clientes.visao-geral.threads:8}") int threads) {
+        AtomicInteger contador = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "visao-geral-" + contador.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        executor.shutdownNow();
+    }
+
+    public VisaoGeralClienteResponse montar(Long clienteId, int quantidadeAgendamentos) {
+        if (quantidadeAgendamentos < 1 || quantidadeAgendamentos > MAX_AGENDAMENTOS) {
+            throw new IllegalArgumentException("Quantidade de agendamentos deve estar entre 1 e " + MAX_AGENDAMENTOS);
+        }
+        Long empresaId = EmpresaContexto.atual();
+        long limite = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(prazoMs);
+
+        CompletableFuture<Optional<Usuario>> cliente = iniciar(empresaId, () -> usuarioRepository.findById(clienteId));
+        CompletableFuture<List<VeiculoResponseDTO>> veiculos = iniciar(empresaId, () ->
+                veiculoRepository.findByClienteId(clienteId).stream().map(VeiculoMapper::toDTO).toList());
+        CompletableFuture<List<AgendamentoRecente>> ultimos = iniciar(empresaId, () ->
+                ultimosAgendamentos(clienteId.intValue(), empresaId, quantidadeAgendamentos));
+        CompletableFuture<Agregados> agregados = iniciar(empresaId, () -> agregados(clienteId.intValue(), empresaId));
+
+        List<String> incompletos = new ArrayList<>();
+        Optional<Usuario> encontrado = aguardar(cliente, limite, VisaoGeralClienteResponse.CLIENTE, incompletos);
+        if (encontrado != null && encontrado.isEmpty()) {
+            throw new ResourceNotFoundException("Cliente não encontrado");
+        }
+        VisaoGeralClienteResponse resposta = new VisaoGeralClienteResponse(
+                encontrado != null ? encontrado.get() : null,
+                aguardar(veiculos, limite, VisaoGeralClienteResponse.VEICULOS, incompletos),
+                aguardar(ultimos, limite, VisaoGeralClienteResponse.ULTIMOS_AGENDAMENTOS, incompletos),
+                aguardar(agregados, limite, VisaoGeralClienteResponse.AGREGADOS, incompletos),
+                incompletos);
+        if (!incompletos.isEmpty()) {
+            logger.warn("Visão geral do cliente {} incompleta: {}", clienteId, incompletos);
+        }
+        return resposta;
+    }
+
+    // Repassa a empresa à thread do pool: o roteamento de banco depende dela
+    private <T> CompletableFuture<T> iniciar(Long empresaId, Supplier<T> consulta) {
+        return CompletableFuture.supplyAsync(() -> {
+            EmpresaContexto.definir(empresaId);
+            try {
+                return consulta.get();
+            } finally {
+                EmpresaContexto.limpar();
+            }
+        }, executor);
+    }
+
+    // Espera até o prazo comum; parte atrasada ou com erro vira null em incompletos
+    private <T> T aguardar(CompletableFuture<T> parte, long limite, String nome, List<String> incompletos) {
+        try {
+            return parte.get(Math.max(0, limite - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            parte.cancel(false);
+        } catch (ExecutionException e) {
+            logger.warn("Falha na parte {} da visão geral: {}", nome, e.getCause().getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        incompletos.add(nome);
+        return null;
+    }
+
+    private List<AgendamentoRecente> ultimosAgendamentos(Integer clienteId, Long empresaId, int quantidade) {
+        String filtro = " WHERE cliente_id = ?" + (empresaId != null ? " AND empresa_id = ?" : "") +
+                " ORDER BY data_agendamento DESC, hora_inicio DESC LIMIT ?";
+        String colunas = "SELECT id, data_agendamento, hora_inicio, status_codigo, veiculo_id, servico_id, valor_total FROM ";
+        List<Object> lado = new ArrayList<>();
+        lado.add(clienteId);
+        if (empresaId != null) {
+            lado.add(empresaId);
+        }
+        lado.add(quantidade);
+        List<Object> args = new ArrayList<>(lado);
+        args.addAll(lado);
+        args.add(quantidade);
+
+        return jdbcTemplate.query(
+                "SELECT a.*, s.nome AS servico_nome FROM (" +
+                "(" + colunas + AGENDAMENTOS + filtro + ") UNION ALL (" + colunas + AGENDAMENTOS_ARQUIVO + filtro + ") " +
+                "ORDER BY data_agendamento DESC, hora_inicio DESC LIMIT ?) a " +
+                "JOIN servicos s ON s.id = a.servico_id ORDER BY a.data_agendamento DESC, a.hora_inicio DESC",
+                (rs, rowNum) -> {
+                    StatusAgendamento status = StatusAgendamento.deCodigo(rs.getObject("status_codigo", Byte.class));
+                    return new AgendamentoRecente(
+                            rs.getInt("id"),
+                            rs.getObject("data_agendamento", LocalDate.class),
+                            rs.getObject("hora_inicio", LocalTime.class),
+                            status != null ? status.getValor() : null,
+                            rs.getInt("veiculo_id"),
+                            rs.getString("servico_nome"),
+                            rs.getBigDecimal("valor_total"));
+                },
+                args.toArray());
+    }
+
+    private Agregados agregados(Integer clienteId, Long empresaId) {
+        String filtro = " WHERE cliente_id = ? AND status_codigo = ?" + (empresaId != null ? " AND empresa_id = ?" : "");
+        String colunas = "SELECT valor_total, data_agendamento FROM ";
+        List<Object> lado = new ArrayList<>();
+        lado.add(clienteId);
+        lado.add(StatusAgendamento.CONCLUIDO.getCodigo());
+        if (empresaId != null) {
+            lado.add(empresaId);
+        }
+        List<Object> args = new ArrayList<>(lado);
+        args.addAll(lado);
+
+        return jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) AS visitas, COALESCE(SUM(valor_total), 0) AS total, MAX(data_agendamento) AS ultima FROM (" +
+                colunas + AGENDAMENTOS + filtro + " UNION ALL " + colunas + AGENDAMENTOS_ARQUIVO + filtro + ") t",
+                (rs, rowNum) -> new Agregados(
+                        rs.getLong("visitas"),
+                        rs.getBigDecimal("total") != null ? rs.getBigDecimal("total") : BigDecimal.ZERO,
+                        rs.getObject("ultima", LocalDate.class)),
+                args.toArray());
+    }
+}
@@ -0,0 +1,291 @@
+package com.boxpro.cache;
+
+import com.boxpro.multiempresa.BancosEmpresa;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Dois nós sobre a mesma cache_invalidacao em memória: o JdbcTemplate de
+ * cada nó grava e lê de um mapa id -> linha, com ids reservados e ainda
+ * não gravados simulando transações abertas.
+ */
+class InvalidacaoCacheServiceTest {
+
+    private final TreeMap<Long, Map<String, Object>> tabela = new TreeMap<>();
+    private final AtomicLong proximoId = new AtomicLong();
+    private boolean indisponivel;
+
+    @AfterEach
+    void limpar() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void invalidacaoDeOutroNoChegaAosOuvintesMasAsPropriasNao() {
+        Ouvinte ouvinteA = new Ouvinte();
+        Ouvinte ouvinteB = new Ouvinte();
+        InvalidacaoCacheService a = no(ouvinteA);
+        InvalidacaoCacheService b = no(ouvinteB);
+
+        a.registrar("servico", 3L, 42);
+        a.ler();
+        b.ler();
+
+        assertThat(ouvinteA.recebidas).isEmpty();
+        assertThat(ouvinteB.recebidas).containsExactly("servico/3/42");
+    }
+
+    @Test
+    void dentroDeTransacaoGravaUmaVezPorChaveNoBeforeCommit() {
+        InvalidacaoCacheService a = no(new Ouvinte());
+        TransactionSynchronizationManager.initSynchronization();
+
+        a.registrar("servico", null, 1);
+        a.registrar("servico", null, 1);
+        a.registrar("horarios", 2L, null);
+        assertThat(tabela).isEmpty();
+
+        for (TransactionSynchronization sincronizacao : TransactionSynchronizationManager.getSynchronizations()) {
+            sincronizacao.beforeCommit(false);
+        }
+
+        assertThat(tabela.values()).extracting(l -> l.get("entidade") + "/" + l.get("empresa_id") + "/" + l.get("chave"))
+                .containsExactly("servico/null/1", "horarios/2/null");
+    }
+
+    @Test
+    void transacaoDesfeitaNaoGravaNada() {
+        InvalidacaoCacheService a = no(new Ouvinte());
+        TransactionSynchronizationManager.initSynchronization();
+
+        a.registrar("servico", null, 1);
+        for (TransactionSynchronization sincronizacao : TransactionSynchronizationManager.getSynchronizations()) {
+            sincronizacao.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+        }
+
+        assertThat(tabela).isEmpty();
+    }
+
+    @Test
+    void lacunaConfirmadaDepoisAindaEAplicada() {
+        Ouvinte ouvinte = new Ouvinte();
+        InvalidacaoCacheService b = no(ouvinte);
+        inserir(1, "servico", "1");
+        // O id 2 é de uma transação ainda aberta
+        inserir(3, "servico", "3");
+        b.ler();
+        assertThat(ouvinte.recebidas).containsExactly("servico/null/1", "servico/null/3");
+
+        inserir(2, "servico", "2");
+        b.ler();
+        b.ler();
+
+        assertThat(ouvinte.recebidas).containsExactly("servico/null/1", "servico/null/3", "servico/null/2");
+    }
+
+    @Test
+    void lacunaExpiradaDeixaDeSerConsultada() throws InterruptedException {
+        Ouvinte ouvinte = new Ouvinte();
+        InvalidacaoCacheService b = no(ouvinte);
+        ReflectionTestUtils.setField(b, "margemLacunaMs", 0L);
+        inserir(1, "servico", "1");
+        inserir(3, "servico", "3");
+        b.ler();
+
+        Thread.sleep(5);
+        inserir(2, "servico", "2");
+        b.ler();
+
+        assertThat(ouvinte.recebidas).containsExactly("servico/null/1", "servico/null/3");
+    }
+
+    @Test
+    void semLerAlemDaDefasagemMaximaDescartaTodosOsCaches() throws InterruptedException {
+        Ouvinte ouvinte = new Ouvinte();
+        InvalidacaoCacheService b = no(ouvinte);
+        indisponivel = true;
+
+        b.ler();
+        assertThat(ouvinte.tudo).isZero();
+
+        ReflectionTestUtils.setField(b, "defasagemMaximaMs", 0L);
+        Thread.sleep(5);
+        b.ler();
+        assertThat(ouvinte.tudo).isEqualTo(1);
+
+        // Uma leitura bem-sucedida zera a defasagem
+        indisponivel = false;
+        b.ler();
+        indisponivel = true;
+        ReflectionTestUtils.setField(b, "defasagemMaximaMs", 60_000L);
+        b.ler();
+        assertThat(ouvinte.tudo).isEqualTo(1);
+    }
+
+    @Test
+    void falhaDeUmOuvinteNaoImpedeOsOutros() {
+        Ouvinte falho = new Ouvinte();
+        falho.falhar = true;
+        Ouvinte ouvinte = new Ouvinte();
+        InvalidacaoCacheService b = no(falho, ouvinte);
+        inserir(1, "servico", "1");
+
+        b.ler();
+
+        assertThat(ouvinte.recebidas).containsExactly("servico/null/1");
+    }
+
+    @Test
+    void comecaDoFimDaTabela() {
+        inserir(1, "servico", "1");
+        Ouvinte ouvinte = new Ouvinte();
+        InvalidacaoCacheService b = no(ouvinte);
+        inserir(2, "servico", "2");
+
+        b.ler();
+
+        assertThat(ouvinte.recebidas).containsExactly("servico/null/2");
+    }
+
+    private InvalidacaoCacheService no(OuvinteInvalidacao... ouvintes) {
+        InvalidacaoCacheService service = new InvalidacaoCacheService();
+        ReflectionTestUtils.setField(service, "jdbcTemplate", mock(JdbcTemplate.class, this::responderJdbc));
+        ReflectionTestUtils.setField(service, "namedJdbcTemplate",
+                mock(NamedParameterJdbcTemplate.class, this::responderNamed));
+        ReflectionTestUtils.setField(service, "ouvintes", provedor(ouvintes));
+        ReflectionTestUtils.setField(service, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(service, "bancos", new BancosEmpresa());
+        ReflectionTestUtils.setField(service, "habilitado", true);
+        ReflectionTestUtils.setField(service, "tamanhoLote", 100);
+        ReflectionTestUtils.setField(service, "margemLacunaMs", 60_000L);
+        ReflectionTestUtils.setField(service, "defasagemMaximaMs", 60_000L);
+        service.registrarMetricas();
+        service.iniciar();
+        return service;
+    }
+
+    private void inserir(long id, String entidade, String chave) {
+        Map<String, Object> linha = new HashMap<>();
+        linha.put("entidade", entidade);
+        linha.put("chave", chave);
+        linha.put("no_origem", "outro-no");
+        linha.put("criado_em", new Timestamp(System.currentTimeMillis()));
+        tabela.put(id, linha);
+        proximoId.set(Math.max(proximoId.get(), id));
+    }
+
+    @SuppressWarnings("unchecked")
+    private ObjectProvider<OuvinteInvalidacao> provedor(OuvinteInvalidacao... ouvintes) {
+        ObjectProvider<OuvinteInvalidacao> provedor = mock(ObjectProvider.class);
+        when(provedor.orderedStream()).thenAnswer(i -> List.of(ouvintes).stream());
+        return provedor;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Object responderJdbc(InvocationOnMock invocacao) throws Throwable {
+        String metodo = invocacao.getMethod().getName();
+        Object[] args = invocacao.getArguments();
+        String sql = args.length > 0 && args[0] instanceof String texto ? texto : "";
+        if (metodo.equals("queryForObject") && sql.contains("MAX(id)")) {
+            return tabela.isEmpty() ? null : tabela.lastKey();
+        }
+        if (metodo.equals("query") && sql.contains("WHERE id > ?")) {
+            if (indisponivel) {
+                throw new DataAccessResourceFailureException("banco indisponível");
+            }
+            return mapear(tabela.tailMap((Long) args[2], false).entrySet().stream()
+                    .limit((Integer) args[3]).map(Map.Entry::getKey).toList(), (RowMapper<?>) args[1]);
+        }
+        if (metodo.equals("batchUpdate") && sql.startsWith("INSERT INTO cache_invalidacao")) {
+            ParameterizedPreparedStatementSetter<Object> setter = (ParameterizedPreparedStatementSetter<Object>) args[3];
+            for (Object item : (Collection<Object>) args[1]) {
+                Map<String, Object> linha = new HashMap<>();
+                PreparedStatement ps = mock(PreparedStatement.class, i -> {
+                    String[] colunas = {null, "entidade", "empresa_id", "chave", "no_origem", "criado_em"};
+                    if (i.getMethod().getName().startsWith("set")) {
+                        linha.put(colunas[(Integer) i.getArgument(0)], i.getArgument(1));
+                    }
+                    return null;
+                });
+                setter.setValues(ps, item);
+                tabela.put(proximoId.incrementAndGet(), linha);
+            }
+            return new int[0][];
+        }
+        return Mockito.RETURNS_DEFAULTS.answer(invocacao);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Object responderNamed(InvocationOnMock invocacao) throws Throwable {
+        Object[] args = invocacao.getArguments();
+        if (invocacao.getMethod().getName().equals("query") && ((String) args[0]).contains("id IN (:ids)")) {
+            Collection<Long> ids = (Collection<Long>) ((MapSqlParameterSource) args[1]).getValue("ids");
+            return mapear(ids.stream().sorted().filter(tabela::containsKey).toList(), (RowMapper<?>) args[2]);
+        }
+        return Mockito.RETURNS_DEFAULTS.answer(invocacao);
+    }
+
+    private List<Object> mapear(List<Long> ids, RowMapper<?> mapper) throws Exception {
+        List<Object> linhas = new ArrayList<>();
+        for (Long id : ids) {
+            Map<String, Object> linha = tabela.get(id);
+            ResultSet rs = mock(ResultSet.class);
+            when(rs.getLong("id")).thenReturn(id);
+            when(rs.getString(anyString())).thenAnswer(i -> (String) linha.get(i.<String>getArgument(0)));
+            when(rs.getObject("empresa_id", Long.class)).thenReturn((Long) linha.get("empresa_id"));
+            when(rs.getTimestamp("criado_em")).thenReturn((Timestamp) linha.get("criado_em"));
+            linhas.add(mapper.mapRow(rs, linhas.size()));
+        }
+        return linhas;
+    }
+
+    private static final class Ouvinte implements OuvinteInvalidacao {
+        final List<String> recebidas = new ArrayList<>();
+        int tudo;
+        boolean falhar;
+
+        @Override
+        public void invalidar(String entidade, Long empresaId, String chave) {
+            if (falhar) {
+                throw new IllegalStateException("falha simulada");
+            }
+            recebidas.add(entidade + "/" + empresaId + "/" + chave);
+        }
+
+        @Override
+        public void invalidarTudo() {
+            tudo++;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.boxpro.controller;
+
+import com.boxpro.entity.Agendamento;
+import com.boxpro.exception.AgendaOcupadaException;
+import com.boxpro.exception.ResourceNotFoundException;
+import com.boxpro.service.AgendamentoService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Códigos de resposta do PATCH: 412 quando a versão veio do If-Match, 409
+ * quando veio do corpo ou a agenda está ocupada, 404 sem agendamento.
+ */
+@ExtendWith(MockitoExtension.class)
+class AgendamentoControllerTest {
+
+    private static final Map<String, Object> PATCH = Map.of("observacoes", "x");
+
+    @Mock
+    private AgendamentoService agendamentoService;
+
+    @InjectMocks
+    private AgendamentoController controller;
+
+    @Test
+    void patchDevolveANovaVersaoComoETag() {
+        Agendamento atualizado = new Agendamento();
+        atualizado.setVersao(4L);
+        when(agendamentoService.aplicarPatch(5, 3L, PATCH)).thenReturn(atualizado);
+
+        ResponseEntity<?> resposta = controller.aplicarPatch(5, "\"3\"", PATCH);
+
+        assertThat(resposta.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(resposta.getHeaders().getETag()).isEqualTo("\"4\"");
+    }
+
+    @Test
+    void versaoDoIfMatchDesatualizadaDa412() {
+        when(agendamentoService.aplicarPatch(5, 3L, PATCH)).thenThrow(new OptimisticLockingFailureException("mudou"));
+
+        assertThat(controller.aplicarPatch(5, "\"3\"", PATCH).getStatusCode()).isEqualTo(HttpStatus.PRECONDITION_FAILED);
+    }
+
+    @Test
+    void versaoDoCorpoDesatualizadaDa409() {
+        when(agendamentoService.aplicarPatch(eq(5), isNull(), anyMap())).thenThrow(new OptimisticLockingFailureException("mudou"));
+
+        assertThat(controller.aplicarPatch(5, null, PATCH).getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+        assertThat(controller.aplicarPatch(5, "*", PATCH).getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+    }
+
+    @Test
+    void ifMatchFracoDa412SemChamarOServico() {
+        assertThat(controller.aplicarPatch(5, "W/\"3\"", PATCH).getStatusCode()).isEqualTo(HttpStatus.PRECONDITION_FAILED);
+        verify(agendamentoService, never()).aplicarPatch(any(), any(), any());
+    }
+
+    @Test
+    void ifMatchInvalidoDa400() {
+        assertThat(controller.aplicarPatch(5, "\"abc\"", PATCH).getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    @Test
+    void agendamentoAusenteDa404() {
+        when(agendamentoService.aplicarPatch(5, 3L, PATCH)).thenThrow(new ResourceNotFoundException("Agendamento não encontrado"));
+
+        assertThat(controller.aplicarPatch(5, "\"3\"", PATCH).getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+    }
+
+    @Test
+    void agendaOcupadaDa409MesmoComIfMatch() {
+        when(agendamentoService.aplicarPatch(5, 3L, PATCH)).thenThrow(new AgendaOcupadaException("ocupada"));
+
+        assertThat(controller.aplicarPatch(5, "\"3\"", PATCH).getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+    }
+}
@@ -0,0 +1,82 @@
+package com.boxpro.entity.enums;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
+import static com.boxpro.entity.enums.StatusAgendamento.*;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class StatusAgendamentoTest {
+
+    // Tabela completa: qualquer par fora dela deve ser recusado
+    private static final Map<StatusAgendamento, Set<StatusAgendamento>> PERMITIDAS = Map.of(
+            AGENDADO, EnumSet.of(EM_ANDAMENTO, CONCLUIDO, CANCELADO, NAO_COMPARECEU),
+            EM_ANDAMENTO, EnumSet.of(AGENDADO, CONCLUIDO, CANCELADO),
+            NAO_COMPARECEU, EnumSet.of(AGENDADO, CONCLUIDO),
+            CONCLUIDO, EnumSet.noneOf(StatusAgendamento.class),
+            CANCELADO, EnumSet.noneOf(StatusAgendamento.class));
+
+    @Test
+    void transicoesSeguemATabela() {
+        for (StatusAgendamento de : values()) {
+            for (StatusAgendamento para : values()) {
+                assertThat(de.podeMudarPara(para))
+                        .as("%s -> %s", de, para)
+                        .isEqualTo(PERMITIDAS.get(de).contains(para));
+            }
+        }
+    }
+
+    @Test
+    void nenhumStatusMudaParaSiMesmo() {
+        for (StatusAgendamento status : values()) {
+            assertThat(status.podeMudarPara(status)).as("%s", status).isFalse();
+        }
+    }
+
+    @Test
+    void concluidoECanceladoSaoFinais() {
+        for (StatusAgendamento para : values()) {
+            assertThat(CONCLUIDO.podeMudarPara(para)).isFalse();
+            assertThat(CANCELADO.podeMudarPara(para)).isFalse();
+        }
+    }
+
+    @Test
+    void soAgendadoEEmAndamentoOcupamAgenda() {
+        assertThat(EnumSet.allOf(StatusAgendamento.class).stream().filter(StatusAgendamento::ocupaAgenda))
+                .containsExactlyInAnyOrder(AGENDADO, EM_ANDAMENTO);
+    }
+
+    @Test
+    void codigoEValorIdaEVolta() {
+        for (StatusAgendamento status : values()) {
+            assertThat(deCodigo(status.getCodigo())).isEqualTo(status);
+            assertThat(deValor(status.getValor())).isEqualTo(status);
+            assertThat(deJson(status.getValor())).isEqualTo(status);
+        }
+    }
+
+    @Test
+    void codigosForaDaTabelaViramNull() {
+        assertThat(deCodigo(null)).isNull();
+        assertThat(deCodigo((byte) 0)).isNull();
+        assertThat(deCodigo((byte) -1)).isNull();
+        assertThat(deCodigo((byte) 6)).isNull();
+        assertThat(deCodigo((byte) 100)).isNull();
+    }
+
+    @Test
+    void jsonVazioENullViramNullEInvalidoFalha() {
+        assertThat(deJson(null)).isNull();
+        assertThat(deJson(" ")).isNull();
+        assertThat(deValor("AGENDADO")).isNull();
+        assertThatThrownBy(() -> deJson("pendente"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("pendente");
+    }
+}
@@ -0,0 +1,108 @@
+package com.boxpro.historico;
+
+import com.boxpro.entity.enums.StatusAgendamento;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HistoricoCompactoTest {
+
+    @Test
+    void codificarEDecodificarTextoCurto() {
+        byte[] payload = HistoricoCompacto.codificar("Cliente pediu remarcação ção ✓");
+
+        assertThat(payload[0]).isZero();
+        assertThat(HistoricoCompacto.decodificar(payload)).isEqualTo("Cliente pediu remarcação ção ✓");
+    }
+
+    @Test
+    void textoLongoRepetitivoEComprimido() {
+        String texto = "Cliente não compareceu e não avisou. ".repeat(20);
+        byte[] payload = HistoricoCompacto.codificar(texto);
+
+        assertThat(payload[0]).isEqualTo((byte) 1);
+        assertThat(payload.length).isLessThan(texto.length());
+        assertThat(HistoricoCompacto.decodificar(payload)).isEqualTo(texto);
+    }
+
+    @Test
+    void textoAbaixoDoLimiteNaoEComprimidoMesmoRepetitivo() {
+        String texto = "a".repeat(95);
+        byte[] payload = HistoricoCompacto.codificar(texto);
+
+        assertThat(payload[0]).isZero();
+        assertThat(HistoricoCompacto.decodificar(payload)).isEqualTo(texto);
+    }
+
+    @Test
+    void payloadVazioViraTextoVazio() {
+        assertThat(HistoricoCompacto.decodificar(new byte[0])).isEmpty();
+        assertThat(HistoricoCompacto.decodificar(HistoricoCompacto.codificar(""))).isEmpty();
+    }
+
+    @Test
+    void criacaoRenderizaDataEHora() {
+        HistoricoCompacto.Registro registro =
+                HistoricoCompacto.criacao(LocalDate.of(2024, 3, 15), LocalTime.of(9, 30));
+
+        assertThat(renderizar(registro)).isEqualTo("Agendamento criado para 2024-03-15 às 09:30");
+    }
+
+    @Test
+    void atualizacaoRenderizaTextoFixo() {
+        assertThat(renderizar(HistoricoCompacto.atualizacao())).isEqualTo("Agendamento atualizado");
+    }
+
+    @Test
+    void mudancaDeStatusGuardaCodigosERenderizaComMotivo() {
+        HistoricoCompacto.Registro registro = HistoricoCompacto.mudancaStatus(
+                StatusAgendamento.AGENDADO, StatusAgendamento.CANCELADO, "Chuva forte");
+
+        assertThat(registro.statusAnterior()).isEqualTo(StatusAgendamento.AGENDADO.getCodigo());
+        assertThat(registro.statusNovo()).isEqualTo(StatusAgendamento.CANCELADO.getCodigo());
+        assertThat(registro.detalhes()).isNull();
+        assertThat(renderizar(registro))
+                .isEqualTo("Status alterado de 'agendado' para 'cancelado'. Motivo: Chuva forte");
+    }
+
+    @Test
+    void mudancaDeStatusSemMotivoNaoTemPayload() {
+        HistoricoCompacto.Registro registro = HistoricoCompacto.mudancaStatus(
+                StatusAgendamento.EM_ANDAMENTO, StatusAgendamento.CONCLUIDO, null);
+
+        assertThat(registro.payload()).isNull();
+        assertThat(renderizar(registro)).isEqualTo("Status alterado de 'em_andamento' para 'concluido'");
+    }
+
+    @Test
+    void statusForaDoEnumVaiParaDetalhes() {
+        HistoricoCompacto.Registro registro = HistoricoCompacto.mudancaStatus("agendado", "pendente", "x");
+
+        assertThat(registro.statusAnterior()).isNull();
+        assertThat(registro.statusNovo()).isNull();
+        assertThat(registro.payload()).isNull();
+        assertThat(registro.detalhes()).isEqualTo("Status alterado de 'agendado' para 'pendente'. Motivo: x");
+    }
+
+    @Test
+    void codigoDesconhecidoRenderizaONumero() {
+        String texto = HistoricoCompacto.renderizar("STATUS_ALTERADO", (byte) 1, (byte) 7, null);
+
+        assertThat(texto).isEqualTo("Status alterado de 'agendado' para '7'");
+    }
+
+    @Test
+    void acaoDesconhecidaRenderizaOPayload() {
+        assertThat(HistoricoCompacto.renderizar("OUTRA", null, null, HistoricoCompacto.codificar("livre")))
+                .isEqualTo("livre");
+        assertThat(HistoricoCompacto.renderizar("OUTRA", null, null, null)).isNull();
+    }
+
+    private static String renderizar(HistoricoCompacto.Registro registro) {
+        return HistoricoCompacto.renderizar(
+                registro.acao(), registro.statusAnterior(), registro.statusNovo(), registro.payload());
+    }
+}
@@ -0,0 +1,92 @@
+package com.boxpro.importacao;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LeitorCsvTest {
+
+    @Test
+    void detectaPontoEVirgulaNoCabecalho() {
+        LeitorCsv leitor = leitor("nome;email;telefone\nAna;ana@x.com;1199\n");
+
+        assertThat(leitor.cabecalho()).containsExactly("nome", "email", "telefone");
+        assertThat(leitor.proxima()).containsExactly("Ana", "ana@x.com", "1199");
+        assertThat(leitor.proxima()).isNull();
+    }
+
+    @Test
+    void usaVirgulaQuandoCabecalhoTemOsDois() {
+        LeitorCsv leitor = leitor("nome,observacao;extra\nAna,a;b\n");
+
+        assertThat(leitor.cabecalho()).containsExactly("nome", "observacao;extra");
+        assertThat(leitor.proxima()).containsExactly("Ana", "a;b");
+    }
+
+    @Test
+    void campoEntreAspasComSeparadorEAspasLiterais() {
+        LeitorCsv leitor = leitor("nome,obs\n\"Silva, Ana\",\"disse \"\"oi\"\"\"\n");
+        leitor.cabecalho();
+
+        assertThat(leitor.proxima()).containsExactly("Silva, Ana", "disse \"oi\"");
+    }
+
+    @Test
+    void quebraDeLinhaDentroDasAspasFicaNoCampo() {
+        LeitorCsv leitor = leitor("nome,endereco\nAna,\"Rua A\nApto 2\"\nBia,Rua B\n");
+        leitor.cabecalho();
+
+        assertThat(leitor.proxima()).containsExactly("Ana", "Rua A\nApto 2");
+        assertThat(leitor.proxima()).containsExactly("Bia", "Rua B");
+        assertThat(leitor.proxima()).isNull();
+    }
+
+    @Test
+    void ignoraCrDeFimDeLinhaWindows() {
+        LeitorCsv leitor = leitor("nome;placa\r\nAna;ABC1D23\r\n");
+
+        assertThat(leitor.cabecalho()).containsExactly("nome", "placa");
+        assertThat(leitor.proxima()).containsExactly("Ana", "ABC1D23");
+    }
+
+    @Test
+    void camposVaziosEUltimaLinhaSemQuebra() {
+        LeitorCsv leitor = leitor("a,b,c\n,,\n1,,3");
+        leitor.cabecalho();
+
+        assertThat(leitor.proxima()).containsExactly("", "", "");
+        assertThat(leitor.proxima()).containsExactly("1", "", "3");
+        assertThat(leitor.proxima()).isNull();
+    }
+
+    @Test
+    void cabecalhoEntreAspasPerdeAsAspas() {
+        LeitorCsv leitor = leitor("\"nome\";\"email\"\n");
+
+        assertThat(leitor.cabecalho()).containsExactly("nome", "email");
+    }
+
+    @Test
+    void arquivoVazioNaoTemCabecalho() {
+        assertThat(leitor("").cabecalho()).isNull();
+    }
+
+    @Test
+    void registroMaiorQueOBufferDeLeitura() {
+        String longo = "x".repeat(20_000);
+        LeitorCsv leitor = leitor("a,b\n\"" + longo + "\",fim\n");
+        leitor.cabecalho();
+
+        List<String> campos = leitor.proxima();
+        assertThat(campos).hasSize(2);
+        assertThat(campos.get(0)).isEqualTo(longo);
+        assertThat(campos.get(1)).isEqualTo("fim");
+    }
+
+    private static LeitorCsv leitor(String conteudo) {
+        return new LeitorCsv(new StringReader(conteudo));
+    }
+}
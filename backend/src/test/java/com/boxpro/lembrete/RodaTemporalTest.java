@@ -0,0 +1,166 @@
+package com.boxpro.lembrete;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RodaTemporalTest {
+
+    // Com tick de 1 ms, instantes e ticks coincidem
+    private static final long NIVEL_1 = 64;
+    private static final long NIVEL_2 = 64 * 64;
+    private static final long ALCANCE = 64L * 64 * 64 * 64;
+
+    @Test
+    void venceNoTickAgendadoENaoAntes() {
+        RodaTemporal<String> roda = new RodaTemporal<>(1, 0);
+        roda.agendar("a", 10);
+
+        assertThat(roda.avancar(9)).isEmpty();
+        assertThat(roda.avancar(10)).containsExactly("a");
+        assertThat(roda.tamanho()).isZero();
+    }
+
+    @Test
+    void arredondaInstanteParaOTickSeguinte() {
+        RodaTemporal<String> roda = new RodaTemporal<>(1000, 0);
+        roda.agendar("a", 1500);
+
+        assertThat(roda.instante("a")).isEqualTo(2000L);
+        assertThat(roda.avancar(1999)).isEmpty();
+        assertThat(roda.avancar(2000)).containsExactly("a");
+    }
+
+    @Test
+    void recusaInstanteQueJaPassou() {
+        RodaTemporal<String> roda = new RodaTemporal<>(1, 100);
+
+        assertThat(roda.agendar("a", 100)).isFalse();
+        assertThat(roda.agendar("b", 50)).isFalse();
+        assertThat(roda.tamanho()).isZero();
+    }
+
+    @Test
+    void deltaExatoDe64DesceDoNivel1() {
+        for (long inicio : new long[] {0, 1, 10, 63, 64, 127}) {
+            RodaTemporal<String> roda = new RodaTemporal<>(1, inicio);
+            roda.agendar("a", inicio + NIVEL_1);
+
+            assertThat(roda.avancar(inicio + NIVEL_1 - 1)).as("início %d", inicio).isEmpty();
+            assertThat(roda.avancar(inicio + NIVEL_1)).as("início %d", inicio).containsExactly("a");
+        }
+    }
+
+    @Test
+    void deltaExatoDe4096DesceDoNivel2() {
+        for (long inicio : new long[] {0, 1, 100, 4095, 4096, 5000}) {
+            RodaTemporal<String> roda = new RodaTemporal<>(1, inicio);
+            roda.agendar("a", inicio + NIVEL_2);
+
+            assertThat(roda.avancar(inicio + NIVEL_2 - 1)).as("início %d", inicio).isEmpty();
+            assertThat(roda.avancar(inicio + NIVEL_2)).as("início %d", inicio).containsExactly("a");
+        }
+    }
+
+    @Test
+    void tickNaFronteiraDeNivel() {
+        RodaTemporal<String> roda = new RodaTemporal<>(1, 0);
+        roda.agendar("fim-nivel-0", NIVEL_1 - 1);
+        roda.agendar("fronteira-1", NIVEL_1);
+        roda.agendar("fim-nivel-1", NIVEL_2 - 1);
+        roda.agendar("fronteira-2", NIVEL_2);
+
+        assertThat(roda.avancar(NIVEL_1 - 1)).containsExactly("fim-nivel-0");
+        assertThat(roda.avancar(NIVEL_1)).containsExactly("fronteira-1");
+        assertThat(roda.avancar(NIVEL_2 - 1)).containsExactly("fim-nivel-1");
+        assertThat(roda.avancar(NIVEL_2)).containsExactly("fronteira-2");
+    }
+
+    @Test
+    void devolveEmOrdemDeVencimentoAoAvancarVariosTicks() {
+        RodaTemporal<Integer> roda = new RodaTemporal<>(1, 0);
+        List<Integer> esperado = new ArrayList<>();
+        for (int i = 1; i <= 200; i++) {
+            long instante = (i * 7919L) % 20_000 + 1;
+            roda.agendar(i, instante);
+        }
+        for (long t = 1; t <= 20_000; t++) {
+            for (int i = 1; i <= 200; i++) {
+                if ((i * 7919L) % 20_000 + 1 == t) {
+                    esperado.add(i);
+                }
+            }
+        }
+
+        assertThat(roda.avancar(20_000)).containsExactlyElementsOf(esperado);
+    }
+
+    @Test
+    void reagendarDepoisDaCascataUsaONovoInstante() {
+        RodaTemporal<String> roda = new RodaTemporal<>(1, 0);
+        roda.agendar("a", 100);
+
+        // No tick 64 a entrada desce do nível 1 para o 0
+        assertThat(roda.avancar(64)).isEmpty();
+        roda.agendar("a", 70);
+
+        assertThat(roda.avancar(69)).isEmpty();
+        assertThat(roda.avancar(70)).containsExactly("a");
+        assertThat(roda.avancar(200)).isEmpty();
+    }
+
+    @Test
+    void reagendarParaNivelMaisAltoNoMeioDaCascata() {
+        RodaTemporal<String> roda = new RodaTemporal<>(1, 0);
+        roda.agendar("a", NIVEL_2 + 10);
+        roda.agendar("b", NIVEL_2 + 10);
+
+        // Em 4096 as duas descem do nível 2; "a" é empurrada de volta para longe
+        assertThat(roda.avancar(NIVEL_2)).isEmpty();
+        roda.agendar("a", 3 * NIVEL_2);
+
+        assertThat(roda.avancar(NIVEL_2 + 10)).containsExactly("b");
+        assertThat(roda.avancar(3 * NIVEL_2 - 1)).isEmpty();
+        assertThat(roda.avancar(3 * NIVEL_2)).containsExactly("a");
+    }
+
+    @Test
+    void cancelarDepoisDaCascataRemoveDaPosicaoNova() {
+        RodaTemporal<String> roda = new RodaTemporal<>(1, 0);
+        roda.agendar("a", NIVEL_1 + 5);
+        roda.avancar(NIVEL_1);
+
+        assertThat(roda.cancelar("a")).isTrue();
+        assertThat(roda.avancar(NIVEL_1 + 5)).isEmpty();
+        assertThat(roda.cancelar("a")).isFalse();
+    }
+
+    @Test
+    void entradaAlemDoUltimoNivelVenceNoTickCerto() {
+        RodaTemporal<String> roda = new RodaTemporal<>(1, 0);
+        long instante = ALCANCE + 5;
+        roda.agendar("longe", instante);
+        roda.agendar("no-limite", ALCANCE - 1);
+
+        assertThat(roda.instante("longe")).isEqualTo(instante);
+        assertThat(roda.avancar(ALCANCE - 2)).isEmpty();
+        assertThat(roda.avancar(ALCANCE - 1)).containsExactly("no-limite");
+        assertThat(roda.avancar(instante - 1)).isEmpty();
+        assertThat(roda.avancar(instante)).containsExactly("longe");
+        assertThat(roda.tamanho()).isZero();
+    }
+
+    @Test
+    void entradaMuitoAlemDoUltimoNivelDesceVariasVezes() {
+        // Tick de 1 s: três voltas completas da roda mais um pouco
+        RodaTemporal<String> roda = new RodaTemporal<>(1000, 0);
+        long instante = (3 * ALCANCE + 123) * 1000;
+        roda.agendar("a", instante);
+
+        assertThat(roda.avancar(instante - 1000)).isEmpty();
+        assertThat(roda.avancar(instante)).containsExactly("a");
+    }
+}
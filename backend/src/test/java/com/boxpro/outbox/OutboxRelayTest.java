@@ -0,0 +1,261 @@
+package com.boxpro.outbox;
+
+import com.boxpro.event.AgendamentoEvento;
+import com.boxpro.multiempresa.BancosEmpresa;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Relay sobre um outbox em memória: as consultas do JdbcTemplate são
+ * respondidas a partir de um mapa id -> evento, e ids ausentes simulam
+ * transações ainda abertas.
+ */
+class OutboxRelayTest {
+
+    private final TreeMap<Long, EventoPublicado> outbox = new TreeMap<>();
+    private final Map<String, Long> posicoes = new HashMap<>();
+    private final List<AssinanteOutbox> assinantes = new ArrayList<>();
+
+    private OutboxRelay relay;
+
+    @BeforeEach
+    void preparar() {
+        relay = new OutboxRelay();
+        ReflectionTestUtils.setField(relay, "jdbcTemplate", mock(JdbcTemplate.class, this::responderJdbc));
+        ReflectionTestUtils.setField(relay, "namedJdbcTemplate",
+                mock(NamedParameterJdbcTemplate.class, this::responderNamed));
+        ReflectionTestUtils.setField(relay, "transactionManager", mock(PlatformTransactionManager.class));
+        ReflectionTestUtils.setField(relay, "assinantes", provedor());
+        ReflectionTestUtils.setField(relay, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(relay, "bancos", new BancosEmpresa());
+        ReflectionTestUtils.setField(relay, "habilitado", true);
+        ReflectionTestUtils.setField(relay, "tamanhoLote", 100);
+        ReflectionTestUtils.setField(relay, "margemLacunaMs", 60_000L);
+    }
+
+    @Test
+    void entregaEventosNovosEmOrdem() {
+        Coletor local = local();
+        relay.iniciar();
+        gravar(1, 10);
+        gravar(2, 11);
+
+        relay.processar();
+
+        assertThat(local.ids).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void lacunaPreenchidaDepoisEEntregueForaDeOrdem() {
+        Coletor local = local();
+        relay.iniciar();
+        gravar(1, 10);
+        gravar(2, 11);
+        gravar(4, 12);
+
+        relay.processar();
+        assertThat(local.ids).containsExactly(1L, 2L, 4L);
+
+        // A transação do id 3 confirma depois
+        gravar(3, 13);
+        relay.processar();
+
+        assertThat(local.ids).containsExactly(1L, 2L, 4L, 3L);
+    }
+
+    @Test
+    void lacunaExpiradaNaoTravaAFronteira() throws InterruptedException {
+        ReflectionTestUtils.setField(relay, "margemLacunaMs", 0L);
+        Coletor local = local();
+        relay.iniciar();
+        gravar(1, 10);
+        gravar(3, 12);
+        relay.processar();
+
+        Thread.sleep(5);
+        gravar(4, 13);
+        relay.processar();
+        // Depois da margem o id 3 é tratado como rollback, mesmo que apareça
+        gravar(2, 11);
+        gravar(5, 14);
+        relay.processar();
+
+        assertThat(local.ids).containsExactly(1L, 3L, 4L, 5L);
+    }
+
+    @Test
+    void lacunaMaisAntigaQueEventoJaEntregueDoMesmoAgendamentoEDescartada() {
+        Coletor local = local();
+        relay.iniciar();
+        gravar(1, 10);
+        gravar(3, 10);
+        relay.processar();
+
+        // O id 2 é do mesmo agendamento e mais antigo que o 3 já entregue
+        gravar(2, 10);
+        relay.processar();
+
+        assertThat(local.ids).containsExactly(1L, 3L);
+    }
+
+    @Test
+    void duravelLeSoAteAPrimeiraLacunaAberta() {
+        Coletor duravel = new Coletor("duravel", false);
+        assinantes.add(duravel);
+        relay.iniciar();
+        gravar(1, 10);
+        gravar(2, 11);
+        gravar(4, 12);
+
+        relay.processar();
+        assertThat(duravel.ids).containsExactly(1L, 2L);
+        assertThat(posicoes).containsEntry("duravel", 2L);
+
+        gravar(3, 13);
+        relay.processar();
+
+        assertThat(duravel.ids).containsExactly(1L, 2L, 3L, 4L);
+        assertThat(posicoes).containsEntry("duravel", 4L);
+    }
+
+    @Test
+    void falhaNoAssinanteLocalReentregaOLote() {
+        Coletor local = local();
+        relay.iniciar();
+        gravar(1, 10);
+        gravar(2, 11);
+        local.falhar = true;
+        relay.processar();
+        assertThat(local.ids).isEmpty();
+
+        local.falhar = false;
+        gravar(3, 12);
+        relay.processar();
+
+        assertThat(local.ids).containsExactly(1L, 2L, 3L);
+    }
+
+    @Test
+    void comecaDoFimDoOutboxNaInicializacao() {
+        gravar(1, 10);
+        gravar(2, 11);
+        Coletor local = local();
+        relay.iniciar();
+        gravar(3, 12);
+
+        relay.processar();
+
+        assertThat(relay.fronteiraInicial(0)).isEqualTo(2L);
+        assertThat(local.ids).containsExactly(3L);
+    }
+
+    private Coletor local() {
+        Coletor coletor = new Coletor("local", true);
+        assinantes.add(coletor);
+        return coletor;
+    }
+
+    private void gravar(long id, int agendamentoId) {
+        AgendamentoEvento evento = new AgendamentoEvento(AgendamentoEvento.ATUALIZADO, agendamentoId,
+                null, null, null, null, null);
+        outbox.put(id, new EventoPublicado(id, null, evento, "{}", System.currentTimeMillis()));
+    }
+
+    @SuppressWarnings("unchecked")
+    private ObjectProvider<AssinanteOutbox> provedor() {
+        ObjectProvider<AssinanteOutbox> provedor = mock(ObjectProvider.class);
+        Mockito.when(provedor.orderedStream()).thenAnswer(i -> List.copyOf(assinantes).stream());
+        return provedor;
+    }
+
+    private Object responderJdbc(InvocationOnMock invocacao) throws Throwable {
+        String metodo = invocacao.getMethod().getName();
+        Object[] args = invocacao.getArguments();
+        String sql = args.length > 0 && args[0] instanceof String texto ? texto : "";
+        if (metodo.equals("queryForObject") && sql.contains("MAX(id)")) {
+            return outbox.isEmpty() ? null : outbox.lastKey();
+        }
+        if (metodo.equals("query") && sql.contains("id > ? AND id <= ?")) {
+            return limitar(outbox.subMap((Long) args[2], false, (Long) args[3], true).values(), (Integer) args[4]);
+        }
+        if (metodo.equals("query") && sql.contains("id > ?")) {
+            return limitar(outbox.tailMap((Long) args[2], false).values(), (Integer) args[3]);
+        }
+        if (metodo.equals("queryForList") && sql.contains("outbox_posicao")) {
+            Long posicao = posicoes.get((String) args[2]);
+            return posicao != null ? List.of(posicao) : List.of();
+        }
+        if (metodo.equals("update") && sql.startsWith("INSERT IGNORE INTO outbox_posicao")) {
+            posicoes.putIfAbsent((String) args[1], (Long) args[2]);
+            return 1;
+        }
+        if (metodo.equals("update") && sql.startsWith("UPDATE outbox_posicao")) {
+            posicoes.put((String) args[3], (Long) args[1]);
+            return 1;
+        }
+        return Mockito.RETURNS_DEFAULTS.answer(invocacao);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Object responderNamed(InvocationOnMock invocacao) throws Throwable {
+        Object[] args = invocacao.getArguments();
+        if (invocacao.getMethod().getName().equals("query") && ((String) args[0]).contains("id IN (:ids)")) {
+            Collection<Long> ids = (Collection<Long>) ((MapSqlParameterSource) args[1]).getValue("ids");
+            return ids.stream().sorted().filter(outbox::containsKey).map(outbox::get).toList();
+        }
+        return Mockito.RETURNS_DEFAULTS.answer(invocacao);
+    }
+
+    private static List<EventoPublicado> limitar(Collection<EventoPublicado> eventos, int limite) {
+        return eventos.stream().limit(limite).toList();
+    }
+
+    private static final class Coletor implements AssinanteOutbox {
+        final String nome;
+        final boolean local;
+        final List<Long> ids = new ArrayList<>();
+        boolean falhar;
+
+        Coletor(String nome, boolean local) {
+            this.nome = nome;
+            this.local = local;
+        }
+
+        @Override
+        public String nome() {
+            return nome;
+        }
+
+        @Override
+        public boolean local() {
+            return local;
+        }
+
+        @Override
+        public void receber(List<EventoPublicado> eventos) {
+            if (falhar) {
+                throw new IllegalStateException("falha simulada");
+            }
+            eventos.forEach(e -> ids.add(e.id()));
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.boxpro.projecao;
+
+import com.boxpro.entity.enums.StatusAgendamento;
+import com.boxpro.multiempresa.EmpresaContexto;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ProjecaoServiceTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @InjectMocks
+    private ProjecaoService service;
+
+    @AfterEach
+    void limpar() {
+        EmpresaContexto.limpar();
+    }
+
+    @Test
+    void selecionaSoAsColunasPedidasComDesempatePeloId() {
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class), any(Object[].class))).thenReturn(25L);
+
+        Page<Map<String, Object>> pagina = service.listar(Projecao.AGENDAMENTOS, "status,dataAgendamento",
+                PageRequest.of(2, 10, Sort.by(Sort.Order.desc("dataAgendamento"))));
+
+        ArgumentCaptor<Object[]> args = ArgumentCaptor.forClass(Object[].class);
+        assertThat(consulta(args)).isEqualTo("SELECT t.id AS id, t.status_codigo AS status, " +
+                "t.data_agendamento AS dataAgendamento FROM agendamentos t  " +
+                "ORDER BY t.data_agendamento DESC, t.id LIMIT ? OFFSET ?");
+        assertThat(args.getValue()).containsExactly(10, 20L);
+        assertThat(pagina.getTotalElements()).isEqualTo(25);
+    }
+
+    @Test
+    void filtraPelaEmpresaDoContextoSoNasTabelasPorEmpresa() {
+        EmpresaContexto.definir(4L);
+
+        service.listar(Projecao.SERVICOS, "nome", PageRequest.of(0, 5));
+        ArgumentCaptor<Object[]> args = ArgumentCaptor.forClass(Object[].class);
+        assertThat(consulta(args)).contains("WHERE t.empresa_id = ?");
+        assertThat(args.getValue()).containsExactly(4L, 5, 0L);
+    }
+
+    @Test
+    void clientesNaoTemFiltroDeEmpresa() {
+        EmpresaContexto.definir(4L);
+
+        service.listar(Projecao.CLIENTES, "nome", PageRequest.of(0, 5));
+
+        assertThat(consulta(ArgumentCaptor.forClass(Object[].class))).doesNotContain("empresa_id");
+    }
+
+    @Test
+    void juncaoSoQuandoOCampoEPedidoOuOrdena() {
+        service.listar(Projecao.VEICULOS, "placa", PageRequest.of(0, 5, Sort.by("clienteNome")));
+
+        assertThat(consulta(ArgumentCaptor.forClass(Object[].class)))
+                .contains("LEFT JOIN clientes c ON c.id = t.cliente_id")
+                .contains("ORDER BY c.nome ASC, t.id")
+                .doesNotContain("AS clienteNome");
+    }
+
+    @Test
+    void semJuncaoQuandoNenhumCampoPrecisa() {
+        service.listar(Projecao.VEICULOS, "placa,modelo", PageRequest.of(0, 5));
+
+        assertThat(consulta(ArgumentCaptor.forClass(Object[].class))).doesNotContain("JOIN");
+    }
+
+    @Test
+    void ordenacaoPorCampoDesconhecidoERecusadaAntesDaConsulta() {
+        assertThatThrownBy(() -> service.listar(Projecao.AGENDAMENTOS, "status",
+                PageRequest.of(0, 5, Sort.by("senha"))))
+                .isInstanceOf(IllegalArgumentException.class);
+        verify(jdbcTemplate, never()).query(anyString(), any(RowMapper.class), any(Object[].class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void linhaTemSoOsCamposPedidosComStatusDecodificado() throws Exception {
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getObject("id", Integer.class)).thenReturn(7);
+        when(rs.getObject("status", Byte.class)).thenReturn(StatusAgendamento.CONCLUIDO.getCodigo());
+        when(rs.getObject("dataAgendamento", LocalDate.class)).thenReturn(LocalDate.of(2026, 3, 10));
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), any(Object[].class)))
+                .thenAnswer(i -> List.of(i.<RowMapper<Map<String, Object>>>getArgument(1).mapRow(rs, 0)));
+
+        Page<Map<String, Object>> pagina = service.listar(Projecao.AGENDAMENTOS, "status,dataAgendamento",
+                PageRequest.of(0, 5));
+
+        assertThat(pagina.getContent()).containsExactly(Map.of(
+                "id", 7, "status", StatusAgendamento.CONCLUIDO, "dataAgendamento", LocalDate.of(2026, 3, 10)));
+        assertThat(pagina.getContent().get(0).keySet()).containsExactly("id", "status", "dataAgendamento");
+    }
+
+    @SuppressWarnings("unchecked")
+    private String consulta(ArgumentCaptor<Object[]> args) {
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        verify(jdbcTemplate).query(sql.capture(), any(RowMapper.class), args.capture());
+        return sql.getValue();
+    }
+}
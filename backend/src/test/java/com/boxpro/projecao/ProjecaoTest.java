@@ -0,0 +1,46 @@
+package com.boxpro.projecao;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ProjecaoTest {
+
+    @Test
+    void idVemSempreEPrimeiro() {
+        assertThat(Projecao.AGENDAMENTOS.selecionar("status,dataAgendamento"))
+                .extracting(Projecao.Campo::nome)
+                .containsExactly("id", "status", "dataAgendamento");
+    }
+
+    @Test
+    void ignoraEspacosVaziosERepetidos() {
+        assertThat(Projecao.CLIENTES.selecionar(" nome ,,email,nome,id, "))
+                .extracting(Projecao.Campo::nome)
+                .containsExactly("id", "nome", "email");
+    }
+
+    @Test
+    void campoDesconhecidoListaOsDisponiveis() {
+        assertThatThrownBy(() -> Projecao.SERVICOS.selecionar("nome,valor"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Campo desconhecido: valor")
+                .hasMessageContaining("preco");
+    }
+
+    @Test
+    void senhaDoFuncionarioNuncaSaiPorProjecao() {
+        assertThatThrownBy(() -> Projecao.FUNCIONARIOS.selecionar("senha"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void campoDeOutraTabelaTrazAJuncao() {
+        Projecao.Campo clienteNome = Projecao.VEICULOS.campo("clienteNome");
+
+        assertThat(clienteNome.expressao()).isEqualTo("c.nome");
+        assertThat(clienteNome.juncao()).startsWith("LEFT JOIN clientes c");
+        assertThat(Projecao.VEICULOS.campo("placa").juncao()).isNull();
+    }
+}
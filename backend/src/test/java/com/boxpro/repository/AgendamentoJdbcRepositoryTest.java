@@ -0,0 +1,59 @@
+package com.boxpro.repository;
+
+import com.boxpro.entity.enums.StatusAgendamento;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class AgendamentoJdbcRepositoryTest {
+
+    @Mock
+    private NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    @InjectMocks
+    private AgendamentoJdbcRepository repository;
+
+    @Test
+    void atualizarStatusSoAlteraLinhasNoStatusEsperado() {
+        when(namedJdbcTemplate.update(anyString(), any(MapSqlParameterSource.class))).thenReturn(2);
+
+        int alterados = repository.atualizarStatus(List.of(1, 2), StatusAgendamento.AGENDADO,
+                StatusAgendamento.CONCLUIDO, "ignorado");
+
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<MapSqlParameterSource> params = ArgumentCaptor.forClass(MapSqlParameterSource.class);
+        verify(namedJdbcTemplate).update(sql.capture(), params.capture());
+        assertThat(alterados).isEqualTo(2);
+        assertThat(sql.getValue())
+                .endsWith("WHERE id IN (:ids) AND status_codigo = :esperado")
+                .contains("versao = versao + 1")
+                .doesNotContain("motivo_cancelamento");
+        assertThat(params.getValue().getValue("esperado")).isEqualTo(StatusAgendamento.AGENDADO.getCodigo());
+        assertThat(params.getValue().getValue("novo")).isEqualTo(StatusAgendamento.CONCLUIDO.getCodigo());
+    }
+
+    @Test
+    void cancelamentoGravaDataEMotivo() {
+        repository.atualizarStatus(List.of(1), StatusAgendamento.AGENDADO, StatusAgendamento.CANCELADO, "chuva");
+
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<MapSqlParameterSource> params = ArgumentCaptor.forClass(MapSqlParameterSource.class);
+        verify(namedJdbcTemplate).update(sql.capture(), params.capture());
+        assertThat(sql.getValue()).contains("data_cancelamento = :hoje", "motivo_cancelamento = :motivo");
+        assertThat(params.getValue().getValue("motivo")).isEqualTo("chuva");
+    }
+}
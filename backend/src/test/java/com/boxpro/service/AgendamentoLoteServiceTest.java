@@ -0,0 +1,233 @@
+package com.boxpro.service;
+
+import com.boxpro.dto.request.AgendamentoLoteRequest;
+import com.boxpro.dto.request.AgendamentoLoteRequest.Modo;
+import com.boxpro.dto.response.AgendamentoLoteResponse;
+import com.boxpro.entity.Agendamento;
+import com.boxpro.exception.AgendaOcupadaException;
+import com.boxpro.outbox.OutboxService;
+import com.boxpro.repository.AgendamentoJdbcRepository;
+import com.boxpro.repository.AgendamentoJdbcRepository.NovoHistorico;
+import com.boxpro.repository.AgendamentoJdbcRepository.Ocupacao;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockedStatic;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class AgendamentoLoteServiceTest {
+
+    private static final LocalDate DIA = LocalDate.now().plusDays(3);
+
+    @Mock
+    private AgendamentoService agendamentoService;
+
+    @Mock
+    private AtribuicaoFuncionarioService atribuicaoService;
+
+    @Mock
+    private AgendamentoJdbcRepository agendamentoJdbcRepository;
+
+    @Mock
+    private OutboxService outboxService;
+
+    @Mock
+    private ResumoDiarioService resumoDiarioService;
+
+    @Mock
+    private TravaAgendaService travaAgendaService;
+
+    @Mock
+    private ValidadorReferencias validadorReferencias;
+
+    @Mock
+    private CotacaoService cotacaoService;
+
+    @InjectMocks
+    private AgendamentoLoteService service;
+
+    private final List<Ocupacao> ocupacoes = new ArrayList<>();
+
+    @BeforeEach
+    void preparar() {
+        ReflectionTestUtils.setField(service, "maxItens", 5);
+        when(validadorReferencias.validar(anyList())).thenAnswer(i -> semErros(i.getArgument(0)));
+        when(cotacaoService.precificar(anyList())).thenAnswer(i -> semErros(i.getArgument(0)));
+        when(agendamentoJdbcRepository.buscarOcupacoes(anyCollection(), anyCollection(), anyCollection()))
+                .thenAnswer(i -> ocupacoes);
+        when(atribuicaoService.horaFimEfetiva(any(), any())).thenAnswer(i ->
+                i.getArgument(1) != null ? i.getArgument(1) : ((LocalTime) i.getArgument(0)).plusHours(1));
+        when(atribuicaoService.reservar(any())).thenReturn(AtribuicaoFuncionarioService.Reserva.VAZIA);
+        doAnswer(i -> {
+            int id = 100;
+            for (Agendamento agendamento : i.<List<Agendamento>>getArgument(0)) {
+                agendamento.setId(id++);
+            }
+            return null;
+        }).when(agendamentoJdbcRepository).inserirLote(anyList());
+    }
+
+    @Test
+    void criaTodosOsItensValidosEmUmaInsercao() {
+        AgendamentoLoteResponse resposta = service.criarLote(new AgendamentoLoteRequest(null, List.of(
+                agendamento(1, 9), agendamento(2, 9), agendamento(1, 10))));
+
+        assertThat(resposta.modo()).isEqualTo("TUDO_OU_NADA");
+        assertThat(resposta.criados()).isEqualTo(3);
+        assertThat(resposta.itens()).extracting(AgendamentoLoteResponse.Item::agendamentoId)
+                .containsExactly(100, 101, 102);
+        verify(agendamentoJdbcRepository).inserirLote(anyList());
+        verify(travaAgendaService).travar(Set.of(DIA));
+        verify(outboxService).publicarTodos(anyString(), anyList());
+    }
+
+    @Test
+    void mesmoVeiculoEmHorariosSobrepostosDentroDoLoteERejeitado() {
+        AgendamentoLoteResponse resposta = service.criarLote(new AgendamentoLoteRequest(Modo.MELHOR_ESFORCO, List.of(
+                agendamento(1, 9), agendamento(1, 9))));
+
+        assertThat(resposta.itens()).extracting(AgendamentoLoteResponse.Item::resultado)
+                .containsExactly(AgendamentoLoteResponse.CRIADO, AgendamentoLoteResponse.REJEITADO);
+        assertThat(resposta.itens().get(1).erro()).isEqualTo("Veículo já possui agendamento neste horário");
+        assertThat(resposta.criados()).isEqualTo(1);
+        assertThat(resposta.rejeitados()).isEqualTo(1);
+    }
+
+    @Test
+    void conflitoComAgendamentoJaGravadoERejeitado() {
+        ocupacoes.add(new Ocupacao(50, 1, null, DIA, LocalTime.of(8, 30), LocalTime.of(9, 30)));
+
+        AgendamentoLoteResponse resposta = service.criarLote(new AgendamentoLoteRequest(Modo.MELHOR_ESFORCO, List.of(
+                agendamento(1, 9), agendamento(2, 9))));
+
+        assertThat(resposta.itens()).extracting(AgendamentoLoteResponse.Item::resultado)
+                .containsExactly(AgendamentoLoteResponse.REJEITADO, AgendamentoLoteResponse.CRIADO);
+    }
+
+    @Test
+    void funcionarioAtribuidoAUmItemBloqueiaOsSeguintes() {
+        when(atribuicaoService.reservar(any())).thenAnswer(i -> {
+            Agendamento agendamento = i.getArgument(0);
+            if (agendamento.getFuncionarioResponsavelId() == null) {
+                agendamento.setFuncionarioResponsavelId(7);
+            }
+            return AtribuicaoFuncionarioService.Reserva.VAZIA;
+        });
+        Agendamento comFuncionario = agendamento(2, 9);
+        comFuncionario.setFuncionarioResponsavelId(7);
+
+        AgendamentoLoteResponse resposta = service.criarLote(new AgendamentoLoteRequest(Modo.MELHOR_ESFORCO, List.of(
+                agendamento(1, 9), comFuncionario)));
+
+        assertThat(resposta.itens().get(0).funcionarioResponsavelId()).isEqualTo(7);
+        assertThat(resposta.itens().get(1).erro()).isEqualTo("Funcionário já possui agendamento neste horário");
+    }
+
+    @Test
+    void semFuncionarioLivreSoOItemERejeitado() {
+        Agendamento lotado = agendamento(2, 9);
+        when(atribuicaoService.reservar(lotado)).thenThrow(new AgendaOcupadaException("Nenhum funcionário livre"));
+
+        AgendamentoLoteResponse resposta = service.criarLote(new AgendamentoLoteRequest(Modo.MELHOR_ESFORCO, List.of(
+                agendamento(1, 9), lotado)));
+
+        assertThat(resposta.itens().get(1).erro()).isEqualTo("Nenhum funcionário livre");
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<NovoHistorico>> historicos = ArgumentCaptor.forClass(List.class);
+        verify(agendamentoJdbcRepository).inserirHistoricos(historicos.capture());
+        assertThat(historicos.getValue()).hasSize(1);
+        assertThat(historicos.getValue().get(0).funcionarioId()).isNull();
+    }
+
+    @Test
+    void itensInvalidosNaoChegamAValidacaoDeReferencias() {
+        Agendamento passado = agendamento(2, 9);
+        doThrow(new IllegalArgumentException("Não é possível agendar para datas passadas"))
+                .when(agendamentoService).validarNovoAgendamento(passado);
+
+        AgendamentoLoteResponse resposta = service.criarLote(new AgendamentoLoteRequest(Modo.MELHOR_ESFORCO,
+                Arrays.asList(agendamento(1, 9), passado, null)));
+
+        assertThat(resposta.itens()).extracting(AgendamentoLoteResponse.Item::erro)
+                .containsExactly(null, "Não é possível agendar para datas passadas", "Agendamento vazio");
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Agendamento>> validados = ArgumentCaptor.forClass(List.class);
+        verify(validadorReferencias).validar(validados.capture());
+        assertThat(validados.getValue()).hasSize(1);
+    }
+
+    @Test
+    void tudoOuNadaComUmErroNaoGravaNada() {
+        TransactionStatus status = mock(TransactionStatus.class);
+        try (MockedStatic<TransactionAspectSupport> transacao = mockStatic(TransactionAspectSupport.class)) {
+            transacao.when(TransactionAspectSupport::currentTransactionStatus).thenReturn(status);
+
+            AgendamentoLoteResponse resposta = service.criarLote(new AgendamentoLoteRequest(Modo.TUDO_OU_NADA, List.of(
+                    agendamento(1, 9), agendamento(1, 9), agendamento(2, 11))));
+
+            assertThat(resposta.criados()).isZero();
+            assertThat(resposta.itens()).extracting(AgendamentoLoteResponse.Item::resultado).containsExactly(
+                    AgendamentoLoteResponse.NAO_PROCESSADO, AgendamentoLoteResponse.REJEITADO,
+                    AgendamentoLoteResponse.NAO_PROCESSADO);
+        }
+        verify(status).setRollbackOnly();
+        verify(agendamentoJdbcRepository, never()).inserirLote(anyList());
+        verify(outboxService, never()).publicarTodos(anyString(), anyList());
+    }
+
+    @Test
+    void loteVazioOuAcimaDoLimiteERecusado() {
+        assertThatThrownBy(() -> service.criarLote(new AgendamentoLoteRequest(null, List.of())))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> service.criarLote(new AgendamentoLoteRequest(null,
+                Collections.nCopies(6, agendamento(1, 9)))))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("limite de 5");
+    }
+
+    private static List<String> semErros(List<?> itens) {
+        return new ArrayList<>(Collections.nCopies(itens.size(), null));
+    }
+
+    private static Agendamento agendamento(int veiculoId, int hora) {
+        Agendamento agendamento = new Agendamento();
+        agendamento.setClienteId(1);
+        agendamento.setVeiculoId(veiculoId);
+        agendamento.setServicoId(1);
+        agendamento.setDataAgendamento(DIA);
+        agendamento.setHoraInicio(LocalTime.of(hora, 0));
+        return agendamento;
+    }
+}
@@ -0,0 +1,200 @@
+package com.boxpro.service;
+
+import com.boxpro.entity.Agendamento;
+import com.boxpro.event.AgendamentoEvento;
+import com.boxpro.exception.ResourceNotFoundException;
+import com.boxpro.outbox.OutboxService;
+import com.boxpro.repository.AgendamentoJdbcRepository;
+import com.boxpro.repository.AgendamentoRepository;
+import com.boxpro.repository.HistoricoAgendamentoRepository;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * PATCH de agendamento: versão obrigatória, 404 para agendamento ausente e
+ * conflito de versão mesmo quando não há nada a gravar.
+ */
+@ExtendWith(MockitoExtension.class)
+class AgendamentoServiceTest {
+
+    @Mock
+    private AgendamentoRepository agendamentoRepository;
+
+    @Mock
+    private AgendamentoJdbcRepository agendamentoJdbcRepository;
+
+    @Mock
+    private HistoricoAgendamentoRepository historicoRepository;
+
+    @Mock
+    private AtribuicaoFuncionarioService atribuicaoService;
+
+    @Mock
+    private OutboxService outboxService;
+
+    @Mock
+    private ResumoDiarioService resumoDiarioService;
+
+    @Mock
+    private TravaAgendaService travaAgendaService;
+
+    @Mock
+    private ValidadorReferencias validadorReferencias;
+
+    @Mock
+    private CotacaoService cotacaoService;
+
+    @InjectMocks
+    private AgendamentoService service;
+
+    @BeforeEach
+    void preparar() {
+        ReflectionTestUtils.setField(service, "objectMapper", JsonMapper.builder().findAndAddModules().build());
+    }
+
+    @Test
+    void patchGravaSoAsColunasEnviadasCondicionadoAVersao() {
+        Agendamento atualizado = agendamento(5, 4L);
+        when(agendamentoJdbcRepository.atualizarCampos(5, 3L, Map.of("observacoes", "lavar bancos"))).thenReturn(1);
+        when(agendamentoRepository.findById(5)).thenReturn(Optional.of(atualizado));
+
+        Agendamento resultado = service.aplicarPatch(5, 3L, Map.of("observacoes", "lavar bancos"));
+
+        assertThat(resultado).isSameAs(atualizado);
+        verify(outboxService).publicar(AgendamentoEvento.ATUALIZADO, atualizado, null);
+    }
+
+    @Test
+    void versaoDoCorpoValeQuandoNaoHaIfMatch() {
+        when(agendamentoJdbcRepository.atualizarCampos(eq(5), eq(3L), anyMap())).thenReturn(1);
+        when(agendamentoRepository.findById(5)).thenReturn(Optional.of(agendamento(5, 4L)));
+
+        service.aplicarPatch(5, null, Map.of("versao", 3, "observacoes", "x"));
+
+        verify(agendamentoJdbcRepository).atualizarCampos(5, 3L, Map.of("observacoes", "x"));
+    }
+
+    @Test
+    void patchSemVersaoOuComVersaoNaoInteiraERecusado() {
+        assertThatThrownBy(() -> service.aplicarPatch(5, null, Map.of("observacoes", "x")))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> service.aplicarPatch(5, null, Map.of("versao", "3", "observacoes", "x")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("número inteiro");
+        verify(agendamentoJdbcRepository, never()).atualizarCampos(anyInt(), anyLong(), anyMap());
+    }
+
+    @Test
+    void camposCalculadosOuDesconhecidosNaoSaoAceitos() {
+        for (String campo : new String[]{"valorTotal", "horaFim", "status", "versaoX"}) {
+            assertThatThrownBy(() -> service.aplicarPatch(5, 3L, Map.of(campo, "1")))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessageContaining(campo);
+        }
+    }
+
+    @Test
+    void updateSemLinhaEAgendamentoAusenteViraNaoEncontrado() {
+        when(agendamentoJdbcRepository.atualizarCampos(eq(5), eq(3L), anyMap())).thenReturn(0);
+        when(agendamentoJdbcRepository.buscarVersao(5)).thenReturn(null);
+
+        assertThatThrownBy(() -> service.aplicarPatch(5, 3L, Map.of("observacoes", "x")))
+                .isInstanceOf(ResourceNotFoundException.class);
+        verify(outboxService, never()).publicar(any(), any(), any());
+    }
+
+    @Test
+    void updateSemLinhaComAgendamentoExistenteViraConflitoDeVersao() {
+        when(agendamentoJdbcRepository.atualizarCampos(eq(5), eq(3L), anyMap())).thenReturn(0);
+        when(agendamentoJdbcRepository.buscarVersao(5)).thenReturn(4L);
+
+        assertThatThrownBy(() -> service.aplicarPatch(5, 3L, Map.of("observacoes", "x")))
+                .isInstanceOf(OptimisticLockingFailureException.class);
+        verify(outboxService, never()).publicar(any(), any(), any());
+    }
+
+    @Test
+    void campoQuePrecisaDoEstadoConfereVersaoAntesDeTravarAAgenda() {
+        when(agendamentoJdbcRepository.buscarEstado(5)).thenReturn(agendamento(5, 4L));
+
+        assertThatThrownBy(() -> service.aplicarPatch(5, 3L, Map.of("horaInicio", "10:00")))
+                .isInstanceOf(OptimisticLockingFailureException.class);
+        verify(travaAgendaService, never()).travar(any());
+        verify(agendamentoJdbcRepository, never()).atualizarCampos(anyInt(), anyLong(), anyMap());
+    }
+
+    @Test
+    void campoQuePrecisaDoEstadoEmAgendamentoAusenteViraNaoEncontrado() {
+        when(agendamentoJdbcRepository.buscarEstado(5)).thenReturn(null);
+
+        assertThatThrownBy(() -> service.aplicarPatch(5, 3L, Map.of("horaInicio", "10:00")))
+                .isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    @Test
+    void patchSemMudancaAindaConfereAVersao() {
+        Agendamento atual = agendamento(5, 4L);
+        when(agendamentoRepository.findById(5)).thenReturn(Optional.of(atual));
+
+        assertThatThrownBy(() -> service.aplicarPatch(5, 3L, Map.of()))
+                .isInstanceOf(OptimisticLockingFailureException.class);
+        assertThat(service.aplicarPatch(5, 4L, Map.of())).isSameAs(atual);
+        verify(agendamentoJdbcRepository, never()).atualizarCampos(anyInt(), anyLong(), anyMap());
+    }
+
+    @Test
+    void patchComValoresIguaisAosAtuaisNaoGravaMasConfereAVersao() {
+        Agendamento estado = agendamento(5, 4L);
+        when(agendamentoJdbcRepository.buscarEstado(5)).thenReturn(estado);
+        when(agendamentoRepository.findById(5)).thenReturn(Optional.of(estado));
+        Map<String, Object> patch = new HashMap<>();
+        patch.put("horaInicio", "09:00");
+        patch.put("dataAgendamento", "2026-03-10");
+
+        assertThat(service.aplicarPatch(5, 4L, patch)).isSameAs(estado);
+        verify(agendamentoJdbcRepository, never()).atualizarCampos(anyInt(), anyLong(), anyMap());
+        verify(outboxService, never()).publicar(any(), any(), any());
+    }
+
+    @Test
+    void patchSemMudancaEmAgendamentoAusenteViraNaoEncontrado() {
+        when(agendamentoRepository.findById(5)).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> service.aplicarPatch(5, 3L, Map.of("versao", 3)))
+                .isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    private static Agendamento agendamento(int id, long versao) {
+        Agendamento agendamento = new Agendamento();
+        agendamento.setId(id);
+        agendamento.setVersao(versao);
+        agendamento.setServicoId(2);
+        agendamento.setDataAgendamento(LocalDate.of(2026, 3, 10));
+        agendamento.setHoraInicio(LocalTime.of(9, 0));
+        return agendamento;
+    }
+}
@@ -0,0 +1,194 @@
+package com.boxpro.service;
+
+import com.boxpro.dto.request.StatusLoteRequest;
+import com.boxpro.dto.request.StatusLoteRequest.Transicao;
+import com.boxpro.dto.response.StatusLoteResponse;
+import com.boxpro.entity.Agendamento;
+import com.boxpro.entity.enums.StatusAgendamento;
+import com.boxpro.outbox.OutboxService;
+import com.boxpro.repository.AgendamentoJdbcRepository;
+import com.boxpro.repository.AgendamentoJdbcRepository.NovoHistorico;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class AgendamentoStatusLoteServiceTest {
+
+    private static final LocalDate HOJE = LocalDate.of(2026, 3, 10);
+
+    @Mock
+    private AgendamentoJdbcRepository agendamentoJdbcRepository;
+
+    @Mock
+    private AtribuicaoFuncionarioService atribuicaoService;
+
+    @Mock
+    private ResumoDiarioService resumoDiarioService;
+
+    @Mock
+    private OutboxService outboxService;
+
+    @InjectMocks
+    private AgendamentoStatusLoteService service;
+
+    private final Map<Integer, Agendamento> banco = new HashMap<>();
+
+    @BeforeEach
+    void preparar() {
+        ReflectionTestUtils.setField(service, "maxItens", 3);
+    }
+
+    @Test
+    void agrupaTransicoesIguaisEmUmUpdateProtegidoPeloStatusEsperado() {
+        travar(agendamento(1, StatusAgendamento.AGENDADO), agendamento(2, StatusAgendamento.AGENDADO),
+                agendamento(3, StatusAgendamento.AGENDADO));
+        when(agendamentoJdbcRepository.atualizarStatus(List.of(1, 3), StatusAgendamento.AGENDADO,
+                StatusAgendamento.CONCLUIDO, null)).thenReturn(2);
+        when(agendamentoJdbcRepository.atualizarStatus(List.of(2), StatusAgendamento.AGENDADO,
+                StatusAgendamento.CANCELADO, "chuva")).thenReturn(1);
+
+        StatusLoteResponse resposta = service.aplicar(List.of(
+                new Transicao(1, "agendado", "concluido", null),
+                new Transicao(2, null, "cancelado", "chuva"),
+                new Transicao(3, "agendado", "concluido", null)), 7);
+
+        assertThat(resposta.atualizados()).isEqualTo(3);
+        assertThat(resposta.recusados()).isZero();
+        assertThat(resposta.itens()).extracting(StatusLoteResponse.Item::resultado)
+                .containsOnly(StatusLoteResponse.ATUALIZADO);
+        assertThat(banco.get(2).getStatus()).isEqualTo(StatusAgendamento.CANCELADO);
+        assertThat(banco.get(2).getDataCancelamento()).isEqualTo(LocalDate.now());
+        assertThat(banco.get(2).getMotivoCancelamento()).isEqualTo("chuva");
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<NovoHistorico>> historicos = ArgumentCaptor.forClass(List.class);
+        verify(agendamentoJdbcRepository).inserirHistoricos(historicos.capture());
+        assertThat(historicos.getValue()).extracting(NovoHistorico::agendamentoId).containsExactly(1, 3, 2);
+        assertThat(historicos.getValue()).extracting(NovoHistorico::funcionarioId).containsOnly(7);
+        verify(outboxService).publicarTodos(anyString(), anyList());
+    }
+
+    @Test
+    void statusEsperadoDiferenteDoAtualViraConflitoSemUpdate() {
+        travar(agendamento(1, StatusAgendamento.EM_ANDAMENTO));
+
+        StatusLoteResponse resposta = service.aplicar(List.of(
+                new Transicao(1, "agendado", "concluido", null)), 7);
+
+        StatusLoteResponse.Item item = resposta.itens().get(0);
+        assertThat(item.resultado()).isEqualTo(StatusLoteResponse.CONFLITO);
+        assertThat(item.statusAtual()).isEqualTo("em_andamento");
+        assertThat(resposta.recusados()).isEqualTo(1);
+        verify(agendamentoJdbcRepository, never()).atualizarStatus(anyCollection(), any(), any(), any());
+    }
+
+    @Test
+    void cadaItemRecusadoRecebeSeuProprioResultado() {
+        travar(agendamento(1, StatusAgendamento.AGENDADO), agendamento(2, StatusAgendamento.CONCLUIDO));
+        when(agendamentoJdbcRepository.atualizarStatus(List.of(1), StatusAgendamento.AGENDADO,
+                StatusAgendamento.EM_ANDAMENTO, null)).thenReturn(1);
+
+        StatusLoteResponse resposta = service.aplicar(Arrays.asList(
+                new Transicao(1, null, "em_andamento", null),
+                new Transicao(1, null, "concluido", null),
+                new Transicao(2, null, "agendado", null),
+                new Transicao(9, null, "concluido", null),
+                new Transicao(1, null, "pendente", null),
+                null), 7);
+
+        assertThat(resposta.itens()).extracting(StatusLoteResponse.Item::resultado).containsExactly(
+                StatusLoteResponse.ATUALIZADO,
+                StatusLoteResponse.INVALIDO,
+                StatusLoteResponse.INVALIDO,
+                StatusLoteResponse.NAO_ENCONTRADO,
+                StatusLoteResponse.INVALIDO,
+                StatusLoteResponse.INVALIDO);
+        assertThat(resposta.itens().get(1).erro()).contains("repetido");
+        assertThat(resposta.itens().get(2).erro()).contains("não permitida");
+        assertThat(resposta.atualizados()).isEqualTo(1);
+        assertThat(resposta.recusados()).isEqualTo(5);
+    }
+
+    @Test
+    void updateQueAlteraMenosLinhasQueOGrupoAbortaOLote() {
+        travar(agendamento(1, StatusAgendamento.AGENDADO), agendamento(2, StatusAgendamento.AGENDADO));
+        when(agendamentoJdbcRepository.atualizarStatus(List.of(1, 2), StatusAgendamento.AGENDADO,
+                StatusAgendamento.CONCLUIDO, null)).thenReturn(1);
+
+        assertThatThrownBy(() -> service.aplicar(List.of(
+                new Transicao(1, null, "concluido", null),
+                new Transicao(2, null, "concluido", null)), 7))
+                .isInstanceOf(IllegalStateException.class);
+
+        verify(agendamentoJdbcRepository, never()).inserirHistoricos(anyList());
+        verify(outboxService, never()).publicarTodos(anyString(), anyList());
+    }
+
+    @Test
+    void semFuncionarioNaoRegistraAtorNoHistorico() {
+        travar(agendamento(1, StatusAgendamento.AGENDADO));
+        when(agendamentoJdbcRepository.atualizarStatus(List.of(1), StatusAgendamento.AGENDADO,
+                StatusAgendamento.NAO_COMPARECEU, null)).thenReturn(1);
+
+        service.aplicar(List.of(new Transicao(1, null, "nao_compareceu", null)), null);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<NovoHistorico>> historicos = ArgumentCaptor.forClass(List.class);
+        verify(agendamentoJdbcRepository).inserirHistoricos(historicos.capture());
+        assertThat(historicos.getValue().get(0).funcionarioId()).isNull();
+        verify(atribuicaoService).reagendar(eq(HOJE), any(Agendamento.class));
+    }
+
+    @Test
+    void requisicaoSemTransicoesAcimaDoLimiteOuSemFuncionarioERecusada() {
+        Transicao transicao = new Transicao(1, null, "concluido", null);
+
+        assertThatThrownBy(() -> service.aplicar(new StatusLoteRequest(7, List.of())))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> service.aplicar(new StatusLoteRequest(7, Collections.nCopies(4, transicao))))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("limite de 3");
+        assertThatThrownBy(() -> service.aplicar(new StatusLoteRequest(null, List.of(transicao))))
+                .isInstanceOf(IllegalArgumentException.class);
+        verify(agendamentoJdbcRepository, never()).travarParaAtualizacao(anyCollection());
+    }
+
+    private void travar(Agendamento... agendamentos) {
+        for (Agendamento agendamento : agendamentos) {
+            banco.put(agendamento.getId(), agendamento);
+        }
+        when(agendamentoJdbcRepository.travarParaAtualizacao(anyCollection())).thenReturn(banco);
+    }
+
+    private static Agendamento agendamento(int id, StatusAgendamento status) {
+        Agendamento agendamento = new Agendamento();
+        agendamento.setId(id);
+        agendamento.setStatus(status);
+        agendamento.setDataAgendamento(HOJE);
+        return agendamento;
+    }
+}
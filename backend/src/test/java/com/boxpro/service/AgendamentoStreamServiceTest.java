@@ -0,0 +1,191 @@
+package com.boxpro.service;
+
+import com.boxpro.entity.enums.StatusAgendamento;
+import com.boxpro.event.AgendamentoEvento;
+import com.boxpro.multiempresa.BancosEmpresa;
+import com.boxpro.multiempresa.EmpresaContexto;
+import com.boxpro.outbox.EventoPublicado;
+import com.boxpro.outbox.OutboxRelay;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.when;
+
+/**
+ * O emitter não é inicializado por um servlet aqui: o que o serviço envia
+ * fica nos envios antecipados do ResponseBodyEmitter, lidos como texto SSE.
+ */
+class AgendamentoStreamServiceTest {
+
+    private static final LocalDate HOJE = LocalDate.of(2026, 3, 10);
+    private static final Pattern ID = Pattern.compile("id:(\\d+)");
+
+    private final OutboxRelay relay = Mockito.mock(OutboxRelay.class);
+
+    private AgendamentoStreamService service;
+
+    @BeforeEach
+    void preparar() {
+        service = new AgendamentoStreamService(4, 1);
+        ReflectionTestUtils.setField(service, "relay", relay);
+        ReflectionTestUtils.setField(service, "bancos", new BancosEmpresa());
+        ReflectionTestUtils.setField(service, "bufferPorCliente", 16);
+        ReflectionTestUtils.setField(service, "timeoutMs", 60_000L);
+        when(relay.fronteiraInicial(anyLong())).thenReturn(0L);
+    }
+
+    @AfterEach
+    void encerrar() {
+        EmpresaContexto.limpar();
+        service.encerrar();
+    }
+
+    @Test
+    void painelSoRecebeEventosDoSeuDiaComOIdDoOutbox() {
+        SseEmitter painel = service.assinar(HOJE, null);
+
+        service.receber(List.of(evento(1, null, 10, HOJE), evento(2, null, 11, HOJE.plusDays(1)),
+                evento(3, null, 12, HOJE)));
+
+        assertThat(aguardarIds(painel, 2)).containsExactly(1L, 3L);
+        assertThat(texto(painel)).contains("event:CRIADO");
+    }
+
+    @Test
+    void mudancaDeDiaAvisaTambemODiaAnterior() {
+        SseEmitter painel = service.assinar(HOJE, null);
+
+        service.receber(List.of(new EventoPublicado(1, null, new AgendamentoEvento(AgendamentoEvento.ATUALIZADO, 10,
+                HOJE.plusDays(2), HOJE, LocalTime.NOON, StatusAgendamento.AGENDADO, null), "{}", 0)));
+
+        assertThat(aguardarIds(painel, 1)).containsExactly(1L);
+    }
+
+    @Test
+    void painelDeUmaEmpresaNaoVeEventosDeOutra() {
+        EmpresaContexto.definir(1L);
+        SseEmitter painel = service.assinar(HOJE, null);
+
+        service.receber(List.of(evento(1, 2L, 10, HOJE), evento(2, 1L, 11, HOJE)));
+
+        assertThat(aguardarIds(painel, 1)).containsExactly(2L);
+    }
+
+    @Test
+    void lastEventIdNoBufferReenviaOQueChegouDepoisInclusiveLacunas() {
+        // O id 6 chegou depois do 7 (lacuna do outbox recuperada)
+        service.receber(List.of(evento(5, null, 10, HOJE), evento(7, null, 11, HOJE), evento(6, null, 12, HOJE)));
+
+        SseEmitter painel = service.assinar(HOJE, "7");
+
+        assertThat(aguardarIds(painel, 1)).containsExactly(6L);
+    }
+
+    @Test
+    void lastEventIdDeOutroNoReenviaOsIdsMaiores() {
+        service.receber(List.of(evento(5, null, 10, HOJE), evento(8, null, 11, HOJE), evento(9, null, 12, HOJE)));
+
+        SseEmitter painel = service.assinar(HOJE, "6");
+
+        assertThat(aguardarIds(painel, 2)).containsExactly(8L, 9L);
+        assertThat(texto(painel)).doesNotContain("event:reset");
+    }
+
+    @Test
+    void lastEventIdJaDescartadoDoBufferPedeReset() {
+        // Buffer de 4: os ids 1 e 2 são sobrescritos
+        service.receber(List.of(evento(1, null, 10, HOJE), evento(2, null, 11, HOJE), evento(3, null, 12, HOJE),
+                evento(4, null, 13, HOJE), evento(5, null, 14, HOJE), evento(6, null, 15, HOJE)));
+
+        SseEmitter painel = service.assinar(HOJE, "1");
+
+        aguardar(painel, "event:reset");
+        assertThat(ids(painel)).isEmpty();
+    }
+
+    @Test
+    void lastEventIdAnteriorAoInicioDoRelayPedeReset() {
+        when(relay.fronteiraInicial(anyLong())).thenReturn(100L);
+        service.receber(List.of(evento(101, null, 10, HOJE)));
+
+        SseEmitter painel = service.assinar(HOJE, "50");
+
+        aguardar(painel, "event:reset");
+    }
+
+    @Test
+    void conexaoEncerradaDeixaDeReceber() {
+        SseEmitter painel = service.assinar(HOJE, null);
+        assertThat(service.clientesConectados()).isEqualTo(1);
+
+        painel.complete();
+        service.receber(List.of(evento(1, null, 10, HOJE)));
+
+        aguardarDesconexao();
+        assertThat(ids(painel)).isEmpty();
+    }
+
+    private void aguardarDesconexao() {
+        long limite = System.currentTimeMillis() + 2000;
+        while (service.clientesConectados() > 0 && System.currentTimeMillis() < limite) {
+            Thread.onSpinWait();
+        }
+        assertThat(service.clientesConectados()).isZero();
+    }
+
+    private static EventoPublicado evento(long id, Long empresaId, int agendamentoId, LocalDate data) {
+        return new EventoPublicado(id, empresaId, new AgendamentoEvento(AgendamentoEvento.CRIADO, agendamentoId,
+                data, null, LocalTime.NOON, StatusAgendamento.AGENDADO, null), "{}", 0);
+    }
+
+    private static List<Long> aguardarIds(SseEmitter emitter, int quantidade) {
+        long limite = System.currentTimeMillis() + 2000;
+        while (ids(emitter).size() < quantidade && System.currentTimeMillis() < limite) {
+            Thread.onSpinWait();
+        }
+        return ids(emitter);
+    }
+
+    private static void aguardar(SseEmitter emitter, String trecho) {
+        long limite = System.currentTimeMillis() + 2000;
+        while (!texto(emitter).contains(trecho) && System.currentTimeMillis() < limite) {
+            Thread.onSpinWait();
+        }
+        assertThat(texto(emitter)).contains(trecho);
+    }
+
+    private static List<Long> ids(SseEmitter emitter) {
+        List<Long> ids = new ArrayList<>();
+        Matcher matcher = ID.matcher(texto(emitter));
+        while (matcher.find()) {
+            ids.add(Long.parseLong(matcher.group(1)));
+        }
+        return ids;
+    }
+
+    private static String texto(SseEmitter emitter) {
+        StringBuilder texto = new StringBuilder();
+        synchronized (emitter) {
+            @SuppressWarnings("unchecked")
+            Set<ResponseBodyEmitter.DataWithMediaType> enviados =
+                    (Set<ResponseBodyEmitter.DataWithMediaType>) ReflectionTestUtils.getField(emitter, "earlySendAttempts");
+            enviados.forEach(d -> texto.append(d.getData()));
+        }
+        return texto.toString();
+    }
+}